@@ -0,0 +1,38 @@
+package com.huongcung.businessmanagement.admin.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+@ConfigurationProperties(prefix = "catalog.import")
+@Getter
+@Setter
+public class CatalogImportConfig {
+    private int chunkSize = 200; // rows per transaction; a failed chunk is retried row by row
+    private int imageUploadConcurrency = 8;
+    private int maxReportedErrors = 1000;
+    
+    /**
+     * Executor for the image uploads of bulk imports
+     * When the queue is full the importing thread uploads itself, which throttles reading the file
+     */
+    @Bean(name = "catalogImageUploadExecutor")
+    public Executor catalogImageUploadExecutor() {
+        int threads = Math.max(1, imageUploadConcurrency);
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 4);
+        executor.setThreadNamePrefix("catalog-image-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
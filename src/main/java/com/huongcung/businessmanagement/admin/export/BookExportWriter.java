@@ -0,0 +1,166 @@
+package com.huongcung.businessmanagement.admin.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.core.product.model.dto.BookExportLine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes streamed books to a catalog export response
+ * Each book is written as it arrives and not kept, so memory use does not depend on the size of
+ * the catalog.
+ *
+ * Call {@link #finish} after the last book; the output stream is flushed but not closed.
+ */
+public abstract class BookExportWriter implements Consumer<BookExportLine> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private long bookCount;
+
+    /**
+     * CSV with a header row and one row per book; authors, translators and genres are separated by "|"
+     */
+    public static BookExportWriter csv(OutputStream outputStream) {
+        return new CsvWriter(outputStream);
+    }
+
+    /**
+     * One JSON object per book and line
+     */
+    public static BookExportWriter jsonl(OutputStream outputStream, ObjectMapper objectMapper) {
+        try {
+            return new JsonlWriter(objectMapper.getFactory().createGenerator(outputStream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(BookExportLine book) {
+        try {
+            write(book);
+            bookCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Number of books written so far
+     */
+    public long getBookCount() {
+        return bookCount;
+    }
+
+    protected abstract void write(BookExportLine book) throws IOException;
+
+    public abstract void finish() throws IOException;
+
+    private static final class CsvWriter extends BookExportWriter {
+
+        private static final String HEADER = "id,code,title,book_type,language,publication_date,page_count,edition," +
+                "active,publisher,authors,translators,genres,current_price,isbn,cover_type,file_format," +
+                "stock_quantity,reserved_quantity,created_at,updated_at\n";
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream outputStream) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            try {
+                writer.write(HEADER);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        protected void write(BookExportLine book) throws IOException {
+            writer.write(String.valueOf(book.id()));
+            writeText(book.code());
+            writeText(book.title());
+            writeText(book.bookType());
+            writeText(book.language());
+            writeValue(book.publicationDate());
+            writeValue(book.pageCount());
+            writeValue(book.edition());
+            writeValue(book.active());
+            writeText(book.publisher());
+            writeList(book.authors());
+            writeList(book.translators());
+            writeList(book.genres());
+            writeAmount(book.currentPrice());
+            writeText(book.isbn());
+            writeText(book.coverType());
+            writeText(book.fileFormat());
+            writeValue(book.stockQuantity());
+            writeValue(book.reservedQuantity());
+            writeValue(book.createdAt());
+            writeValue(book.updatedAt());
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeValue(Object value) throws IOException {
+            writer.write(',');
+            if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+
+        private void writeAmount(BigDecimal value) throws IOException {
+            writer.write(',');
+            if (value != null) {
+                writer.write(value.toPlainString());
+            }
+        }
+
+        private void writeText(String value) throws IOException {
+            writer.write(',');
+            if (value != null) {
+                writer.write(OrderExportWriter.escape(value));
+            }
+        }
+
+        private void writeList(List<String> values) throws IOException {
+            writeText(values.isEmpty() ? null : String.join("|", values));
+        }
+    }
+
+    private static final class JsonlWriter extends BookExportWriter {
+
+        private final JsonGenerator generator;
+
+        JsonlWriter(JsonGenerator generator) {
+            this.generator = generator;
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Books are separated by the newline written after each one
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        protected void write(BookExportLine book) throws IOException {
+            generator.writeObject(book);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+}
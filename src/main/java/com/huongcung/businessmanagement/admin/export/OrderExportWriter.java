@@ -0,0 +1,241 @@
+package com.huongcung.businessmanagement.admin.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.core.order.model.dto.OrderExportLine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Writes streamed order lines to an export response
+ * Lines must arrive with the lines of an order next to each other, as OrderExportService
+ * streams them. Only the current line (and for NDJSON the current order's id) is held, so
+ * memory use does not depend on the size of the export.
+ *
+ * Call {@link #finish} after the last line; the output stream is flushed but not closed.
+ */
+public abstract class OrderExportWriter implements Consumer<OrderExportLine> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private long orderCount;
+
+    /**
+     * CSV with a header row and one row per order entry, order columns repeated on every row
+     */
+    public static OrderExportWriter csv(OutputStream outputStream) {
+        return new CsvWriter(outputStream);
+    }
+
+    /**
+     * One JSON object per order and line, with the order's entries in a lines array
+     */
+    public static OrderExportWriter ndjson(OutputStream outputStream, ObjectMapper objectMapper) {
+        try {
+            return new NdjsonWriter(objectMapper.getFactory().createGenerator(outputStream));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void accept(OrderExportLine line) {
+        try {
+            write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Number of orders written so far
+     */
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    protected void countOrder() {
+        orderCount++;
+    }
+
+    protected abstract void write(OrderExportLine line) throws IOException;
+
+    public abstract void finish() throws IOException;
+
+    private static final class CsvWriter extends OrderExportWriter {
+
+        private static final String HEADER = "order_id,order_number,created_at,status,payment_status,payment_method," +
+                "customer_id,subtotal,tax_amount,shipping_amount,discount_amount,total_amount," +
+                "entry_id,book_code,book_title,item_type,quantity,unit_price,total_price\n";
+
+        private final Writer writer;
+        private Long currentOrderId;
+
+        CsvWriter(OutputStream outputStream) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            try {
+                writer.write(HEADER);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        protected void write(OrderExportLine line) throws IOException {
+            if (!Objects.equals(line.orderId(), currentOrderId)) {
+                currentOrderId = line.orderId();
+                countOrder();
+            }
+            writer.write(String.valueOf(line.orderId()));
+            writeText(line.orderNumber());
+            writeValue(line.createdAt());
+            writeText(line.status());
+            writeText(line.paymentStatus());
+            writeText(line.paymentMethod());
+            writeValue(line.customerId());
+            writeAmount(line.subtotal());
+            writeAmount(line.taxAmount());
+            writeAmount(line.shippingAmount());
+            writeAmount(line.discountAmount());
+            writeAmount(line.totalAmount());
+            writeValue(line.entryId());
+            writeText(line.bookCode());
+            writeText(line.bookTitle());
+            writeText(line.itemType());
+            writeValue(line.quantity());
+            writeAmount(line.unitPrice());
+            writeAmount(line.totalPrice());
+            writer.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private void writeValue(Object value) throws IOException {
+            writer.write(',');
+            if (value != null) {
+                writer.write(value.toString());
+            }
+        }
+
+        private void writeAmount(BigDecimal value) throws IOException {
+            writer.write(',');
+            if (value != null) {
+                writer.write(value.toPlainString());
+            }
+        }
+
+        private void writeText(String value) throws IOException {
+            writer.write(',');
+            if (value != null) {
+                writer.write(escape(value));
+            }
+        }
+    }
+
+    /**
+     * Quote a CSV field when needed, and keep spreadsheets from evaluating it as a formula
+     */
+    static String escape(String value) {
+        String text = value;
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        return quote ? '"' + text.replace("\"", "\"\"") + '"' : text;
+    }
+
+    private static final class NdjsonWriter extends OrderExportWriter {
+
+        private final JsonGenerator generator;
+        private Long currentOrderId;
+
+        NdjsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Orders are separated by the newline written after each one
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        protected void write(OrderExportLine line) throws IOException {
+            if (!Objects.equals(line.orderId(), currentOrderId)) {
+                endOrder();
+                startOrder(line);
+            }
+            if (line.entryId() == null) {
+                return;
+            }
+            generator.writeStartObject();
+            generator.writeNumberField("id", line.entryId());
+            generator.writeStringField("bookCode", line.bookCode());
+            generator.writeStringField("bookTitle", line.bookTitle());
+            generator.writeStringField("itemType", line.itemType());
+            writeNumberField("quantity", line.quantity() != null ? BigDecimal.valueOf(line.quantity()) : null);
+            writeNumberField("unitPrice", line.unitPrice());
+            writeNumberField("totalPrice", line.totalPrice());
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            endOrder();
+            generator.flush();
+        }
+
+        private void startOrder(OrderExportLine line) throws IOException {
+            currentOrderId = line.orderId();
+            countOrder();
+            generator.writeStartObject();
+            generator.writeNumberField("id", line.orderId());
+            generator.writeStringField("orderNumber", line.orderNumber());
+            generator.writeStringField("createdAt", line.createdAt() != null ? line.createdAt().toString() : null);
+            generator.writeStringField("status", line.status());
+            generator.writeStringField("paymentStatus", line.paymentStatus());
+            generator.writeStringField("paymentMethod", line.paymentMethod());
+            if (line.customerId() != null) {
+                generator.writeNumberField("customerId", line.customerId());
+            } else {
+                generator.writeNullField("customerId");
+            }
+            writeNumberField("subtotal", line.subtotal());
+            writeNumberField("taxAmount", line.taxAmount());
+            writeNumberField("shippingAmount", line.shippingAmount());
+            writeNumberField("discountAmount", line.discountAmount());
+            writeNumberField("totalAmount", line.totalAmount());
+            generator.writeArrayFieldStart("lines");
+        }
+
+        private void endOrder() throws IOException {
+            if (currentOrderId != null) {
+                generator.writeEndArray();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                currentOrderId = null;
+            }
+        }
+
+        private void writeNumberField(String name, BigDecimal value) throws IOException {
+            if (value != null) {
+                generator.writeNumberField(name, value);
+            } else {
+                generator.writeNullField(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.huongcung.businessmanagement.admin.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.huongcung.businessmanagement.admin.model.BookImportRow;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the books of a bulk catalog import one at a time
+ * Only the current row is held, so files of any size can be read. A row that cannot be parsed is
+ * returned with an error instead of failing the whole file.
+ *
+ * CSV files start with a header row naming BookImportRow fields, in camelCase or snake_case and in
+ * any order; list columns are separated by "|". JSONL files hold one BookImportRow object per line.
+ */
+public abstract class BookImportReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char BOM = '\uFEFF';
+
+    protected final BufferedReader reader;
+    protected final ObjectMapper objectMapper;
+
+    // Number of line breaks read so far
+    protected long lineNumber;
+
+    protected BookImportReader(InputStream inputStream, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * RFC 4180 CSV with a header row
+     *
+     * @throws IllegalArgumentException if the header is missing or names an unknown column
+     */
+    public static BookImportReader csv(InputStream inputStream, ObjectMapper objectMapper) throws IOException {
+        return new CsvReader(inputStream, objectMapper);
+    }
+
+    /**
+     * One JSON object per line; blank lines are skipped
+     */
+    public static BookImportReader jsonl(InputStream inputStream, ObjectMapper objectMapper) {
+        return new JsonlReader(inputStream, objectMapper);
+    }
+
+    /**
+     * Read the next row
+     *
+     * @return the row, or null after the last one
+     */
+    public abstract Row next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * A row of the file: the book, or why it could not be read
+     *
+     * @param line line of the file where the row starts
+     */
+    public record Row(long line, BookImportRow book, String error) {
+    }
+
+    static String describe(JsonProcessingException e) {
+        String message = e.getOriginalMessage();
+        if (e instanceof JsonMappingException mappingException && !mappingException.getPath().isEmpty()) {
+            String field = mappingException.getPath().get(mappingException.getPath().size() - 1).getFieldName();
+            if (field != null) {
+                return "Invalid " + field + ": " + message;
+            }
+        }
+        return message;
+    }
+
+    private static final class JsonlReader extends BookImportReader {
+
+        private final ObjectReader rowReader;
+
+        JsonlReader(InputStream inputStream, ObjectMapper objectMapper) {
+            super(inputStream, objectMapper);
+            this.rowReader = objectMapper.readerFor(BookImportRow.class);
+        }
+
+        @Override
+        public Row next() throws IOException {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && !text.isEmpty() && text.charAt(0) == BOM) {
+                    text = text.substring(1);
+                }
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Row(lineNumber, rowReader.readValue(text), null);
+                } catch (JsonProcessingException e) {
+                    return new Row(lineNumber, null, describe(e));
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class CsvReader extends BookImportReader {
+
+        private static final Set<String> LIST_COLUMNS = Set.of("authors", "translators", "genres", "images");
+
+        // BookImportRow fields by lowercase name
+        private static final Map<String, String> FIELDS = new HashMap<>();
+
+        static {
+            for (Field field : BookImportRow.class.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    FIELDS.put(field.getName().toLowerCase(Locale.ROOT), field.getName());
+                }
+            }
+        }
+
+        private final String[] columns;
+        private boolean unterminated;
+
+        CsvReader(InputStream inputStream, ObjectMapper objectMapper) throws IOException {
+            super(inputStream, objectMapper);
+            List<String> header = readRecord();
+            if (header == null || unterminated) {
+                throw new IllegalArgumentException("CSV header row is missing");
+            }
+            columns = new String[header.size()];
+            for (int i = 0; i < columns.length; i++) {
+                String name = header.get(i).trim();
+                if (i == 0 && !name.isEmpty() && name.charAt(0) == BOM) {
+                    name = name.substring(1);
+                }
+                columns[i] = FIELDS.get(name.replace("_", "").toLowerCase(Locale.ROOT));
+                if (columns[i] == null) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + name);
+                }
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> fields;
+            long line;
+            do {
+                line = lineNumber + 1;
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank() && !unterminated);
+
+            if (unterminated) {
+                return new Row(line, null, "Quoted field is not terminated");
+            }
+            if (fields.size() > columns.length) {
+                return new Row(line, null, "Row has " + fields.size() + " columns, header has " + columns.length);
+            }
+
+            Map<String, Object> values = new LinkedHashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).trim();
+                if (value.isEmpty()) {
+                    continue;
+                }
+                String column = columns[i];
+                if (LIST_COLUMNS.contains(column)) {
+                    List<Object> items = new ArrayList<>();
+                    for (String item : value.split("\\|")) {
+                        if (!item.isBlank()) {
+                            items.add("images".equals(column) ? Map.of("base64Data", item.trim()) : item.trim());
+                        }
+                    }
+                    values.put(column, items);
+                } else {
+                    values.put(column, value);
+                }
+            }
+
+            try {
+                return new Row(line, objectMapper.convertValue(values, BookImportRow.class), null);
+            } catch (IllegalArgumentException e) {
+                String message = e.getCause() instanceof JsonProcessingException cause ? describe(cause) : e.getMessage();
+                return new Row(line, null, message);
+            }
+        }
+
+        /**
+         * Read the fields of the next record, which may span lines inside quotes
+         *
+         * @return the fields, or null at the end of the file
+         */
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                read = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    lineNumber++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            unterminated = quoted;
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
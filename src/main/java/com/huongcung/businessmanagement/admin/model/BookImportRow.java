@@ -0,0 +1,55 @@
+package com.huongcung.businessmanagement.admin.model;
+
+import com.huongcung.core.common.enumeration.Language;
+import com.huongcung.core.product.enumeration.CoverType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One book of a bulk catalog import
+ * Same fields as BookCreateRequest, except that contributors and genres are given by name:
+ * authors, translators and publishers that do not exist yet are created, genres must exist.
+ * In CSV files, list columns are separated by "|".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportRow {
+    
+    private String title;
+    private String description;
+    private Language language;
+    private LocalDate publicationDate;
+    private Integer pageCount;
+    private Integer edition;
+    private String bookType; // "PHYSICAL" or "EBOOK"
+    
+    private List<String> authors;
+    private List<String> translators;
+    private String publisher;
+    private List<String> genres;
+    
+    // PhysicalBookEntity specific fields
+    private String isbn;
+    private CoverType coverType;
+    private Double weightGrams;
+    private String dimensions;
+    private BigDecimal currentPrice;
+    
+    // EbookEntity specific fields
+    private String fileUrl;
+    private String fileName;
+    private Long fileSize;
+    private String fileFormat;
+    
+    private Boolean hasPhysicalEdition;
+    private Boolean hasElectricEdition;
+    
+    // Images to upload (Base64 encoded); a CSV column holds only the data of each image
+    private List<BookImageData> images;
+}
@@ -0,0 +1,44 @@
+package com.huongcung.businessmanagement.admin.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a bulk catalog import
+ * Rows fail individually; the other rows of the file are still imported.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportResult {
+    
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    
+    private long authorsCreated;
+    private long translatorsCreated;
+    private long publishersCreated;
+    private long imagesUploaded;
+    private long booksIndexed;
+    
+    private long durationMs;
+    private double rowsPerSecond;
+    
+    // The first failures only, see catalog.import.max-reported-errors
+    private List<RowError> errors;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line; // line of the file where the row starts
+        private String title;
+        private String message;
+    }
+}
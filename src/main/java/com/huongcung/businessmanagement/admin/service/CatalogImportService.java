@@ -0,0 +1,23 @@
+package com.huongcung.businessmanagement.admin.service;
+
+import com.huongcung.businessmanagement.admin.importer.BookImportReader;
+import com.huongcung.businessmanagement.admin.model.CatalogImportResult;
+
+import java.io.IOException;
+
+/**
+ * Service interface for bulk catalog imports
+ */
+public interface CatalogImportService {
+    
+    /**
+     * Import every book of a file
+     * Rows are written in chunks with batched inserts; authors, translators and publishers are
+     * looked up by name and created when missing. The imported books are indexed once at the end.
+     * 
+     * @param reader the rows to import
+     * @return counts, throughput and the rows that failed
+     * @throws IOException if the file cannot be read
+     */
+    CatalogImportResult importBooks(BookImportReader reader) throws IOException;
+}
@@ -0,0 +1,512 @@
+package com.huongcung.businessmanagement.admin.service.impl;
+
+import com.huongcung.businessmanagement.admin.config.CatalogImportConfig;
+import com.huongcung.businessmanagement.admin.importer.BookImportReader;
+import com.huongcung.businessmanagement.admin.model.BookImageData;
+import com.huongcung.businessmanagement.admin.model.BookImportRow;
+import com.huongcung.businessmanagement.admin.model.CatalogImportResult;
+import com.huongcung.businessmanagement.admin.service.CatalogImportService;
+import com.huongcung.core.common.model.entity.BaseEntity;
+import com.huongcung.core.contributor.model.entity.AuthorEntity;
+import com.huongcung.core.contributor.model.entity.PublisherEntity;
+import com.huongcung.core.contributor.model.entity.TranslatorEntity;
+import com.huongcung.core.contributor.repository.AuthorRepository;
+import com.huongcung.core.contributor.repository.PublisherRepository;
+import com.huongcung.core.contributor.repository.TranslatorRepository;
+import com.huongcung.core.media.model.entity.BookImageEntity;
+import com.huongcung.core.media.service.ImageService;
+import com.huongcung.core.product.model.entity.AbstractBookEntity;
+import com.huongcung.core.product.model.entity.EbookEntity;
+import com.huongcung.core.product.model.entity.GenreEntity;
+import com.huongcung.core.product.model.entity.PhysicalBookEntity;
+import com.huongcung.core.product.repository.GenreRepository;
+import com.huongcung.core.search.listener.BookEntityListener;
+import com.huongcung.core.search.service.SearchIndexService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Bulk catalog import
+ * Rows are read one at a time and written in chunks, one transaction per chunk:
+ * <ol>
+ *   <li>images of the chunk are uploaded in parallel, before the transaction</li>
+ *   <li>contributor and genre names missing from the import's name cache are looked up with one
+ *       query per kind, and missing authors, translators and publishers are created</li>
+ *   <li>books and image rows are persisted and flushed as JDBC batches (ids come from the pooled
+ *       table generator), then the persistence context is cleared</li>
+ * </ol>
+ * A chunk that fails is retried row by row, so a bad row only fails itself. Book events are
+ * suppressed while writing; the imported books are indexed in one batched Solr pass at the end.
+ *
+ * Admin listing counts cached by CatalogServiceImpl expire on their own after
+ * catalog.admin-listing.count-cache-ttl-ms.
+ */
+@Service
+@Slf4j
+public class CatalogImportServiceImpl implements CatalogImportService {
+
+    private static final String IMAGE_FOLDER = "images/";
+    private static final int MAX_TITLE_LENGTH = 500;
+
+    private final AuthorRepository authorRepository;
+    private final TranslatorRepository translatorRepository;
+    private final PublisherRepository publisherRepository;
+    private final GenreRepository genreRepository;
+    private final ImageService imageService;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogImportConfig config;
+    private final Executor imageExecutor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Optional: SearchIndexService may not be available
+    @Autowired(required = false)
+    private SearchIndexService searchIndexService;
+
+    public CatalogImportServiceImpl(AuthorRepository authorRepository,
+                                    TranslatorRepository translatorRepository,
+                                    PublisherRepository publisherRepository,
+                                    GenreRepository genreRepository,
+                                    ImageService imageService,
+                                    TransactionTemplate transactionTemplate,
+                                    CatalogImportConfig config,
+                                    @Qualifier("catalogImageUploadExecutor") Executor imageExecutor) {
+        this.authorRepository = authorRepository;
+        this.translatorRepository = translatorRepository;
+        this.publisherRepository = publisherRepository;
+        this.genreRepository = genreRepository;
+        this.imageService = imageService;
+        this.transactionTemplate = transactionTemplate;
+        this.config = config;
+        this.imageExecutor = imageExecutor;
+    }
+
+    @Override
+    public CatalogImportResult importBooks(BookImportReader reader) throws IOException {
+        long started = System.currentTimeMillis();
+        ImportRun run = new ImportRun(config.getMaxReportedErrors());
+        int chunkSize = Math.max(1, config.getChunkSize());
+
+        List<BookImportReader.Row> chunk = new ArrayList<>(chunkSize);
+        BookImportReader.Row row;
+        while ((row = reader.next()) != null) {
+            run.totalRows++;
+            String invalid = row.error() != null ? row.error() : validate(row.book());
+            if (invalid != null) {
+                run.fail(row, invalid);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                importChunk(chunk, run);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, run);
+        }
+
+        long booksIndexed = 0;
+        if (searchIndexService != null && !run.bookIds.isEmpty()) {
+            try {
+                booksIndexed = searchIndexService.indexBooks(run.bookIds).getIndexedCount();
+            } catch (Exception e) {
+                log.warn("Failed to index imported books: {}", e.getMessage());
+            }
+        }
+
+        long durationMs = System.currentTimeMillis() - started;
+        double rowsPerSecond = run.totalRows * 1000.0 / Math.max(1, durationMs);
+        log.info("Imported {} of {} rows ({} failed, {} authors, {} translators and {} publishers created, " +
+                        "{} images, {} indexed) in {}ms ({} rows/sec)",
+                run.bookIds.size(), run.totalRows, run.failedRows, run.authors.created, run.translators.created,
+                run.publishers.created, run.imagesUploaded, booksIndexed, durationMs, Math.round(rowsPerSecond));
+
+        return CatalogImportResult.builder()
+                .totalRows(run.totalRows)
+                .importedRows(run.bookIds.size())
+                .failedRows(run.failedRows)
+                .authorsCreated(run.authors.created)
+                .translatorsCreated(run.translators.created)
+                .publishersCreated(run.publishers.created)
+                .imagesUploaded(run.imagesUploaded)
+                .booksIndexed(booksIndexed)
+                .durationMs(durationMs)
+                .rowsPerSecond(rowsPerSecond)
+                .errors(run.errors)
+                .build();
+    }
+
+    /**
+     * Check a row the way createBook checks a request
+     *
+     * @return why the row is invalid, or null
+     */
+    private static String validate(BookImportRow book) {
+        if (!StringUtils.hasText(book.getTitle())) {
+            return "Title is required";
+        }
+        if (book.getTitle().length() > MAX_TITLE_LENGTH) {
+            return "Title must not exceed " + MAX_TITLE_LENGTH + " characters";
+        }
+        if (book.getLanguage() == null) {
+            return "Language is required";
+        }
+        if (CollectionUtils.isEmpty(book.getAuthors()) || book.getAuthors().stream().noneMatch(StringUtils::hasText)) {
+            return "At least one author is required";
+        }
+        if (!"PHYSICAL".equalsIgnoreCase(book.getBookType()) && !"EBOOK".equalsIgnoreCase(book.getBookType())) {
+            return "Book type must be either PHYSICAL or EBOOK";
+        }
+        if (book.getImages() != null && book.getImages().stream()
+                .anyMatch(image -> image == null || !StringUtils.hasText(image.getBase64Data()))) {
+            return "Image data is required";
+        }
+        return null;
+    }
+
+    private void importChunk(List<BookImportReader.Row> rows, ImportRun run) {
+        Map<BookImportReader.Row, List<UploadedImage>> images = uploadImages(rows, run);
+        List<BookImportReader.Row> uploaded = new ArrayList<>(images.keySet());
+        if (uploaded.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeChunk(uploaded, images, run);
+        } catch (RuntimeException e) {
+            if (uploaded.size() == 1) {
+                run.fail(uploaded.get(0), errorMessage(e));
+                return;
+            }
+            log.warn("Import of a chunk of {} rows failed, retrying row by row: {}", uploaded.size(), errorMessage(e));
+            for (BookImportReader.Row row : uploaded) {
+                try {
+                    writeChunk(List.of(row), images, run);
+                } catch (RuntimeException rowException) {
+                    run.fail(row, errorMessage(rowException));
+                }
+            }
+        }
+    }
+
+    /**
+     * Upload the images of all rows of a chunk in parallel
+     * A row whose upload fails is reported and left out of the result.
+     *
+     * @return uploaded images per row, in the order of the chunk
+     */
+    private Map<BookImportReader.Row, List<UploadedImage>> uploadImages(List<BookImportReader.Row> rows, ImportRun run) {
+        Map<BookImportReader.Row, List<CompletableFuture<UploadedImage>>> uploads = new LinkedHashMap<>();
+        for (BookImportReader.Row row : rows) {
+            List<CompletableFuture<UploadedImage>> futures = new ArrayList<>();
+            List<BookImageData> images = row.book().getImages();
+            for (int i = 0; images != null && i < images.size(); i++) {
+                BookImageData image = images.get(i);
+                int position = image.getPosition() != null && image.getPosition() > 0 ? image.getPosition() : i + 1;
+                String fileName = StringUtils.hasText(image.getFileName()) ? image.getFileName() : "image_" + position + ".jpg";
+                String altText = image.getAltText() != null ? image.getAltText() : fileName;
+                futures.add(CompletableFuture.supplyAsync(() -> new UploadedImage(
+                        imageService.saveImageFromBase64(image.getBase64Data(), fileName, IMAGE_FOLDER), altText, position),
+                        imageExecutor));
+            }
+            uploads.put(row, futures);
+        }
+
+        Map<BookImportReader.Row, List<UploadedImage>> images = new LinkedHashMap<>();
+        uploads.forEach((row, futures) -> {
+            try {
+                images.put(row, futures.stream().map(CompletableFuture::join).toList());
+                run.imagesUploaded += futures.size();
+            } catch (CompletionException e) {
+                // Images of the row that did upload stay in storage unreferenced
+                run.fail(row, "Image upload failed: " + errorMessage(e));
+            }
+        });
+        return images;
+    }
+
+    /**
+     * Write rows in one transaction without publishing book events
+     * Names resolved or created in the transaction are only kept once it commits.
+     */
+    private void writeChunk(List<BookImportReader.Row> rows, Map<BookImportReader.Row, List<UploadedImage>> images,
+                            ImportRun run) {
+        try {
+            ChunkResult result = BookEntityListener.withoutEvents(
+                    () -> transactionTemplate.execute(status -> persistRows(rows, images, run)));
+            run.commitNames();
+            run.bookIds.addAll(result.bookIds());
+            result.rejected().forEach(run::fail);
+        } catch (RuntimeException e) {
+            run.discardNames();
+            throw e;
+        }
+    }
+
+    private ChunkResult persistRows(List<BookImportReader.Row> rows, Map<BookImportReader.Row, List<UploadedImage>> images,
+                                    ImportRun run) {
+        try {
+            resolve(run.genres, rows, BookImportRow::getGenres, genreRepository::findByNameIn, GenreEntity::getName, null);
+            resolve(run.authors, rows, BookImportRow::getAuthors, authorRepository::findByNameIn, AuthorEntity::getName,
+                    name -> {
+                        AuthorEntity author = new AuthorEntity();
+                        author.setName(name);
+                        return author;
+                    });
+            resolve(run.translators, rows, BookImportRow::getTranslators, translatorRepository::findByNameIn,
+                    TranslatorEntity::getName, name -> {
+                        TranslatorEntity translator = new TranslatorEntity();
+                        translator.setName(name);
+                        return translator;
+                    });
+            resolve(run.publishers, rows, book -> book.getPublisher() != null ? List.of(book.getPublisher()) : null,
+                    publisherRepository::findByNameIn, PublisherEntity::getName, name -> {
+                        PublisherEntity publisher = new PublisherEntity();
+                        publisher.setName(name);
+                        return publisher;
+                    });
+
+            List<Long> bookIds = new ArrayList<>(rows.size());
+            Map<BookImportReader.Row, String> rejected = new LinkedHashMap<>();
+            for (BookImportReader.Row row : rows) {
+                BookImportRow data = row.book();
+                List<String> unknownGenres = names(data.getGenres()).stream()
+                        .filter(name -> run.genres.get(name) == null)
+                        .toList();
+                if (!unknownGenres.isEmpty()) {
+                    rejected.put(row, "Genre not found: " + String.join(", ", unknownGenres));
+                    continue;
+                }
+
+                AbstractBookEntity book = newBook(data);
+                book.setAuthors(references(AuthorEntity.class, run.authors, data.getAuthors()));
+                book.setTranslators(references(TranslatorEntity.class, run.translators, data.getTranslators()));
+                book.setGenres(references(GenreEntity.class, run.genres, data.getGenres()));
+                if (StringUtils.hasText(data.getPublisher())) {
+                    book.setPublisher(entityManager.getReference(PublisherEntity.class, run.publishers.get(data.getPublisher())));
+                }
+                entityManager.persist(book);
+
+                for (UploadedImage image : images.get(row)) {
+                    BookImageEntity bookImage = new BookImageEntity();
+                    bookImage.setBook(book);
+                    bookImage.setUrl(image.url());
+                    bookImage.setAltText(image.altText());
+                    bookImage.setPosition(image.position());
+                    entityManager.persist(bookImage);
+                }
+                bookIds.add(book.getId());
+            }
+
+            // Inserts go out here in batches of hibernate.jdbc.batch_size
+            entityManager.flush();
+            return new ChunkResult(bookIds, rejected);
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Find the names of the rows that are not cached yet with one query, creating the missing ones
+     *
+     * @param creator creates a new entity for a name, or null to leave unknown names unresolved
+     */
+    private <E extends BaseEntity> void resolve(NameIds ids, List<BookImportReader.Row> rows,
+                                                Function<BookImportRow, List<String>> namesOf,
+                                                Function<Collection<String>, List<E>> finder,
+                                                Function<E, String> nameOf,
+                                                Function<String, E> creator) {
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (BookImportReader.Row row : rows) {
+            for (String name : names(namesOf.apply(row.book()))) {
+                if (ids.get(name) == null) {
+                    missing.putIfAbsent(NameIds.key(name), name);
+                }
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        for (E entity : finder.apply(missing.values())) {
+            if (missing.remove(NameIds.key(nameOf.apply(entity))) != null) {
+                ids.put(nameOf.apply(entity), entity.getId(), false);
+            }
+        }
+        if (creator != null) {
+            for (String name : missing.values()) {
+                E entity = creator.apply(name);
+                entityManager.persist(entity);
+                ids.put(name, entity.getId(), true);
+            }
+        }
+    }
+
+    private <E> List<E> references(Class<E> type, NameIds ids, List<String> names) {
+        List<E> references = new ArrayList<>();
+        for (String name : names(names)) {
+            references.add(entityManager.getReference(type, ids.get(name)));
+        }
+        return references;
+    }
+
+    private static List<String> names(List<String> names) {
+        if (names == null) {
+            return List.of();
+        }
+        Map<String, String> distinct = new LinkedHashMap<>();
+        for (String name : names) {
+            if (StringUtils.hasText(name)) {
+                distinct.putIfAbsent(NameIds.key(name), name.trim());
+            }
+        }
+        return new ArrayList<>(distinct.values());
+    }
+
+    private static AbstractBookEntity newBook(BookImportRow data) {
+        AbstractBookEntity book;
+        if ("PHYSICAL".equalsIgnoreCase(data.getBookType())) {
+            PhysicalBookEntity physicalBook = new PhysicalBookEntity();
+            physicalBook.setIsbn(data.getIsbn());
+            physicalBook.setCoverType(data.getCoverType());
+            physicalBook.setWeightGrams(data.getWeightGrams());
+            physicalBook.setDimensions(data.getDimensions());
+            physicalBook.setCurrentPrice(data.getCurrentPrice());
+            book = physicalBook;
+        } else {
+            EbookEntity ebook = new EbookEntity();
+            ebook.setFileUrl(data.getFileUrl());
+            ebook.setFileName(data.getFileName());
+            ebook.setFileSize(data.getFileSize());
+            ebook.setFileFormat(data.getFileFormat());
+            ebook.setDownloadCount(0);
+            ebook.setCurrentPrice(data.getCurrentPrice());
+            ebook.setIsActive(true);
+            book = ebook;
+        }
+
+        book.setCode(CatalogServiceImpl.generateBookCode(data.getTitle()));
+        book.setTitle(data.getTitle());
+        book.setDescription(data.getDescription());
+        book.setLanguage(data.getLanguage());
+        book.setPublicationDate(data.getPublicationDate());
+        book.setPageCount(data.getPageCount());
+        book.setEdition(data.getEdition());
+        book.setHasPhysicalEdition(Boolean.TRUE.equals(data.getHasPhysicalEdition()));
+        book.setHasElectricEdition(Boolean.TRUE.equals(data.getHasElectricEdition()));
+        book.setIsActive(true);
+        return book;
+    }
+
+    private static String errorMessage(Throwable e) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(e);
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private record UploadedImage(String url, String altText, int position) {
+    }
+
+    private record ChunkResult(List<Long> bookIds, Map<BookImportReader.Row, String> rejected) {
+    }
+
+    /**
+     * Entity ids by case-insensitive name, for one import
+     * Entries added in a transaction are pending until it commits.
+     */
+    private static final class NameIds {
+        private final Map<String, Long> ids = new HashMap<>();
+        private final Map<String, Long> pending = new HashMap<>();
+        private long pendingCreated;
+        private long created;
+
+        static String key(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+
+        Long get(String name) {
+            String key = key(name);
+            Long id = ids.get(key);
+            return id != null ? id : pending.get(key);
+        }
+
+        void put(String name, Long id, boolean isNew) {
+            pending.put(key(name), id);
+            if (isNew) {
+                pendingCreated++;
+            }
+        }
+
+        void commit() {
+            ids.putAll(pending);
+            created += pendingCreated;
+            discard();
+        }
+
+        void discard() {
+            pending.clear();
+            pendingCreated = 0;
+        }
+    }
+
+    private static final class ImportRun {
+        private final int maxReportedErrors;
+        private final NameIds authors = new NameIds();
+        private final NameIds translators = new NameIds();
+        private final NameIds publishers = new NameIds();
+        private final NameIds genres = new NameIds();
+        private final List<Long> bookIds = new ArrayList<>();
+        private final List<CatalogImportResult.RowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long failedRows;
+        private long imagesUploaded;
+
+        ImportRun(int maxReportedErrors) {
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        void fail(BookImportReader.Row row, String message) {
+            failedRows++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new CatalogImportResult.RowError(row.line(),
+                        row.book() != null ? row.book().getTitle() : null, message));
+            }
+        }
+
+        void commitNames() {
+            authors.commit();
+            translators.commit();
+            publishers.commit();
+            genres.commit();
+        }
+
+        void discardNames() {
+            authors.discard();
+            translators.discard();
+            publishers.discard();
+            genres.discard();
+        }
+    }
+}
@@ -24,14 +24,19 @@ import com.huongcung.core.product.model.entity.PhysicalBookEntity;
 import com.huongcung.core.product.repository.AbstractBookRepository;
 import com.huongcung.core.product.repository.GenreRepository;
 import com.huongcung.core.search.model.dto.PaginationInfo;
+import com.huongcung.core.search.repository.BookSearchRepository;
 import com.huongcung.core.search.service.SearchIndexService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocumentList;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
@@ -39,7 +44,11 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -49,6 +58,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CatalogServiceImpl implements CatalogService {
     
+    // Listing sort properties and their Solr fields
+    private static final Map<String, String> SOLR_SORT_FIELDS = Map.of(
+            "title", "titleSort",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt",
+            "publicationDate", "publicationDate");
+    
+    private static final int MAX_CACHED_COUNTS = 256;
+    
     private final AbstractBookRepository bookRepository;
     private final AuthorRepository authorRepository;
     private final PublisherRepository publisherRepository;
@@ -57,6 +75,7 @@ public class CatalogServiceImpl implements CatalogService {
     private final BookMapper bookMapper;
     private final ImageService imageService;
     private final BookImageRepository bookImageRepository;
+    private final BookSearchRepository bookSearchRepository;
     
     @PersistenceContext
     private EntityManager entityManager;
@@ -65,17 +84,128 @@ public class CatalogServiceImpl implements CatalogService {
     @Autowired(required = false)
     private SearchIndexService searchIndexService;
     
+    @Value("${catalog.admin-listing.search-enabled:true}")
+    private boolean searchListingEnabled;
+    
+    @Value("${catalog.admin-listing.count-cache-ttl-ms:30000}")
+    private long countCacheTtlMs;
+    
+    // Database listing counts per filter; dropped on every catalog change
+    private final Map<String, CachedCount> listingCounts = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedCount> eldest) {
+                    return size() > MAX_CACHED_COUNTS;
+                }
+            });
+    
     @Override
     @Transactional(readOnly = true)
     public PaginatedBookResponse getAllBooks(Pageable pageable, String title, Language language, String bookType, Boolean isActive) {
         log.debug("Fetching books list - page: {}, size: {}, title: {}, language: {}, bookType: {}, isActive: {}", 
                 pageable.getPageNumber(), pageable.getPageSize(), title, language, bookType, isActive);
         
+        if (searchListingEnabled) {
+            try {
+                return searchBooks(pageable, title, language, bookType, isActive);
+            } catch (Exception e) {
+                log.warn("Solr book listing failed, falling back to database: {}", e.getMessage());
+            }
+        }
+        return queryBooks(pageable, title, language, bookType, isActive);
+    }
+    
+    /**
+     * List books from the search index
+     * Solr filters, sorts and counts; the database only loads the books of the requested page.
+     */
+    private PaginatedBookResponse searchBooks(Pageable pageable, String title, Language language, String bookType, Boolean isActive) {
+        Map<String, String> filters = new LinkedHashMap<>();
+        if (language != null) {
+            filters.put("language", language.name());
+        }
+        String type = normalizeBookType(bookType);
+        if (type != null) {
+            filters.put("bookType", type);
+        }
+        if (isActive != null) {
+            filters.put("active", isActive.toString());
+        }
+        
+        Sort.Order order = listingOrder(pageable);
+        QueryResponse response = bookSearchRepository.searchCatalog(title, filters,
+                SOLR_SORT_FIELDS.get(order.getProperty()), order.isAscending() ? "asc" : "desc",
+                (int) pageable.getOffset(), pageable.getPageSize());
+        
+        SolrDocumentList documents = response.getResults();
+        List<Long> ids = documents.stream()
+                .map(doc -> Long.valueOf(doc.getFieldValue("id").toString()))
+                .collect(Collectors.toList());
+        
+        // Keep the Solr order; books deleted since they were indexed are skipped
+        Map<Long, AbstractBookEntity> booksById = new HashMap<>();
+        bookRepository.findAllById(ids).forEach(book -> booksById.put(book.getId(), book));
+        List<BookListDTO> bookDTOs = ids.stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .map(bookMapper::toListDTO)
+                .collect(Collectors.toList());
+        
+        log.debug("Found {} books in search index", documents.getNumFound());
+        
+        return new PaginatedBookResponse(bookDTOs, toPagination(pageable, documents.getNumFound()));
+    }
+    
+    /**
+     * List books from the database, used when the search index is unavailable
+     * The count for a filter is cached briefly, so paging through a listing counts once.
+     */
+    private PaginatedBookResponse queryBooks(Pageable pageable, String title, Language language, String bookType, Boolean isActive) {
         // Use Criteria API for dynamic filtering
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<AbstractBookEntity> query = cb.createQuery(AbstractBookEntity.class);
         Root<AbstractBookEntity> root = query.from(AbstractBookEntity.class);
         
+        query.where(listingPredicates(cb, root, title, language, bookType, isActive));
+        Sort.Order order = listingOrder(pageable);
+        Path<Object> sortPath = root.get(order.getProperty());
+        query.orderBy(order.isAscending() ? cb.asc(sortPath) : cb.desc(sortPath), cb.asc(root.get("id")));
+        
+        // Get total count
+        String countKey = title + "|" + language + "|" + normalizeBookType(bookType) + "|" + isActive;
+        long now = System.currentTimeMillis();
+        CachedCount cached = listingCounts.get(countKey);
+        long totalCount;
+        if (cached != null && cached.expiresAt() > now) {
+            totalCount = cached.count();
+        } else {
+            CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+            Root<AbstractBookEntity> countRoot = countQuery.from(AbstractBookEntity.class);
+            countQuery.select(cb.count(countRoot));
+            countQuery.where(listingPredicates(cb, countRoot, title, language, bookType, isActive));
+            totalCount = entityManager.createQuery(countQuery).getSingleResult();
+            listingCounts.put(countKey, new CachedCount(totalCount, now + countCacheTtlMs));
+        }
+        
+        // Apply pagination
+        List<AbstractBookEntity> books = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        
+        List<BookListDTO> bookDTOs = books.stream()
+                .map(bookMapper::toListDTO)
+                .collect(Collectors.toList());
+        
+        PaginationInfo pagination = toPagination(pageable, totalCount);
+        
+        log.debug("Found {} books (page {} of {})", totalCount, pagination.getCurrentPage(), pagination.getTotalPages());
+        
+        return new PaginatedBookResponse(bookDTOs, pagination);
+    }
+    
+    private Predicate[] listingPredicates(CriteriaBuilder cb, Root<AbstractBookEntity> root, String title,
+                                          Language language, String bookType, Boolean isActive) {
         List<Predicate> predicates = new ArrayList<>();
         
         if (title != null && !title.isBlank()) {
@@ -86,38 +216,46 @@ public class CatalogServiceImpl implements CatalogService {
             predicates.add(cb.equal(root.get("language"), language));
         }
         
-        if (bookType != null && !bookType.isBlank()) {
-            if ("PHYSICAL".equalsIgnoreCase(bookType)) {
-                predicates.add(cb.equal(root.type(), PhysicalBookEntity.class));
-            } else if ("EBOOK".equalsIgnoreCase(bookType)) {
-                predicates.add(cb.equal(root.type(), EbookEntity.class));
-            }
+        String type = normalizeBookType(bookType);
+        if ("PHYSICAL".equals(type)) {
+            predicates.add(cb.equal(root.type(), PhysicalBookEntity.class));
+        } else if ("EBOOK".equals(type)) {
+            predicates.add(cb.equal(root.type(), EbookEntity.class));
         }
         
         if (isActive != null) {
             predicates.add(cb.equal(root.get("isActive"), isActive));
         }
         
-        query.where(predicates.toArray(new Predicate[0]));
-        
-        // Get total count
-        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
-        countQuery.select(cb.count(countQuery.from(AbstractBookEntity.class)));
-        countQuery.where(predicates.toArray(new Predicate[0]));
-        Long totalCount = entityManager.createQuery(countQuery).getSingleResult();
-        
-        // Apply pagination
-        List<AbstractBookEntity> books = entityManager.createQuery(query)
-                .setFirstResult((int) pageable.getOffset())
-                .setMaxResults(pageable.getPageSize())
-                .getResultList();
-        
-        List<BookListDTO> bookDTOs = books.stream()
-                .map(bookMapper::toListDTO)
-                .collect(Collectors.toList());
-        
+        return predicates.toArray(new Predicate[0]);
+    }
+    
+    private static String normalizeBookType(String bookType) {
+        if ("PHYSICAL".equalsIgnoreCase(bookType)) {
+            return "PHYSICAL";
+        }
+        if ("EBOOK".equalsIgnoreCase(bookType)) {
+            return "EBOOK";
+        }
+        return null;
+    }
+    
+    /**
+     * First supported sort of the request, newest first by default
+     */
+    private static Sort.Order listingOrder(Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (SOLR_SORT_FIELDS.containsKey(order.getProperty())) {
+                return order;
+            }
+            log.warn("Unsupported book list sort: {}", order.getProperty());
+        }
+        return Sort.Order.desc("createdAt");
+    }
+    
+    private static PaginationInfo toPagination(Pageable pageable, long totalCount) {
         // Convert Spring Data Page (0-based) to PaginationInfo (1-based)
-        PaginationInfo pagination = PaginationInfo.builder()
+        return PaginationInfo.builder()
                 .currentPage(pageable.getPageNumber() + 1) // Convert 0-based to 1-based
                 .pageSize(pageable.getPageSize())
                 .totalResults(totalCount)
@@ -125,10 +263,6 @@ public class CatalogServiceImpl implements CatalogService {
                 .hasNext(pageable.getOffset() + pageable.getPageSize() < totalCount)
                 .hasPrevious(pageable.getPageNumber() > 0)
                 .build();
-        
-        log.debug("Found {} books (page {} of {})", totalCount, pagination.getCurrentPage(), pagination.getTotalPages());
-        
-        return new PaginatedBookResponse(bookDTOs, pagination);
     }
     
     @Override
@@ -136,7 +270,7 @@ public class CatalogServiceImpl implements CatalogService {
     public BookDetailDTO getBookById(Long id) {
         log.debug("Fetching book by ID: {}", id);
         
-        AbstractBookEntity book = bookRepository.findById(id)
+        AbstractBookEntity book = bookRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with ID: " + id));
         
         return bookMapper.toDetailDTO(book);
@@ -249,6 +383,8 @@ public class CatalogServiceImpl implements CatalogService {
             uploadBookImages(savedBook, request.getImages());
         }
         
+        listingCounts.clear();
+        
         // Trigger search index update if service is available
         if (searchIndexService != null) {
             try {
@@ -375,6 +511,8 @@ public class CatalogServiceImpl implements CatalogService {
         log.info("Book updated: bookId={}, updatedBy={}, changes={}, timestamp={}", 
                 id, updatedBy, changeLog, LocalDateTime.now());
         
+        listingCounts.clear();
+        
         // Trigger search index update if service is available
         if (searchIndexService != null) {
             try {
@@ -413,13 +551,15 @@ public class CatalogServiceImpl implements CatalogService {
         log.info("Book deactivated: bookId={}, deactivatedBy={}, timestamp={}", 
                 id, deactivatedBy, LocalDateTime.now());
         
-        // Trigger search index removal if service is available
+        listingCounts.clear();
+        
+        // Reindex rather than remove: the admin listing still shows inactive books, public search filters them out
         if (searchIndexService != null) {
             try {
-                searchIndexService.deleteBookFromIndex(id);
-                log.debug("Book removed from search index: {}", id);
+                searchIndexService.indexBook(deactivatedBook);
+                log.debug("Book marked inactive in search index: {}", id);
             } catch (Exception e) {
-                log.warn("Failed to remove book from search index: {}", e.getMessage());
+                log.warn("Failed to mark book inactive in search index: {}", e.getMessage());
             }
         }
         
@@ -430,7 +570,7 @@ public class CatalogServiceImpl implements CatalogService {
      * Generate unique book code from title
      * Format: BK-{first 3 uppercase letters of title}-{UUID first 8 chars}
      */
-    private String generateBookCode(String title) {
+    static String generateBookCode(String title) {
         String prefix = title.length() >= 3 
                 ? title.substring(0, 3).toUpperCase().replaceAll("[^A-Z0-9]", "")
                 : "BK";
@@ -455,6 +595,8 @@ public class CatalogServiceImpl implements CatalogService {
         // TODO: folderPath
         String folderPath = "images/";
 
+        // Rows are written together at the end so the inserts go out as one JDBC batch
+        List<BookImageEntity> bookImages = new ArrayList<>();
         for (int i = 0; i < images.size(); i++) {
             BookImageData imageData = images.get(i);
             
@@ -494,8 +636,7 @@ public class CatalogServiceImpl implements CatalogService {
                 bookImage.setAltText(imageData.getAltText() != null ? imageData.getAltText() : fileName);
                 bookImage.setPosition(position);
                 
-                // Save to database
-                bookImageRepository.save(bookImage);
+                bookImages.add(bookImage);
                 
                 log.debug("Image uploaded for book ID: {}, position: {}, url: {}", 
                     book.getId(), position, fullUrl);
@@ -507,7 +648,12 @@ public class CatalogServiceImpl implements CatalogService {
             }
         }
         
+        // Save to database
+        bookImageRepository.saveAll(bookImages);
+        
         log.info("Processed {} images for book ID: {}", images.size(), book.getId());
     }
+    
+    private record CachedCount(long count, long expiresAt) {
+    }
 }
-
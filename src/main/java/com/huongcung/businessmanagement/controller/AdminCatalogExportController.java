@@ -0,0 +1,71 @@
+package com.huongcung.businessmanagement.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.businessmanagement.admin.export.BookExportWriter;
+import com.huongcung.core.common.model.response.BaseResponse;
+import com.huongcung.core.product.service.BookExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * REST controller for Admin catalog exports
+ * Books are streamed from a database cursor straight into the response, so an export of the
+ * whole catalog runs in constant memory.
+ * All endpoints require ADMIN role (enforced by Spring Security /api/admin/** pattern)
+ */
+@RestController
+@RequestMapping("api/admin/catalog/books")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AdminCatalogExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final BookExportService bookExportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Export every book, active or not, with its contributors, genres, price and stock
+     *
+     * @param format csv (default) or jsonl (one book per line)
+     * @return streamed books
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportBooks(@RequestParam(required = false, defaultValue = "csv") String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"jsonl".equalsIgnoreCase(format) && !"ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().body(BaseResponse.builder()
+                    .errorCode("VALIDATION_ERROR")
+                    .message("format must be csv or jsonl")
+                    .build());
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            long started = System.currentTimeMillis();
+            BookExportWriter writer = csv
+                    ? BookExportWriter.csv(outputStream)
+                    : BookExportWriter.jsonl(outputStream, objectMapper);
+            bookExportService.streamBooks(writer);
+            writer.finish();
+            long durationMs = System.currentTimeMillis() - started;
+            log.info("Exported {} books as {} in {}ms ({} rows/sec)", writer.getBookCount(), csv ? "csv" : "jsonl",
+                    durationMs, writer.getBookCount() * 1000 / Math.max(1, durationMs));
+        };
+
+        String filename = "catalog-" + LocalDate.now() + (csv ? ".csv" : ".jsonl");
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
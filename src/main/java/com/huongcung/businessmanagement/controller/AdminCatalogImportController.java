@@ -0,0 +1,80 @@
+package com.huongcung.businessmanagement.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.businessmanagement.admin.importer.BookImportReader;
+import com.huongcung.businessmanagement.admin.model.CatalogImportResult;
+import com.huongcung.businessmanagement.admin.service.CatalogImportService;
+import com.huongcung.core.common.model.response.BaseResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * REST controller for Admin bulk catalog imports
+ * The uploaded file is read row by row while it is imported, so its size is only limited by
+ * spring.servlet.multipart.max-file-size.
+ * All endpoints require ADMIN role (enforced by Spring Security /api/admin/** pattern)
+ */
+@RestController
+@RequestMapping("api/admin/catalog/books")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AdminCatalogImportController {
+
+    private final CatalogImportService catalogImportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Import books from a CSV or JSONL file
+     * Rows that fail are reported with their line and do not stop the import.
+     *
+     * @param file CSV with a header row, or JSONL with one book per line (see BookImportRow)
+     * @param format csv or jsonl (default: from the file extension)
+     * @return BaseResponse containing CatalogImportResult
+     */
+    @PostMapping("/import")
+    public ResponseEntity<BaseResponse> importBooks(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String format) throws IOException {
+        String type = StringUtils.hasText(format) ? format : StringUtils.getFilenameExtension(file.getOriginalFilename());
+        type = type != null ? type.toLowerCase(Locale.ROOT) : "";
+        boolean csv = "csv".equals(type);
+        if (!csv && !"jsonl".equals(type) && !"ndjson".equals(type)) {
+            return validationError("format must be csv or jsonl");
+        }
+        log.info("Importing books from {} ({} bytes) as {}", file.getOriginalFilename(), file.getSize(), type);
+
+        BookImportReader reader;
+        try {
+            reader = csv
+                    ? BookImportReader.csv(file.getInputStream(), objectMapper)
+                    : BookImportReader.jsonl(file.getInputStream(), objectMapper);
+        } catch (IllegalArgumentException e) {
+            return validationError(e.getMessage());
+        }
+
+        CatalogImportResult result;
+        try (reader) {
+            result = catalogImportService.importBooks(reader);
+        }
+
+        return ResponseEntity.ok(BaseResponse.builder()
+                .data(result)
+                .message("Imported " + result.getImportedRows() + " of " + result.getTotalRows() + " rows")
+                .build());
+    }
+
+    private ResponseEntity<BaseResponse> validationError(String message) {
+        return ResponseEntity.badRequest().body(BaseResponse.builder()
+                .errorCode("VALIDATION_ERROR")
+                .message(message)
+                .build());
+    }
+}
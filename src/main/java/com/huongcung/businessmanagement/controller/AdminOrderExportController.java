@@ -0,0 +1,88 @@
+package com.huongcung.businessmanagement.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.businessmanagement.admin.export.OrderExportWriter;
+import com.huongcung.core.common.model.response.BaseResponse;
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.service.OrderExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * REST controller for Admin order exports for accounting
+ * Orders are streamed from a database cursor straight into the response, so an export of any
+ * size runs in constant memory.
+ * All endpoints require ADMIN role (enforced by Spring Security /api/admin/** pattern)
+ */
+@RestController
+@RequestMapping("api/admin/orders")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AdminOrderExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final OrderExportService orderExportService;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Export the orders created in a period with their entries
+     *
+     * @param from first day (default: today)
+     * @param to last day, inclusive (default: from)
+     * @param status order statuses to include (default: all)
+     * @param format csv (one row per entry, default) or ndjson (one order with its lines per line)
+     * @return streamed orders
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportOrders(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<OrderStatus> status,
+            @RequestParam(required = false, defaultValue = "csv") String format) {
+        LocalDate first = from != null ? from : LocalDate.now();
+        LocalDate last = to != null ? to : first;
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (last.isBefore(first) || !(csv || "ndjson".equalsIgnoreCase(format))) {
+            return ResponseEntity.badRequest().body(BaseResponse.builder()
+                    .errorCode("VALIDATION_ERROR")
+                    .message(last.isBefore(first) ? "from must not be after to" : "format must be csv or ndjson")
+                    .build());
+        }
+        Set<OrderStatus> statuses = status == null || status.isEmpty()
+                ? EnumSet.noneOf(OrderStatus.class)
+                : EnumSet.copyOf(status);
+
+        StreamingResponseBody body = outputStream -> {
+            long started = System.currentTimeMillis();
+            OrderExportWriter writer = csv
+                    ? OrderExportWriter.csv(outputStream)
+                    : OrderExportWriter.ndjson(outputStream, objectMapper);
+            long lines = orderExportService.streamOrderLines(first.atStartOfDay(), last.plusDays(1).atStartOfDay(),
+                    statuses, writer);
+            writer.finish();
+            log.info("Exported {} orders ({} lines) from {} to {} as {} in {}ms", writer.getOrderCount(), lines,
+                    first, last, csv ? "csv" : "ndjson", System.currentTimeMillis() - started);
+        };
+
+        String filename = "orders-" + first + "-" + last + (csv ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(csv ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,139 @@
+package com.huongcung.businessmanagement.controller;
+
+import com.huongcung.core.common.model.response.BaseResponse;
+import com.huongcung.core.order.service.SalesStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+/**
+ * REST controller for Admin sales dashboards
+ * Figures come from incrementally maintained counters, never from scanning orders.
+ * All endpoints require ADMIN role (enforced by Spring Security /api/admin/** pattern)
+ */
+@RestController
+@RequestMapping("api/admin/sales")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AdminSalesController {
+
+    private static final int MAX_DAYS = 366;
+    private static final int MAX_TOP_BOOKS = 100;
+
+    private final SalesStatsService salesStatsService;
+
+    /**
+     * Get orders placed and their value per day
+     *
+     * @param from first day (default: today)
+     * @param to last day, inclusive (default: from), at most 366 days after from
+     * @return BaseResponse containing one DailySales per day
+     */
+    @GetMapping("/daily")
+    public ResponseEntity<BaseResponse> getDailySales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate first = from != null ? from : LocalDate.now();
+        LocalDate last = to != null ? to : first;
+        ResponseEntity<BaseResponse> invalid = validatePeriod(first, last);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        return ResponseEntity.ok(BaseResponse.builder()
+                .data(salesStatsService.getDailySales(first, last))
+                .build());
+    }
+
+    /**
+     * Get the current number of orders in each status
+     *
+     * @return BaseResponse containing a count per OrderStatus
+     */
+    @GetMapping("/orders/status")
+    public ResponseEntity<BaseResponse> getOrderCountsByStatus() {
+        return ResponseEntity.ok(BaseResponse.builder()
+                .data(salesStatsService.getOrderCountsByStatus())
+                .build());
+    }
+
+    /**
+     * Get the best selling books of the last days
+     *
+     * @param days number of days up to and including today (default: 7)
+     * @param limit number of books (default: 10, max: 100)
+     * @return BaseResponse containing BookSales, most units first
+     */
+    @GetMapping("/books/top")
+    public ResponseEntity<BaseResponse> getTopBooks(
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "10") int limit) {
+        LocalDate today = LocalDate.now();
+        LocalDate first = today.minusDays(days - 1L);
+        ResponseEntity<BaseResponse> invalid = validatePeriod(first, today);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_TOP_BOOKS));
+        return ResponseEntity.ok(BaseResponse.builder()
+                .data(salesStatsService.getTopBooks(first, today, size))
+                .build());
+    }
+
+    /**
+     * Get the units of a book ordered in the last days
+     *
+     * @param bookId the book ID
+     * @param days number of days up to and including today (default: 7)
+     * @return BaseResponse containing the book ID and units
+     */
+    @GetMapping("/books/{bookId}")
+    public ResponseEntity<BaseResponse> getBookSales(
+            @PathVariable Long bookId,
+            @RequestParam(defaultValue = "7") int days) {
+        LocalDate today = LocalDate.now();
+        LocalDate first = today.minusDays(days - 1L);
+        ResponseEntity<BaseResponse> invalid = validatePeriod(first, today);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        return ResponseEntity.ok(BaseResponse.builder()
+                .data(Map.of("bookId", bookId, "units", salesStatsService.getUnitsSold(bookId, first, today)))
+                .build());
+    }
+
+    /**
+     * Recompute all sales figures from orders
+     * Scans orders and order entries, so it is meant for recovery rather than regular use.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<BaseResponse> rebuild() {
+        log.info("Rebuilding sales rollups");
+
+        salesStatsService.rebuild();
+
+        return ResponseEntity.ok(BaseResponse.builder()
+                .message("Sales figures rebuilt successfully")
+                .build());
+    }
+
+    private ResponseEntity<BaseResponse> validatePeriod(LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_DAYS) {
+            return ResponseEntity.badRequest().body(BaseResponse.builder()
+                    .errorCode("VALIDATION_ERROR")
+                    .message("Period must cover 1 to " + MAX_DAYS + " days")
+                    .build());
+        }
+        return null;
+    }
+}
@@ -15,8 +15,22 @@ import java.time.LocalDateTime;
 @Setter
 public abstract class BaseEntity {
     
+    public static final String ID_GENERATOR_TABLE = "id_generators";
+    public static final String ID_GENERATOR_SEGMENT = "entity";
+    public static final int ID_ALLOCATION_SIZE = 50;
+    
+    // Table-backed pooled ids (see IdGeneratorSeeder): unlike IDENTITY, ids are known before
+    // the INSERT runs, so Hibernate can batch inserts. One round trip reserves a block of ids.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "entity_ids")
+    @TableGenerator(
+        name = "entity_ids",
+        table = ID_GENERATOR_TABLE,
+        pkColumnName = "sequence_name",
+        valueColumnName = "next_val",
+        pkColumnValue = ID_GENERATOR_SEGMENT,
+        allocationSize = ID_ALLOCATION_SIZE
+    )
     private Long id;
     
     @CreatedDate
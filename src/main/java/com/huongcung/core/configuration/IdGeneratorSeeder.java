@@ -0,0 +1,75 @@
+package com.huongcung.core.configuration;
+
+import com.huongcung.core.common.model.entity.BaseEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Seeds the pooled id generator table from the ids already in the database.
+ * Tables created before ids moved off IDENTITY hold AUTO_INCREMENT ids, so the shared
+ * "entity" segment must start above the highest existing id of every entity table.
+ * Runs once the EntityManagerFactory (and therefore the schema update) is ready,
+ * before the application serves traffic.
+ *
+ * The segment value is the next low id to hand out (pooled-lo optimizer), and it is only
+ * ever raised, so concurrent starts of several instances are safe. If seeding fails the
+ * application does not start.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorSeeder {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void seed() {
+        try {
+            Set<String> tables = pooledIdTables();
+            long maxId = 0;
+            for (String table : tables) {
+                Long tableMax = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+                if (tableMax != null && tableMax > maxId) {
+                    maxId = tableMax;
+                }
+            }
+
+            jdbcTemplate.update(
+                "INSERT INTO " + BaseEntity.ID_GENERATOR_TABLE + " (sequence_name, next_val) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))",
+                BaseEntity.ID_GENERATOR_SEGMENT, maxId + 1);
+
+            log.info("Id generator segment '{}' seeded above id {} across {} tables",
+                BaseEntity.ID_GENERATOR_SEGMENT, maxId, tables.size());
+        } catch (RuntimeException e) {
+            // Unlike DatabaseCleanupConfig this must fail startup: an unseeded segment hands out ids
+            // that already exist, and every insert into an existing table fails on its primary key
+            throw new IllegalStateException("Failed to seed the id generator table", e);
+        }
+    }
+
+    /**
+     * Root tables of all entities whose ids come from the table-backed generator
+     */
+    Set<String> pooledIdTables() {
+        Set<String> tables = new TreeSet<>();
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getMappingMetamodel()
+            .forEachEntityDescriptor(persister -> {
+                if (persister.getGenerator() instanceof TableGenerator) {
+                    tables.add(persister.getIdentifierTableName());
+                }
+            });
+        return tables;
+    }
+}
@@ -0,0 +1,12 @@
+package com.huongcung.core.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (inventory journal flushing and similar housekeeping)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
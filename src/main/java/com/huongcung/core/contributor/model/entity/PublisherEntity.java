@@ -3,9 +3,12 @@ package com.huongcung.core.contributor.model.entity;
 import com.huongcung.core.common.model.entity.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "publishers")
+// Publisher proxies of books loaded together are initialized in one query
+@BatchSize(size = 50)
 @Getter
 @Setter
 @AllArgsConstructor
@@ -4,11 +4,13 @@ import com.huongcung.core.contributor.model.entity.AuthorEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<AuthorEntity, Long> {
     List<AuthorEntity> findByIdIn(List<Long> ids);
+    List<AuthorEntity> findByNameIn(Collection<String> names);
     org.springframework.data.domain.Page<AuthorEntity> findByNameContainingIgnoreCase(String name, org.springframework.data.domain.Pageable pageable);
 }
 
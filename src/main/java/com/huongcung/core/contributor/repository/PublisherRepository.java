@@ -3,9 +3,12 @@ package com.huongcung.core.contributor.repository;
 import com.huongcung.core.contributor.model.entity.PublisherEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface PublisherRepository extends JpaRepository<PublisherEntity, Long> {
+    List<PublisherEntity> findByNameIn(Collection<String> names);
     org.springframework.data.domain.Page<PublisherEntity> findByNameContainingIgnoreCase(String name, org.springframework.data.domain.Pageable pageable);
 }
 
@@ -0,0 +1,236 @@
+package com.huongcung.core.inventory.allocation;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.service.StockAllocationService.ConsignmentPlan;
+import com.huongcung.core.inventory.service.StockReservationService.StockRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory view of available stock, laid out for warehouse allocation
+ * Books are mapped to dense rows through a primitive long map, and the available count of every
+ * (book, warehouse) pair sits in one flat array at {@code row * warehouses + warehouseIndex}, so
+ * allocating a cart is a handful of array reads without boxing, locking or I/O.
+ *
+ * The set of books and warehouses is fixed when the snapshot is built; counts are adjusted in place
+ * as reservations commit. The view is a hint only: reservations are still checked by the database.
+ * This class holds no Spring or JDBC state.
+ */
+public final class StockSnapshot {
+
+    private final long[] warehouseIds;
+    private final City[] warehouseCities;
+    // Warehouse indexes nearest first, per destination city ordinal
+    private final int[][] preference;
+    private final LongIntHashMap bookRows;
+    private final AtomicIntegerArray available;
+
+    private StockSnapshot(long[] warehouseIds, City[] warehouseCities, LongIntHashMap bookRows, int[] available) {
+        this.warehouseIds = warehouseIds;
+        this.warehouseCities = warehouseCities;
+        this.bookRows = bookRows;
+        this.available = new AtomicIntegerArray(available);
+        this.preference = new int[City.values().length][];
+        for (City destination : City.values()) {
+            preference[destination.ordinal()] = IntStream.range(0, warehouseIds.length)
+                    .boxed()
+                    .sorted(Comparator.<Integer>comparingInt(w -> warehouseCities[w].distanceKm(destination))
+                            .thenComparingLong(w -> warehouseIds[w]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Available count of a book in a warehouse, 0 when either is unknown
+     */
+    public int available(long bookId, long warehouseId) {
+        int w = warehouseIndex(warehouseId);
+        return w < 0 ? 0 : available(bookRows.get(bookId), w);
+    }
+
+    /**
+     * Apply a committed change of available stock; books or warehouses added since the snapshot
+     * was built are ignored until the next rebuild
+     */
+    public void adjust(long warehouseId, long bookId, int delta) {
+        int w = warehouseIndex(warehouseId);
+        int row = bookRows.get(bookId);
+        if (w >= 0 && row != LongIntHashMap.MISSING) {
+            available.addAndGet(row * warehouseIds.length + w, delta);
+        }
+    }
+
+    public int bookCount() {
+        return bookRows.size();
+    }
+
+    public int warehouseCount() {
+        return warehouseIds.length;
+    }
+
+    /**
+     * Plan the warehouses for a cart, see
+     * {@link com.huongcung.core.inventory.service.StockAllocationService#allocate}
+     *
+     * @param lines Requested lines, at most one per book, in ascending book id order
+     */
+    public List<ConsignmentPlan> allocate(City destination, List<StockRequest> lines) {
+        if (lines.isEmpty()) {
+            return List.of();
+        }
+        int[] order = preference[destination.ordinal()];
+        if (order.length == 0) {
+            throw new IllegalStateException("No warehouse available for allocation");
+        }
+
+        int n = lines.size();
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = bookRows.get(lines.get(i).bookId());
+        }
+
+        // One consignment from the nearest warehouse that has everything
+        for (int w : order) {
+            if (coversAll(w, rows, lines)) {
+                return List.of(new ConsignmentPlan(warehouseIds[w], warehouseCities[w], lines));
+            }
+        }
+
+        // Otherwise split: repeatedly take the warehouse that can ship the most remaining lines, nearest first on ties
+        int[] assigned = new int[n];
+        Arrays.fill(assigned, -1);
+        int remaining = n;
+        while (remaining > 0) {
+            int best = -1;
+            int bestCount = 0;
+            for (int w : order) {
+                int count = 0;
+                for (int i = 0; i < n; i++) {
+                    if (assigned[i] < 0 && available(rows[i], w) >= lines.get(i).quantity()) {
+                        count++;
+                    }
+                }
+                if (count > bestCount) {
+                    best = w;
+                    bestCount = count;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (assigned[i] < 0 && available(rows[i], best) >= lines.get(i).quantity()) {
+                    assigned[i] = best;
+                }
+            }
+            remaining -= bestCount;
+        }
+
+        // No warehouse has enough of these: send them where most is held and let the reservation report the shortage
+        for (int i = 0; i < n; i++) {
+            if (assigned[i] < 0) {
+                int best = order[0];
+                for (int w : order) {
+                    if (available(rows[i], w) > available(rows[i], best)) {
+                        best = w;
+                    }
+                }
+                assigned[i] = best;
+            }
+        }
+
+        // Warehouse indexes follow ascending warehouse id, so the plans come out in id order
+        TreeMap<Integer, List<StockRequest>> byWarehouse = new TreeMap<>();
+        for (int i = 0; i < n; i++) {
+            byWarehouse.computeIfAbsent(assigned[i], w -> new ArrayList<>()).add(lines.get(i));
+        }
+        List<ConsignmentPlan> plans = new ArrayList<>(byWarehouse.size());
+        byWarehouse.forEach((w, planLines) -> plans.add(new ConsignmentPlan(warehouseIds[w], warehouseCities[w], planLines)));
+        return plans;
+    }
+
+    private boolean coversAll(int w, int[] rows, List<StockRequest> lines) {
+        for (int i = 0; i < rows.length; i++) {
+            if (available(rows[i], w) < lines.get(i).quantity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int available(int row, int w) {
+        return row == LongIntHashMap.MISSING ? 0 : available.get(row * warehouseIds.length + w);
+    }
+
+    private int warehouseIndex(long warehouseId) {
+        // A handful of warehouses, kept sorted by id
+        int w = Arrays.binarySearch(warehouseIds, warehouseId);
+        return w >= 0 ? w : -1;
+    }
+
+    /**
+     * Collects warehouses and stock rows, in any order
+     */
+    public static final class Builder {
+
+        private final TreeMap<Long, City> warehouses = new TreeMap<>();
+        private long[] bookIds = new long[256];
+        private long[] stockWarehouseIds = new long[256];
+        private int[] counts = new int[256];
+        private int size;
+
+        private Builder() {
+        }
+
+        public Builder warehouse(long warehouseId, City city) {
+            warehouses.put(warehouseId, city);
+            return this;
+        }
+
+        public Builder stock(long bookId, long warehouseId, int available) {
+            if (size == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, size * 2);
+                stockWarehouseIds = Arrays.copyOf(stockWarehouseIds, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            bookIds[size] = bookId;
+            stockWarehouseIds[size] = warehouseId;
+            counts[size] = available;
+            size++;
+            return this;
+        }
+
+        public StockSnapshot build() {
+            long[] warehouseIds = warehouses.keySet().stream().mapToLong(Long::longValue).toArray();
+            City[] cities = warehouses.values().toArray(new City[0]);
+
+            LongIntHashMap rows = new LongIntHashMap(size / Math.max(1, warehouseIds.length) + 1);
+            int[] rowOf = new int[size];
+            for (int i = 0; i < size; i++) {
+                rowOf[i] = Arrays.binarySearch(warehouseIds, stockWarehouseIds[i]) < 0
+                        ? LongIntHashMap.MISSING
+                        : rows.putIfAbsent(bookIds[i], rows.size());
+            }
+
+            int[] available = new int[rows.size() * warehouseIds.length];
+            for (int i = 0; i < size; i++) {
+                if (rowOf[i] != LongIntHashMap.MISSING) {
+                    int w = Arrays.binarySearch(warehouseIds, stockWarehouseIds[i]);
+                    available[rowOf[i] * warehouseIds.length + w] = counts[i];
+                }
+            }
+            return new StockSnapshot(warehouseIds, cities, rows, available);
+        }
+    }
+}
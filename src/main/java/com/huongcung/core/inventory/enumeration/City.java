@@ -3,5 +3,19 @@ package com.huongcung.core.inventory.enumeration;
 public enum City {
     HANOI,
     HCMC,
-    DANANG
+    DANANG;
+
+    // Approximate road distances in km between the cities, indexed by ordinal
+    private static final int[][] ROAD_KM = {
+        {0, 1720, 770},
+        {1720, 0, 960},
+        {770, 960, 0}
+    };
+
+    /**
+     * Approximate road distance to another city in km
+     */
+    public int distanceKm(City other) {
+        return ROAD_KM[ordinal()][other.ordinal()];
+    }
 }
@@ -0,0 +1,7 @@
+package com.huongcung.core.inventory.enumeration;
+
+public enum ReservationStatus {
+    ACTIVE,
+    RELEASED,
+    CONFIRMED
+}
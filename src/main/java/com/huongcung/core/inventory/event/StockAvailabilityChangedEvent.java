@@ -0,0 +1,25 @@
+package com.huongcung.core.inventory.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Map;
+
+/**
+ * Event published when reservations change the available stock of a warehouse
+ * Listeners that keep a view of available stock should listen after commit.
+ */
+@Getter
+public class StockAvailabilityChangedEvent extends ApplicationEvent {
+
+    private final Long warehouseId;
+
+    // Change of the available quantity per book id; negative when stock was reserved
+    private final Map<Long, Integer> deltas;
+
+    public StockAvailabilityChangedEvent(Object source, Long warehouseId, Map<Long, Integer> deltas) {
+        super(source);
+        this.warehouseId = warehouseId;
+        this.deltas = deltas;
+    }
+}
@@ -0,0 +1,30 @@
+package com.huongcung.core.inventory.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when a reservation cannot be satisfied
+ * Lists every short item of the request, not only the first one found
+ */
+@Getter
+public class InsufficientStockException extends IllegalArgumentException {
+
+    private final List<Shortage> shortages;
+
+    public InsufficientStockException(List<Shortage> shortages) {
+        super(buildMessage(shortages));
+        this.shortages = List.copyOf(shortages);
+    }
+
+    private static String buildMessage(List<Shortage> shortages) {
+        return "Insufficient stock for " + shortages.size() + " item(s): " + shortages.stream()
+                .map(s -> String.format("%s (Available: %d, Requested: %d)",
+                        s.title() != null ? s.title() : "book " + s.bookId(), s.available(), s.requested()))
+                .collect(Collectors.joining("; "));
+    }
+
+    public record Shortage(Long bookId, String title, int requested, int available) {}
+}
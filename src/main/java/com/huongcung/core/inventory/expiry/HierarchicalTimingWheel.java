@@ -0,0 +1,134 @@
+package com.huongcung.core.inventory.expiry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel for scheduling a large number of expiries
+ * Level 0 has {@code wheelSize} buckets of {@code tickMs}; each next level has buckets as wide as the
+ * whole level below it, and levels are added on demand for far-off expiries. Adding an item and
+ * expiring it are O(1) per level, independent of how many items are scheduled.
+ *
+ * Items expire when the wheel has advanced past their expiry time, i.e. never early and at most one
+ * tick late. Not thread-safe on its own; callers synchronize.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+
+    // Start of the current level 0 tick
+    private long currentTime;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2) {
+            throw new IllegalArgumentException("tickMs must be positive and wheelSize at least 2");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMs - (startMs % tickMs);
+        this.levels.add(new Level<>(tickMs, wheelSize));
+    }
+
+    /**
+     * Schedule an item
+     *
+     * @param item Item to schedule
+     * @param expiresAtMs Expiry time in epoch milliseconds
+     * @return false if the item has already expired and was not scheduled
+     */
+    public boolean add(T item, long expiresAtMs) {
+        if (expiresAtMs < currentTime) {
+            return false;
+        }
+        int index = 0;
+        while (true) {
+            Level<T> level = level(index);
+            long levelStart = currentTime - (currentTime % level.tickMs);
+            if (expiresAtMs < levelStart + level.interval) {
+                level.bucketFor(expiresAtMs).add(new Entry<>(item, expiresAtMs));
+                size++;
+                return true;
+            }
+            index++;
+        }
+    }
+
+    /**
+     * Advance the wheel to the given time
+     *
+     * @param nowMs Current time in epoch milliseconds
+     * @return Items that expired, in no particular order
+     */
+    public List<T> advance(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        while (currentTime + tickMs <= nowMs) {
+            currentTime += tickMs;
+
+            // Everything in the level 0 bucket that just ended has expired
+            ArrayDeque<Entry<T>> bucket = levels.get(0).bucketFor(currentTime - tickMs);
+            Entry<T> entry;
+            while ((entry = bucket.poll()) != null) {
+                expired.add(entry.item);
+                size--;
+            }
+
+            // On a higher level boundary, move that level's current bucket down
+            for (int index = 1; index < levels.size(); index++) {
+                Level<T> level = levels.get(index);
+                if (currentTime % level.tickMs != 0) {
+                    break;
+                }
+                ArrayDeque<Entry<T>> cascading = level.bucketFor(currentTime);
+                while ((entry = cascading.poll()) != null) {
+                    size--;
+                    if (!add(entry.item, entry.expiresAtMs)) {
+                        expired.add(entry.item);
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getCurrentTime() {
+        return currentTime;
+    }
+
+    private Level<T> level(int index) {
+        while (levels.size() <= index) {
+            Level<T> below = levels.get(levels.size() - 1);
+            levels.add(new Level<>(below.interval, wheelSize));
+        }
+        return levels.get(index);
+    }
+
+    private record Entry<T>(T item, long expiresAtMs) {}
+
+    private static final class Level<T> {
+        private final long tickMs;
+        private final long interval;
+        private final ArrayDeque<Entry<T>>[] buckets;
+
+        @SuppressWarnings("unchecked")
+        private Level(long tickMs, int wheelSize) {
+            this.tickMs = tickMs;
+            this.interval = tickMs * wheelSize;
+            this.buckets = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+        }
+
+        private ArrayDeque<Entry<T>> bucketFor(long timeMs) {
+            return buckets[(int) ((timeMs / tickMs) % buckets.length)];
+        }
+    }
+}
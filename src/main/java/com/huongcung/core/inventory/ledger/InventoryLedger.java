@@ -0,0 +1,191 @@
+package com.huongcung.core.inventory.ledger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory view of available stock, one independently updated slot per (book, warehouse)
+ * Reservations are lock-free compare-and-set decrements on the slot's available count, so
+ * checkouts of different SKUs never contend and checkouts of the same SKU never block each other.
+ *
+ * Committed reservations are accumulated per slot as unflushed deltas and handed out by
+ * {@link #drainJournal()} for write-behind persistence. This class holds no Spring or JDBC state.
+ */
+public class InventoryLedger {
+
+    private final Map<SlotKey, Slot> slots = new ConcurrentHashMap<>();
+    private final Queue<Slot> dirtySlots = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Load or replace the available count of a slot
+     */
+    public void load(long bookId, long warehouseId, int available) {
+        slots.compute(new SlotKey(bookId, warehouseId), (key, slot) -> {
+            if (slot == null) {
+                return new Slot(key, available);
+            }
+            // Keep deltas that are committed but not yet flushed out of the available count
+            slot.available.set(available - slot.unflushed.get());
+            return slot;
+        });
+    }
+
+    /**
+     * Current available count of a slot, 0 when the slot is unknown
+     */
+    public int available(long bookId, long warehouseId) {
+        Slot slot = slots.get(new SlotKey(bookId, warehouseId));
+        return slot != null ? slot.available.get() : 0;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Reserve all quantities in one warehouse, or none of them
+     *
+     * @param warehouseId Warehouse to reserve from
+     * @param quantities Quantity per book id
+     * @return Available count per book id that could not be satisfied; empty when everything was reserved
+     */
+    public Map<Long, Integer> tryReserve(long warehouseId, SortedMap<Long, Integer> quantities) {
+        Map<Long, Integer> reserved = new LinkedHashMap<>();
+        Map<Long, Integer> shortfalls = new LinkedHashMap<>();
+
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Slot slot = slots.get(new SlotKey(line.getKey(), warehouseId));
+            if (slot == null) {
+                shortfalls.put(line.getKey(), 0);
+                continue;
+            }
+            int seen = slot.tryTake(line.getValue());
+            if (seen >= 0) {
+                shortfalls.put(line.getKey(), seen);
+            } else if (shortfalls.isEmpty()) {
+                reserved.put(line.getKey(), line.getValue());
+            } else {
+                // Already failing; give it straight back but keep checking the remaining lines
+                slot.available.addAndGet(line.getValue());
+            }
+        }
+
+        if (!shortfalls.isEmpty()) {
+            release(warehouseId, reserved);
+        }
+        return shortfalls;
+    }
+
+    /**
+     * Give reserved quantities back, e.g. after the reserving transaction rolled back
+     */
+    public void release(long warehouseId, Map<Long, Integer> quantities) {
+        quantities.forEach((bookId, quantity) -> {
+            Slot slot = slots.get(new SlotKey(bookId, warehouseId));
+            if (slot != null) {
+                slot.available.addAndGet(quantity);
+            }
+        });
+    }
+
+    /**
+     * Record reserved quantities as committed so they are journaled for persistence
+     * Negative quantities journal a release of previously persisted reservations.
+     */
+    public void recordCommitted(long warehouseId, Map<Long, Integer> quantities) {
+        quantities.forEach((bookId, quantity) -> {
+            Slot slot = slots.get(new SlotKey(bookId, warehouseId));
+            if (slot != null) {
+                slot.unflushed.addAndGet(quantity);
+                markDirty(slot);
+            }
+        });
+    }
+
+    /**
+     * Take all unflushed reservation deltas
+     * A delta that fails to persist must be handed back with {@link #restore(List)}.
+     */
+    public List<Delta> drainJournal() {
+        List<Delta> deltas = new ArrayList<>();
+        Slot slot;
+        while ((slot = dirtySlots.poll()) != null) {
+            // Clear the flag first, so a commit racing with this drain re-queues the slot
+            slot.dirty.set(false);
+            int delta = slot.unflushed.getAndSet(0);
+            if (delta != 0) {
+                deltas.add(new Delta(slot.key.bookId(), slot.key.warehouseId(), delta));
+            }
+        }
+        Collections.sort(deltas);
+        return deltas;
+    }
+
+    /**
+     * Put deltas that could not be persisted back into the journal
+     */
+    public void restore(List<Delta> deltas) {
+        for (Delta delta : deltas) {
+            Slot slot = slots.get(new SlotKey(delta.bookId(), delta.warehouseId()));
+            if (slot != null) {
+                slot.unflushed.addAndGet(delta.reservedDelta());
+                markDirty(slot);
+            }
+        }
+    }
+
+    private void markDirty(Slot slot) {
+        if (slot.dirty.compareAndSet(false, true)) {
+            dirtySlots.add(slot);
+        }
+    }
+
+    /**
+     * Reserved-quantity change to apply to one stock_levels row
+     */
+    public record Delta(long bookId, long warehouseId, int reservedDelta) implements Comparable<Delta> {
+        @Override
+        public int compareTo(Delta other) {
+            int byWarehouse = Long.compare(warehouseId, other.warehouseId);
+            return byWarehouse != 0 ? byWarehouse : Long.compare(bookId, other.bookId);
+        }
+    }
+
+    private record SlotKey(long bookId, long warehouseId) {}
+
+    private static final class Slot {
+        private final SlotKey key;
+        private final AtomicInteger available;
+        private final AtomicInteger unflushed = new AtomicInteger();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        private Slot(SlotKey key, int available) {
+            this.key = key;
+            this.available = new AtomicInteger(available);
+        }
+
+        /**
+         * @return -1 when taken, otherwise the available count that was too low
+         */
+        private int tryTake(int quantity) {
+            while (true) {
+                int current = available.get();
+                if (current < quantity) {
+                    return Math.max(current, 0);
+                }
+                if (available.compareAndSet(current, current - quantity)) {
+                    return -1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.huongcung.core.inventory.model.dto;
+
+/**
+ * Flat view of one stock reservation row
+ */
+public record ReservationLine(Long id, Long orderId, Long bookId, Long warehouseId, Integer quantity) {
+}
@@ -0,0 +1,52 @@
+package com.huongcung.core.inventory.model.entity;
+
+import java.time.LocalDateTime;
+
+import com.huongcung.core.common.model.entity.BaseEntity;
+import com.huongcung.core.inventory.enumeration.ReservationStatus;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.product.model.entity.PhysicalBookEntity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Stock reserved for one book of an order, held until it expires or the order moves on
+ */
+@Entity
+@Table(name = "stock_reservations",
+       indexes = {
+           @Index(name = "idx_stock_reservations_status_expires", columnList = "status, expires_at"),
+           @Index(name = "idx_stock_reservations_order", columnList = "order_id")
+       })
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockReservationEntity extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private OrderEntity order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private PhysicalBookEntity book;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "warehouse_id", nullable = false)
+    private WarehouseEntity warehouse;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ReservationStatus status = ReservationStatus.ACTIVE;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,24 @@
+package com.huongcung.core.inventory.repository;
+
+import com.huongcung.core.inventory.model.entity.ConsignmentEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ConsignmentRepository extends JpaRepository<ConsignmentEntity, Long> {
+
+    boolean existsByOrderId(Long orderId);
+
+    /**
+     * Consignments of an order with their origin warehouse and entries (with order entry and book) loaded
+     */
+    @Query("SELECT DISTINCT c FROM ConsignmentEntity c " +
+           "JOIN FETCH c.originWarehouse " +
+           "LEFT JOIN FETCH c.entries e LEFT JOIN FETCH e.orderEntry oe LEFT JOIN FETCH oe.book " +
+           "WHERE c.order.id = :orderId ORDER BY c.id")
+    List<ConsignmentEntity> findWithEntriesByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,39 @@
+package com.huongcung.core.inventory.repository;
+
+import com.huongcung.core.inventory.enumeration.ReservationStatus;
+import com.huongcung.core.inventory.model.dto.ReservationLine;
+import com.huongcung.core.inventory.model.entity.StockReservationEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservationEntity, Long> {
+
+    /**
+     * Reservation lines of the given orders, without loading orders, books or warehouses
+     */
+    @Query("SELECT new com.huongcung.core.inventory.model.dto.ReservationLine(" +
+           "r.id, r.order.id, r.book.id, r.warehouse.id, r.quantity) " +
+           "FROM StockReservationEntity r WHERE r.order.id IN :orderIds AND r.status = :status")
+    List<ReservationLine> findLinesByOrderIds(@Param("orderIds") Collection<Long> orderIds,
+                                              @Param("status") ReservationStatus status);
+
+    /**
+     * Earliest expiry per order among reservations in the given status, used to rebuild the expiry schedule
+     */
+    @Query("SELECT r.order.id, MIN(r.expiresAt) FROM StockReservationEntity r WHERE r.status = :status GROUP BY r.order.id")
+    List<Object[]> findExpiryByOrder(@Param("status") ReservationStatus status);
+
+    @Modifying
+    @Query("UPDATE StockReservationEntity r SET r.status = :status, r.updatedAt = :now WHERE r.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") ReservationStatus status,
+                     @Param("now") LocalDateTime now);
+}
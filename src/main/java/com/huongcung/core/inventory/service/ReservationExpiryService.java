@@ -0,0 +1,29 @@
+package com.huongcung.core.inventory.service;
+
+import com.huongcung.core.order.model.entity.OrderEntity;
+
+import java.util.List;
+
+/**
+ * Time-bounded stock reservations
+ * Stock reserved at checkout is held until the reservation expires; orders still PENDING at that
+ * point, neither paid nor booked for shipment, are cancelled and their stock is handed back.
+ */
+public interface ReservationExpiryService {
+
+    /**
+     * Persist the reservations of a newly created order and schedule their expiry
+     * Must be called inside the order transaction; the expiry is only scheduled once it commits.
+     *
+     * @param order The order the stock was reserved for
+     * @param reservations The reservations returned by {@link StockReservationService#reserve}, one per warehouse
+     */
+    void trackOrder(OrderEntity order, List<StockReservationService.Reservation> reservations);
+
+    /**
+     * Release every expired reservation that is due
+     *
+     * @return Number of orders whose reservations were processed
+     */
+    int releaseExpired();
+}
@@ -0,0 +1,31 @@
+package com.huongcung.core.inventory.service;
+
+import com.huongcung.core.inventory.enumeration.City;
+
+import java.util.List;
+
+/**
+ * Decides which warehouses ship an order
+ * Allocation works on an in-memory view of available stock and never touches the database, so it
+ * is only a plan: the reservation of the plan is what actually checks and takes the stock.
+ */
+public interface StockAllocationService {
+
+    /**
+     * Plan the warehouses for a cart
+     * The nearest warehouse that can ship the whole cart is preferred; otherwise the cart is split
+     * into as few consignments as possible, nearest warehouses first. Lines for the same book are
+     * combined and a line is never split across warehouses.
+     *
+     * @param destination City nearest to the delivery address
+     * @param requests Requested quantities per book
+     * @return One plan per warehouse, in ascending warehouse id order; empty if nothing was requested
+     * @throws IllegalStateException if there is no warehouse at all
+     */
+    List<ConsignmentPlan> allocate(City destination, List<StockReservationService.StockRequest> requests);
+
+    /**
+     * Lines to ship from one warehouse, in ascending book id order
+     */
+    record ConsignmentPlan(Long warehouseId, City city, List<StockReservationService.StockRequest> lines) {}
+}
@@ -0,0 +1,51 @@
+package com.huongcung.core.inventory.service;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.exception.InsufficientStockException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Service for reserving warehouse stock for orders
+ */
+public interface StockReservationService {
+
+    /**
+     * Reserve stock for a whole cart in one operation
+     * Either every line is reserved or nothing is; lines for the same book are combined.
+     * Must run inside the caller's transaction so the reservation commits or rolls back with the order.
+     *
+     * @param city City whose warehouse supplies the items
+     * @param requests Requested quantities per book
+     * @return What was reserved, per book in the chosen warehouse
+     * @throws InsufficientStockException listing every line that cannot be satisfied
+     * @throws IllegalStateException if the city has no warehouse
+     */
+    Reservation reserve(City city, List<StockRequest> requests);
+
+    /**
+     * Reserve stock for every consignment of an allocation in one operation
+     * Either every line of every plan is reserved or nothing is. Same transaction rules as
+     * {@link #reserve(City, List)}.
+     *
+     * @param plans Lines per warehouse, as planned by {@link StockAllocationService#allocate}
+     * @return What was reserved, one reservation per warehouse in ascending warehouse id order
+     * @throws InsufficientStockException listing every line that cannot be satisfied
+     */
+    List<Reservation> reserve(List<StockAllocationService.ConsignmentPlan> plans);
+
+    /**
+     * Give reserved stock back, e.g. when a reservation expires
+     * Must run inside the caller's transaction, like {@link #reserve(City, List)}.
+     *
+     * @param warehouseId Warehouse the stock was reserved in
+     * @param quantities Quantity to release per book id
+     */
+    void release(Long warehouseId, Map<Long, Integer> quantities);
+
+    record StockRequest(Long bookId, String title, int quantity) {}
+
+    record Reservation(Long warehouseId, SortedMap<Long, Integer> quantities) {}
+}
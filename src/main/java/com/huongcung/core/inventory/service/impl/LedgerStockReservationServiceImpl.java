@@ -0,0 +1,230 @@
+package com.huongcung.core.inventory.service.impl;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.event.StockAvailabilityChangedEvent;
+import com.huongcung.core.inventory.exception.InsufficientStockException;
+import com.huongcung.core.inventory.ledger.InventoryLedger;
+import com.huongcung.core.inventory.model.entity.WarehouseEntity;
+import com.huongcung.core.inventory.repository.WarehouseRepository;
+import com.huongcung.core.inventory.service.StockAllocationService.ConsignmentPlan;
+import com.huongcung.core.inventory.service.StockReservationService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stock reservation backed by the in-memory {@link InventoryLedger}
+ * Enabled with inventory.ledger.enabled=true for flash-sale traffic, where every checkout of a hot
+ * title would otherwise serialize on the same stock_levels row. Reservations are CAS operations in
+ * memory; committed ones are written behind to stock_levels in periodic batches.
+ *
+ * Durability trade-off: reservations committed in the last flush interval are lost if the JVM dies
+ * before the flush, and stock edited directly in the database is only picked up on restart.
+ * Only one application instance may run with the ledger enabled.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerStockReservationServiceImpl implements StockReservationService {
+
+    private static final String LOAD_SQL =
+            "SELECT book_id, warehouse_id, quantity - reserved_quantity FROM stock_levels";
+
+    private static final String FLUSH_SQL =
+            "UPDATE stock_levels SET reserved_quantity = reserved_quantity + ?, updated_at = ? " +
+            "WHERE book_id = ? AND warehouse_id = ?";
+
+    private final WarehouseRepository warehouseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final InventoryLedger ledger = new InventoryLedger();
+    private final Map<City, Long> warehouseIdByCity = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    /**
+     * Rehydrate the ledger from stock_levels once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrate() {
+        long started = System.currentTimeMillis();
+        jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> ledger.load(rs.getLong(1), rs.getLong(2), rs.getInt(3)));
+        ready = true;
+        log.info("Inventory ledger loaded {} stock slots in {}ms", ledger.size(), System.currentTimeMillis() - started);
+    }
+
+    @Override
+    public Reservation reserve(City city, List<StockRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return null;
+        }
+        if (!ready) {
+            throw new IllegalStateException("Inventory ledger is not loaded yet");
+        }
+        return reserve(List.of(new ConsignmentPlan(resolveWarehouseId(city), city, requests))).get(0);
+    }
+
+    @Override
+    public List<Reservation> reserve(List<ConsignmentPlan> plans) {
+        if (plans == null || plans.isEmpty()) {
+            return List.of();
+        }
+        if (!ready) {
+            throw new IllegalStateException("Inventory ledger is not loaded yet");
+        }
+
+        SortedMap<Long, SortedMap<Long, Integer>> quantitiesByWarehouse = new TreeMap<>();
+        Map<Long, String> titles = new TreeMap<>();
+        for (ConsignmentPlan plan : plans) {
+            SortedMap<Long, Integer> quantities = quantitiesByWarehouse.computeIfAbsent(plan.warehouseId(), id -> new TreeMap<>());
+            for (StockRequest request : plan.lines()) {
+                if (request.quantity() <= 0) {
+                    throw new IllegalArgumentException("Invalid quantity " + request.quantity() + " for book " + request.bookId());
+                }
+                quantities.merge(request.bookId(), request.quantity(), Integer::sum);
+                titles.putIfAbsent(request.bookId(), request.title());
+            }
+        }
+
+        List<Reservation> reservations = new ArrayList<>(quantitiesByWarehouse.size());
+        List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+        quantitiesByWarehouse.forEach((warehouseId, quantities) -> {
+            Map<Long, Integer> shortfalls = ledger.tryReserve(warehouseId, quantities);
+            if (shortfalls.isEmpty()) {
+                reservations.add(new Reservation(warehouseId, quantities));
+            } else {
+                shortfalls.forEach((bookId, available) -> shortages.add(new InsufficientStockException.Shortage(
+                        bookId, titles.get(bookId), quantities.get(bookId), available)));
+            }
+        });
+        if (!shortages.isEmpty()) {
+            // All or nothing across warehouses: hand back what the other warehouses did reserve
+            reservations.forEach(reservation -> ledger.release(reservation.warehouseId(), reservation.quantities()));
+            throw new InsufficientStockException(shortages);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Journal only what the order transaction actually commits
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    for (Reservation reservation : reservations) {
+                        if (status == STATUS_COMMITTED) {
+                            ledger.recordCommitted(reservation.warehouseId(), reservation.quantities());
+                        } else {
+                            ledger.release(reservation.warehouseId(), reservation.quantities());
+                        }
+                    }
+                }
+            });
+        } else {
+            reservations.forEach(reservation -> ledger.recordCommitted(reservation.warehouseId(), reservation.quantities()));
+        }
+        reservations.forEach(reservation -> eventPublisher.publishEvent(
+                new StockAvailabilityChangedEvent(this, reservation.warehouseId(), negate(reservation.quantities()))));
+        return reservations;
+    }
+
+    @Override
+    public void release(Long warehouseId, Map<Long, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Integer> negated = negate(quantities);
+
+        Runnable apply = () -> {
+            ledger.release(warehouseId, quantities);
+            ledger.recordCommitted(warehouseId, negated);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Only hand stock back once the releasing transaction has committed
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+        eventPublisher.publishEvent(new StockAvailabilityChangedEvent(this, warehouseId, new TreeMap<>(quantities)));
+    }
+
+    /**
+     * Write committed reservation deltas behind to stock_levels in one batch
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-ms:200}")
+    public void flush() {
+        List<InventoryLedger.Delta> deltas = ledger.drainJournal();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    InventoryLedger.Delta delta = deltas.get(i);
+                    ps.setInt(1, delta.reservedDelta());
+                    ps.setTimestamp(2, now);
+                    ps.setLong(3, delta.bookId());
+                    ps.setLong(4, delta.warehouseId());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return deltas.size();
+                }
+            });
+            log.debug("Flushed {} inventory ledger deltas", deltas.size());
+        } catch (Exception e) {
+            ledger.restore(deltas);
+            log.error("Failed to flush {} inventory ledger deltas, will retry: {}", deltas.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private static Map<Long, Integer> negate(Map<Long, Integer> quantities) {
+        Map<Long, Integer> negated = new TreeMap<>();
+        quantities.forEach((bookId, quantity) -> negated.put(bookId, -quantity));
+        return negated;
+    }
+
+    private long resolveWarehouseId(City city) {
+        return warehouseIdByCity.computeIfAbsent(city, c -> warehouseRepository.findByCity(c)
+                .stream()
+                .findFirst()
+                .map(WarehouseEntity::getId)
+                .orElseThrow(() -> new IllegalStateException("No warehouse found for city: " + c)));
+    }
+}
@@ -0,0 +1,225 @@
+package com.huongcung.core.inventory.service.impl;
+
+import com.huongcung.core.inventory.enumeration.ReservationStatus;
+import com.huongcung.core.inventory.expiry.HierarchicalTimingWheel;
+import com.huongcung.core.inventory.model.dto.ReservationLine;
+import com.huongcung.core.inventory.model.entity.StockReservationEntity;
+import com.huongcung.core.inventory.model.entity.WarehouseEntity;
+import com.huongcung.core.inventory.repository.StockReservationRepository;
+import com.huongcung.core.inventory.service.ReservationExpiryService;
+import com.huongcung.core.inventory.service.StockReservationService;
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.event.CustomerOrdersChangedEvent;
+import com.huongcung.core.order.event.OrderStatusChangedEvent;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.repository.OrderRepository;
+import com.huongcung.core.product.model.entity.PhysicalBookEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Expires stock reservations with a hierarchical timing wheel
+ * Order ids are scheduled on the wheel at their expiry time, so scheduling and expiring an order
+ * is O(1) regardless of how many reservations are outstanding. A periodic tick drains due orders
+ * and releases them in chunks: one lock query, one reservation query and one grouped stock release
+ * per warehouse for the whole chunk.
+ *
+ * Every order, COD included, holds an expiring reservation. An order leaves PENDING once it is paid
+ * or its shipment is booked (see ShipmentStageHandler), so an order still PENDING when its
+ * reservation expires was abandoned: it is cancelled and its stock handed back.
+ *
+ * The wheel only lives in memory; reservations are persisted in stock_reservations and the schedule
+ * is rebuilt from ACTIVE rows on startup.
+ */
+@Service
+@Slf4j
+public class ReservationExpiryServiceImpl implements ReservationExpiryService {
+
+    private static final long TICK_MS = 1000L;
+    private static final int WHEEL_SIZE = 64;
+
+    private final StockReservationRepository stockReservationRepository;
+    private final OrderRepository orderRepository;
+    private final StockReservationService stockReservationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${inventory.reservation.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${inventory.reservation.release-batch-size:500}")
+    private int releaseBatchSize;
+
+    // Guarded by itself: the wheel is not thread-safe
+    private final HierarchicalTimingWheel<Long> wheel =
+            new HierarchicalTimingWheel<>(TICK_MS, WHEEL_SIZE, System.currentTimeMillis());
+
+    // Orders already due when scheduled, or whose release failed (guarded by wheel)
+    private final List<Long> overdue = new ArrayList<>();
+
+    public ReservationExpiryServiceImpl(StockReservationRepository stockReservationRepository,
+                                        OrderRepository orderRepository,
+                                        StockReservationService stockReservationService,
+                                        TransactionTemplate transactionTemplate,
+                                        ApplicationEventPublisher eventPublisher) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.orderRepository = orderRepository;
+        this.stockReservationService = stockReservationService;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public void trackOrder(OrderEntity order, List<StockReservationService.Reservation> reservations) {
+        if (reservations == null || reservations.stream().allMatch(reservation -> reservation.quantities().isEmpty())) {
+            return;
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(ttlMinutes);
+
+        List<StockReservationEntity> rows = new ArrayList<>();
+        for (StockReservationService.Reservation reservation : reservations) {
+            WarehouseEntity warehouse = entityManager.getReference(WarehouseEntity.class, reservation.warehouseId());
+            reservation.quantities().forEach((bookId, quantity) -> {
+                StockReservationEntity row = new StockReservationEntity();
+                row.setOrder(order);
+                row.setBook(entityManager.getReference(PhysicalBookEntity.class, bookId));
+                row.setWarehouse(warehouse);
+                row.setQuantity(quantity);
+                row.setStatus(ReservationStatus.ACTIVE);
+                row.setExpiresAt(expiresAt);
+                rows.add(row);
+            });
+        }
+        stockReservationRepository.saveAll(rows);
+
+        Long orderId = order.getId();
+        long expiresAtMs = toEpochMillis(expiresAt);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A rolled back order has nothing to expire
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedule(orderId, expiresAtMs);
+                }
+            });
+        } else {
+            schedule(orderId, expiresAtMs);
+        }
+    }
+
+    /**
+     * Rebuild the expiry schedule from ACTIVE reservations after a restart
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        List<Object[]> expiries = stockReservationRepository.findExpiryByOrder(ReservationStatus.ACTIVE);
+        for (Object[] expiry : expiries) {
+            schedule((Long) expiry[0], toEpochMillis((LocalDateTime) expiry[1]));
+        }
+        log.info("Recovered {} reservation expiries", expiries.size());
+        releaseExpired();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${inventory.reservation.tick-ms:1000}")
+    public int releaseExpired() {
+        List<Long> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+            due.addAll(overdue);
+            overdue.clear();
+        }
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        int chunkSize = Math.max(releaseBatchSize, 1);
+        for (int from = 0; from < due.size(); from += chunkSize) {
+            List<Long> chunk = due.subList(from, Math.min(from + chunkSize, due.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> releaseChunk(chunk));
+            } catch (Exception e) {
+                // Keep the orders due so the next tick retries them
+                log.error("Failed to release {} expired reservation(s): {}", chunk.size(), e.getMessage(), e);
+                synchronized (wheel) {
+                    overdue.addAll(chunk);
+                }
+            }
+        }
+        return due.size();
+    }
+
+    private void releaseChunk(List<Long> orderIds) {
+        // Lock the orders still PENDING, neither paid nor booked, so a concurrent payment or booking cannot slip in
+        Set<Long> pending = new HashSet<>(orderRepository.lockIdsByStatus(orderIds, OrderStatus.PENDING.name()));
+        List<ReservationLine> lines = stockReservationRepository.findLinesByOrderIds(orderIds, ReservationStatus.ACTIVE);
+
+        Map<Long, Map<Long, Integer>> releaseByWarehouse = new TreeMap<>();
+        List<Long> released = new ArrayList<>();
+        List<Long> confirmed = new ArrayList<>();
+        for (ReservationLine line : lines) {
+            if (pending.contains(line.orderId())) {
+                releaseByWarehouse.computeIfAbsent(line.warehouseId(), id -> new HashMap<>())
+                        .merge(line.bookId(), line.quantity(), Integer::sum);
+                released.add(line.id());
+            } else {
+                // Paid or otherwise progressed: the stock stays with the order
+                confirmed.add(line.id());
+            }
+        }
+
+        releaseByWarehouse.forEach(stockReservationService::release);
+
+        LocalDateTime now = LocalDateTime.now();
+        if (!released.isEmpty()) {
+            stockReservationRepository.updateStatus(released, ReservationStatus.RELEASED, now);
+        }
+        if (!confirmed.isEmpty()) {
+            stockReservationRepository.updateStatus(confirmed, ReservationStatus.CONFIRMED, now);
+        }
+        if (!pending.isEmpty()) {
+            orderRepository.updateStatus(pending, OrderStatus.CANCELLED, now);
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(this, pending, OrderStatus.PENDING, OrderStatus.CANCELLED));
+            eventPublisher.publishEvent(new CustomerOrdersChangedEvent(this, orderRepository.findCustomerIdsByIds(pending)));
+        }
+
+        log.info("Expired reservations of {} order(s): {} cancelled, {} line(s) released, {} line(s) confirmed",
+                orderIds.size(), pending.size(), released.size(), confirmed.size());
+    }
+
+    private void schedule(Long orderId, long expiresAtMs) {
+        synchronized (wheel) {
+            if (!wheel.add(orderId, expiresAtMs)) {
+                overdue.add(orderId);
+            }
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,131 @@
+package com.huongcung.core.inventory.service.impl;
+
+import com.huongcung.core.inventory.allocation.StockSnapshot;
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.event.StockAvailabilityChangedEvent;
+import com.huongcung.core.inventory.service.StockAllocationService;
+import com.huongcung.core.inventory.service.StockReservationService.StockRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Allocates carts to warehouses from a {@link StockSnapshot}
+ * The snapshot is rebuilt from stock_levels periodically and kept current in between by the
+ * reservation and release events of committed transactions. Stock changes made outside the
+ * reservation services (e.g. restocking) show up with the next rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockAllocationServiceImpl implements StockAllocationService {
+
+    private static final String WAREHOUSES_SQL = "SELECT id, city FROM warehouses";
+
+    private static final String STOCK_SQL =
+            "SELECT book_id, warehouse_id, quantity - reserved_quantity FROM stock_levels";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile StockSnapshot snapshot;
+
+    private final LongAdder allocationCount = new LongAdder();
+    private final LongAdder splitCount = new LongAdder();
+    private final LongAdder allocationNanos = new LongAdder();
+
+    @Override
+    public List<ConsignmentPlan> allocate(City destination, List<StockRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return List.of();
+        }
+
+        TreeMap<Long, StockRequest> byBookId = new TreeMap<>();
+        for (StockRequest request : requests) {
+            if (request.quantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity " + request.quantity() + " for book " + request.bookId());
+            }
+            byBookId.merge(request.bookId(), request, (a, b) -> new StockRequest(a.bookId(), a.title(), a.quantity() + b.quantity()));
+        }
+
+        StockSnapshot current = snapshot != null ? snapshot : rebuild();
+        long started = System.nanoTime();
+        List<ConsignmentPlan> plans = current.allocate(destination, new ArrayList<>(byBookId.values()));
+        allocationNanos.add(System.nanoTime() - started);
+        allocationCount.increment();
+        if (plans.size() > 1) {
+            splitCount.increment();
+            log.debug("Split {} book line(s) for {} across {} warehouses", byBookId.size(), destination, plans.size());
+        }
+        return plans;
+    }
+
+    /**
+     * Rebuild the snapshot from the database
+     */
+    @Scheduled(fixedDelayString = "${inventory.allocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            // Keep allocating from the previous snapshot
+            log.error("Failed to refresh stock allocation snapshot: {}", e.getMessage(), e);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockAvailabilityChanged(StockAvailabilityChangedEvent event) {
+        StockSnapshot current = snapshot;
+        if (current != null) {
+            event.getDeltas().forEach((bookId, delta) -> current.adjust(event.getWarehouseId(), bookId, delta));
+        }
+    }
+
+    private synchronized StockSnapshot rebuild() {
+        long started = System.currentTimeMillis();
+        StockSnapshot.Builder builder = StockSnapshot.builder();
+        jdbcTemplate.query(WAREHOUSES_SQL,
+                (RowCallbackHandler) rs -> builder.warehouse(rs.getLong(1), City.valueOf(rs.getString(2))));
+        jdbcTemplate.query(STOCK_SQL,
+                (RowCallbackHandler) rs -> builder.stock(rs.getLong(1), rs.getLong(2), rs.getInt(3)));
+        StockSnapshot rebuilt = builder.build();
+        snapshot = rebuilt;
+        log.debug("Stock allocation snapshot rebuilt with {} books in {} warehouses in {}ms",
+                rebuilt.bookCount(), rebuilt.warehouseCount(), System.currentTimeMillis() - started);
+        return rebuilt;
+    }
+
+    /**
+     * Log allocation stats every 5 minutes
+     */
+    @Scheduled(fixedRate = 300000)
+    public void logStats() {
+        long count = allocationCount.sum();
+        if (count > 0) {
+            log.info("Stock allocation stats - Allocations: {}, Split: {}, Avg time: {}us",
+                    count, splitCount.sum(), String.format("%.1f", getAverageAllocationMicros()));
+        }
+    }
+
+    public long getAllocationCount() {
+        return allocationCount.sum();
+    }
+
+    public long getSplitCount() {
+        return splitCount.sum();
+    }
+
+    public double getAverageAllocationMicros() {
+        long count = allocationCount.sum();
+        return count > 0 ? allocationNanos.sum() / 1000.0 / count : 0.0;
+    }
+}
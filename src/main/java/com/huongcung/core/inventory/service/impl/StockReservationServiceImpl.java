@@ -0,0 +1,214 @@
+package com.huongcung.core.inventory.service.impl;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.event.StockAvailabilityChangedEvent;
+import com.huongcung.core.inventory.exception.InsufficientStockException;
+import com.huongcung.core.inventory.model.entity.WarehouseEntity;
+import com.huongcung.core.inventory.repository.WarehouseRepository;
+import com.huongcung.core.inventory.service.StockAllocationService.ConsignmentPlan;
+import com.huongcung.core.inventory.service.StockReservationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Reserves stock with one conditional UPDATE per book, sent as a single JDBC batch
+ * The availability check and the increment happen atomically in the database, so no row has
+ * to be read or locked beforehand. Rows are updated in ascending book id order within the
+ * warehouse, and in ascending warehouse id order across warehouses, so concurrent carts always take
+ * row locks in the same order and cannot deadlock.
+ */
+@Service
+@ConditionalOnProperty(name = "inventory.ledger.enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationServiceImpl implements StockReservationService {
+
+    private static final String RESERVE_SQL =
+            "UPDATE stock_levels SET reserved_quantity = reserved_quantity + ?, updated_at = ? " +
+            "WHERE warehouse_id = ? AND book_id = ? AND quantity - reserved_quantity >= ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE stock_levels SET reserved_quantity = GREATEST(reserved_quantity - ?, 0), updated_at = ? " +
+            "WHERE warehouse_id = ? AND book_id = ?";
+
+    private static final String AVAILABLE_SQL =
+            "SELECT book_id, quantity - reserved_quantity FROM stock_levels WHERE warehouse_id = ? AND book_id IN (%s)";
+
+    private final WarehouseRepository warehouseRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public Reservation reserve(City city, List<StockRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return null;
+        }
+
+        WarehouseEntity warehouse = warehouseRepository.findByCity(city)
+                .stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No warehouse found for city: " + city));
+
+        return reserve(List.of(new ConsignmentPlan(warehouse.getId(), city, requests))).get(0);
+    }
+
+    @Override
+    @Transactional
+    public List<Reservation> reserve(List<ConsignmentPlan> plans) {
+        if (plans == null || plans.isEmpty()) {
+            return List.of();
+        }
+
+        // Rows go out in (warehouse id, book id) order, so carts spanning warehouses lock rows in the same order too
+        SortedMap<Long, List<StockRequest>> linesByWarehouse = new TreeMap<>();
+        for (ConsignmentPlan plan : plans) {
+            linesByWarehouse.merge(plan.warehouseId(), plan.lines(), (a, b) -> {
+                List<StockRequest> merged = new ArrayList<>(a);
+                merged.addAll(b);
+                return merged;
+            });
+        }
+        List<Long> warehouseIds = new ArrayList<>();
+        List<StockRequest> lines = new ArrayList<>();
+        linesByWarehouse.forEach((warehouseId, warehouseLines) -> {
+            for (StockRequest line : combineInBookIdOrder(warehouseLines)) {
+                warehouseIds.add(warehouseId);
+                lines.add(line);
+            }
+        });
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int[] updateCounts = jdbcTemplate.batchUpdate(RESERVE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockRequest line = lines.get(i);
+                ps.setInt(1, line.quantity());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, warehouseIds.get(i));
+                ps.setLong(4, line.bookId());
+                ps.setInt(5, line.quantity());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+
+        SortedMap<Long, List<StockRequest>> failed = new TreeMap<>();
+        for (int i = 0; i < lines.size(); i++) {
+            // SUCCESS_NO_INFO is only reported by drivers that rewrite batches; treat it as applied
+            if (updateCounts[i] == 0) {
+                failed.computeIfAbsent(warehouseIds.get(i), id -> new ArrayList<>()).add(lines.get(i));
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            // Thrown inside the transaction, so the lines that did succeed are rolled back with it
+            List<InsufficientStockException.Shortage> shortages = new ArrayList<>();
+            failed.forEach((warehouseId, failedLines) -> shortages.addAll(describeShortages(warehouseId, failedLines)));
+            throw new InsufficientStockException(shortages);
+        }
+
+        List<Reservation> reservations = new ArrayList<>(linesByWarehouse.size());
+        for (Long warehouseId : linesByWarehouse.keySet()) {
+            SortedMap<Long, Integer> quantities = new TreeMap<>();
+            for (int i = 0; i < lines.size(); i++) {
+                if (warehouseIds.get(i).equals(warehouseId)) {
+                    quantities.put(lines.get(i).bookId(), lines.get(i).quantity());
+                }
+            }
+            reservations.add(new Reservation(warehouseId, quantities));
+            eventPublisher.publishEvent(new StockAvailabilityChangedEvent(this, warehouseId, negate(quantities)));
+        }
+
+        log.debug("Reserved {} book line(s) in {} warehouse(s)", lines.size(), reservations.size());
+        return reservations;
+    }
+
+    @Override
+    @Transactional
+    public void release(Long warehouseId, Map<Long, Integer> quantities) {
+        if (quantities == null || quantities.isEmpty()) {
+            return;
+        }
+
+        // Same ascending book id order as reserve, so releases and reservations lock rows alike
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        jdbcTemplate.batchUpdate(RELEASE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> line = lines.get(i);
+                ps.setInt(1, line.getValue());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, warehouseId);
+                ps.setLong(4, line.getKey());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+
+        eventPublisher.publishEvent(new StockAvailabilityChangedEvent(this, warehouseId, new TreeMap<>(quantities)));
+
+        log.debug("Released {} book line(s) in warehouse {}", lines.size(), warehouseId);
+    }
+
+    private List<StockRequest> combineInBookIdOrder(List<StockRequest> requests) {
+        Map<Long, StockRequest> byBookId = new TreeMap<>();
+        for (StockRequest request : requests) {
+            if (request.quantity() <= 0) {
+                throw new IllegalArgumentException("Invalid quantity " + request.quantity() + " for book " + request.bookId());
+            }
+            byBookId.merge(request.bookId(), request, (a, b) -> new StockRequest(a.bookId(), a.title(), a.quantity() + b.quantity()));
+        }
+        return new ArrayList<>(byBookId.values());
+    }
+
+    private static Map<Long, Integer> negate(Map<Long, Integer> quantities) {
+        Map<Long, Integer> negated = new TreeMap<>();
+        quantities.forEach((bookId, quantity) -> negated.put(bookId, -quantity));
+        return negated;
+    }
+
+    private List<InsufficientStockException.Shortage> describeShortages(Long warehouseId, List<StockRequest> failed) {
+        String placeholders = String.join(",", Collections.nCopies(failed.size(), "?"));
+        List<Object> args = new ArrayList<>();
+        args.add(warehouseId);
+        failed.forEach(line -> args.add(line.bookId()));
+
+        Map<Long, Integer> available = new HashMap<>();
+        jdbcTemplate.query(String.format(AVAILABLE_SQL, placeholders),
+                (RowCallbackHandler) rs -> available.put(rs.getLong(1), rs.getInt(2)),
+                args.toArray());
+
+        return failed.stream()
+                .map(line -> new InsufficientStockException.Shortage(line.bookId(), line.title(), line.quantity(),
+                        Math.max(0, available.getOrDefault(line.bookId(), 0))))
+                .toList();
+    }
+}
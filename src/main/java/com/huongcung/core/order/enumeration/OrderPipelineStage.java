@@ -0,0 +1,18 @@
+package com.huongcung.core.order.enumeration;
+
+/**
+ * Stages of the post-order pipeline, in execution order
+ */
+public enum OrderPipelineStage {
+    CONSIGNMENTS,
+    SHIPMENT,
+    NOTIFICATION;
+
+    /**
+     * The stage that follows this one, or null for the last stage
+     */
+    public OrderPipelineStage next() {
+        OrderPipelineStage[] stages = values();
+        return ordinal() + 1 < stages.length ? stages[ordinal() + 1] : null;
+    }
+}
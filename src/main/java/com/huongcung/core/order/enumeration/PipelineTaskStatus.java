@@ -0,0 +1,8 @@
+package com.huongcung.core.order.enumeration;
+
+public enum PipelineTaskStatus {
+    PENDING,
+    RUNNING,
+    DONE,
+    FAILED
+}
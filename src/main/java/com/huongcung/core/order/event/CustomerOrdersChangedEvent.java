@@ -0,0 +1,22 @@
+package com.huongcung.core.order.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+
+/**
+ * Event published when orders of the given customers changed after placement, e.g. their status,
+ * delivery info or consignments
+ * Listeners that keep a view of customer orders should listen after commit.
+ */
+@Getter
+public class CustomerOrdersChangedEvent extends ApplicationEvent {
+
+    private final Collection<Long> customerIds;
+
+    public CustomerOrdersChangedEvent(Object source, Collection<Long> customerIds) {
+        super(source);
+        this.customerIds = customerIds;
+    }
+}
@@ -0,0 +1,45 @@
+package com.huongcung.core.order.event;
+
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.model.entity.OrderEntryEntity;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Event published when an order has been placed
+ * Carries what listeners need about the sale, so they do not have to load the order again.
+ * Listeners that must not see rolled back orders should listen after commit.
+ */
+@Getter
+public class OrderPlacedEvent extends ApplicationEvent {
+
+    private final Long orderId;
+
+    private final Long customerId;
+
+    private final LocalDateTime placedAt;
+
+    private final BigDecimal totalAmount;
+
+    // Quantity ordered per book id
+    private final Map<Long, Integer> bookQuantities;
+
+    public OrderPlacedEvent(Object source, OrderEntity order) {
+        super(source);
+        this.orderId = order.getId();
+        this.customerId = order.getCustomer().getId();
+        this.placedAt = order.getCreatedAt() != null ? order.getCreatedAt() : LocalDateTime.now();
+        this.totalAmount = order.getTotalAmount();
+        this.bookQuantities = new HashMap<>();
+        if (order.getEntries() != null) {
+            for (OrderEntryEntity entry : order.getEntries()) {
+                bookQuantities.merge(entry.getBook().getId(), entry.getQuantity(), Integer::sum);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.huongcung.core.order.event;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Collection;
+
+/**
+ * Event published when orders moved from one status to another
+ * Listeners that keep counts of orders by status should listen after commit.
+ */
+@Getter
+public class OrderStatusChangedEvent extends ApplicationEvent {
+
+    private final Collection<Long> orderIds;
+
+    private final OrderStatus from;
+
+    private final OrderStatus to;
+
+    public OrderStatusChangedEvent(Object source, Collection<Long> orderIds, OrderStatus from, OrderStatus to) {
+        super(source);
+        this.orderIds = orderIds;
+        this.from = from;
+        this.to = to;
+    }
+}
@@ -0,0 +1,7 @@
+package com.huongcung.core.order.model.dto;
+
+/**
+ * Units of a book ordered over a period
+ */
+public record BookSales(Long bookId, long units) {
+}
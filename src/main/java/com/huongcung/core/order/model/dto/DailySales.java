@@ -0,0 +1,9 @@
+package com.huongcung.core.order.model.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Orders placed on a day and their total amount in whole dong
+ */
+public record DailySales(LocalDate date, long orderCount, long revenue) {
+}
@@ -0,0 +1,16 @@
+package com.huongcung.core.order.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One order entry with the columns of its order, as read by the order export
+ * The entry columns are null for an order without entries.
+ */
+public record OrderExportLine(Long orderId, String orderNumber, LocalDateTime createdAt, String status,
+                              String paymentStatus, String paymentMethod, Long customerId, BigDecimal subtotal,
+                              BigDecimal taxAmount, BigDecimal shippingAmount,
+                              BigDecimal discountAmount, BigDecimal totalAmount,
+                              Long entryId, String bookCode, String bookTitle, String itemType, Integer quantity,
+                              BigDecimal unitPrice, BigDecimal totalPrice) {
+}
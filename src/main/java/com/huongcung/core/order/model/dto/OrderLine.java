@@ -0,0 +1,12 @@
+package com.huongcung.core.order.model.dto;
+
+import com.huongcung.core.order.enumeration.ItemType;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat view of one order entry with the book's code and title
+ */
+public record OrderLine(Long id, String bookCode, String bookTitle, ItemType itemType, Integer quantity,
+                        BigDecimal unitPrice, BigDecimal totalPrice) {
+}
@@ -0,0 +1,14 @@
+package com.huongcung.core.order.model.dto;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.enumeration.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat view of one order with its total item quantity, for order lists
+ */
+public record OrderSummary(Long id, String orderNumber, LocalDateTime createdAt, OrderStatus status,
+                           PaymentStatus paymentStatus, BigDecimal totalAmount, Long itemCount) {
+}
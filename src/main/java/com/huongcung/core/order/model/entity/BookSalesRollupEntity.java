@@ -0,0 +1,45 @@
+package com.huongcung.core.order.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Units ordered per book and day, maintained by SalesStatsService
+ */
+@Entity
+@Table(name = "book_sales_rollups",
+       indexes = @Index(name = "idx_book_sales_rollups_date", columnList = "sales_date"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSalesRollupEntity {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "units", nullable = false)
+    private Long units = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+
+        @Column(name = "book_id")
+        private Long bookId;
+
+        @Column(name = "sales_date")
+        private LocalDate salesDate;
+    }
+}
@@ -0,0 +1,33 @@
+package com.huongcung.core.order.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Orders placed and their value per day, maintained by SalesStatsService
+ */
+@Entity
+@Table(name = "daily_sales_rollups")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DailySalesRollupEntity {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    // Total amount of the orders in whole dong
+    @Column(name = "revenue", nullable = false)
+    private Long revenue = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
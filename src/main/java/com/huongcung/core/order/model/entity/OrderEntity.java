@@ -14,7 +14,12 @@ import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+       indexes = {
+           @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at"),
+           // Date range exports read orders in (created_at, id) order straight from this index
+           @Index(name = "idx_orders_created", columnList = "created_at")
+       })
 @Getter
 @Setter
 @AllArgsConstructor
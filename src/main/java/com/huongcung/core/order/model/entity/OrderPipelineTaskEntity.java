@@ -0,0 +1,47 @@
+package com.huongcung.core.order.model.entity;
+
+import com.huongcung.core.common.model.entity.BaseEntity;
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+import com.huongcung.core.order.enumeration.PipelineTaskStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Durable queue entry for one stage of the post-order pipeline
+ * While a task is RUNNING, nextAttemptAt holds the lease expiry after which another worker may take it over.
+ */
+@Entity
+@Table(name = "order_pipeline_tasks",
+       uniqueConstraints = @UniqueConstraint(name = "uk_order_pipeline_tasks_order_stage", columnNames = {"order_id", "stage"}),
+       indexes = @Index(name = "idx_order_pipeline_tasks_due", columnList = "stage, status, next_attempt_at"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderPipelineTaskEntity extends BaseEntity {
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stage", nullable = false)
+    private OrderPipelineStage stage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private PipelineTaskStatus status = PipelineTaskStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+}
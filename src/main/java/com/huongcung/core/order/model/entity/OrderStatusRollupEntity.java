@@ -0,0 +1,30 @@
+package com.huongcung.core.order.model.entity;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of orders per status, maintained by SalesStatsService
+ */
+@Entity
+@Table(name = "order_status_rollups")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderStatusRollupEntity {
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 20)
+    private OrderStatus status;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -1,10 +1,22 @@
 package com.huongcung.core.order.repository;
 
+import com.huongcung.core.order.model.dto.OrderLine;
 import com.huongcung.core.order.model.entity.OrderEntryEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface OrderEntryRepository extends JpaRepository<OrderEntryEntity, Long> {
-}
 
+    /**
+     * Lines of an order with book code and title in one query, without loading entries or books
+     */
+    @Query("SELECT new com.huongcung.core.order.model.dto.OrderLine(" +
+           "e.id, b.code, b.title, e.itemType, e.quantity, e.unitPrice, e.totalPrice) " +
+           "FROM OrderEntryEntity e JOIN e.book b WHERE e.order.id = :orderId ORDER BY e.id")
+    List<OrderLine> findLinesByOrderId(@Param("orderId") Long orderId);
+}
@@ -0,0 +1,49 @@
+package com.huongcung.core.order.repository;
+
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+import com.huongcung.core.order.enumeration.PipelineTaskStatus;
+import com.huongcung.core.order.model.entity.OrderPipelineTaskEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderPipelineTaskRepository extends JpaRepository<OrderPipelineTaskEntity, Long> {
+
+    boolean existsByOrderIdAndStage(Long orderId, OrderPipelineStage stage);
+
+    /**
+     * Ids of tasks of a stage that are waiting and due, oldest first
+     */
+    @Query("SELECT t.id FROM OrderPipelineTaskEntity t WHERE t.stage = :stage AND t.status = :status " +
+           "AND t.nextAttemptAt <= :now ORDER BY t.nextAttemptAt")
+    List<Long> findDueIds(@Param("stage") OrderPipelineStage stage,
+                          @Param("status") PipelineTaskStatus status,
+                          @Param("now") LocalDateTime now,
+                          Pageable pageable);
+
+    /**
+     * Take a due task for this worker; returns 0 when another worker got it first
+     */
+    @Modifying
+    @Query("UPDATE OrderPipelineTaskEntity t SET t.status = com.huongcung.core.order.enumeration.PipelineTaskStatus.RUNNING, " +
+           "t.attempts = t.attempts + 1, t.nextAttemptAt = :leaseUntil, t.updatedAt = :now " +
+           "WHERE t.id = :id AND t.status = com.huongcung.core.order.enumeration.PipelineTaskStatus.PENDING " +
+           "AND t.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Put RUNNING tasks whose lease has expired (their worker died) back in the queue
+     */
+    @Modifying
+    @Query("UPDATE OrderPipelineTaskEntity t SET t.status = com.huongcung.core.order.enumeration.PipelineTaskStatus.PENDING, " +
+           "t.updatedAt = :now " +
+           "WHERE t.status = com.huongcung.core.order.enumeration.PipelineTaskStatus.RUNNING AND t.nextAttemptAt < :now")
+    int requeueExpired(@Param("now") LocalDateTime now);
+}
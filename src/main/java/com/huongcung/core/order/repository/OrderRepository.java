@@ -1,17 +1,74 @@
 package com.huongcung.core.order.repository;
 
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.model.dto.OrderSummary;
 import com.huongcung.core.order.model.entity.OrderEntity;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<OrderEntity, Long> {
+    
+    String SUMMARY_SELECT = "SELECT new com.huongcung.core.order.model.dto.OrderSummary(" +
+        "o.id, o.orderNumber, o.createdAt, o.status, o.paymentStatus, o.totalAmount, " +
+        "(SELECT COALESCE(SUM(e.quantity), 0) FROM OrderEntryEntity e WHERE e.order = o)) " +
+        "FROM OrderEntity o ";
+    
+    // Served by idx_orders_customer_created; InnoDB appends the primary key, which breaks createdAt ties
+    String SUMMARY_ORDER = "ORDER BY o.createdAt DESC, o.id DESC";
+    
     Optional<OrderEntity> findByOrderNumber(String orderNumber);
     
-    Page<OrderEntity> findByCustomerIdOrderByCreatedAtDesc(Long customerId, Pageable pageable);
+    /**
+     * Order with its delivery info in one query, only if it belongs to the customer
+     * Loaded as a fetch graph, so the customer stays an unloaded reference.
+     */
+    @EntityGraph(attributePaths = "deliveryInfo")
+    @Query("SELECT o FROM OrderEntity o WHERE o.id = :id AND o.customer.id = :customerId")
+    Optional<OrderEntity> findDetailsByIdAndCustomerId(@Param("id") Long id, @Param("customerId") Long customerId);
+    
+    /**
+     * Newest orders of a customer with their item quantity, in one statement and without loading entries
+     */
+    @Query(SUMMARY_SELECT + "WHERE o.customer.id = :customerId " + SUMMARY_ORDER)
+    List<OrderSummary> findSummaries(@Param("customerId") Long customerId, Pageable limit);
+    
+    /**
+     * Orders of a customer placed before the given (createdAt, id) keyset position, newest first
+     */
+    @Query(SUMMARY_SELECT + "WHERE o.customer.id = :customerId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " + SUMMARY_ORDER)
+    List<OrderSummary> findSummariesBefore(@Param("customerId") Long customerId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable limit);
+    
+    /**
+     * Lock the orders among {@code ids} that are still in the given status and return their ids
+     */
+    @Query(value = "SELECT id FROM orders WHERE id IN (:ids) AND status = :status FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsByStatus(@Param("ids") Collection<Long> ids, @Param("status") String status);
+    
+    /**
+     * Get the distinct customers of the given orders
+     */
+    @Query("SELECT DISTINCT o.customer.id FROM OrderEntity o WHERE o.id IN :ids")
+    List<Long> findCustomerIdsByIds(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Query("UPDATE OrderEntity o SET o.status = :status, o.updatedAt = :now WHERE o.id IN :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("status") OrderStatus status,
+                     @Param("now") LocalDateTime now);
 }
 
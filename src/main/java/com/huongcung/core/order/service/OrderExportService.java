@@ -0,0 +1,28 @@
+package com.huongcung.core.order.service;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.model.dto.OrderExportLine;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Reads orders with their entries for export
+ */
+public interface OrderExportService {
+
+    /**
+     * Stream the entries of the orders created in a period, one line per entry
+     * Lines arrive ordered by order creation time and order id, and the lines of an order are
+     * consecutive, so a consumer can group them without holding more than one order.
+     *
+     * @param from Start of the period, inclusive
+     * @param to End of the period, exclusive
+     * @param statuses Order statuses to include; all statuses when empty
+     * @param consumer Receives every line as it is read
+     * @return Number of lines streamed
+     */
+    long streamOrderLines(LocalDateTime from, LocalDateTime to, Collection<OrderStatus> statuses,
+                          Consumer<OrderExportLine> consumer);
+}
@@ -0,0 +1,43 @@
+package com.huongcung.core.order.service;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.model.dto.BookSales;
+import com.huongcung.core.order.model.dto.DailySales;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sales and order status figures for dashboards
+ * Figures are maintained incrementally from order events and rollup tables, so answering them
+ * never scans orders or order entries. A day's sales count the orders placed that day at their
+ * placed amount, including orders cancelled later.
+ */
+public interface SalesStatsService {
+
+    /**
+     * Get the orders placed per day between two days, both inclusive, in date order
+     */
+    List<DailySales> getDailySales(LocalDate from, LocalDate to);
+
+    /**
+     * Get the current number of orders in each status
+     */
+    Map<OrderStatus, Long> getOrderCountsByStatus();
+
+    /**
+     * Get the units of a book ordered between two days, both inclusive
+     */
+    long getUnitsSold(Long bookId, LocalDate from, LocalDate to);
+
+    /**
+     * Get the books with the most units ordered between two days, both inclusive, most first
+     */
+    List<BookSales> getTopBooks(LocalDate from, LocalDate to, int limit);
+
+    /**
+     * Recompute all rollups from orders and order entries, replacing the current figures
+     */
+    void rebuild();
+}
@@ -0,0 +1,100 @@
+package com.huongcung.core.order.service.impl;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.model.dto.OrderExportLine;
+import com.huongcung.core.order.service.OrderExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.function.Consumer;
+
+/**
+ * Streams order lines for export over a forward-only, read-only cursor
+ * With useCursorFetch in the datasource URL the driver fetches fetch-size rows per round trip
+ * instead of reading the whole result into memory, so the export stays flat in memory however
+ * many orders the period holds. Rows come in idx_orders_created order, so no sort is needed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final String EXPORT_SQL =
+            "SELECT o.id, o.order_number, o.created_at, o.status, o.payment_status, o.payment_method, " +
+            "o.customer_id, o.subtotal, o.tax_amount, o.shipping_amount, o.discount_amount, o.total_amount, " +
+            "e.id, b.code, b.title, e.item_type, e.quantity, e.unit_price, e.total_price " +
+            "FROM orders o " +
+            "LEFT JOIN order_entry e ON e.order_id = o.id " +
+            "LEFT JOIN books b ON b.id = e.book_id " +
+            "WHERE o.created_at >= ? AND o.created_at < ?";
+
+    private static final String ORDER_BY = " ORDER BY o.created_at, o.id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${order.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Override
+    public long streamOrderLines(LocalDateTime from, LocalDateTime to, Collection<OrderStatus> statuses,
+                                 Consumer<OrderExportLine> consumer) {
+        String sql = statuses.isEmpty()
+                ? EXPORT_SQL + ORDER_BY
+                : EXPORT_SQL + " AND o.status IN (" + String.join(", ", Collections.nCopies(statuses.size(), "?")) + ")"
+                  + ORDER_BY;
+        long[] count = new long[1];
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            int index = 1;
+            statement.setTimestamp(index++, Timestamp.valueOf(from));
+            statement.setTimestamp(index++, Timestamp.valueOf(to));
+            for (OrderStatus status : statuses) {
+                statement.setString(index++, status.name());
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> {
+            consumer.accept(toLine(rs));
+            count[0]++;
+        });
+
+        return count[0];
+    }
+
+    private static OrderExportLine toLine(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp(3);
+        return new OrderExportLine(
+                rs.getLong(1),
+                rs.getString(2),
+                createdAt != null ? createdAt.toLocalDateTime() : null,
+                rs.getString(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getObject(7, Long.class),
+                rs.getBigDecimal(8),
+                rs.getBigDecimal(9),
+                rs.getBigDecimal(10),
+                rs.getBigDecimal(11),
+                rs.getBigDecimal(12),
+                rs.getObject(13, Long.class),
+                rs.getString(14),
+                rs.getString(15),
+                rs.getString(16),
+                rs.getObject(17, Integer.class),
+                rs.getBigDecimal(18),
+                rs.getBigDecimal(19));
+    }
+}
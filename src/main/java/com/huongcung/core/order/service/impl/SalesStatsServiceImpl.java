@@ -0,0 +1,354 @@
+package com.huongcung.core.order.service.impl;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.event.OrderPlacedEvent;
+import com.huongcung.core.order.event.OrderStatusChangedEvent;
+import com.huongcung.core.order.model.dto.BookSales;
+import com.huongcung.core.order.model.dto.DailySales;
+import com.huongcung.core.order.service.SalesStatsService;
+import com.huongcung.core.order.stats.SalesCounters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Maintains sales and order status figures in {@link SalesCounters}
+ * Committed order events update the counters, and a periodic flush adds the changes to the
+ * rollup tables in one transaction and reloads the recent window from them. Every instance adds
+ * its own changes, so the tables stay correct with several instances, and each instance sees the
+ * others' changes after its next flush.
+ *
+ * The rollups are rebuilt from orders and order entries on startup when they are empty, and on
+ * request; orders placed while a rebuild runs may be counted twice or not at all. A rebuild holds a
+ * MySQL named lock, and a starting instance checks again for rollups once it has the lock, so
+ * instances starting together build them once instead of deleting each other's flushed changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SalesStatsServiceImpl implements SalesStatsService {
+
+    private static final String UPSERT_STATUS_SQL =
+            "INSERT INTO order_status_rollups (status, order_count, updated_at) VALUES (?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), updated_at = VALUES(updated_at)";
+
+    private static final String UPSERT_DAY_SQL =
+            "INSERT INTO daily_sales_rollups (sales_date, order_count, revenue, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "revenue = revenue + VALUES(revenue), updated_at = VALUES(updated_at)";
+
+    private static final String UPSERT_BOOK_DAY_SQL =
+            "INSERT INTO book_sales_rollups (book_id, sales_date, units, updated_at) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE units = units + VALUES(units), updated_at = VALUES(updated_at)";
+
+    private static final String STATUS_SQL = "SELECT status, order_count FROM order_status_rollups";
+
+    private static final String DAYS_SQL =
+            "SELECT sales_date, order_count, revenue FROM daily_sales_rollups WHERE sales_date BETWEEN ? AND ?";
+
+    private static final String DAYS_FROM_SQL =
+            "SELECT sales_date, order_count, revenue FROM daily_sales_rollups WHERE sales_date >= ?";
+
+    private static final String BOOK_DAYS_SQL =
+            "SELECT book_id, sales_date, units FROM book_sales_rollups WHERE sales_date >= ?";
+
+    private static final String BOOK_UNITS_SQL =
+            "SELECT COALESCE(SUM(units), 0) FROM book_sales_rollups WHERE book_id = ? AND sales_date BETWEEN ? AND ?";
+
+    private static final String TOP_BOOKS_SQL =
+            "SELECT book_id, SUM(units) AS total FROM book_sales_rollups WHERE sales_date BETWEEN ? AND ? " +
+            "GROUP BY book_id HAVING total > 0 ORDER BY total DESC, book_id LIMIT ?";
+
+    private static final String BUILT_SQL = "SELECT COUNT(*) FROM order_status_rollups";
+
+    private static final String REBUILD_LOCK = "sales_rollups_rebuild";
+
+    private static final String[] REBUILD_SQL = {
+            "DELETE FROM order_status_rollups",
+            "DELETE FROM daily_sales_rollups",
+            "DELETE FROM book_sales_rollups",
+            "INSERT INTO order_status_rollups (status, order_count, updated_at) " +
+            "SELECT status, COUNT(*), NOW() FROM orders GROUP BY status",
+            "INSERT INTO daily_sales_rollups (sales_date, order_count, revenue, updated_at) " +
+            "SELECT DATE(created_at), COUNT(*), SUM(ROUND(total_amount)), NOW() FROM orders GROUP BY DATE(created_at)",
+            "INSERT INTO book_sales_rollups (book_id, sales_date, units, updated_at) " +
+            "SELECT e.book_id, DATE(o.created_at), SUM(e.quantity), NOW() FROM order_entry e " +
+            "JOIN orders o ON o.id = e.order_id GROUP BY e.book_id, DATE(o.created_at)"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Days and book days held in memory, counting today
+    @Value("${sales.rollup.days-in-memory:31}")
+    private int daysInMemory;
+
+    @Value("${sales.rollup.book-days-in-memory:7}")
+    private int bookDaysInMemory;
+
+    // How long a rebuild waits for one running on another instance
+    @Value("${sales.rollup.rebuild-lock-timeout-seconds:300}")
+    private int rebuildLockTimeoutSeconds;
+
+    private final SalesCounters counters = new SalesCounters();
+
+    private final LongAdder recordedOrders = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    @Override
+    public List<DailySales> getDailySales(LocalDate from, LocalDate to) {
+        Map<LocalDate, DailySales> persisted = new HashMap<>();
+        if (!counters.coversDay(from)) {
+            jdbcTemplate.query(DAYS_SQL, (RowCallbackHandler) rs -> {
+                LocalDate day = rs.getDate(1).toLocalDate();
+                persisted.put(day, new DailySales(day, rs.getLong(2), rs.getLong(3)));
+            }, Date.valueOf(from), Date.valueOf(to));
+        }
+
+        List<DailySales> sales = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            sales.add(counters.coversDay(day)
+                    ? counters.getDailySales(day)
+                    : persisted.getOrDefault(day, new DailySales(day, 0, 0)));
+        }
+        return sales;
+    }
+
+    @Override
+    public Map<OrderStatus, Long> getOrderCountsByStatus() {
+        return counters.getStatusCounts();
+    }
+
+    @Override
+    public long getUnitsSold(Long bookId, LocalDate from, LocalDate to) {
+        if (counters.coversBookDay(from)) {
+            return counters.getUnits(bookId, from, to);
+        }
+        Long units = jdbcTemplate.queryForObject(BOOK_UNITS_SQL, Long.class, bookId, Date.valueOf(from), Date.valueOf(to));
+        return units != null ? units : 0L;
+    }
+
+    @Override
+    public List<BookSales> getTopBooks(LocalDate from, LocalDate to, int limit) {
+        if (counters.coversBookDay(from)) {
+            return counters.getTopBooks(from, to, limit);
+        }
+        // Older periods come from the rollups alone, without this instance's unflushed changes
+        return jdbcTemplate.query(TOP_BOOKS_SQL, (rs, rowNum) -> new BookSales(rs.getLong(1), rs.getLong(2)),
+                Date.valueOf(from), Date.valueOf(to), limit);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        counters.recordPlaced(event.getPlacedAt().toLocalDate(), toDong(event.getTotalAmount()), event.getBookQuantities());
+        recordedOrders.increment();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        counters.recordStatusChange(event.getFrom(), event.getTo(), event.getOrderIds().size());
+    }
+
+    /**
+     * Load the counters on startup, rebuilding the rollups first if they were never built
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            synchronized (this) {
+                if (!isBuilt()) {
+                    // Another instance may be building them; its rollups already count the recorded changes
+                    withRebuildLock(() -> {
+                        if (!isBuilt()) {
+                            rebuildRollups();
+                        }
+                    });
+                }
+                reload();
+            }
+        } catch (Exception e) {
+            // Figures for the missing window are read from the rollup tables until the next flush
+            log.error("Failed to load sales counters: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Add the changes recorded since the last flush to the rollup tables and reload the window
+     */
+    @Scheduled(fixedDelayString = "${sales.rollup.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        SalesCounters.Delta delta = counters.drain();
+        if (!delta.isEmpty()) {
+            try {
+                Integer rows = transactionTemplate.execute(status -> write(delta));
+                flushCount.increment();
+                flushedRows.add(rows != null ? rows : 0);
+            } catch (Exception e) {
+                // Keep the changes for the next flush
+                counters.restore(delta);
+                flushFailures.increment();
+                log.error("Failed to flush sales counters: {}", e.getMessage(), e);
+                return;
+            }
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("Failed to reload sales counters: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void rebuild() {
+        withRebuildLock(this::rebuildRollups);
+        reload();
+    }
+
+    /**
+     * Log counter stats every 5 minutes
+     */
+    @Scheduled(fixedRate = 300000)
+    public void logStats() {
+        if (recordedOrders.sum() > 0 || flushFailures.sum() > 0) {
+            log.info("Sales counter stats - Orders recorded: {}, Flushes: {}, Rows flushed: {}, Failed flushes: {}, Book days in memory: {}",
+                    recordedOrders.sum(), flushCount.sum(), flushedRows.sum(), flushFailures.sum(), counters.bookDayCount());
+        }
+    }
+
+    public long getRecordedOrderCount() {
+        return recordedOrders.sum();
+    }
+
+    public long getFlushFailureCount() {
+        return flushFailures.sum();
+    }
+
+    private int write(SalesCounters.Delta delta) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> statusRows = new ArrayList<>();
+        OrderStatus[] statuses = OrderStatus.values();
+        for (int i = 0; i < statuses.length; i++) {
+            if (delta.statuses()[i] != 0) {
+                statusRows.add(new Object[]{statuses[i].name(), delta.statuses()[i], now});
+            }
+        }
+        List<Object[]> dayRows = new ArrayList<>();
+        delta.days().forEach((day, values) -> dayRows.add(new Object[]{Date.valueOf(day), values[0], values[1], now}));
+        List<Object[]> bookDayRows = new ArrayList<>();
+        delta.bookDays().forEach((key, units) ->
+                bookDayRows.add(new Object[]{key.bookId(), Date.valueOf(key.day()), units, now}));
+
+        if (!statusRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_STATUS_SQL, statusRows);
+        }
+        if (!dayRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_DAY_SQL, dayRows);
+        }
+        if (!bookDayRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_BOOK_DAY_SQL, bookDayRows);
+        }
+        return statusRows.size() + dayRows.size() + bookDayRows.size();
+    }
+
+    private boolean isBuilt() {
+        Integer built = jdbcTemplate.queryForObject(BUILT_SQL, Integer.class);
+        return built != null && built > 0;
+    }
+
+    // Must hold the lock of this service
+    private void rebuildRollups() {
+        long started = System.currentTimeMillis();
+        // Changes recorded so far are already in the orders the rebuild reads
+        counters.drain();
+        transactionTemplate.executeWithoutResult(status -> {
+            for (String sql : REBUILD_SQL) {
+                jdbcTemplate.update(sql);
+            }
+        });
+        log.info("Sales rollups rebuilt in {}ms", System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Run the action while holding the rebuild lock
+     * MySQL named locks belong to a connection, so the lock is held on a connection of its own
+     * until the action, including its commit, has finished.
+     */
+    private void withRebuildLock(Runnable action) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement lock = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                lock.setString(1, REBUILD_LOCK);
+                lock.setInt(2, rebuildLockTimeoutSeconds);
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (!rs.next() || rs.getInt(1) != 1) {
+                        throw new IllegalStateException("Timed out waiting for the sales rollup rebuild lock");
+                    }
+                }
+            }
+            try {
+                action.run();
+            } finally {
+                try (PreparedStatement unlock = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                    unlock.setString(1, REBUILD_LOCK);
+                    unlock.executeQuery().close();
+                }
+            }
+            return null;
+        });
+    }
+
+    // Must hold the lock of this service
+    private void reload() {
+        LocalDate today = LocalDate.now();
+        LocalDate daysFrom = today.minusDays(Math.max(daysInMemory, 1) - 1L);
+        LocalDate bookDaysFrom = today.minusDays(Math.max(bookDaysInMemory, 1) - 1L);
+
+        Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+        jdbcTemplate.query(STATUS_SQL, (RowCallbackHandler) rs ->
+                statusCounts.put(OrderStatus.valueOf(rs.getString(1)), rs.getLong(2)));
+
+        Map<LocalDate, DailySales> dailySales = new HashMap<>();
+        jdbcTemplate.query(DAYS_FROM_SQL, (RowCallbackHandler) rs -> {
+            LocalDate day = rs.getDate(1).toLocalDate();
+            dailySales.put(day, new DailySales(day, rs.getLong(2), rs.getLong(3)));
+        }, Date.valueOf(daysFrom));
+
+        Map<SalesCounters.BookDay, Long> bookUnits = new HashMap<>();
+        jdbcTemplate.query(BOOK_DAYS_SQL, (RowCallbackHandler) rs ->
+                bookUnits.put(new SalesCounters.BookDay(rs.getLong(1), rs.getDate(2).toLocalDate()), rs.getLong(3)),
+                Date.valueOf(bookDaysFrom));
+
+        counters.load(statusCounts, dailySales, bookUnits, daysFrom, bookDaysFrom);
+    }
+
+    private static long toDong(BigDecimal amount) {
+        return amount != null ? amount.setScale(0, RoundingMode.HALF_UP).longValue() : 0L;
+    }
+}
@@ -0,0 +1,286 @@
+package com.huongcung.core.order.stats;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.model.dto.BookSales;
+import com.huongcung.core.order.model.dto.DailySales;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory order counters per status, per day and per book and day
+ * Every counter is a persisted base plus a {@link LongAdder} of changes not written yet, so
+ * concurrent order events update striped cells without contending, and a read is one sum.
+ *
+ * The flushing thread drains the pending changes into the rollup tables and then loads the bases
+ * back from them, which also picks up the changes of other instances. Only the days from the
+ * loaded window onwards are kept; older days have to be read from the rollup tables.
+ *
+ * Recording is thread-safe; {@link #drain}, {@link #restore} and {@link #load} must be called by
+ * one thread at a time.
+ */
+public class SalesCounters {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Counter[] statuses = new Counter[STATUSES.length];
+    private final ConcurrentHashMap<LocalDate, DayCounters> days = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<BookDay, Counter> bookDays = new ConcurrentHashMap<>();
+
+    // First day held in memory, or null before the first load
+    private volatile LocalDate daysFrom;
+    private volatile LocalDate bookDaysFrom;
+
+    public SalesCounters() {
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = new Counter();
+        }
+    }
+
+    /**
+     * Record a placed order, which starts out {@link OrderStatus#PENDING}
+     *
+     * @param revenue Total amount of the order in whole dong
+     * @param bookQuantities Quantity ordered per book id
+     */
+    public void recordPlaced(LocalDate day, long revenue, Map<Long, Integer> bookQuantities) {
+        statuses[OrderStatus.PENDING.ordinal()].add(1);
+        DayCounters counters = days.computeIfAbsent(day, d -> new DayCounters());
+        counters.orders.add(1);
+        counters.revenue.add(revenue);
+        bookQuantities.forEach((bookId, quantity) ->
+            bookDays.computeIfAbsent(new BookDay(bookId, day), key -> new Counter()).add(quantity));
+    }
+
+    /**
+     * Record orders moving from one status to another
+     */
+    public void recordStatusChange(OrderStatus from, OrderStatus to, int count) {
+        statuses[from.ordinal()].add(-count);
+        statuses[to.ordinal()].add(count);
+    }
+
+    public Map<OrderStatus, Long> getStatusCounts() {
+        Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : STATUSES) {
+            counts.put(status, statuses[status.ordinal()].value());
+        }
+        return counts;
+    }
+
+    /**
+     * Whether the day is held in memory
+     */
+    public boolean coversDay(LocalDate day) {
+        LocalDate from = daysFrom;
+        return from != null && !day.isBefore(from);
+    }
+
+    /**
+     * Whether book sales of the day are held in memory
+     */
+    public boolean coversBookDay(LocalDate day) {
+        LocalDate from = bookDaysFrom;
+        return from != null && !day.isBefore(from);
+    }
+
+    /**
+     * Get the orders placed on a day held in memory
+     */
+    public DailySales getDailySales(LocalDate day) {
+        DayCounters counters = days.get(day);
+        return counters == null
+            ? new DailySales(day, 0, 0)
+            : new DailySales(day, counters.orders.value(), counters.revenue.value());
+    }
+
+    /**
+     * Get the units of a book ordered between two days held in memory, both inclusive
+     */
+    public long getUnits(Long bookId, LocalDate from, LocalDate to) {
+        long units = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            Counter counter = bookDays.get(new BookDay(bookId, day));
+            if (counter != null) {
+                units += counter.value();
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Get the books with the most units ordered between two days held in memory, both inclusive
+     */
+    public List<BookSales> getTopBooks(LocalDate from, LocalDate to, int limit) {
+        Map<Long, Long> unitsByBook = new HashMap<>();
+        bookDays.forEach((key, counter) -> {
+            if (!key.day().isBefore(from) && !key.day().isAfter(to)) {
+                unitsByBook.merge(key.bookId(), counter.value(), Long::sum);
+            }
+        });
+
+        Comparator<BookSales> byUnits = Comparator.comparingLong(BookSales::units)
+            .thenComparing(BookSales::bookId, Comparator.reverseOrder());
+        PriorityQueue<BookSales> top = new PriorityQueue<>(byUnits);
+        unitsByBook.forEach((bookId, units) -> {
+            if (units > 0) {
+                top.add(new BookSales(bookId, units));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        });
+        List<BookSales> result = new ArrayList<>(top);
+        result.sort(byUnits.reversed());
+        return result;
+    }
+
+    /**
+     * Take the changes recorded since the last drain, counting them as persisted
+     * Pass the result to {@link #restore} if it could not be written.
+     */
+    public Delta drain() {
+        long[] statusDeltas = new long[statuses.length];
+        for (int i = 0; i < statuses.length; i++) {
+            statusDeltas[i] = statuses[i].drain();
+        }
+        Map<LocalDate, long[]> dayDeltas = new HashMap<>();
+        days.forEach((day, counters) -> {
+            long orders = counters.orders.drain();
+            long revenue = counters.revenue.drain();
+            if (orders != 0 || revenue != 0) {
+                dayDeltas.put(day, new long[]{orders, revenue});
+            }
+        });
+        Map<BookDay, Long> bookDayDeltas = new HashMap<>();
+        bookDays.forEach((key, counter) -> {
+            long units = counter.drain();
+            if (units != 0) {
+                bookDayDeltas.put(key, units);
+            }
+        });
+        return new Delta(statusDeltas, dayDeltas, bookDayDeltas);
+    }
+
+    /**
+     * Put back changes that were drained but not written
+     */
+    public void restore(Delta delta) {
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i].restore(delta.statuses()[i]);
+        }
+        delta.days().forEach((day, values) -> {
+            DayCounters counters = days.computeIfAbsent(day, d -> new DayCounters());
+            counters.orders.restore(values[0]);
+            counters.revenue.restore(values[1]);
+        });
+        delta.bookDays().forEach((key, units) ->
+            bookDays.computeIfAbsent(key, k -> new Counter()).restore(units));
+    }
+
+    /**
+     * Replace the persisted bases with the rollup table contents, dropping days before the windows
+     *
+     * @param statusCounts Orders per status
+     * @param dailySales Orders placed per day, from daysFrom onwards
+     * @param bookUnits Units ordered per book and day, from bookDaysFrom onwards
+     */
+    public void load(Map<OrderStatus, Long> statusCounts, Map<LocalDate, DailySales> dailySales,
+                     Map<BookDay, Long> bookUnits, LocalDate daysFrom, LocalDate bookDaysFrom) {
+        for (OrderStatus status : STATUSES) {
+            statuses[status.ordinal()].base = statusCounts.getOrDefault(status, 0L);
+        }
+
+        days.keySet().removeIf(day -> day.isBefore(daysFrom));
+        days.forEach((day, counters) -> {
+            if (!dailySales.containsKey(day)) {
+                counters.orders.base = 0;
+                counters.revenue.base = 0;
+            }
+        });
+        dailySales.forEach((day, sales) -> {
+            DayCounters counters = days.computeIfAbsent(day, d -> new DayCounters());
+            counters.orders.base = sales.orderCount();
+            counters.revenue.base = sales.revenue();
+        });
+
+        bookDays.keySet().removeIf(key -> key.day().isBefore(bookDaysFrom));
+        bookDays.forEach((key, counter) -> {
+            if (!bookUnits.containsKey(key)) {
+                counter.base = 0;
+            }
+        });
+        bookUnits.forEach((key, units) -> bookDays.computeIfAbsent(key, k -> new Counter()).base = units);
+
+        this.daysFrom = daysFrom;
+        this.bookDaysFrom = bookDaysFrom;
+    }
+
+    /**
+     * Number of (book, day) counters held in memory
+     */
+    public int bookDayCount() {
+        return bookDays.size();
+    }
+
+    public record BookDay(Long bookId, LocalDate day) {
+    }
+
+    /**
+     * Drained changes: per status ordinal, per day as {orders, revenue}, and per book and day
+     */
+    public record Delta(long[] statuses, Map<LocalDate, long[]> days, Map<BookDay, Long> bookDays) {
+
+        public boolean isEmpty() {
+            for (long value : statuses) {
+                if (value != 0) {
+                    return false;
+                }
+            }
+            return days.isEmpty() && bookDays.isEmpty();
+        }
+    }
+
+    private static final class DayCounters {
+        final Counter orders = new Counter();
+        final Counter revenue = new Counter();
+    }
+
+    private static final class Counter {
+
+        private final LongAdder pending = new LongAdder();
+
+        // Written by the flushing thread only
+        private volatile long base;
+
+        void add(long value) {
+            pending.add(value);
+        }
+
+        long value() {
+            return base + pending.sum();
+        }
+
+        long drain() {
+            // Each cell is reset atomically, so a concurrent add lands in this drain or the next
+            long delta = pending.sumThenReset();
+            base += delta;
+            return delta;
+        }
+
+        void restore(long delta) {
+            if (delta != 0) {
+                base -= delta;
+                pending.add(delta);
+            }
+        }
+    }
+}
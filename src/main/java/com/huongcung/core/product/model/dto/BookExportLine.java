@@ -0,0 +1,18 @@
+package com.huongcung.core.product.model.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One book with its contributors, genres, price and stock, as read by the catalog export
+ * Physical columns are null for ebooks and the other way round; stock is summed over warehouses.
+ */
+public record BookExportLine(Long id, String code, String title, String bookType, String language,
+                             LocalDate publicationDate, Integer pageCount, Integer edition, Boolean active,
+                             String publisher, List<String> authors, List<String> translators, List<String> genres,
+                             BigDecimal currentPrice, String isbn, String coverType, String fileFormat,
+                             long stockQuantity, long reservedQuantity,
+                             LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
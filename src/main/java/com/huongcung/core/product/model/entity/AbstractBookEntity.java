@@ -22,28 +22,49 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.BatchSize;
 
+/**
+ * Book base entity; physical books and ebooks are joined subclasses
+ *
+ * Fetch plans: the admin list reads basic attributes only, so a page is one query. The detail
+ * view uses {@link #DETAIL_GRAPH} for the publisher and authors, and the other collections are
+ * batch fetched, so mapping any number of loaded books costs one query per association and batch
+ * rather than one per book.
+ */
 @Entity
 @Table(name = "books")
 @Inheritance(strategy = InheritanceType.JOINED)
+@NamedEntityGraph(name = AbstractBookEntity.DETAIL_GRAPH, attributeNodes = {
+    @NamedAttributeNode("publisher"),
+    @NamedAttributeNode("authors")
+})
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class AbstractBookEntity extends BaseEntity {
 
+    public static final String DETAIL_GRAPH = "Book.detail";
+
+    // Books loaded together whose lazy associations are initialized in one query
+    public static final int FETCH_BATCH_SIZE = 50;
+
     @Column(name = "code", unique = true, nullable = false)
     private String code;
     
     @Column(name = "title", nullable = false)
     private String title;
     
+    @BatchSize(size = FETCH_BATCH_SIZE)
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "books_authors",
@@ -52,6 +73,7 @@ public class AbstractBookEntity extends BaseEntity {
     )
     private List<AuthorEntity> authors;
 
+    @BatchSize(size = FETCH_BATCH_SIZE)
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "books_translators",
@@ -63,6 +85,7 @@ public class AbstractBookEntity extends BaseEntity {
     @Column(name = "edition")
     private Integer edition;
     
+    @BatchSize(size = FETCH_BATCH_SIZE)
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "books_genres",
@@ -88,6 +111,7 @@ public class AbstractBookEntity extends BaseEntity {
     @Column(name = "description", columnDefinition = "TEXT")
     private String description;
 
+    @BatchSize(size = FETCH_BATCH_SIZE)
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<BookImageEntity> images;
 
@@ -1,16 +1,43 @@
 package com.huongcung.core.product.repository;
 
 import com.huongcung.core.product.model.entity.AbstractBookEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AbstractBookRepository extends JpaRepository<AbstractBookEntity, Long> {
     AbstractBookEntity findAbstractBookEntityByCode(String code);
     
+    /**
+     * Book with the associations of the detail view, see {@link AbstractBookEntity#DETAIL_GRAPH}
+     */
+    @EntityGraph(AbstractBookEntity.DETAIL_GRAPH)
+    Optional<AbstractBookEntity> findWithDetailsById(Long id);
+    
     List<AbstractBookEntity> findByIdIn(List<Long> ids);
     
     List<AbstractBookEntity> findByCodeIn(List<String> codes);
+    
+    /**
+     * Keyset page of books ordered by code, starting after the given code
+     * Seeks on the unique code index, so the cost does not grow with the position in the catalog
+     */
+    List<AbstractBookEntity> findByCodeGreaterThanOrderByCodeAsc(String code, Pageable pageable);
+    
+    List<AbstractBookEntity> findAllByOrderByCodeAsc(Pageable pageable);
+    
+    /**
+     * Last modification time of a book, read without loading the entity
+     * Used as the validator for conditional GETs on the book detail endpoint
+     */
+    @Query("SELECT COALESCE(b.updatedAt, b.createdAt) FROM AbstractBookEntity b WHERE b.code = :code")
+    Optional<LocalDateTime> findLastModifiedByCode(@Param("code") String code);
 }
@@ -4,11 +4,13 @@ import com.huongcung.core.product.model.entity.GenreEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface GenreRepository extends JpaRepository<GenreEntity, Long> {
     List<GenreEntity> findByIdIn(List<Long> ids);
+    List<GenreEntity> findByNameIn(Collection<String> names);
 }
 
 
@@ -2,7 +2,9 @@ package com.huongcung.core.product.service;
 
 import com.huongcung.core.product.model.dto.AbstractBookDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface AbstractBookService {
     List<AbstractBookDTO> findAll();
@@ -10,4 +12,12 @@ public interface AbstractBookService {
     AbstractBookDTO findBookByCode(String code);
     
     List<AbstractBookDTO> findByIds(List<Long> ids);
+
+    Optional<LocalDateTime> findLastModifiedByCode(String code);
+
+    /**
+     * Get up to {@code size} books ordered by code, starting after {@code afterCode}
+     * @param afterCode code of the last book already returned, or null to start from the beginning
+     */
+    List<AbstractBookDTO> findPageAfterCode(String afterCode, int size);
 }
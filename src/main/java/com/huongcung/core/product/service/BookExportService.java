@@ -0,0 +1,21 @@
+package com.huongcung.core.product.service;
+
+import com.huongcung.core.product.model.dto.BookExportLine;
+
+import java.util.function.Consumer;
+
+/**
+ * Reads the whole catalog for export
+ */
+public interface BookExportService {
+
+    /**
+     * Stream every book, active or not, in id order
+     * Books are handed to the consumer as they are read and not kept, so the catalog size does
+     * not affect memory use.
+     *
+     * @param consumer Receives every book as it is read
+     * @return Number of books streamed
+     */
+    long streamBooks(Consumer<BookExportLine> consumer);
+}
@@ -6,9 +6,14 @@ import com.huongcung.core.product.repository.AbstractBookRepository;
 import com.huongcung.core.product.service.AbstractBookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @Slf4j
@@ -37,4 +42,22 @@ public class AbstractBookServiceImpl implements AbstractBookService {
         return abstractBookMapper.toDto(abstractBookRepository.findByIdIn(ids));
     }
 
+    @Override
+    public Optional<LocalDateTime> findLastModifiedByCode(String code) {
+        if (code == null || code.isBlank()) {
+            return Optional.empty();
+        }
+        return abstractBookRepository.findLastModifiedByCode(code);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AbstractBookDTO> findPageAfterCode(String afterCode, int size) {
+        Pageable limit = PageRequest.of(0, size);
+        if (afterCode == null || afterCode.isBlank()) {
+            return abstractBookMapper.toDto(abstractBookRepository.findAllByOrderByCodeAsc(limit));
+        }
+        return abstractBookMapper.toDto(abstractBookRepository.findByCodeGreaterThanOrderByCodeAsc(afterCode, limit));
+    }
+
 }
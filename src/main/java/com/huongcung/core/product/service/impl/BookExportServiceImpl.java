@@ -0,0 +1,144 @@
+package com.huongcung.core.product.service.impl;
+
+import com.huongcung.core.product.model.dto.BookExportLine;
+import com.huongcung.core.product.model.entity.EbookEntity;
+import com.huongcung.core.product.service.BookExportService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streams the catalog for export over a forward-only, read-only cursor in a stateless session
+ * The stateless session has no persistence context, so nothing read is retained by Hibernate, and
+ * with useCursorFetch in the datasource URL the driver fetches fetch-size rows per round trip.
+ * Books are collected into windows of catalog.export.batch-size; the contributors, genres and stock
+ * of a window are read with one query each and the window is dropped once written, so memory use
+ * is bounded by the window size rather than the catalog size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookExportServiceImpl implements BookExportService {
+
+    static final String BOOKS_HQL =
+            "select b.id, b.code, b.title, type(b), b.language, b.publicationDate, b.pageCount, b.edition, " +
+            "b.isActive, p.name, treat(b as PhysicalBookEntity).currentPrice, treat(b as EbookEntity).currentPrice, " +
+            "treat(b as PhysicalBookEntity).isbn, treat(b as PhysicalBookEntity).coverType, " +
+            "treat(b as EbookEntity).fileFormat, b.createdAt, b.updatedAt " +
+            "from AbstractBookEntity b left join b.publisher p " +
+            "order by b.id";
+
+    static final String AUTHORS_HQL =
+            "select b.id, a.name from AbstractBookEntity b join b.authors a where b.id in :ids";
+
+    static final String TRANSLATORS_HQL =
+            "select b.id, t.name from AbstractBookEntity b join b.translators t where b.id in :ids";
+
+    static final String GENRES_HQL =
+            "select b.id, g.name from AbstractBookEntity b join b.genres g where b.id in :ids";
+
+    static final String STOCK_HQL =
+            "select s.book.id, sum(s.quantity), sum(s.reservedQuantity) from StockLevelEntity s " +
+            "where s.book.id in :ids group by s.book.id";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Value("${catalog.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${catalog.export.batch-size:500}")
+    private int windowSize;
+
+    @Override
+    public long streamBooks(Consumer<BookExportLine> consumer) {
+        long count = 0;
+        try (StatelessSession session = entityManagerFactory.unwrap(SessionFactory.class).openStatelessSession()) {
+            // Holds one connection for the cursor and the window queries
+            Transaction transaction = session.beginTransaction();
+            try (ScrollableResults<Object[]> books = session.createSelectionQuery(BOOKS_HQL, Object[].class)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .setFetchSize(fetchSize)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                List<Object[]> window = new ArrayList<>(windowSize);
+                while (books.next()) {
+                    window.add(books.get());
+                    if (window.size() >= windowSize) {
+                        count += writeWindow(session, window, consumer);
+                        window.clear();
+                    }
+                }
+                count += writeWindow(session, window, consumer);
+            } finally {
+                // Nothing was written
+                transaction.rollback();
+            }
+        }
+        log.debug("Streamed {} books", count);
+        return count;
+    }
+
+    private static int writeWindow(StatelessSession session, List<Object[]> window, Consumer<BookExportLine> consumer) {
+        if (window.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = window.stream().map(row -> (Long) row[0]).toList();
+        Map<Long, List<String>> authors = names(session, AUTHORS_HQL, ids);
+        Map<Long, List<String>> translators = names(session, TRANSLATORS_HQL, ids);
+        Map<Long, List<String>> genres = names(session, GENRES_HQL, ids);
+        Map<Long, long[]> stock = new HashMap<>();
+        for (Object[] row : session.createSelectionQuery(STOCK_HQL, Object[].class)
+                .setParameter("ids", ids)
+                .setReadOnly(true)
+                .getResultList()) {
+            stock.put((Long) row[0], new long[]{number(row[1]), number(row[2])});
+        }
+
+        for (Object[] row : window) {
+            Long id = (Long) row[0];
+            boolean ebook = EbookEntity.class.equals(row[3]);
+            long[] levels = stock.getOrDefault(id, new long[2]);
+            consumer.accept(new BookExportLine(id, (String) row[1], (String) row[2], ebook ? "EBOOK" : "PHYSICAL",
+                    row[4] != null ? ((Enum<?>) row[4]).name() : null, (LocalDate) row[5], (Integer) row[6],
+                    (Integer) row[7], (Boolean) row[8], (String) row[9],
+                    authors.getOrDefault(id, List.of()), translators.getOrDefault(id, List.of()),
+                    genres.getOrDefault(id, List.of()),
+                    (BigDecimal) (ebook ? row[11] : row[10]), (String) row[12],
+                    row[13] != null ? ((Enum<?>) row[13]).name() : null, (String) row[14],
+                    levels[0], levels[1], (LocalDateTime) row[15], (LocalDateTime) row[16]));
+        }
+        return window.size();
+    }
+
+    private static Map<Long, List<String>> names(StatelessSession session, String hql, List<Long> ids) {
+        Map<Long, List<String>> names = new HashMap<>();
+        for (Object[] row : session.createSelectionQuery(hql, Object[].class)
+                .setParameter("ids", ids)
+                .setReadOnly(true)
+                .getResultList()) {
+            names.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return names;
+    }
+
+    private static long number(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+}
@@ -11,6 +11,8 @@ import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.function.Supplier;
+
 /**
  * JPA Entity Listener for AbstractBookEntity
  * Publishes Spring events when books are created, updated, or deleted
@@ -18,6 +20,9 @@ import org.springframework.context.ApplicationEventPublisher;
  * Note: This listener is registered via META-INF/orm.xml
  * Since JPA entity listeners are not Spring-managed, we use a static reference
  * to ApplicationEventPublisher that is initialized by BookEntityListenerInitializer
+ * 
+ * Bulk writers can suppress the events for the current thread with {@link #withoutEvents} and
+ * index the books themselves in one batch instead of one Solr commit per book.
  */
 @Slf4j
 public class BookEntityListener {
@@ -28,12 +33,31 @@ public class BookEntityListener {
      */
     @Setter
     private static ApplicationEventPublisher eventPublisher;
+    
+    private static final ThreadLocal<Boolean> SUPPRESSED = ThreadLocal.withInitial(() -> false);
+    
+    /**
+     * Run an action without publishing book events from this thread
+     * The caller becomes responsible for indexing the books it writes.
+     */
+    public static <T> T withoutEvents(Supplier<T> action) {
+        boolean previous = SUPPRESSED.get();
+        SUPPRESSED.set(true);
+        try {
+            return action.get();
+        } finally {
+            SUPPRESSED.set(previous);
+        }
+    }
 
     /**
      * Called after a book entity is persisted (created)
      */
     @PostPersist
     public void postPersist(AbstractBookEntity book) {
+        if (SUPPRESSED.get()) {
+            return;
+        }
         if (eventPublisher != null && book != null) {
             log.debug("Book persisted, publishing BookCreatedEvent for book ID: {}", book.getId());
             eventPublisher.publishEvent(new BookCreatedEvent(this, book));
@@ -47,6 +71,9 @@ public class BookEntityListener {
      */
     @PostUpdate
     public void postUpdate(AbstractBookEntity book) {
+        if (SUPPRESSED.get()) {
+            return;
+        }
         if (eventPublisher != null && book != null) {
             log.debug("Book updated, publishing BookUpdatedEvent for book ID: {}", book.getId());
             eventPublisher.publishEvent(new BookUpdatedEvent(this, book.getId(), book));
@@ -60,6 +87,9 @@ public class BookEntityListener {
      */
     @PostRemove
     public void postRemove(AbstractBookEntity book) {
+        if (SUPPRESSED.get()) {
+            return;
+        }
         if (eventPublisher != null && book != null) {
             log.debug("Book removed, publishing BookDeletedEvent for book ID: {}", book.getId());
             eventPublisher.publishEvent(new BookDeletedEvent(this, book.getId()));
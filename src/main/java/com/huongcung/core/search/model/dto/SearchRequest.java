@@ -11,7 +11,7 @@ import java.util.List;
  * Request DTO for book search
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class SearchRequest {
@@ -86,5 +86,22 @@ public class SearchRequest {
             size != null ? size : 20,
             sort != null ? sort : "");
     }
+    
+    /**
+     * Key identifying the query independently of the requested page
+     * Two requests with the same query key only differ by page number
+     */
+    public String toQueryKey() {
+        return String.format("q=%s|genres=%s|languages=%s|formats=%s|minPrice=%s|maxPrice=%s|cities=%s|size=%d|sort=%s",
+            q != null ? q : "",
+            genres != null ? String.join(",", genres) : "",
+            languages != null ? String.join(",", languages) : "",
+            formats != null ? String.join(",", formats) : "",
+            minPrice != null ? minPrice : "",
+            maxPrice != null ? maxPrice : "",
+            cities != null ? String.join(",", cities) : "",
+            size != null ? size : 20,
+            sort != null ? sort : "");
+    }
 }
 
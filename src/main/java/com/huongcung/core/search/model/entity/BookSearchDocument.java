@@ -158,5 +158,40 @@ public class BookSearchDocument {
      */
     @Field("createdAt")
     private Date createdAt;
+    
+    /**
+     * Last updated timestamp
+     * Maps to Solr field: updatedAt (pdate)
+     */
+    @Field("updatedAt")
+    private Date updatedAt;
+    
+    /**
+     * Book code
+     * Maps to Solr field: code (string)
+     */
+    @Field("code")
+    private String code;
+    
+    /**
+     * Entity type: PHYSICAL or EBOOK
+     * Maps to Solr field: bookType (string)
+     */
+    @Field("bookType")
+    private String bookType;
+    
+    /**
+     * Whether the book is active; inactive books are only listed to staff
+     * Maps to Solr field: active (boolean)
+     */
+    @Field("active")
+    private Boolean active;
+    
+    /**
+     * Lowercased title for sorting
+     * Maps to Solr field: titleSort (string, docValues)
+     */
+    @Field("titleSort")
+    private String titleSort;
 }
 
@@ -41,7 +41,23 @@ public interface BookSearchRepository {
                                     int start, int rows);
     
     /**
-     * Get autocomplete/suggestion results
+     * Search the whole catalog, including inactive books, for staff listings
+     * Text must match every term against title, code or ISBN; only IDs are returned, without
+     * highlighting or faceting.
+     * 
+     * @param text Text to match (null or blank for all books)
+     * @param filters Map of field names to exact filter values
+     * @param sortField Field to sort by
+     * @param sortOrder Sort order: "asc" or "desc"
+     * @param start Starting offset for pagination
+     * @param rows Number of results to return
+     * @return QueryResponse containing matching IDs and the total count
+     */
+    QueryResponse searchCatalog(String text, Map<String, String> filters, String sortField, String sortOrder,
+                                int start, int rows);
+    
+    /**
+     * Get autocomplete/suggestion results from active books
      * 
      * @param query Partial query string for suggestions
      * @param limit Maximum number of suggestions to return
@@ -65,6 +81,22 @@ public interface BookSearchRepository {
      */
     void indexBatch(List<BookSearchDocument> documents) throws Exception;
     
+    /**
+     * Send book documents without committing them
+     * They become searchable on the next {@link #commit()}, so bulk writers pay for one commit.
+     * 
+     * @param documents List of BookSearchDocument to add
+     * @throws Exception if sending fails
+     */
+    void add(List<BookSearchDocument> documents) throws Exception;
+    
+    /**
+     * Commit documents sent with {@link #add(List)}
+     * 
+     * @throws Exception if the commit fails
+     */
+    void commit() throws Exception;
+    
     /**
      * Delete a book document by ID
      * 
@@ -11,6 +11,7 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.SuggesterResponse;
+import org.apache.solr.client.solrj.util.ClientUtils;
 import org.apache.solr.common.SolrInputDocument;
 import org.springframework.stereotype.Repository;
 
@@ -87,6 +88,43 @@ public class BookSearchRepositoryImpl implements BookSearchRepository {
         }
     }
     
+    @Override
+    public QueryResponse searchCatalog(String text, Map<String, String> filters, String sortField, String sortOrder,
+                                       int start, int rows) {
+        try {
+            SolrQuery solrQuery = new SolrQuery();
+            if (text == null || text.isBlank()) {
+                solrQuery.setQuery("*:*");
+            } else {
+                solrQuery.setQuery(ClientUtils.escapeQueryChars(text.trim()).replace("\\ ", " "));
+                solrQuery.set("defType", "edismax");
+                solrQuery.set("qf", "title titleText code isbn");
+                solrQuery.set("mm", "100%");
+            }
+            
+            if (filters != null) {
+                for (Map.Entry<String, String> filter : filters.entrySet()) {
+                    solrQuery.addFilterQuery(filter.getKey() + ":" + ClientUtils.escapeQueryChars(filter.getValue()));
+                }
+            }
+            
+            // ID as tie-breaker keeps pages stable when sort values repeat
+            solrQuery.addSort("desc".equalsIgnoreCase(sortOrder)
+                ? SolrQuery.SortClause.desc(sortField)
+                : SolrQuery.SortClause.asc(sortField));
+            solrQuery.addSort(SolrQuery.SortClause.asc("id"));
+            
+            solrQuery.setStart(start);
+            solrQuery.setRows(rows);
+            solrQuery.setFields("id");
+            
+            return getSolrClient().query(solrConfig.getCore(), solrQuery);
+        } catch (SolrServerException | IOException | RuntimeException e) {
+            log.error("Solr catalog search failed: {}", e.getMessage());
+            throw new RuntimeException("Solr catalog search failed", e);
+        }
+    }
+    
     @Override
     public SuggesterResponse getSuggestions(String query, int limit) {
         try {
@@ -94,6 +132,8 @@ public class BookSearchRepositoryImpl implements BookSearchRepository {
             solrQuery.setRequestHandler("/suggest");
             solrQuery.setParam("q", query);
             solrQuery.setParam("suggest.count", String.valueOf(limit));
+            // Deactivated books stay in the index for the admin catalog, but are never suggested
+            solrQuery.setParam("suggest.cfq", "true");
             
             QueryResponse response = getSolrClient().query(solrConfig.getCore(), solrQuery);
             return response.getSuggesterResponse();
@@ -131,6 +171,31 @@ public class BookSearchRepositoryImpl implements BookSearchRepository {
         }
     }
     
+    @Override
+    public void add(List<BookSearchDocument> documents) throws Exception {
+        try {
+            List<SolrInputDocument> solrDocs = documents.stream()
+                .map(this::buildSolrDocument)
+                .collect(Collectors.toList());
+            
+            getSolrClient().add(solrConfig.getCore(), solrDocs);
+            log.debug("Sent {} documents", documents.size());
+        } catch (Exception e) {
+            log.error("Failed to send batch of {} documents: {}", documents.size(), e.getMessage());
+            throw e;
+        }
+    }
+    
+    @Override
+    public void commit() throws Exception {
+        try {
+            getSolrClient().commit(solrConfig.getCore());
+        } catch (Exception e) {
+            log.error("Failed to commit: {}", e.getMessage());
+            throw e;
+        }
+    }
+    
     /**
      * Build SolrInputDocument from BookSearchDocument
      * Extracted to avoid code duplication
@@ -157,6 +222,11 @@ public class BookSearchRepositoryImpl implements BookSearchRepository {
         if (document.getAverageRating() != null) solrDoc.addField("averageRating", document.getAverageRating());
         if (document.getReviewCount() != null) solrDoc.addField("reviewCount", document.getReviewCount());
         if (document.getCreatedAt() != null) solrDoc.addField("createdAt", document.getCreatedAt());
+        if (document.getUpdatedAt() != null) solrDoc.addField("updatedAt", document.getUpdatedAt());
+        if (document.getCode() != null) solrDoc.addField("code", document.getCode());
+        if (document.getBookType() != null) solrDoc.addField("bookType", document.getBookType());
+        if (document.getActive() != null) solrDoc.addField("active", document.getActive());
+        if (document.getTitleSort() != null) solrDoc.addField("titleSort", document.getTitleSort());
         return solrDoc;
     }
     
@@ -0,0 +1,66 @@
+package com.huongcung.core.search.service;
+
+import com.huongcung.core.search.event.BookCreatedEvent;
+import com.huongcung.core.search.event.BookDeletedEvent;
+import com.huongcung.core.search.event.BookUpdatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks a catalog generation number used to validate cached listing and search responses
+ * The generation advances after every committed book change and after every search index change,
+ * so an ETag derived from it changes whenever listing or search results may have changed.
+ *
+ * The generation is seeded from the startup time so validators issued before a restart
+ * are never mistaken for current ones.
+ */
+@Component
+@Slf4j
+public class CatalogVersionTracker {
+
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+
+    private volatile long lastModified = System.currentTimeMillis();
+
+    /**
+     * Get the current catalog generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Get the time of the last catalog change in epoch milliseconds
+     */
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * Advance the generation after a catalog or search index change
+     */
+    public void advance() {
+        lastModified = System.currentTimeMillis();
+        long current = generation.incrementAndGet();
+        log.debug("Catalog generation advanced to {}", current);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookCreated(BookCreatedEvent event) {
+        advance();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookUpdated(BookUpdatedEvent event) {
+        advance();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBookDeleted(BookDeletedEvent event) {
+        advance();
+    }
+}
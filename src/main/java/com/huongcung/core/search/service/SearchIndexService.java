@@ -2,6 +2,8 @@ package com.huongcung.core.search.service;
 
 import com.huongcung.core.product.model.entity.AbstractBookEntity;
 
+import java.util.Collection;
+
 /**
  * Service interface for indexing books into Solr
  */
@@ -23,6 +25,15 @@ public interface SearchIndexService {
      */
     IndexingResult indexAllBooks();
     
+    /**
+     * Index the given books with a single Solr commit
+     * Meant for bulk writers that suppressed the per-book index events.
+     * 
+     * @param bookIds IDs of the books to index
+     * @return IndexingResult containing success/failure counts
+     */
+    IndexingResult indexBooks(Collection<Long> bookIds);
+    
     /**
      * Update the index for a specific book by ID
      * 
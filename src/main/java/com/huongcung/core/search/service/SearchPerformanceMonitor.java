@@ -26,6 +26,11 @@ public class SearchPerformanceMonitor {
     private final Map<String, AtomicLong> maxResponseTime = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> slowQueryCount = new ConcurrentHashMap<>();
     
+    // Prefetch tracking
+    private final LongAdder prefetchIssued = new LongAdder();
+    private final LongAdder prefetchHits = new LongAdder();
+    private final LongAdder prefetchSkipped = new LongAdder();
+    
     // Thresholds
     private static final long SLOW_QUERY_THRESHOLD_MS = 1000; // 1 second
     private static final int MAX_SAMPLES_PER_OPERATION = 1000; // Keep last 1000 samples
@@ -51,6 +56,27 @@ public class SearchPerformanceMonitor {
         recordTime("facet", operation, responseTimeMs);
     }
     
+    /**
+     * Record a next page that was computed speculatively and stored in the result cache
+     */
+    public void recordPrefetchIssued() {
+        prefetchIssued.increment();
+    }
+    
+    /**
+     * Record a served page that had been prefetched
+     */
+    public void recordPrefetchHit() {
+        prefetchHits.increment();
+    }
+    
+    /**
+     * Record a prefetch that the adaptive policy decided not to issue
+     */
+    public void recordPrefetchSkipped() {
+        prefetchSkipped.increment();
+    }
+    
     /**
      * Record response time for an operation
      */
@@ -143,6 +169,35 @@ public class SearchPerformanceMonitor {
         return count != null ? count.sum() : 0;
     }
     
+    /**
+     * Get number of prefetched pages
+     */
+    public long getPrefetchIssuedCount() {
+        return prefetchIssued.sum();
+    }
+    
+    /**
+     * Get number of served pages that came from a prefetch
+     */
+    public long getPrefetchHitCount() {
+        return prefetchHits.sum();
+    }
+    
+    /**
+     * Get number of prefetches skipped by the adaptive policy
+     */
+    public long getPrefetchSkippedCount() {
+        return prefetchSkipped.sum();
+    }
+    
+    /**
+     * Get fraction of prefetched pages that were later requested
+     */
+    public double getPrefetchHitRate() {
+        long issued = prefetchIssued.sum();
+        return issued > 0 ? (double) prefetchHits.sum() / issued : 0.0;
+    }
+    
     /**
      * Log performance summary
      */
@@ -154,6 +209,12 @@ public class SearchPerformanceMonitor {
         logMetrics("suggestion", "autocomplete");
         logMetrics("facet", "facets");
         
+        if (getPrefetchIssuedCount() > 0) {
+            log.info("prefetch - Issued: {}, Hits: {}, Skipped: {}, Hit rate: {}%",
+                getPrefetchIssuedCount(), getPrefetchHitCount(), getPrefetchSkippedCount(),
+                Math.round(getPrefetchHitRate() * 100));
+        }
+        
         log.info("===================================");
     }
     
@@ -182,6 +243,9 @@ public class SearchPerformanceMonitor {
         totalResponseTime.clear();
         maxResponseTime.clear();
         slowQueryCount.clear();
+        prefetchIssued.reset();
+        prefetchHits.reset();
+        prefetchSkipped.reset();
     }
 }
 
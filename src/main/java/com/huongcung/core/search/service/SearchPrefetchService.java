@@ -0,0 +1,180 @@
+package com.huongcung.core.search.service;
+
+import com.huongcung.core.search.model.dto.SearchRequest;
+import com.huongcung.core.search.model.dto.SearchResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Speculative next-page prefetching for search results
+ * After page N of a query is served, page N+1 is computed in the background and stored
+ * in the "searchResults" cache, so a shopper paging forward gets a cache hit.
+ *
+ * Prefetching is adaptive: it is only issued while the observed page-advance ratio
+ * (how often page N+1 is actually requested after page N) stays above a threshold.
+ */
+@Service
+@Slf4j
+public class SearchPrefetchService {
+
+    private static final String SEARCH_RESULTS_CACHE = "searchResults";
+
+    private final SearchService searchService;
+    private final CacheManager cacheManager;
+    private final SearchPerformanceMonitor performanceMonitor;
+    private final Executor prefetchExecutor;
+
+    @Value("${search.prefetch.enabled:false}")
+    private boolean prefetchEnabled;
+
+    @Value("${search.prefetch.min-advance-ratio:0.3}")
+    private double minAdvanceRatio;
+
+    @Value("${search.prefetch.warmup-requests:50}")
+    private int warmupRequests;
+
+    @Value("${search.prefetch.max-tracked-queries:10000}")
+    private int maxTrackedQueries;
+
+    // Last page served per query key, used to detect forward paging
+    private final Map<String, Integer> lastServedPage;
+
+    // Prefetched responses by cache key, used to detect prefetch hits
+    private final Map<String, SearchResponse> prefetchedResponses;
+
+    // Cache keys with a prefetch currently running
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    // Decayed counters for the page-advance ratio (guarded by this)
+    private long observedPages;
+    private long observedAdvances;
+
+    public SearchPrefetchService(SearchService searchService,
+                                 CacheManager cacheManager,
+                                 SearchPerformanceMonitor performanceMonitor,
+                                 @Qualifier("searchPrefetchExecutor") Executor prefetchExecutor) {
+        this.searchService = searchService;
+        this.cacheManager = cacheManager;
+        this.performanceMonitor = performanceMonitor;
+        this.prefetchExecutor = prefetchExecutor;
+        this.lastServedPage = Collections.synchronizedMap(boundedMap());
+        this.prefetchedResponses = Collections.synchronizedMap(boundedMap());
+    }
+
+    /**
+     * Called after a search page has been served
+     * Records paging behaviour and schedules a prefetch of the next page when worthwhile
+     *
+     * @param request The request that was served
+     * @param response The response returned to the client
+     */
+    public void onPageServed(SearchRequest request, SearchResponse response) {
+        if (!prefetchEnabled || request == null || response == null) {
+            return;
+        }
+
+        String cacheKey = request.toString();
+        if (response == prefetchedResponses.remove(cacheKey)) {
+            performanceMonitor.recordPrefetchHit();
+        }
+
+        int page = request.getPage() != null ? request.getPage() : 1;
+        Integer previousPage = lastServedPage.put(request.toQueryKey(), page);
+        recordAdvance(previousPage != null && previousPage == page - 1);
+
+        if (Boolean.TRUE.equals(response.getFallbackUsed())
+                || response.getPagination() == null
+                || !Boolean.TRUE.equals(response.getPagination().getHasNext())) {
+            return;
+        }
+
+        if (!shouldPrefetch()) {
+            performanceMonitor.recordPrefetchSkipped();
+            return;
+        }
+
+        schedulePrefetch(request.toBuilder().page(page + 1).build());
+    }
+
+    /**
+     * Get the currently observed page-advance ratio
+     */
+    public synchronized double getAdvanceRatio() {
+        return observedPages > 0 ? (double) observedAdvances / observedPages : 0.0;
+    }
+
+    private void schedulePrefetch(SearchRequest nextRequest) {
+        String nextKey = nextRequest.toString();
+
+        Cache cache = cacheManager.getCache(SEARCH_RESULTS_CACHE);
+        if (cache != null && cache.get(nextKey) != null) {
+            return; // Already cached
+        }
+        if (!inFlight.add(nextKey)) {
+            return; // Already being prefetched
+        }
+
+        try {
+            prefetchExecutor.execute(() -> {
+                try {
+                    // Goes through the caching proxy, so the result lands in the result cache
+                    SearchResponse prefetched = searchService.searchBooks(nextRequest);
+                    if (prefetched != null && !Boolean.TRUE.equals(prefetched.getFallbackUsed())) {
+                        prefetchedResponses.put(nextKey, prefetched);
+                        performanceMonitor.recordPrefetchIssued();
+                        log.debug("Prefetched search page {} for query: {}", nextRequest.getPage(), nextRequest.toQueryKey());
+                    }
+                } catch (Exception e) {
+                    log.debug("Search prefetch failed for {}: {}", nextKey, e.getMessage());
+                } finally {
+                    inFlight.remove(nextKey);
+                }
+            });
+        } catch (Exception e) {
+            inFlight.remove(nextKey);
+            log.debug("Search prefetch rejected for {}: {}", nextKey, e.getMessage());
+        }
+    }
+
+    /**
+     * Prefetch optimistically during warmup, then only while shoppers actually page forward
+     */
+    private synchronized boolean shouldPrefetch() {
+        if (observedPages < warmupRequests) {
+            return true;
+        }
+        return getAdvanceRatio() >= minAdvanceRatio;
+    }
+
+    private synchronized void recordAdvance(boolean advanced) {
+        observedPages++;
+        if (advanced) {
+            observedAdvances++;
+        }
+        // Halve both counters periodically so the ratio follows recent behaviour
+        if (observedPages >= Math.max(warmupRequests, 1) * 20L) {
+            observedPages /= 2;
+            observedAdvances /= 2;
+        }
+    }
+
+    private <V> Map<String, V> boundedMap() {
+        return new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxTrackedQueries;
+            }
+        };
+    }
+}
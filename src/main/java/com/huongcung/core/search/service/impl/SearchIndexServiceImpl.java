@@ -11,19 +11,25 @@ import com.huongcung.core.product.model.entity.PhysicalBookEntity;
 import com.huongcung.core.product.repository.AbstractBookRepository;
 import com.huongcung.core.search.model.entity.BookSearchDocument;
 import com.huongcung.core.search.repository.BookSearchRepository;
+import com.huongcung.core.search.service.CatalogVersionTracker;
 import com.huongcung.core.search.service.SearchIndexService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
@@ -36,6 +42,10 @@ public class SearchIndexServiceImpl implements SearchIndexService {
     
     private final BookSearchRepository bookSearchRepository;
     private final AbstractBookRepository abstractBookRepository;
+    private final CatalogVersionTracker catalogVersionTracker;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
     
     @Value("${solr.indexing.batch-size:1000}")
     private int batchSize;
@@ -46,6 +56,7 @@ public class SearchIndexServiceImpl implements SearchIndexService {
         try {
             BookSearchDocument document = mapEntityToDocument(book);
             bookSearchRepository.index(document);
+            catalogVersionTracker.advance();
             log.debug("Successfully indexed book: {} (ID: {})", book.getTitle(), book.getId());
             return true;
         } catch (Exception e) {
@@ -113,6 +124,10 @@ public class SearchIndexServiceImpl implements SearchIndexService {
                 indexedCount, errorCount, durationMs, 
                 durationMs > 0 ? (indexedCount * 1000 / durationMs) : 0);
             
+            if (indexedCount > 0) {
+                catalogVersionTracker.advance();
+            }
+            
             return new IndexingResult(totalBooks, indexedCount, errorCount, durationMs);
             
         } catch (Exception e) {
@@ -122,6 +137,50 @@ public class SearchIndexServiceImpl implements SearchIndexService {
         }
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    @CacheEvict(value = {"searchResults", "searchFacets", "searchSuggestions"}, allEntries = true)
+    public IndexingResult indexBooks(Collection<Long> bookIds) {
+        long startTime = System.currentTimeMillis();
+        List<Long> ids = new ArrayList<>(bookIds);
+        long indexedCount = 0;
+        long errorCount = 0;
+        
+        // Documents are sent batch by batch and committed once at the end
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            List<Long> batchIds = ids.subList(i, Math.min(i + batchSize, ids.size()));
+            try {
+                List<BookSearchDocument> documents = abstractBookRepository.findAllById(batchIds).stream()
+                    .map(this::mapEntityToDocument)
+                    .collect(Collectors.toList());
+                bookSearchRepository.add(documents);
+                indexedCount += documents.size();
+                errorCount += batchIds.size() - documents.size();
+            } catch (Exception e) {
+                log.error("Failed to send books {}-{} of {} to the index: {}", i + 1, i + batchIds.size(), ids.size(),
+                    e.getMessage());
+                errorCount += batchIds.size();
+            }
+            // The mapped books are not needed again
+            entityManager.clear();
+        }
+        
+        if (indexedCount > 0) {
+            try {
+                bookSearchRepository.commit();
+                catalogVersionTracker.advance();
+            } catch (Exception e) {
+                log.error("Failed to commit {} indexed books: {}", indexedCount, e.getMessage(), e);
+                errorCount += indexedCount;
+                indexedCount = 0;
+            }
+        }
+        
+        long durationMs = System.currentTimeMillis() - startTime;
+        log.info("Indexed {} of {} books with one commit in {}ms", indexedCount, ids.size(), durationMs);
+        return new IndexingResult(ids.size(), indexedCount, errorCount, durationMs);
+    }
+    
     @Override
     @CacheEvict(value = {"searchResults", "searchFacets", "searchSuggestions"}, allEntries = true)
     public boolean updateBookIndex(Long bookId) {
@@ -141,6 +200,7 @@ public class SearchIndexServiceImpl implements SearchIndexService {
     public boolean deleteBookFromIndex(Long bookId) {
         try {
             bookSearchRepository.deleteById(String.valueOf(bookId));
+            catalogVersionTracker.advance();
             log.debug("Successfully deleted book from index: {}", bookId);
             return true;
         } catch (Exception e) {
@@ -221,6 +281,20 @@ public class SearchIndexServiceImpl implements SearchIndexService {
             ));
         }
         
+        if (book.getUpdatedAt() != null) {
+            document.setUpdatedAt(Date.from(
+                book.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant()
+            ));
+        }
+        
+        // Admin listing fields
+        document.setCode(book.getCode());
+        document.setBookType(book instanceof EbookEntity ? "EBOOK" : "PHYSICAL");
+        document.setActive(!Boolean.FALSE.equals(book.getIsActive()));
+        if (book.getTitle() != null) {
+            document.setTitleSort(book.getTitle().toLowerCase(Locale.ROOT));
+        }
+        
         // Rating and review count (set to null for now, can be populated later)
         document.setAverageRating(null);
         document.setReviewCount(null);
@@ -285,6 +285,9 @@ public class SolrSearchServiceImpl implements SearchService {
     private Map<String, String> buildFilters(SearchRequest request) {
         Map<String, String> filters = new HashMap<>();
         
+        // Inactive books are indexed for the admin catalog listing only (negative so documents without the field match)
+        filters.put("-active", "false");
+        
         // Genre filters
         if (request.getGenres() != null && !request.getGenres().isEmpty()) {
             String genreFilter = request.getGenres().stream()
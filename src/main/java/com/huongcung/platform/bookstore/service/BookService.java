@@ -2,10 +2,34 @@ package com.huongcung.platform.bookstore.service;
 
 import com.huongcung.platform.bookstore.model.BookData;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
-    List<BookData> getAllBooks();
+
+    /**
+     * Get one keyset page of the catalog ordered by book code
+     * @param cursor code of the last book of the previous page, or null for the first page
+     * @param size page size
+     * @return books plus the cursor for the next page
+     */
+    BookSlice getBooks(String cursor, int size);
+
+    /**
+     * Stream the whole catalog to the consumer in code order, one batch in memory at a time
+     * @param consumer receives every book exactly once
+     * @return number of books streamed
+     */
+    long streamAllBooks(Consumer<BookData> consumer);
 
     BookData getBookDetails(String code);
+
+    /**
+     * Last modification time of a book, without loading or mapping it
+     */
+    Optional<LocalDateTime> getBookLastModified(String code);
+
+    record BookSlice(List<BookData> books, String nextCursor, boolean hasNext) {}
 }
@@ -7,10 +7,14 @@ import com.huongcung.platform.bookstore.model.BookData;
 import com.huongcung.platform.bookstore.service.BookService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -20,11 +24,41 @@ public class BookServiceImpl implements BookService {
     private final AbstractBookService abstractBookService;
     private final BookViewMapper bookViewMapper;
 
+    @Value("${catalog.export.batch-size:500}")
+    private int exportBatchSize;
+
     @Override
-    @Transactional(readOnly = true)
-    public List<BookData> getAllBooks() {
-        List<AbstractBookDTO> bookDTOs = abstractBookService.findAll();
-        return bookDTOs.stream().map(bookViewMapper::toBookData).toList();
+    public BookSlice getBooks(String cursor, int size) {
+        // Fetch one extra row to learn whether another page exists without a COUNT query
+        List<AbstractBookDTO> page = abstractBookService.findPageAfterCode(cursor, size + 1);
+        boolean hasNext = page.size() > size;
+        List<BookData> books = page.stream()
+                .limit(size)
+                .map(bookViewMapper::toBookData)
+                .toList();
+        String nextCursor = hasNext ? books.get(books.size() - 1).getCode() : null;
+        return new BookSlice(books, nextCursor, hasNext);
+    }
+
+    @Override
+    public long streamAllBooks(Consumer<BookData> consumer) {
+        long streamed = 0;
+        String cursor = null;
+        while (true) {
+            List<AbstractBookDTO> batch = abstractBookService.findPageAfterCode(cursor, exportBatchSize);
+            for (AbstractBookDTO bookDTO : batch) {
+                consumer.accept(bookViewMapper.toBookData(bookDTO));
+            }
+            // Each batch is read in its own read-only transaction and mapped from detached DTOs,
+            // so only the current batch is held in memory
+            streamed += batch.size();
+            if (batch.size() < exportBatchSize) {
+                break;
+            }
+            cursor = batch.get(batch.size() - 1).getCode();
+        }
+        log.debug("Streamed {} books", streamed);
+        return streamed;
     }
 
     @Override
@@ -32,4 +66,10 @@ public class BookServiceImpl implements BookService {
         AbstractBookDTO bookDTO = abstractBookService.findBookByCode(code);
         return bookViewMapper.toBookData(bookDTO);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> getBookLastModified(String code) {
+        return abstractBookService.findLastModifiedByCode(code);
+    }
 }
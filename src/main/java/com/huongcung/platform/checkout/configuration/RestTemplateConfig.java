@@ -1,21 +1,31 @@
 package com.huongcung.platform.checkout.configuration;
 
+import com.huongcung.platform.checkout.external.ghn.config.GhnApiConfig;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
 import java.time.Duration;
 
 @Configuration
 public class RestTemplateConfig {
     
+    /**
+     * RestTemplate backed by the JDK HttpClient, which keeps a pool of keep-alive connections
+     * so GHN calls do not pay a TCP and TLS handshake each time
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout((int) Duration.ofSeconds(10).toMillis());
-        factory.setReadTimeout((int) Duration.ofSeconds(30).toMillis());
+    public RestTemplate restTemplate(GhnApiConfig ghnApiConfig) {
+        HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(ghnApiConfig.getConnectTimeout()))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+        
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(ghnApiConfig.getTimeout()));
         return new RestTemplate(factory);
     }
 }
-
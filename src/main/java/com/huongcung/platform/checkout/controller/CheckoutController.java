@@ -1,11 +1,17 @@
 package com.huongcung.platform.checkout.controller;
 
 import com.huongcung.core.common.model.response.BaseResponse;
+import com.huongcung.core.inventory.exception.InsufficientStockException;
 import com.huongcung.platform.auth.dto.CustomUserDetails;
 import com.huongcung.platform.checkout.dto.*;
 import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
+import com.huongcung.platform.checkout.external.ghn.GhnMasterDataStore;
 import com.huongcung.platform.checkout.external.ghn.dto.*;
 import com.huongcung.platform.checkout.service.CheckoutService;
+import com.huongcung.platform.checkout.service.DeliveryFeeEstimator;
+import com.huongcung.platform.checkout.service.DeliveryQuoteService;
+import com.huongcung.platform.configuration.HttpCacheConfig;
+import com.huongcung.platform.helper.HttpCacheHelper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,8 +19,12 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("api/checkout")
@@ -23,13 +33,20 @@ import java.util.List;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class CheckoutController {
     
-    private final GhnApiClient ghnApiClient;
+    private final GhnMasterDataStore ghnMasterDataStore;
     private final CheckoutService checkoutService;
+    private final DeliveryQuoteService deliveryQuoteService;
+    private final DeliveryFeeEstimator deliveryFeeEstimator;
+    private final HttpCacheHelper httpCacheHelper;
+    private final HttpCacheConfig httpCacheConfig;
     
     @GetMapping("/ghn/provinces")
-    public ResponseEntity<BaseResponse> getProvinces() {
+    public ResponseEntity<BaseResponse> getProvinces(WebRequest webRequest) {
+        if (masterDataNotModified(webRequest, "provinces")) {
+            return null;
+        }
         try {
-            List<GhnProvinceDTO> provinces = ghnApiClient.getProvinces();
+            List<GhnProvinceDTO> provinces = ghnMasterDataStore.getProvinces();
             return ResponseEntity.ok(BaseResponse.builder()
                 .data(provinces)
                 .build());
@@ -44,9 +61,12 @@ public class CheckoutController {
     }
     
     @GetMapping("/ghn/districts")
-    public ResponseEntity<BaseResponse> getDistricts(@RequestParam Integer provinceId) {
+    public ResponseEntity<BaseResponse> getDistricts(@RequestParam Integer provinceId, WebRequest webRequest) {
+        if (masterDataNotModified(webRequest, "districts", provinceId)) {
+            return null;
+        }
         try {
-            List<GhnDistrictDTO> districts = ghnApiClient.getDistricts(provinceId);
+            List<GhnDistrictDTO> districts = ghnMasterDataStore.getDistricts(provinceId);
             return ResponseEntity.ok(BaseResponse.builder()
                 .data(districts)
                 .build());
@@ -61,9 +81,12 @@ public class CheckoutController {
     }
     
     @GetMapping("/ghn/wards")
-    public ResponseEntity<BaseResponse> getWards(@RequestParam Integer districtId) {
+    public ResponseEntity<BaseResponse> getWards(@RequestParam Integer districtId, WebRequest webRequest) {
+        if (masterDataNotModified(webRequest, "wards", districtId)) {
+            return null;
+        }
         try {
-            List<GhnWardDTO> wards = ghnApiClient.getWards(districtId);
+            List<GhnWardDTO> wards = ghnMasterDataStore.getWards(districtId);
             return ResponseEntity.ok(BaseResponse.builder()
                 .data(wards)
                 .build());
@@ -77,26 +100,45 @@ public class CheckoutController {
         }
     }
     
+    /**
+     * Delivery fee for the cart
+     * Previews are answered from the local fee estimator when it knows the destination; pass quote=true
+     * (or preview a destination it has not learned yet) to get an authoritative GHN quote and its token.
+     * Both are for the standard checkout parcel; the weight in the request is not used.
+     */
     @PostMapping("/ghn/calculate-fee")
-    public ResponseEntity<BaseResponse> calculateFee(@Valid @RequestBody CalculateFeeRequestDTO request) {
+    public ResponseEntity<BaseResponse> calculateFee(@Valid @RequestBody CalculateFeeRequestDTO request,
+                                                     @RequestParam(defaultValue = "false") boolean quote) {
+        Integer serviceTypeId = request.getServiceTypeId() != null
+            ? request.getServiceTypeId() : DeliveryQuoteService.DEFAULT_SERVICE_TYPE_ID;
+        if (!quote) {
+            Optional<BigDecimal> estimate = deliveryFeeEstimator.estimate(serviceTypeId, request.getDistrictId(),
+                DeliveryQuoteService.DEFAULT_WEIGHT);
+            if (estimate.isPresent()) {
+                return ResponseEntity.ok(BaseResponse.builder()
+                    .data(CalculateFeeResponseDTO.builder()
+                        .total(estimate.get())
+                        .expectedDeliveryTime("2-3 days")
+                        .estimated(true)
+                        .build())
+                    .build());
+            }
+        }
+        
         try {
-            CalculateFeeRequest ghnRequest = CalculateFeeRequest.builder()
-                .serviceTypeId(request.getServiceTypeId() != null ? request.getServiceTypeId() : 2)
-                .serviceId(53321) // Standard service
-                .toDistrictId(request.getDistrictId())
-                .toWardCode(request.getWardCode())
-                .weight(request.getWeight())
-                .length(20)
-                .width(15)
-                .height(5)
-                .build();
-            
-            CalculateFeeResponse response = ghnApiClient.calculateFee(ghnRequest);
+            // Quoted and signed here, outside any transaction; checkout only verifies the token
+            DeliveryQuoteService.DeliveryQuote deliveryQuote = deliveryQuoteService.quote(
+                request.getDistrictId(),
+                request.getWardCode(),
+                serviceTypeId);
             
             CalculateFeeResponseDTO dto = CalculateFeeResponseDTO.builder()
-                .total(response.getTotal())
-                .serviceFee(response.getServiceFee())
+                .total(deliveryQuote.fee())
+                .serviceFee(deliveryQuote.serviceFee())
                 .expectedDeliveryTime("2-3 days") // GHN API doesn't always return this
+                .estimated(false)
+                .quoteToken(deliveryQuote.token())
+                .quoteExpiresAt(deliveryQuote.expiresAt())
                 .build();
             
             return ResponseEntity.ok(BaseResponse.builder()
@@ -132,11 +174,20 @@ public class CheckoutController {
                     .build());
             }
             
+            // Quote delivery before the order transaction starts, so it never waits on GHN
+            deliveryQuoteService.attachQuoteIfMissing(request);
             CheckoutResponse response = checkoutService.createOrder(request, customerId);
             
             return ResponseEntity.ok(BaseResponse.builder()
                 .data(response)
                 .build());
+        } catch (InsufficientStockException e) {
+            log.warn("Checkout rejected: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(BaseResponse.builder()
+                .errorCode("INSUFFICIENT_STOCK")
+                .message(e.getMessage())
+                .data(e.getShortages())
+                .build());
         } catch (IllegalArgumentException e) {
             log.error("Invalid checkout request: {}", e.getMessage());
             return ResponseEntity.badRequest().body(BaseResponse.builder()
@@ -151,5 +202,17 @@ public class CheckoutController {
                 .build());
         }
     }
+    
+    /**
+     * Validators for master data served from the local snapshot; live fallbacks are not cached
+     */
+    private boolean masterDataNotModified(WebRequest webRequest, Object... key) {
+        String version = ghnMasterDataStore.getVersion();
+        if (version == null) {
+            return false;
+        }
+        String etag = httpCacheHelper.strongETag("ghn", version, Arrays.toString(key));
+        return httpCacheHelper.checkNotModified(webRequest, etag, ghnMasterDataStore.getRefreshedAt(),
+            httpCacheConfig.getGhnMasterDataMaxAge());
+    }
 }
-
@@ -18,8 +18,7 @@ public class CalculateFeeRequestDTO {
     @NotNull(message = "Ward code is required")
     private String wardCode;
     
-    @NotNull(message = "Weight is required")
-    private Integer weight; // in grams
+    private Integer weight; // in grams; ignored, fees are quoted for the standard checkout parcel
     
     private Integer serviceTypeId; // Optional, defaults to standard
 }
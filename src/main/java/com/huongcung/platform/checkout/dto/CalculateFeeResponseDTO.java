@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data
 @Builder
@@ -15,5 +16,8 @@ public class CalculateFeeResponseDTO {
     private BigDecimal total;
     private BigDecimal serviceFee;
     private String expectedDeliveryTime;
+    private Boolean estimated; // Local preview estimate; the fee is confirmed by GHN when the order is placed
+    private String quoteToken; // Pass to POST /api/checkout/orders to be charged this fee
+    private LocalDateTime quoteExpiresAt;
 }
 
@@ -24,5 +24,7 @@ public class CheckoutRequest {
     private ShippingAddressDTO shippingAddress;
     
     private String shippingMethod; // standard or express
+    
+    private String quoteToken; // From POST /api/checkout/ghn/calculate-fee
 }
 
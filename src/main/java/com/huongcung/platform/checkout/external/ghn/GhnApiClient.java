@@ -8,11 +8,13 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.TimeoutException;
 
 @Service
@@ -23,6 +25,7 @@ public class GhnApiClient {
     private final GhnApiConfig ghnApiConfig;
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final GhnResilience ghnResilience;
     
     /**
      * Get all provinces from GHN API
@@ -35,12 +38,12 @@ public class GhnApiClient {
             HttpEntity<?> entity = new HttpEntity<>(headers);
             
             log.debug("Calling GHN API: GET {}", url);
-            ResponseEntity<GhnApiResponse<List<GhnProvinceDTO>>> response = restTemplate.exchange(
+            ResponseEntity<GhnApiResponse<List<GhnProvinceDTO>>> response = ghnResilience.execute("provinces", () -> restTemplate.exchange(
                 url,
                 HttpMethod.GET,
                 entity,
                 new org.springframework.core.ParameterizedTypeReference<GhnApiResponse<List<GhnProvinceDTO>>>() {}
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 GhnApiResponse<List<GhnProvinceDTO>> apiResponse = response.getBody();
@@ -78,12 +81,12 @@ public class GhnApiClient {
             HttpEntity<Object> entity = new HttpEntity<>(Collections.singletonMap("province_id", provinceId), headers);
             
             log.debug("Calling GHN API: POST {} with province_id={}", url, provinceId);
-            ResponseEntity<GhnApiResponse<List<GhnDistrictDTO>>> response = restTemplate.exchange(
+            ResponseEntity<GhnApiResponse<List<GhnDistrictDTO>>> response = ghnResilience.execute("districts", () -> restTemplate.exchange(
                 url,
                 HttpMethod.POST,
                 entity,
                 new org.springframework.core.ParameterizedTypeReference<GhnApiResponse<List<GhnDistrictDTO>>>() {}
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 GhnApiResponse<List<GhnDistrictDTO>> apiResponse = response.getBody();
@@ -121,12 +124,12 @@ public class GhnApiClient {
             HttpEntity<Object> entity = new HttpEntity<>(Collections.singletonMap("district_id", districtId), headers);
             
             log.debug("Calling GHN API: POST {} with district_id={}", url, districtId);
-            ResponseEntity<GhnApiResponse<List<GhnWardDTO>>> response = restTemplate.exchange(
+            ResponseEntity<GhnApiResponse<List<GhnWardDTO>>> response = ghnResilience.execute("wards", () -> restTemplate.exchange(
                 url,
                 HttpMethod.POST,
                 entity,
                 new org.springframework.core.ParameterizedTypeReference<GhnApiResponse<List<GhnWardDTO>>>() {}
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 GhnApiResponse<List<GhnWardDTO>> apiResponse = response.getBody();
@@ -164,12 +167,12 @@ public class GhnApiClient {
             HttpEntity<CalculateFeeRequest> entity = new HttpEntity<>(request, headers);
             
             log.debug("Calling GHN API: POST {} with request: {}", url, request);
-            ResponseEntity<GhnApiResponse<CalculateFeeResponse>> response = restTemplate.exchange(
+            ResponseEntity<GhnApiResponse<CalculateFeeResponse>> response = ghnResilience.execute("fee", () -> restTemplate.exchange(
                 url,
                 HttpMethod.POST,
                 entity,
                 new org.springframework.core.ParameterizedTypeReference<GhnApiResponse<CalculateFeeResponse>>() {}
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 GhnApiResponse<CalculateFeeResponse> apiResponse = response.getBody();
@@ -192,6 +195,100 @@ public class GhnApiClient {
         }
     }
     
+    /**
+     * Book a shipment (create a GHN shipping order)
+     * Sent once and never retried: a failed attempt may still have created the order, and GHN rejects
+     * a second order with the same client_order_code. Callers recover with {@link #findShippingOrder}.
+     */
+    public CreateShippingOrderResponse createShippingOrder(CreateShippingOrderRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Create shipping order request cannot be null");
+        }
+        
+        try {
+            String url = ghnApiConfig.getBaseUrl() + "/shiip/public-api/v2/shipping-order/create";
+            
+            HttpHeaders headers = createHeaders();
+            HttpEntity<CreateShippingOrderRequest> entity = new HttpEntity<>(request, headers);
+            
+            log.debug("Calling GHN API: POST {} with client_order_code={}", url, request.getClientOrderCode());
+            ResponseEntity<GhnApiResponse<CreateShippingOrderResponse>> response = ghnResilience.executeOnce("create-order", () -> restTemplate.exchange(
+                url,
+                HttpMethod.POST,
+                entity,
+                new org.springframework.core.ParameterizedTypeReference<GhnApiResponse<CreateShippingOrderResponse>>() {}
+            ));
+            
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                GhnApiResponse<CreateShippingOrderResponse> apiResponse = response.getBody();
+                if (apiResponse.getCode() == 200 && apiResponse.getData() != null) {
+                    log.debug("GHN API create order response: order_code={}", apiResponse.getData().getOrderCode());
+                    return apiResponse.getData();
+                } else {
+                    log.warn("GHN API returned non-success code: {}, message: {}", 
+                        apiResponse.getCode(), apiResponse.getMessage());
+                    throw new GhnApiException("GHN API create order failed: " + apiResponse.getMessage());
+                }
+            }
+            
+            log.warn("GHN API create order call failed with status: {}", response.getStatusCode());
+            throw new GhnApiException("GHN API create order failed with status: " + response.getStatusCode());
+            
+        } catch (RestClientException e) {
+            log.error("Error calling GHN API for create order: {}", e.getMessage(), e);
+            throw new GhnApiException("Failed to create shipping order in GHN API", e);
+        }
+    }
+    
+    /**
+     * Look up a shipping order by the client_order_code it was booked with
+     *
+     * @return The order, or empty if GHN has no order with that code
+     */
+    public Optional<ShippingOrderDetailResponse> findShippingOrder(String clientOrderCode) {
+        if (clientOrderCode == null) {
+            throw new IllegalArgumentException("Client order code cannot be null");
+        }
+        
+        try {
+            String url = ghnApiConfig.getBaseUrl() + "/shiip/public-api/v2/shipping-order/detail-by-client-code";
+            
+            HttpHeaders headers = createHeaders();
+            HttpEntity<Object> entity = new HttpEntity<>(Collections.singletonMap("client_order_code", clientOrderCode), headers);
+            
+            log.debug("Calling GHN API: POST {} with client_order_code={}", url, clientOrderCode);
+            ResponseEntity<GhnApiResponse<ShippingOrderDetailResponse>> response = ghnResilience.execute("order-detail", () -> restTemplate.exchange(
+                url,
+                HttpMethod.POST,
+                entity,
+                new org.springframework.core.ParameterizedTypeReference<GhnApiResponse<ShippingOrderDetailResponse>>() {}
+            ));
+            
+            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+                GhnApiResponse<ShippingOrderDetailResponse> apiResponse = response.getBody();
+                if (apiResponse.getCode() == 200 && apiResponse.getData() != null) {
+                    return Optional.of(apiResponse.getData());
+                }
+                log.debug("GHN API has no order for client_order_code={}: {}", clientOrderCode, apiResponse.getMessage());
+                return Optional.empty();
+            }
+            
+            log.warn("GHN API order detail call failed with status: {}", response.getStatusCode());
+            throw new GhnApiException("GHN API order detail failed with status: " + response.getStatusCode());
+            
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS)) {
+                throw new GhnApiException("Failed to look up shipping order in GHN API", e);
+            }
+            // GHN answers an unknown client_order_code with a 400
+            log.debug("GHN API has no order for client_order_code={}: {}", clientOrderCode, e.getMessage());
+            return Optional.empty();
+        } catch (RestClientException e) {
+            log.error("Error calling GHN API for order detail: {}", e.getMessage(), e);
+            throw new GhnApiException("Failed to look up shipping order in GHN API", e);
+        }
+    }
+    
     private HttpHeaders createHeaders() {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
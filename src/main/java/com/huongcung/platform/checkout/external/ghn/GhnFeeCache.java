@@ -0,0 +1,262 @@
+package com.huongcung.platform.checkout.external.ghn;
+
+import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeRequest;
+import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeResponse;
+import com.huongcung.platform.checkout.service.DeliveryQuoteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of GHN delivery fees in front of {@link GhnApiClient#calculateFee}
+ * Fees only depend on the service, the destination and the parcel tier, so requests are keyed by
+ * (serviceId, serviceTypeId, toDistrictId, toWardCode, weight bucket, dimension bucket). The parcel is
+ * rounded up to its bucket before GHN is asked, so every request in a bucket is quoted the same,
+ * never lower, fee.
+ *
+ * Entries expire after a TTL and the cache is bounded (least recently used entries are evicted).
+ * Concurrent misses for the same key share one GHN call; failures are not cached.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GhnFeeCache {
+
+    private final GhnApiClient ghnApiClient;
+
+    @Value("${ghn.fee-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ghn.fee-cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${ghn.fee-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${ghn.fee-cache.weight-bucket-grams:500}")
+    private int weightBucketGrams;
+
+    @Value("${ghn.fee-cache.dimension-bucket-cm:10}")
+    private int dimensionBucketCm;
+
+    // Destinations warmed ahead of demand, as districtId:wardCode
+    @Value("${ghn.fee-cache.prewarm-destinations:}")
+    private List<String> prewarmDestinations;
+
+    // LRU by access order (guarded by itself)
+    private final Map<FeeKey, Entry> entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FeeKey, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder ghnCalls = new LongAdder();
+    private final LongAdder ghnErrors = new LongAdder();
+
+    /**
+     * Calculate the delivery fee, from the cache when possible
+     *
+     * @throws GhnApiClient.GhnApiException if GHN cannot calculate the fee
+     */
+    public CalculateFeeResponse calculateFee(CalculateFeeRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Calculate fee request cannot be null");
+        }
+        if (!enabled) {
+            return callGhn(request);
+        }
+
+        CalculateFeeRequest bucketed = toBucket(request);
+        FeeKey key = FeeKey.of(bucketed);
+        long now = System.currentTimeMillis();
+
+        CompletableFuture<CalculateFeeResponse> future;
+        boolean leader = false;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                future = entry.future;
+                if (future.isDone()) {
+                    hits.increment();
+                } else {
+                    coalesced.increment();
+                }
+            } else {
+                misses.increment();
+                future = new CompletableFuture<>();
+                entries.put(key, new Entry(future, now + ttlMinutes * 60_000));
+                leader = true;
+            }
+        }
+
+        if (leader) {
+            try {
+                future.complete(callGhn(bucketed));
+            } catch (RuntimeException e) {
+                // Do not cache failures; waiters get the same error, the next request retries
+                entries.remove(key);
+                future.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Warm the configured top destinations before they expire, so their shoppers never wait on GHN
+     * Runs on the GHN background executor, so a slow GHN never holds a scheduler thread.
+     */
+    @Async("ghnBackgroundExecutor")
+    @Scheduled(initialDelayString = "${ghn.fee-cache.prewarm-initial-delay-ms:10000}",
+               fixedDelayString = "${ghn.fee-cache.prewarm-interval-ms:1500000}")
+    public void prewarm() {
+        if (!enabled || prewarmDestinations == null || prewarmDestinations.isEmpty()) {
+            return;
+        }
+        int warmed = 0;
+        for (String destination : prewarmDestinations) {
+            String[] parts = destination.trim().split(":", 2);
+            if (parts.length != 2) {
+                log.warn("Ignoring malformed fee pre-warm destination '{}', expected districtId:wardCode", destination);
+                continue;
+            }
+            // Standard checkout parcel
+            CalculateFeeRequest request = CalculateFeeRequest.builder()
+                .serviceTypeId(DeliveryQuoteService.DEFAULT_SERVICE_TYPE_ID)
+                .serviceId(DeliveryQuoteService.SERVICE_ID)
+                .toDistrictId(Integer.valueOf(parts[0]))
+                .toWardCode(parts[1])
+                .weight(DeliveryQuoteService.DEFAULT_WEIGHT)
+                .length(DeliveryQuoteService.PARCEL_LENGTH)
+                .width(DeliveryQuoteService.PARCEL_WIDTH)
+                .height(DeliveryQuoteService.PARCEL_HEIGHT)
+                .build();
+            try {
+                // Drop the entry first so the warm call refreshes it instead of hitting it
+                entries.remove(FeeKey.of(toBucket(request)));
+                calculateFee(request);
+                warmed++;
+            } catch (RuntimeException e) {
+                log.warn("Failed to pre-warm delivery fee for {}: {}", destination, e.getMessage());
+            }
+        }
+        log.debug("Pre-warmed delivery fees for {} of {} destinations", warmed, prewarmDestinations.size());
+    }
+
+    /**
+     * Log cache effectiveness and GHN call volume
+     */
+    @Scheduled(fixedDelayString = "${ghn.fee-cache.stats-interval-ms:300000}")
+    public void logStats() {
+        if (getRequestCount() == 0) {
+            return;
+        }
+        log.info("GHN fee cache - Requests: {}, Hits: {}, Coalesced: {}, Misses: {}, Hit rate: {}%, GHN calls: {}, GHN errors: {}, Entries: {}",
+            getRequestCount(), getHitCount(), getCoalescedCount(), getMissCount(), Math.round(getHitRate() * 100),
+            getGhnCallCount(), getGhnErrorCount(), size());
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Get number of requests that waited on a GHN call already in flight for the same key
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRequestCount() {
+        return getHitCount() + getCoalescedCount() + getMissCount();
+    }
+
+    /**
+     * Get fraction of requests answered without a GHN call of their own
+     */
+    public double getHitRate() {
+        long requests = getRequestCount();
+        return requests > 0 ? (double) (getHitCount() + getCoalescedCount()) / requests : 0.0;
+    }
+
+    public long getGhnCallCount() {
+        return ghnCalls.sum();
+    }
+
+    public long getGhnErrorCount() {
+        return ghnErrors.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private CalculateFeeResponse callGhn(CalculateFeeRequest request) {
+        ghnCalls.increment();
+        try {
+            return ghnApiClient.calculateFee(request);
+        } catch (RuntimeException e) {
+            ghnErrors.increment();
+            throw e;
+        }
+    }
+
+    private CalculateFeeRequest toBucket(CalculateFeeRequest request) {
+        return CalculateFeeRequest.builder()
+            .serviceId(request.getServiceId())
+            .serviceTypeId(request.getServiceTypeId())
+            .toDistrictId(request.getToDistrictId())
+            .toWardCode(request.getToWardCode())
+            .weight(roundUp(request.getWeight(), weightBucketGrams))
+            .length(roundUp(request.getLength(), dimensionBucketCm))
+            .width(roundUp(request.getWidth(), dimensionBucketCm))
+            .height(roundUp(request.getHeight(), dimensionBucketCm))
+            .build();
+    }
+
+    private static Integer roundUp(Integer value, int bucket) {
+        if (value == null || value <= 0 || bucket <= 1) {
+            return value;
+        }
+        return ((value + bucket - 1) / bucket) * bucket;
+    }
+
+    private record FeeKey(Integer serviceId, Integer serviceTypeId, Integer toDistrictId, String toWardCode,
+                          Integer weight, Integer length, Integer width, Integer height) {
+
+        static FeeKey of(CalculateFeeRequest bucketed) {
+            return new FeeKey(bucketed.getServiceId(), bucketed.getServiceTypeId(), bucketed.getToDistrictId(),
+                bucketed.getToWardCode(), bucketed.getWeight(), bucketed.getLength(), bucketed.getWidth(),
+                bucketed.getHeight());
+        }
+    }
+
+    private record Entry(CompletableFuture<CalculateFeeResponse> future, long expiresAt) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.huongcung.platform.checkout.external.ghn;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnDistrictDTO;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnMasterDataSnapshot;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnProvinceDTO;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnWardDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local copy of the GHN master data (provinces, districts, wards)
+ * The hierarchy changes a few times a year, so address forms are served from immutable in-memory maps
+ * instead of calling GHN on every request. The snapshot is persisted to a local JSON file so restarts
+ * serve immediately, and is refreshed in the background once it is older than the refresh age.
+ *
+ * Lookups the snapshot cannot answer (no snapshot yet) fall through to the live GHN API.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GhnMasterDataStore {
+
+    private final GhnApiClient ghnApiClient;
+    private final ObjectMapper objectMapper;
+
+    @Value("${ghn.master-data.snapshot-path:./data/ghn-master-data.json}")
+    private String snapshotPath;
+
+    @Value("${ghn.master-data.refresh-after-hours:24}")
+    private long refreshAfterHours;
+
+    private volatile Index index;
+
+    /**
+     * Load the persisted snapshot, if any
+     */
+    @PostConstruct
+    public void load() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            log.info("No GHN master data snapshot at {}, it will be fetched in the background", path);
+            return;
+        }
+        try {
+            index = new Index(objectMapper.readValue(path.toFile(), GhnMasterDataSnapshot.class));
+            log.info("Loaded GHN master data snapshot {}: {} provinces, {} districts, {} wards",
+                index.snapshot.getVersion(), index.provinces.size(),
+                index.snapshot.getDistricts().size(), index.snapshot.getWards().size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable GHN master data snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    public List<GhnProvinceDTO> getProvinces() {
+        Index current = index;
+        return current != null ? current.provinces : ghnApiClient.getProvinces();
+    }
+
+    public List<GhnDistrictDTO> getDistricts(Integer provinceId) {
+        Index current = index;
+        if (current != null && current.districtsByProvince.containsKey(provinceId)) {
+            return current.districtsByProvince.get(provinceId);
+        }
+        return current != null ? List.of() : ghnApiClient.getDistricts(provinceId);
+    }
+
+    public List<GhnWardDTO> getWards(Integer districtId) {
+        Index current = index;
+        if (current != null && current.wardsByDistrict.containsKey(districtId)) {
+            return current.wardsByDistrict.get(districtId);
+        }
+        return current != null ? List.of() : ghnApiClient.getWards(districtId);
+    }
+
+    /**
+     * Province of a district, or null if it is not in the snapshot
+     */
+    public Integer findProvinceId(Integer districtId) {
+        Index current = index;
+        return current != null ? current.provinceByDistrict.get(districtId) : null;
+    }
+
+    /**
+     * Version of the served data, or null while it is fetched live
+     */
+    public String getVersion() {
+        Index current = index;
+        return current != null ? current.snapshot.getVersion() : null;
+    }
+
+    /**
+     * Time the served data was fetched from GHN in epoch milliseconds, or 0 while it is fetched live
+     */
+    public long getRefreshedAt() {
+        Index current = index;
+        return current != null ? current.snapshot.getRefreshedAt() : 0L;
+    }
+
+    /**
+     * Refresh the snapshot when it is missing or older than the refresh age
+     * Runs on the GHN background executor, so a slow GHN never holds a scheduler thread.
+     */
+    @Async("ghnBackgroundExecutor")
+    @Scheduled(initialDelayString = "${ghn.master-data.initial-delay-ms:5000}",
+               fixedDelayString = "${ghn.master-data.check-interval-ms:3600000}")
+    public void refreshIfStale() {
+        long age = System.currentTimeMillis() - getRefreshedAt();
+        if (index == null || age >= refreshAfterHours * 3_600_000L) {
+            refresh();
+        }
+    }
+
+    /**
+     * Fetch the whole hierarchy from GHN and swap it in
+     * The previous snapshot keeps being served if any call fails.
+     *
+     * @return true if the snapshot was replaced
+     */
+    public boolean refresh() {
+        long started = System.currentTimeMillis();
+        GhnMasterDataSnapshot snapshot;
+        try {
+            List<GhnProvinceDTO> provinces = ghnApiClient.getProvinces();
+            if (provinces.isEmpty()) {
+                log.warn("GHN returned no provinces, keeping the current master data");
+                return false;
+            }
+            List<GhnDistrictDTO> districts = new ArrayList<>();
+            for (GhnProvinceDTO province : provinces) {
+                for (GhnDistrictDTO district : ghnApiClient.getDistricts(province.getProvinceId())) {
+                    district.setProvinceId(province.getProvinceId());
+                    districts.add(district);
+                }
+            }
+            List<GhnWardDTO> wards = new ArrayList<>();
+            for (GhnDistrictDTO district : districts) {
+                for (GhnWardDTO ward : ghnApiClient.getWards(district.getDistrictId())) {
+                    ward.setDistrictId(district.getDistrictId());
+                    wards.add(ward);
+                }
+            }
+
+            snapshot = GhnMasterDataSnapshot.builder()
+                .provinces(provinces)
+                .districts(districts)
+                .wards(wards)
+                .build();
+            snapshot.setVersion(DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(snapshot)));
+            snapshot.setRefreshedAt(System.currentTimeMillis());
+        } catch (GhnApiClient.GhnApiException | IOException e) {
+            log.warn("GHN master data refresh failed, keeping the current snapshot: {}", e.getMessage());
+            return false;
+        }
+
+        index = new Index(snapshot);
+        persist(snapshot);
+        log.info("Refreshed GHN master data {} in {}ms: {} provinces, {} districts, {} wards",
+            snapshot.getVersion(), System.currentTimeMillis() - started,
+            snapshot.getProvinces().size(), snapshot.getDistricts().size(), snapshot.getWards().size());
+        return true;
+    }
+
+    private void persist(GhnMasterDataSnapshot snapshot) {
+        Path path = Paths.get(snapshotPath).toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            // Write then move, so a crash never leaves a truncated snapshot behind
+            Path temp = Files.createTempFile(path.getParent(), "ghn-master-data", ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Failed to persist GHN master data snapshot to {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Immutable lookup maps over one snapshot
+     */
+    private static final class Index {
+        private final GhnMasterDataSnapshot snapshot;
+        private final List<GhnProvinceDTO> provinces;
+        private final Map<Integer, List<GhnDistrictDTO>> districtsByProvince;
+        private final Map<Integer, List<GhnWardDTO>> wardsByDistrict;
+        private final Map<Integer, Integer> provinceByDistrict;
+
+        private Index(GhnMasterDataSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.provinces = List.copyOf(snapshot.getProvinces());
+
+            Map<Integer, List<GhnDistrictDTO>> districts = new HashMap<>();
+            provinces.forEach(province -> districts.put(province.getProvinceId(), new ArrayList<>()));
+            snapshot.getDistricts().forEach(district ->
+                districts.computeIfAbsent(district.getProvinceId(), id -> new ArrayList<>()).add(district));
+            this.districtsByProvince = copy(districts);
+
+            Map<Integer, List<GhnWardDTO>> wards = new HashMap<>();
+            snapshot.getDistricts().forEach(district -> wards.put(district.getDistrictId(), new ArrayList<>()));
+            snapshot.getWards().forEach(ward ->
+                wards.computeIfAbsent(ward.getDistrictId(), id -> new ArrayList<>()).add(ward));
+            this.wardsByDistrict = copy(wards);
+
+            Map<Integer, Integer> provinces = new HashMap<>();
+            snapshot.getDistricts().forEach(district -> {
+                if (district.getDistrictId() != null && district.getProvinceId() != null) {
+                    provinces.put(district.getDistrictId(), district.getProvinceId());
+                }
+            });
+            this.provinceByDistrict = Map.copyOf(provinces);
+        }
+
+        private static <T> Map<Integer, List<T>> copy(Map<Integer, List<T>> source) {
+            Map<Integer, List<T>> copy = new HashMap<>(source.size() * 2);
+            source.forEach((key, values) -> copy.put(key, List.copyOf(values)));
+            return Map.copyOf(copy);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.huongcung.platform.checkout.external.ghn;
+
+import com.huongcung.platform.checkout.external.ghn.config.GhnApiConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Guards every GHN HTTP call with a bulkhead, a circuit breaker and jittered retries, and records
+ * per-endpoint latency
+ *
+ * - Bulkhead: at most ghn.max-concurrent-requests calls are in flight; callers wait briefly for a slot
+ *   and then fail fast, so a slow GHN cannot take over the request threads.
+ * - Circuit breaker: opens when the failure rate over the last calls reaches the threshold, rejects calls
+ *   while open, and lets a single probe through once the open period has elapsed.
+ * - Retries: for reads and quotes ({@link #execute}), I/O errors, timeouts, 5xx and 429 responses are
+ *   retried with exponential backoff and full jitter. Calls that create something at GHN, such as booking
+ *   a shipment, go through {@link #executeOnce}: same bulkhead and breaker, but never retried, because a
+ *   failed attempt may still have been carried out.
+ *
+ * Metrics: ghn.client.requests (timer, tags endpoint and outcome), ghn.client.retries (counter, tag
+ * endpoint) and ghn.client.circuit.open (gauge, 1 while open).
+ */
+@Component
+@Slf4j
+public class GhnResilience {
+
+    private final GhnApiConfig ghnApiConfig;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    public GhnResilience(GhnApiConfig ghnApiConfig, MeterRegistry meterRegistry) {
+        this.ghnApiConfig = ghnApiConfig;
+        this.meterRegistry = meterRegistry;
+        this.bulkhead = new Semaphore(ghnApiConfig.getMaxConcurrentRequests());
+        this.circuitBreaker = new CircuitBreaker(ghnApiConfig.getCircuitBreakerWindowSize(),
+            ghnApiConfig.getCircuitBreakerMinimumCalls(), ghnApiConfig.getCircuitBreakerFailureRatePercent(),
+            ghnApiConfig.getCircuitBreakerOpenMs());
+        Gauge.builder("ghn.client.circuit.open", circuitBreaker, breaker -> breaker.isOpen() ? 1 : 0)
+            .description("1 while the GHN circuit breaker rejects calls")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Run one logical GHN call, retrying transient failures
+     * Only for calls that are safe to repeat.
+     *
+     * @param endpoint Short endpoint name used in metrics and logs
+     * @param call The HTTP call; may be invoked several times
+     * @return The call result
+     * @throws GhnApiClient.GhnApiException if the bulkhead is full or the circuit is open
+     */
+    public <T> T execute(String endpoint, Supplier<T> call) {
+        return execute(endpoint, call, Math.max(ghnApiConfig.getRetryMaxAttempts(), 1));
+    }
+
+    /**
+     * Run a GHN call that must not be repeated, such as creating a shipping order
+     *
+     * @param endpoint Short endpoint name used in metrics and logs
+     * @param call The HTTP call; invoked at most once
+     * @return The call result
+     * @throws GhnApiClient.GhnApiException if the bulkhead is full or the circuit is open
+     */
+    public <T> T executeOnce(String endpoint, Supplier<T> call) {
+        return execute(endpoint, call, 1);
+    }
+
+    private <T> T execute(String endpoint, Supplier<T> call, int maxAttempts) {
+        long started = System.nanoTime();
+        String outcome = "error";
+        try {
+            if (!acquireBulkhead()) {
+                outcome = "rejected";
+                throw new GhnApiClient.GhnApiException("Too many concurrent GHN requests");
+            }
+            try {
+                T result = executeWithRetries(endpoint, call, maxAttempts);
+                outcome = "success";
+                return result;
+            } catch (CircuitOpenException e) {
+                outcome = "short_circuited";
+                throw new GhnApiClient.GhnApiException("GHN circuit breaker is open");
+            } finally {
+                bulkhead.release();
+            }
+        } finally {
+            Timer.builder("ghn.client.requests")
+                .description("GHN API calls including retries")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public boolean isCircuitOpen() {
+        return circuitBreaker.isOpen();
+    }
+
+    private <T> T executeWithRetries(String endpoint, Supplier<T> call, int maxAttempts) {
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                throw new CircuitOpenException();
+            }
+            try {
+                T result = call.get();
+                circuitBreaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                boolean transientFailure = isTransient(e);
+                if (transientFailure || !(e instanceof HttpClientErrorException)) {
+                    circuitBreaker.onFailure();
+                } else {
+                    // GHN answered; a rejected request says nothing about its health
+                    circuitBreaker.onSuccess();
+                }
+                if (!transientFailure || attempt >= maxAttempts) {
+                    throw e;
+                }
+                long delay = backoff(attempt);
+                log.debug("GHN {} attempt {} failed ({}), retrying in {}ms", endpoint, attempt, e.getMessage(), delay);
+                Counter.builder("ghn.client.retries").tag("endpoint", endpoint).register(meterRegistry).increment();
+                sleep(delay);
+            }
+        }
+    }
+
+    private boolean acquireBulkhead() {
+        try {
+            return bulkhead.tryAcquire(ghnApiConfig.getBulkheadMaxWaitMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean isTransient(RuntimeException e) {
+        return e instanceof ResourceAccessException
+            || e instanceof HttpServerErrorException
+            || (e instanceof HttpClientErrorException clientError
+                && clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS));
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min((long) ghnApiConfig.getRetryDelayMs() << (attempt - 1), ghnApiConfig.getRetryMaxDelayMs());
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    private void sleep(long delayMs) {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GhnApiClient.GhnApiException("Interrupted while retrying GHN request");
+        }
+    }
+
+    private static final class CircuitOpenException extends RuntimeException {
+        private CircuitOpenException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Count-based circuit breaker over a ring of recent call outcomes
+     */
+    static final class CircuitBreaker {
+
+        private enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final boolean[] window;
+        private final int minimumCalls;
+        private final int failureRatePercent;
+        private final long openMs;
+
+        private State state = State.CLOSED;
+        private long openedAt;
+        private boolean probeInFlight;
+        private int position;
+        private int calls;
+        private int failures;
+
+        CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, long openMs) {
+            this.window = new boolean[Math.max(windowSize, 1)];
+            this.minimumCalls = Math.max(minimumCalls, 1);
+            this.failureRatePercent = failureRatePercent;
+            this.openMs = openMs;
+        }
+
+        synchronized boolean tryAcquirePermission() {
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < openMs) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+            }
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            if (state == State.HALF_OPEN) {
+                log.info("GHN circuit breaker closed after a successful probe");
+                reset(State.CLOSED);
+                return;
+            }
+            record(false);
+        }
+
+        synchronized void onFailure() {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (state == State.CLOSED && calls >= minimumCalls && failures * 100 >= failureRatePercent * calls) {
+                log.warn("GHN circuit breaker opened: {} of the last {} calls failed", failures, calls);
+                open();
+            }
+        }
+
+        synchronized boolean isOpen() {
+            return state == State.OPEN && System.currentTimeMillis() - openedAt < openMs;
+        }
+
+        private void record(boolean failed) {
+            if (calls == window.length) {
+                if (window[position]) {
+                    failures--;
+                }
+            } else {
+                calls++;
+            }
+            window[position] = failed;
+            if (failed) {
+                failures++;
+            }
+            position = (position + 1) % window.length;
+        }
+
+        private void open() {
+            reset(State.OPEN);
+            openedAt = System.currentTimeMillis();
+        }
+
+        private void reset(State newState) {
+            state = newState;
+            probeInFlight = false;
+            position = 0;
+            calls = 0;
+            failures = 0;
+            Arrays.fill(window, false);
+        }
+    }
+}
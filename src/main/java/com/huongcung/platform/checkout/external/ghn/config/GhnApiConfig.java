@@ -3,7 +3,12 @@ package com.huongcung.platform.checkout.external.ghn.config;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @ConfigurationProperties(prefix = "ghn")
@@ -15,8 +20,36 @@ public class GhnApiConfig {
     private String baseUrl = "https://dev-online-gateway.ghn.vn";
     private Integer shopId;
     private Integer clientId;
-    private Integer timeout = 10000; // milliseconds
+    private Integer connectTimeout = 3000; // milliseconds
+    private Integer timeout = 10000; // read timeout per attempt, milliseconds
     private Integer retryMaxAttempts = 3;
-    private Integer retryDelayMs = 1000;
+    private Integer retryDelayMs = 1000; // base delay, doubled per attempt with full jitter
+    private Integer retryMaxDelayMs = 5000;
+    
+    // Bulkhead: calls beyond maxConcurrentRequests wait up to bulkheadMaxWaitMs, then fail fast
+    private Integer maxConcurrentRequests = 20;
+    private Integer bulkheadMaxWaitMs = 200;
+    
+    // Circuit breaker over the last circuitBreakerWindowSize calls
+    private Integer circuitBreakerWindowSize = 20;
+    private Integer circuitBreakerMinimumCalls = 10;
+    private Integer circuitBreakerFailureRatePercent = 50;
+    private Integer circuitBreakerOpenMs = 30000;
+    
+    /**
+     * Executor for the scheduled GHN master data refresh and fee pre-warm
+     * They make hundreds of GHN calls, so they run here instead of on the scheduler threads. One run of each
+     * may wait; a run triggered while another is already waiting is dropped.
+     */
+    @Bean(name = "ghnBackgroundExecutor")
+    public Executor ghnBackgroundExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(2);
+        executor.setThreadNamePrefix("ghn-background-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
 }
-
@@ -0,0 +1,92 @@
+package com.huongcung.platform.checkout.external.ghn.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CreateShippingOrderRequest {
+    @JsonProperty("payment_type_id")
+    private Integer paymentTypeId; // 1 = shop pays the fee, 2 = buyer pays
+    
+    @JsonProperty("required_note")
+    private String requiredNote; // CHOTHUHANG, CHOXEMHANGKHONGTHU, KHONGCHOXEMHANG
+    
+    @JsonProperty("client_order_code")
+    private String clientOrderCode; // unique per shop, GHN rejects a second booking with the same code
+    
+    @JsonProperty("from_name")
+    private String fromName;
+    
+    @JsonProperty("from_phone")
+    private String fromPhone;
+    
+    @JsonProperty("from_address")
+    private String fromAddress;
+    
+    @JsonProperty("to_name")
+    private String toName;
+    
+    @JsonProperty("to_phone")
+    private String toPhone;
+    
+    @JsonProperty("to_address")
+    private String toAddress;
+    
+    @JsonProperty("to_ward_code")
+    private String toWardCode;
+    
+    @JsonProperty("to_district_id")
+    private Integer toDistrictId;
+    
+    @JsonProperty("cod_amount")
+    private Long codAmount;
+    
+    @JsonProperty("weight")
+    private Integer weight; // in grams
+    
+    @JsonProperty("length")
+    private Integer length; // in cm
+    
+    @JsonProperty("width")
+    private Integer width; // in cm
+    
+    @JsonProperty("height")
+    private Integer height; // in cm
+    
+    @JsonProperty("service_id")
+    private Integer serviceId;
+    
+    @JsonProperty("service_type_id")
+    private Integer serviceTypeId;
+    
+    @JsonProperty("items")
+    private List<Item> items;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        @JsonProperty("name")
+        private String name;
+        
+        @JsonProperty("code")
+        private String code;
+        
+        @JsonProperty("quantity")
+        private Integer quantity;
+        
+        @JsonProperty("price")
+        private Long price;
+    }
+}
@@ -0,0 +1,27 @@
+package com.huongcung.platform.checkout.external.ghn.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateShippingOrderResponse {
+    @JsonProperty("order_code")
+    private String orderCode;
+    
+    @JsonProperty("sort_code")
+    private String sortCode;
+    
+    @JsonProperty("total_fee")
+    private BigDecimal totalFee;
+    
+    @JsonProperty("expected_delivery_time")
+    private String expectedDeliveryTime; // ISO-8601 timestamp
+}
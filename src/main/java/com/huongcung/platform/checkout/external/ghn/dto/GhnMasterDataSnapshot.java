@@ -0,0 +1,23 @@
+package com.huongcung.platform.checkout.external.ghn.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Persisted snapshot of the GHN province / district / ward hierarchy
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GhnMasterDataSnapshot {
+    private String version; // Content hash, stable across refreshes that find no changes
+    private Long refreshedAt; // epoch milliseconds
+    private List<GhnProvinceDTO> provinces;
+    private List<GhnDistrictDTO> districts;
+    private List<GhnWardDTO> wards;
+}
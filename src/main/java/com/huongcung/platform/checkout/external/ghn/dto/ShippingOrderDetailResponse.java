@@ -0,0 +1,25 @@
+package com.huongcung.platform.checkout.external.ghn.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShippingOrderDetailResponse {
+    @JsonProperty("order_code")
+    private String orderCode;
+    
+    @JsonProperty("client_order_code")
+    private String clientOrderCode;
+    
+    @JsonProperty("status")
+    private String status;
+    
+    @JsonProperty("leadtime")
+    private String leadtime; // ISO-8601 timestamp
+}
@@ -0,0 +1,104 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.huongcung.core.inventory.enumeration.ConsignmentStatus;
+import com.huongcung.core.inventory.enumeration.ReservationStatus;
+import com.huongcung.core.inventory.model.dto.ReservationLine;
+import com.huongcung.core.inventory.model.entity.ConsignmentEntity;
+import com.huongcung.core.inventory.model.entity.ConsignmentEntryEntity;
+import com.huongcung.core.inventory.repository.ConsignmentRepository;
+import com.huongcung.core.inventory.repository.StockReservationRepository;
+import com.huongcung.core.inventory.repository.WarehouseRepository;
+import com.huongcung.core.order.enumeration.ItemType;
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.model.entity.OrderEntryEntity;
+import com.huongcung.core.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Splits the physical lines of an order into one consignment per origin warehouse
+ * The origin of a line is the warehouse its stock was reserved in at checkout.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConsignmentStageHandler implements OrderPipelineStageHandler {
+    
+    private final OrderRepository orderRepository;
+    private final ConsignmentRepository consignmentRepository;
+    private final StockReservationRepository stockReservationRepository;
+    private final WarehouseRepository warehouseRepository;
+    
+    @Override
+    public OrderPipelineStage getStage() {
+        return OrderPipelineStage.CONSIGNMENTS;
+    }
+    
+    @Override
+    @Transactional
+    public void handle(Long orderId) {
+        OrderEntity order = orderRepository.findById(orderId)
+            .orElseThrow(() -> new IllegalStateException("Order not found: " + orderId));
+        if (order.getStatus() == OrderStatus.CANCELLED || consignmentRepository.existsByOrderId(orderId)) {
+            return;
+        }
+        
+        List<OrderEntryEntity> physicalEntries = order.getEntries() == null ? List.of() : order.getEntries().stream()
+            .filter(entry -> entry.getItemType() == ItemType.PHYSICAL)
+            .toList();
+        if (physicalEntries.isEmpty()) {
+            return; // Digital only, nothing to ship
+        }
+        
+        Map<Long, Long> originByBook = new HashMap<>();
+        for (ReservationStatus status : List.of(ReservationStatus.ACTIVE, ReservationStatus.CONFIRMED)) {
+            for (ReservationLine line : stockReservationRepository.findLinesByOrderIds(List.of(orderId), status)) {
+                originByBook.putIfAbsent(line.bookId(), line.warehouseId());
+            }
+        }
+        
+        Map<Long, List<OrderEntryEntity>> entriesByWarehouse = new TreeMap<>();
+        for (OrderEntryEntity entry : physicalEntries) {
+            Long warehouseId = originByBook.get(entry.getBook().getId());
+            if (warehouseId == null) {
+                throw new IllegalStateException("No stock reservation for book " + entry.getBook().getId()
+                    + " of order " + order.getOrderNumber());
+            }
+            entriesByWarehouse.computeIfAbsent(warehouseId, id -> new ArrayList<>()).add(entry);
+        }
+        
+        List<ConsignmentEntity> consignments = new ArrayList<>();
+        entriesByWarehouse.forEach((warehouseId, entries) -> {
+            ConsignmentEntity consignment = new ConsignmentEntity();
+            consignment.setOrder(order);
+            consignment.setOriginWarehouse(warehouseRepository.getReferenceById(warehouseId));
+            consignment.setStatus(ConsignmentStatus.PENDING);
+            consignment.setShippingAddress(order.getShippingAddress());
+            
+            List<ConsignmentEntryEntity> consignmentEntries = new ArrayList<>();
+            for (OrderEntryEntity entry : entries) {
+                ConsignmentEntryEntity consignmentEntry = new ConsignmentEntryEntity();
+                consignmentEntry.setConsignment(consignment);
+                consignmentEntry.setOrderEntry(entry);
+                consignmentEntry.setQuantity(entry.getQuantity());
+                consignmentEntry.setShippedQuantity(0);
+                consignmentEntries.add(consignmentEntry);
+            }
+            consignment.setEntries(consignmentEntries);
+            consignments.add(consignment);
+        });
+        consignmentRepository.saveAll(consignments);
+        
+        log.info("Created {} consignment(s) for order {}", consignments.size(), order.getOrderNumber());
+    }
+}
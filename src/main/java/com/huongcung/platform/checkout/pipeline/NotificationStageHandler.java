@@ -0,0 +1,80 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.huongcung.core.inventory.model.entity.ConsignmentEntity;
+import com.huongcung.core.inventory.repository.ConsignmentRepository;
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Sends the order confirmation email, with tracking numbers when shipments were booked
+ * Without a configured mail server (spring.mail.host) the notification is only logged.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationStageHandler implements OrderPipelineStageHandler {
+    
+    private final OrderRepository orderRepository;
+    private final ConsignmentRepository consignmentRepository;
+    private final ObjectProvider<JavaMailSender> mailSenderProvider;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderPipelineConfig config;
+    
+    @Override
+    public OrderPipelineStage getStage() {
+        return OrderPipelineStage.NOTIFICATION;
+    }
+    
+    @Override
+    public void handle(Long orderId) {
+        SimpleMailMessage message = transactionTemplate.execute(status -> buildMessage(orderId));
+        if (message == null) {
+            return;
+        }
+        
+        JavaMailSender mailSender = mailSenderProvider.getIfAvailable();
+        if (mailSender == null) {
+            log.info("Mail not configured, order confirmation not sent: {}", message.getSubject());
+            return;
+        }
+        mailSender.send(message);
+        log.info("Order confirmation sent for order {}", orderId);
+    }
+    
+    private SimpleMailMessage buildMessage(Long orderId) {
+        OrderEntity order = orderRepository.findById(orderId)
+            .orElseThrow(() -> new IllegalStateException("Order not found: " + orderId));
+        if (order.getStatus() == OrderStatus.CANCELLED || order.getCustomer() == null) {
+            return null;
+        }
+        
+        StringBuilder text = new StringBuilder()
+            .append("Thank you for your order ").append(order.getOrderNumber()).append(".\n")
+            .append("Total: ").append(order.getTotalAmount()).append(" VND\n");
+        List<ConsignmentEntity> consignments = consignmentRepository.findWithEntriesByOrderId(orderId);
+        for (ConsignmentEntity consignment : consignments) {
+            if (consignment.getTrackingNumber() != null) {
+                text.append("Tracking number (").append(consignment.getShippingCompany()).append("): ")
+                    .append(consignment.getTrackingNumber()).append('\n');
+            }
+        }
+        
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(config.getNotificationFrom());
+        message.setTo(order.getCustomer().getEmail());
+        message.setSubject("Order " + order.getOrderNumber() + " confirmed");
+        message.setText(text.toString());
+        return message;
+    }
+}
@@ -0,0 +1,265 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+import com.huongcung.core.order.enumeration.PipelineTaskStatus;
+import com.huongcung.core.order.event.OrderPlacedEvent;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.model.entity.OrderPipelineTaskEntity;
+import com.huongcung.core.order.repository.OrderPipelineTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Staged post-order pipeline: consignments, then carrier booking, then customer notification
+ *
+ * Each stage is a row in order_pipeline_tasks, written in the checkout transaction, so placed orders
+ * are never lost and nothing runs for a rolled back order. After commit the first stage is started on
+ * a worker thread; the checkout response never waits for it. A periodic poll picks up retries, tasks
+ * of crashed workers (expired lease) and anything the wake-up missed.
+ *
+ * Stages have their own concurrency limit, so a slow carrier API cannot starve the other stages.
+ * Tasks are claimed with a conditional update, so several instances can share the queue.
+ */
+@Service
+@Slf4j
+public class OrderPipeline {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final OrderPipelineTaskRepository taskRepository;
+    private final OrderPipelineConfig config;
+    private final Executor executor;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<OrderPipelineStage, OrderPipelineStageHandler> handlers = new EnumMap<>(OrderPipelineStage.class);
+    private final Map<OrderPipelineStage, Semaphore> permits = new EnumMap<>(OrderPipelineStage.class);
+
+    private final LongAdder completedCount = new LongAdder();
+    private final LongAdder retriedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    public OrderPipeline(OrderPipelineTaskRepository taskRepository,
+                         OrderPipelineConfig config,
+                         @Qualifier("orderPipelineExecutor") Executor executor,
+                         TransactionTemplate transactionTemplate,
+                         ApplicationEventPublisher eventPublisher,
+                         List<OrderPipelineStageHandler> stageHandlers) {
+        this.taskRepository = taskRepository;
+        this.config = config;
+        this.executor = executor;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        for (OrderPipelineStageHandler handler : stageHandlers) {
+            handlers.put(handler.getStage(), handler);
+        }
+        for (OrderPipelineStage stage : OrderPipelineStage.values()) {
+            permits.put(stage, new Semaphore(config.getConcurrency(stage)));
+        }
+    }
+
+    /**
+     * Queue the pipeline for a new order; must be called inside the checkout transaction
+     */
+    public void enqueue(OrderEntity order) {
+        OrderPipelineTaskEntity task = new OrderPipelineTaskEntity();
+        task.setOrderId(order.getId());
+        task.setStage(OrderPipelineStage.values()[0]);
+        task.setStatus(PipelineTaskStatus.PENDING);
+        task.setAttempts(0);
+        task.setNextAttemptAt(LocalDateTime.now());
+        taskRepository.save(task);
+
+        eventPublisher.publishEvent(new OrderPlacedEvent(this, order));
+    }
+
+    /**
+     * Start the first stage as soon as the order is committed, without holding up the caller
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        wakeUp(OrderPipelineStage.values()[0]);
+    }
+
+    /**
+     * Periodic sweep: recover expired leases, then fill every stage up to its concurrency limit
+     */
+    @Scheduled(fixedDelayString = "${order.pipeline.poll-interval-ms:2000}")
+    public void poll() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            Integer recovered = transactionTemplate.execute(status -> taskRepository.requeueExpired(LocalDateTime.now()));
+            if (recovered != null && recovered > 0) {
+                log.warn("Requeued {} order pipeline task(s) whose worker lease expired", recovered);
+            }
+            for (OrderPipelineStage stage : OrderPipelineStage.values()) {
+                pollStage(stage);
+            }
+        } catch (Exception e) {
+            log.error("Order pipeline poll failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Claim due tasks of a stage while the stage has free workers and hand them to the executor
+     */
+    void pollStage(OrderPipelineStage stage) {
+        Semaphore stagePermits = permits.get(stage);
+        int capacity = stagePermits.availablePermits();
+        if (capacity == 0 || !handlers.containsKey(stage)) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = taskRepository.findDueIds(stage, PipelineTaskStatus.PENDING, now, PageRequest.of(0, capacity));
+        for (Long taskId : dueIds) {
+            if (!stagePermits.tryAcquire()) {
+                return;
+            }
+            LocalDateTime leaseUntil = now.plusSeconds(config.getLeaseSeconds());
+            Integer claimed = transactionTemplate.execute(status -> taskRepository.claim(taskId, now, leaseUntil));
+            if (claimed == null || claimed == 0) {
+                stagePermits.release(); // Another worker got it first
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        runTask(taskId);
+                    } finally {
+                        stagePermits.release();
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Executor saturated: leave the task to the lease recovery of a later poll
+                stagePermits.release();
+                log.warn("Order pipeline task {} could not be started: {}", taskId, e.getMessage());
+            }
+        }
+    }
+
+    void runTask(Long taskId) {
+        OrderPipelineTaskEntity task = taskRepository.findById(taskId).orElse(null);
+        if (task == null) {
+            return;
+        }
+
+        try {
+            handlers.get(task.getStage()).handle(task.getOrderId());
+        } catch (Exception e) {
+            fail(taskId, e);
+            return;
+        }
+
+        OrderPipelineStage next = task.getStage().next();
+        transactionTemplate.executeWithoutResult(status -> {
+            OrderPipelineTaskEntity current = taskRepository.findById(taskId).orElseThrow();
+            current.setStatus(PipelineTaskStatus.DONE);
+            current.setLastError(null);
+            taskRepository.save(current);
+            if (next != null && !taskRepository.existsByOrderIdAndStage(current.getOrderId(), next)) {
+                OrderPipelineTaskEntity nextTask = new OrderPipelineTaskEntity();
+                nextTask.setOrderId(current.getOrderId());
+                nextTask.setStage(next);
+                nextTask.setStatus(PipelineTaskStatus.PENDING);
+                nextTask.setAttempts(0);
+                nextTask.setNextAttemptAt(LocalDateTime.now());
+                taskRepository.save(nextTask);
+            }
+        });
+        completedCount.increment();
+        log.debug("Order pipeline stage {} done for order {}", task.getStage(), task.getOrderId());
+
+        if (next != null) {
+            wakeUp(next);
+        }
+    }
+
+    private void fail(Long taskId, Exception error) {
+        transactionTemplate.executeWithoutResult(status -> {
+            OrderPipelineTaskEntity task = taskRepository.findById(taskId).orElseThrow();
+            String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+            task.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            if (task.getAttempts() >= config.getMaxAttempts()) {
+                task.setStatus(PipelineTaskStatus.FAILED);
+                failedCount.increment();
+                log.error("Order pipeline stage {} failed permanently for order {} after {} attempts: {}",
+                        task.getStage(), task.getOrderId(), task.getAttempts(), message);
+            } else {
+                task.setStatus(PipelineTaskStatus.PENDING);
+                task.setNextAttemptAt(LocalDateTime.now().plusNanos(retryDelayMs(task.getAttempts()) * 1_000_000L));
+                retriedCount.increment();
+                log.warn("Order pipeline stage {} failed for order {} (attempt {}), retrying: {}",
+                        task.getStage(), task.getOrderId(), task.getAttempts(), message);
+            }
+            taskRepository.save(task);
+        });
+    }
+
+    /**
+     * Exponential backoff, randomized between half and the full delay so retries of a batch spread out
+     */
+    long retryDelayMs(int attempts) {
+        long ceiling = Math.min(config.getRetryMaxDelayMs(),
+                config.getRetryBaseDelayMs() << Math.min(Math.max(attempts - 1, 0), 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    private void wakeUp(OrderPipelineStage stage) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    pollStage(stage);
+                } catch (Exception e) {
+                    log.warn("Order pipeline wake-up for stage {} failed, the next poll will retry: {}", stage, e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            log.debug("Order pipeline wake-up for stage {} rejected: {}", stage, e.getMessage());
+        }
+    }
+
+    /**
+     * Log pipeline stats every 5 minutes
+     */
+    @Scheduled(fixedRate = 300000)
+    public void logStats() {
+        long completed = completedCount.sum();
+        if (completed + retriedCount.sum() + failedCount.sum() > 0) {
+            log.info("Order pipeline stats - Completed stages: {}, Retries: {}, Failed: {}",
+                    completed, retriedCount.sum(), failedCount.sum());
+        }
+    }
+
+    public long getCompletedCount() {
+        return completedCount.sum();
+    }
+
+    public long getRetriedCount() {
+        return retriedCount.sum();
+    }
+
+    public long getFailedCount() {
+        return failedCount.sum();
+    }
+}
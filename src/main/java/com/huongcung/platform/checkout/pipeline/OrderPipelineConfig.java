@@ -0,0 +1,56 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+@Configuration
+@ConfigurationProperties(prefix = "order.pipeline")
+@Getter
+@Setter
+public class OrderPipelineConfig {
+    private boolean enabled = true;
+    private long pollIntervalMs = 2000;
+    private int maxAttempts = 8;
+    private long retryBaseDelayMs = 5000; // doubled per attempt, randomized down to half
+    private long retryMaxDelayMs = 600000;
+    private long leaseSeconds = 300; // a RUNNING task is taken over after this long
+    private String notificationFrom = "no-reply@huongcung.vn";
+    
+    // Workers per stage; a slow carrier cannot take threads from consignments or notifications
+    private Map<OrderPipelineStage, Integer> concurrency = new EnumMap<>(Map.of(
+        OrderPipelineStage.CONSIGNMENTS, 4,
+        OrderPipelineStage.SHIPMENT, 2,
+        OrderPipelineStage.NOTIFICATION, 2
+    ));
+    
+    public int getConcurrency(OrderPipelineStage stage) {
+        return Math.max(1, concurrency.getOrDefault(stage, 1));
+    }
+    
+    /**
+     * Executor shared by all pipeline stages; per-stage limits are enforced by OrderPipeline
+     */
+    @Bean(name = "orderPipelineExecutor")
+    public Executor orderPipelineExecutor() {
+        int threads = 0;
+        for (OrderPipelineStage stage : OrderPipelineStage.values()) {
+            threads += getConcurrency(stage);
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(threads * 2);
+        executor.setThreadNamePrefix("order-pipeline-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,15 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+
+/**
+ * Work done by one stage of the post-order pipeline
+ * Handlers may run more than once for the same order (retries, worker crashes), so they must be idempotent.
+ * Throwing schedules a retry with backoff.
+ */
+public interface OrderPipelineStageHandler {
+    
+    OrderPipelineStage getStage();
+    
+    void handle(Long orderId);
+}
@@ -0,0 +1,230 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.core.inventory.model.entity.ConsignmentEntity;
+import com.huongcung.core.inventory.model.entity.ConsignmentEntryEntity;
+import com.huongcung.core.inventory.model.entity.WarehouseEntity;
+import com.huongcung.core.inventory.repository.ConsignmentRepository;
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.enumeration.PaymentMethod;
+import com.huongcung.core.order.event.CustomerOrdersChangedEvent;
+import com.huongcung.core.order.event.OrderStatusChangedEvent;
+import com.huongcung.core.order.model.entity.DeliveryInfoEntity;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.repository.DeliveryInfoRepository;
+import com.huongcung.core.order.repository.OrderRepository;
+import com.huongcung.platform.checkout.dto.ShippingAddressDTO;
+import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
+import com.huongcung.platform.checkout.external.ghn.dto.CreateShippingOrderRequest;
+import com.huongcung.platform.checkout.external.ghn.dto.CreateShippingOrderResponse;
+import com.huongcung.platform.checkout.external.ghn.dto.ShippingOrderDetailResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Books a GHN shipment for every consignment of an order that has no tracking number yet
+ *
+ * Carrier calls run outside any transaction, and each booking is recorded in its own short
+ * transaction, so a failure halfway through keeps the bookings already made. Bookings are sent once;
+ * when one fails, the order may still exist at GHN (a lost response, or an earlier attempt whose
+ * recording failed), so it is looked up by its client_order_code and recorded if found. GHN refuses
+ * to book the same client_order_code twice, so a shipment is never booked twice either.
+ *
+ * The customer pays the delivery fee as part of the order total, so the shop pays GHN and the cash
+ * on delivery of a COD order is the order total.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ShipmentStageHandler implements OrderPipelineStageHandler {
+    
+    private static final String CARRIER = "GHN";
+    private static final int PAYMENT_TYPE_SHOP_PAYS = 1;
+    private static final String REQUIRED_NOTE = "KHONGCHOXEMHANG";
+    
+    private final OrderRepository orderRepository;
+    private final ConsignmentRepository consignmentRepository;
+    private final DeliveryInfoRepository deliveryInfoRepository;
+    private final GhnApiClient ghnApiClient;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    @Override
+    public OrderPipelineStage getStage() {
+        return OrderPipelineStage.SHIPMENT;
+    }
+    
+    @Override
+    public void handle(Long orderId) {
+        List<Booking> bookings = transactionTemplate.execute(status -> prepareBookings(orderId));
+        if (bookings == null) {
+            return;
+        }
+        
+        for (Booking booking : bookings) {
+            CreateShippingOrderResponse response = book(booking);
+            transactionTemplate.executeWithoutResult(status -> recordBooking(orderId, booking, response));
+            log.info("Booked GHN shipment {} for consignment {} of order {}",
+                response.getOrderCode(), booking.consignmentId(), booking.request().getClientOrderCode());
+        }
+    }
+    
+    private CreateShippingOrderResponse book(Booking booking) {
+        String clientOrderCode = booking.request().getClientOrderCode();
+        try {
+            return ghnApiClient.createShippingOrder(booking.request());
+        } catch (GhnApiClient.GhnApiException e) {
+            ShippingOrderDetailResponse existing = ghnApiClient.findShippingOrder(clientOrderCode).orElseThrow(() -> e);
+            log.info("GHN already has shipment {} for {}, recording it", existing.getOrderCode(), clientOrderCode);
+            return CreateShippingOrderResponse.builder()
+                .orderCode(existing.getOrderCode())
+                .expectedDeliveryTime(existing.getLeadtime())
+                .build();
+        }
+    }
+    
+    private List<Booking> prepareBookings(Long orderId) {
+        OrderEntity order = orderRepository.findById(orderId)
+            .orElseThrow(() -> new IllegalStateException("Order not found: " + orderId));
+        if (order.getStatus() == OrderStatus.CANCELLED) {
+            return List.of();
+        }
+        
+        List<ConsignmentEntity> consignments = consignmentRepository.findWithEntriesByOrderId(orderId);
+        if (consignments.isEmpty()) {
+            return List.of();
+        }
+        
+        DeliveryInfoEntity deliveryInfo = deliveryInfoRepository.findByOrderId(orderId).orElse(null);
+        if (deliveryInfo == null) {
+            // Checkout proceeded without a delivery quote; the shipment has to be booked by hand
+            log.warn("Order {} has no delivery info, GHN shipment not booked", order.getOrderNumber());
+            return List.of();
+        }
+        ShippingAddressDTO address = readAddress(order);
+        
+        int totalQuantity = 0;
+        for (ConsignmentEntity consignment : consignments) {
+            totalQuantity += quantityOf(consignment);
+        }
+        
+        List<Booking> bookings = new ArrayList<>();
+        boolean codCollected = false;
+        for (ConsignmentEntity consignment : consignments) {
+            if (consignment.getTrackingNumber() != null) {
+                codCollected = true; // Cash on delivery goes with the first parcel
+                continue;
+            }
+            WarehouseEntity origin = consignment.getOriginWarehouse();
+            int weight = deliveryInfo.getWeight() != null
+                ? Math.max(1, deliveryInfo.getWeight() * quantityOf(consignment) / Math.max(totalQuantity, 1))
+                : 0;
+            long codAmount = 0;
+            if (!codCollected && order.getPaymentMethod() == PaymentMethod.COD) {
+                codAmount = order.getTotalAmount().longValue();
+                codCollected = true;
+            }
+            
+            CreateShippingOrderRequest request = CreateShippingOrderRequest.builder()
+                .paymentTypeId(PAYMENT_TYPE_SHOP_PAYS)
+                .requiredNote(REQUIRED_NOTE)
+                .clientOrderCode(order.getOrderNumber() + "-" + consignment.getId())
+                .fromName(origin.getCode())
+                .fromPhone(origin.getPhone())
+                .fromAddress(origin.getAddress())
+                .toName(address.getFullName())
+                .toPhone(address.getPhone())
+                .toAddress(address.getAddress())
+                .toDistrictId(deliveryInfo.getDistrictId())
+                .toWardCode(deliveryInfo.getWardCode())
+                .codAmount(codAmount)
+                .weight(weight)
+                .length(deliveryInfo.getLength())
+                .width(deliveryInfo.getWidth())
+                .height(deliveryInfo.getHeight())
+                .serviceId(deliveryInfo.getServiceId())
+                .serviceTypeId(deliveryInfo.getServiceTypeId())
+                .items(consignment.getEntries().stream()
+                    .map(entry -> CreateShippingOrderRequest.Item.builder()
+                        .name(entry.getOrderEntry().getBook().getTitle())
+                        .code(entry.getOrderEntry().getBook().getCode())
+                        .quantity(entry.getQuantity())
+                        .price(entry.getOrderEntry().getUnitPrice().longValue())
+                        .build())
+                    .toList())
+                .build();
+            bookings.add(new Booking(consignment.getId(), order.getCustomer().getId(), request));
+        }
+        return bookings;
+    }
+    
+    private void recordBooking(Long orderId, Booking booking, CreateShippingOrderResponse response) {
+        Long consignmentId = booking.consignmentId();
+        ConsignmentEntity consignment = consignmentRepository.findById(consignmentId)
+            .orElseThrow(() -> new IllegalStateException("Consignment not found: " + consignmentId));
+        consignment.setTrackingNumber(response.getOrderCode());
+        consignment.setShippingCompany(CARRIER);
+        consignment.setEstimatedDeliveryDate(parseDeliveryTime(response.getExpectedDeliveryTime()));
+        consignmentRepository.save(consignment);
+        
+        deliveryInfoRepository.findByOrderId(orderId).ifPresent(deliveryInfo -> {
+            if (deliveryInfo.getGhnOrderCode() == null) {
+                deliveryInfo.setGhnOrderCode(response.getOrderCode());
+                deliveryInfo.setExpectedDeliveryTime(response.getExpectedDeliveryTime());
+                deliveryInfoRepository.save(deliveryInfo);
+            }
+        });
+        
+        // A booked shipment moves the order on, so reservation expiry no longer cancels it
+        List<Long> pending = orderRepository.lockIdsByStatus(List.of(orderId), OrderStatus.PENDING.name());
+        if (!pending.isEmpty()) {
+            orderRepository.updateStatus(pending, OrderStatus.PROCESSING, LocalDateTime.now());
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(this, pending, OrderStatus.PENDING, OrderStatus.PROCESSING));
+        }
+        eventPublisher.publishEvent(new CustomerOrdersChangedEvent(this, List.of(booking.customerId())));
+    }
+    
+    private ShippingAddressDTO readAddress(OrderEntity order) {
+        try {
+            return objectMapper.readValue(order.getShippingAddress(), ShippingAddressDTO.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalStateException("Unreadable shipping address for order " + order.getOrderNumber(), e);
+        }
+    }
+    
+    private int quantityOf(ConsignmentEntity consignment) {
+        int quantity = 0;
+        for (ConsignmentEntryEntity entry : consignment.getEntries()) {
+            quantity += entry.getQuantity();
+        }
+        return quantity;
+    }
+    
+    private LocalDateTime parseDeliveryTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            log.debug("Unparseable GHN expected delivery time: {}", value);
+            return null;
+        }
+    }
+    
+    private record Booking(Long consignmentId, Long customerId, CreateShippingOrderRequest request) {
+    }
+}
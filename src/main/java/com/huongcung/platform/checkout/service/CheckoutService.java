@@ -1,10 +1,10 @@
 package com.huongcung.platform.checkout.service;
 
+import com.huongcung.core.common.id.SnowflakeIdGenerator;
 import com.huongcung.core.inventory.enumeration.City;
-import com.huongcung.core.inventory.model.entity.StockLevelEntity;
-import com.huongcung.core.inventory.model.entity.WarehouseEntity;
-import com.huongcung.core.inventory.repository.StockLevelRepository;
-import com.huongcung.core.inventory.repository.WarehouseRepository;
+import com.huongcung.core.inventory.service.ReservationExpiryService;
+import com.huongcung.core.inventory.service.StockAllocationService;
+import com.huongcung.core.inventory.service.StockReservationService;
 import com.huongcung.core.order.enumeration.ItemType;
 import com.huongcung.core.order.enumeration.OrderStatus;
 import com.huongcung.core.order.enumeration.OrderType;
@@ -24,9 +24,7 @@ import com.huongcung.core.user.model.entity.UserEntity;
 import com.huongcung.core.user.repository.UserRepository;
 import com.huongcung.platform.checkout.dto.CheckoutRequest;
 import com.huongcung.platform.checkout.dto.CheckoutResponse;
-import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
-import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeRequest;
-import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeResponse;
+import com.huongcung.platform.checkout.pipeline.OrderPipeline;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,26 +32,31 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CheckoutService {
     
+    private static final String ORDER_NUMBER_PREFIX = "ORD";
+    
     private final OrderRepository orderRepository;
     private final OrderEntryRepository orderEntryRepository;
     private final DeliveryInfoRepository deliveryInfoRepository;
     private final AbstractBookRepository bookRepository;
-    private final StockLevelRepository stockLevelRepository;
-    private final WarehouseRepository warehouseRepository;
+    private final StockAllocationService stockAllocationService;
+    private final StockReservationService stockReservationService;
+    private final ReservationExpiryService reservationExpiryService;
     private final UserRepository userRepository;
-    private final GhnApiClient ghnApiClient;
+    private final DeliveryQuoteService deliveryQuoteService;
+    private final DeliveryRegionResolver deliveryRegionResolver;
     private final ObjectMapper objectMapper;
+    private final SnowflakeIdGenerator idGenerator;
+    private final OrderPipeline orderPipeline;
     
     @Transactional
     public CheckoutResponse createOrder(CheckoutRequest request, Long customerId) {
@@ -66,21 +69,21 @@ public class CheckoutService {
         // Validate and get books
         List<AbstractBookEntity> books = validateAndGetBooks(request.getItems());
         
-        // Validate stock for physical items
-        validateStock(request.getItems(), books);
-        
-        // Calculate subtotal
-        BigDecimal subtotal = calculateSubtotal(request.getItems(), books);
+        // Price every line once; subtotal and entries reuse the same prices
+        List<BigDecimal> unitPrices = books.stream().map(this::unitPrice).toList();
+        BigDecimal subtotal = calculateSubtotal(request.getItems(), unitPrices);
         
-        // Calculate delivery fee (if physical items)
+        // Delivery fee comes from the quote issued before this transaction (if physical items)
         BigDecimal shippingAmount = BigDecimal.ZERO;
         DeliveryInfoEntity deliveryInfo = null;
         if (hasPhysicalItems(request.getItems())) {
-            try {
-                shippingAmount = calculateDeliveryFee(request);
-                deliveryInfo = createDeliveryInfo(request, shippingAmount);
-            } catch (GhnApiClient.GhnApiException e) {
-                log.warn("GHN API failed, proceeding without delivery fee: {}", e.getMessage());
+            if (request.getQuoteToken() != null && !request.getQuoteToken().isBlank()) {
+                DeliveryQuoteService.DeliveryQuote quote =
+                    deliveryQuoteService.verify(request.getQuoteToken(), request.getShippingAddress());
+                shippingAmount = quote.fee();
+                deliveryInfo = createDeliveryInfo(request, quote);
+            } else {
+                log.warn("No delivery quote for order, proceeding without delivery fee");
                 // Continue without delivery info for backward compatibility
             }
         }
@@ -89,7 +92,7 @@ public class CheckoutService {
         BigDecimal totalAmount = subtotal.add(shippingAmount);
         
         // Generate order number
-        String orderNumber = generateOrderNumber();
+        String orderNumber = idGenerator.nextReadableId(ORDER_NUMBER_PREFIX);
         
         // Create order
         OrderEntity order = new OrderEntity();
@@ -107,12 +110,17 @@ public class CheckoutService {
         order = orderRepository.save(order);
         
         // Create order entries and reserve inventory
-        List<OrderEntryEntity> entries = createOrderEntries(order, request.getItems(), books);
+        List<OrderEntryEntity> entries = createOrderEntries(order, request.getItems(), books, unitPrices);
         orderEntryRepository.saveAll(entries);
         order.setEntries(entries);
         
-        // Reserve inventory for physical items
-        reserveInventory(request.getItems(), books);
+        // Reserve inventory for physical items across the planned warehouses; fails the whole order listing every short item
+        List<StockReservationService.Reservation> reservations =
+            reserveInventory(request.getItems(), books, deliveryRegionResolver.resolve(request.getShippingAddress()));
+        if (!reservations.isEmpty()) {
+            // Orders never paid or booked give their stock back when the reservation expires
+            reservationExpiryService.trackOrder(order, reservations);
+        }
         
         // Save delivery info if available
         if (deliveryInfo != null) {
@@ -120,6 +128,9 @@ public class CheckoutService {
             deliveryInfoRepository.save(deliveryInfo);
         }
         
+        // Consignments, carrier booking and notifications run after commit, off the request thread
+        orderPipeline.enqueue(order);
+        
         log.info("Order created successfully: {}", orderNumber);
         
         CheckoutResponse response = new CheckoutResponse();
@@ -132,123 +143,88 @@ public class CheckoutService {
     
     private List<AbstractBookEntity> validateAndGetBooks(List<com.huongcung.platform.checkout.dto.CheckoutItemDTO> items) {
         // Support both bookId and bookCode
-        // Map items to books maintaining order
-        List<AbstractBookEntity> books = new java.util.ArrayList<>();
+        // Resolve the whole cart in at most two set-based queries, then map items to books maintaining order
+        List<String> codes = items.stream()
+            .filter(this::hasBookCode)
+            .map(com.huongcung.platform.checkout.dto.CheckoutItemDTO::getBookCode)
+            .distinct()
+            .toList();
+        List<Long> ids = items.stream()
+            .filter(item -> !hasBookCode(item) && item.getBookId() != null)
+            .map(com.huongcung.platform.checkout.dto.CheckoutItemDTO::getBookId)
+            .distinct()
+            .toList();
+        
+        Map<String, AbstractBookEntity> booksByCode = new HashMap<>();
+        if (!codes.isEmpty()) {
+            bookRepository.findByCodeIn(codes).forEach(book -> booksByCode.put(book.getCode(), book));
+        }
+        Map<Long, AbstractBookEntity> booksById = new HashMap<>();
+        if (!ids.isEmpty()) {
+            bookRepository.findByIdIn(ids).forEach(book -> booksById.put(book.getId(), book));
+        }
         
+        List<AbstractBookEntity> books = new ArrayList<>(items.size());
+        List<String> missing = new ArrayList<>();
         for (com.huongcung.platform.checkout.dto.CheckoutItemDTO item : items) {
-            AbstractBookEntity book = null;
-            
-            if (item.getBookCode() != null && !item.getBookCode().isEmpty()) {
-                book = bookRepository.findAbstractBookEntityByCode(item.getBookCode());
-            } else if (item.getBookId() != null) {
-                book = bookRepository.findById(item.getBookId())
-                    .orElse(null);
-            }
+            AbstractBookEntity book = hasBookCode(item)
+                ? booksByCode.get(item.getBookCode())
+                : booksById.get(item.getBookId());
             
             if (book == null) {
-                throw new IllegalArgumentException("Book not found for item: " + 
-                    (item.getBookCode() != null ? item.getBookCode() : "ID: " + item.getBookId()));
+                missing.add(item.getBookCode() != null ? item.getBookCode() : "ID: " + item.getBookId());
             }
-            
             books.add(book);
         }
         
-        return books;
-    }
-    
-    private void validateStock(List<com.huongcung.platform.checkout.dto.CheckoutItemDTO> items, 
-                               List<AbstractBookEntity> books) {
-        for (int i = 0; i < items.size(); i++) {
-            com.huongcung.platform.checkout.dto.CheckoutItemDTO item = items.get(i);
-            AbstractBookEntity book = books.get(i);
-            
-            if ("PHYSICAL".equals(item.getItemType()) && book instanceof PhysicalBookEntity) {
-                // For physical items, we need to check stock
-                // For now, we'll check stock in the first available warehouse
-                // In a real scenario, you'd determine which warehouse to use based on delivery address
-                City deliveryCity = determineDeliveryCity(); // Simplified - should use GHN address
-                
-                WarehouseEntity warehouse = warehouseRepository.findByCity(deliveryCity)
-                    .stream()
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalStateException("No warehouse found for city: " + deliveryCity));
-                
-                StockLevelEntity stockLevel = stockLevelRepository
-                    .findByBookIdAndWarehouseCity(book.getId(), deliveryCity)
-                    .orElseThrow(() -> new IllegalStateException(
-                        "Stock level not found for book: " + book.getId() + " in city: " + deliveryCity));
-                
-                int availableQuantity = stockLevel.getQuantity() - stockLevel.getReservedQuantity();
-                if (availableQuantity < item.getQuantity()) {
-                    throw new IllegalArgumentException(
-                        String.format("Insufficient stock for book %s. Available: %d, Requested: %d",
-                            book.getTitle(), availableQuantity, item.getQuantity()));
-                }
-            }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Book not found for item: " + String.join(", ", missing));
         }
+        
+        return books;
     }
     
-    private City determineDeliveryCity() {
-        // Simplified - in real scenario, map GHN province/district to City enum
-        // For now, default to HANOI
-        return City.HANOI;
+    private boolean hasBookCode(com.huongcung.platform.checkout.dto.CheckoutItemDTO item) {
+        return item.getBookCode() != null && !item.getBookCode().isEmpty();
     }
     
     private BigDecimal calculateSubtotal(List<com.huongcung.platform.checkout.dto.CheckoutItemDTO> items,
-                                        List<AbstractBookEntity> books) {
+                                        List<BigDecimal> unitPrices) {
         BigDecimal subtotal = BigDecimal.ZERO;
         
         for (int i = 0; i < items.size(); i++) {
-            com.huongcung.platform.checkout.dto.CheckoutItemDTO item = items.get(i);
-            AbstractBookEntity book = books.get(i);
-
-            BigDecimal unitPrice = BigDecimal.valueOf(0);
-            if (book instanceof PhysicalBookEntity) {
-                unitPrice = ((PhysicalBookEntity) book).getCurrentPrice();
-            } else if (book instanceof EbookEntity) {
-                unitPrice = ((EbookEntity) book).getCurrentPrice();
-            }
-
-            BigDecimal itemTotal = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
+            BigDecimal itemTotal = unitPrices.get(i).multiply(BigDecimal.valueOf(items.get(i).getQuantity()));
             subtotal = subtotal.add(itemTotal);
         }
         
         return subtotal;
     }
     
+    private BigDecimal unitPrice(AbstractBookEntity book) {
+        if (book instanceof PhysicalBookEntity) {
+            return ((PhysicalBookEntity) book).getCurrentPrice();
+        } else if (book instanceof EbookEntity) {
+            return ((EbookEntity) book).getCurrentPrice();
+        }
+        return BigDecimal.ZERO;
+    }
+    
     private boolean hasPhysicalItems(List<com.huongcung.platform.checkout.dto.CheckoutItemDTO> items) {
         return items.stream()
             .anyMatch(item -> "PHYSICAL".equals(item.getItemType()));
     }
     
-    private BigDecimal calculateDeliveryFee(CheckoutRequest request) {
-        // Simplified fee calculation - in real scenario, use GHN API with proper weight/dimensions
-        CalculateFeeRequest ghnRequest = CalculateFeeRequest.builder()
-            .serviceTypeId(2) // Standard delivery
-            .serviceId(53320) // Standard service
-            .toDistrictId(request.getShippingAddress().getDistrictId())
-            .toWardCode(request.getShippingAddress().getWardCode())
-            .weight(1000) // Default 1kg
-            .length(20)
-            .width(15)
-            .height(5)
-            .build();
-        
-        CalculateFeeResponse response = ghnApiClient.calculateFee(ghnRequest);
-        return response.getTotal();
-    }
-    
-    private DeliveryInfoEntity createDeliveryInfo(CheckoutRequest request, BigDecimal shippingAmount) {
+    private DeliveryInfoEntity createDeliveryInfo(CheckoutRequest request, DeliveryQuoteService.DeliveryQuote quote) {
         return DeliveryInfoEntity.builder()
             .provinceId(request.getShippingAddress().getProvinceId())
-            .districtId(request.getShippingAddress().getDistrictId())
-            .wardCode(request.getShippingAddress().getWardCode())
-            .serviceTypeId(2) // Standard
-            .serviceId(53320)
-            .weight(1000) // Default
-            .length(20)
-            .width(15)
-            .height(5)
+            .districtId(quote.districtId())
+            .wardCode(quote.wardCode())
+            .serviceTypeId(quote.serviceTypeId())
+            .serviceId(quote.serviceId())
+            .weight(quote.weight())
+            .length(DeliveryQuoteService.PARCEL_LENGTH)
+            .width(DeliveryQuoteService.PARCEL_WIDTH)
+            .height(DeliveryQuoteService.PARCEL_HEIGHT)
             .build();
     }
     
@@ -265,12 +241,6 @@ public class CheckoutService {
         }
     }
     
-    private String generateOrderNumber() {
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String random = UUID.randomUUID().toString().substring(0, 6).toUpperCase();
-        return "ORD-" + timestamp + "-" + random;
-    }
-    
     private String serializeShippingAddress(com.huongcung.platform.checkout.dto.ShippingAddressDTO address) {
         try {
             return objectMapper.writeValueAsString(address);
@@ -282,19 +252,14 @@ public class CheckoutService {
     
     private List<OrderEntryEntity> createOrderEntries(OrderEntity order,
                                                      List<com.huongcung.platform.checkout.dto.CheckoutItemDTO> items,
-                                                     List<AbstractBookEntity> books) {
+                                                     List<AbstractBookEntity> books,
+                                                     List<BigDecimal> unitPrices) {
         List<OrderEntryEntity> entries = new ArrayList<>();
         
         for (int i = 0; i < items.size(); i++) {
             com.huongcung.platform.checkout.dto.CheckoutItemDTO item = items.get(i);
             AbstractBookEntity book = books.get(i);
-
-            BigDecimal unitPrice = BigDecimal.valueOf(0);
-            if (book instanceof PhysicalBookEntity) {
-                unitPrice = ((PhysicalBookEntity) book).getCurrentPrice();
-            } else if (book instanceof EbookEntity) {
-                unitPrice = ((EbookEntity) book).getCurrentPrice();
-            }
+            BigDecimal unitPrice = unitPrices.get(i);
             BigDecimal totalPrice = unitPrice.multiply(BigDecimal.valueOf(item.getQuantity()));
             
             OrderEntryEntity entry = new OrderEntryEntity();
@@ -311,34 +276,25 @@ public class CheckoutService {
         return entries;
     }
     
-    private void reserveInventory(List<com.huongcung.platform.checkout.dto.CheckoutItemDTO> items,
-                                 List<AbstractBookEntity> books) {
-        City deliveryCity = determineDeliveryCity();
+    private List<StockReservationService.Reservation> reserveInventory(List<com.huongcung.platform.checkout.dto.CheckoutItemDTO> items,
+                                                                       List<AbstractBookEntity> books,
+                                                                       City destination) {
+        List<StockReservationService.StockRequest> stockRequests = new ArrayList<>();
         
         for (int i = 0; i < items.size(); i++) {
             com.huongcung.platform.checkout.dto.CheckoutItemDTO item = items.get(i);
             AbstractBookEntity book = books.get(i);
             
             if ("PHYSICAL".equals(item.getItemType()) && book instanceof PhysicalBookEntity) {
-                StockLevelEntity stockLevel = stockLevelRepository
-                    .findByBookIdAndWarehouseCity(book.getId(), deliveryCity)
-                    .orElse(null);
-                
-                if (stockLevel != null) {
-                    // Use pessimistic lock to prevent race conditions
-                    StockLevelEntity lockedStock = stockLevelRepository
-                        .findByBookAndCityWithLock((PhysicalBookEntity) book, deliveryCity)
-                        .orElse(stockLevel);
-                    
-                    int newReserved = lockedStock.getReservedQuantity() + item.getQuantity();
-                    lockedStock.setReservedQuantity(newReserved);
-                    stockLevelRepository.save(lockedStock);
-                    
-                    log.debug("Reserved {} units of book {} in city {}", 
-                        item.getQuantity(), book.getId(), deliveryCity);
-                }
+                stockRequests.add(new StockReservationService.StockRequest(book.getId(), book.getTitle(), item.getQuantity()));
             }
         }
+        
+        if (stockRequests.isEmpty()) {
+            return List.of();
+        }
+        // Plan warehouses from the in-memory stock view, then reserve every consignment in a single batch
+        List<StockAllocationService.ConsignmentPlan> plans = stockAllocationService.allocate(destination, stockRequests);
+        return stockReservationService.reserve(plans);
     }
 }
-
@@ -0,0 +1,201 @@
+package com.huongcung.platform.checkout.service;
+
+import com.huongcung.platform.checkout.external.ghn.GhnMasterDataStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local delivery fee estimates for cart previews
+ * Keeps a zone matrix of learned fees: destination zone x weight tier x service type, where the zone is
+ * the destination district, falling back to the destination province. Every authoritative GHN quote
+ * teaches the matrix; previews are then answered from memory without any network I/O.
+ *
+ * Before learning a quote, its fee is compared with what the matrix would have estimated, which gives
+ * the estimator's running error rate.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryFeeEstimator {
+
+    // Weight of the newest observation in a cell's moving average
+    private static final double LEARNING_RATE = 0.3;
+
+    private final GhnMasterDataStore ghnMasterDataStore;
+
+    @Value("${checkout.fee-estimator.enabled:true}")
+    private boolean enabled;
+
+    @Value("${checkout.fee-estimator.weight-tier-grams:500}")
+    private int weightTierGrams;
+
+    // Samples a province-level cell needs before it is trusted for districts it has not seen
+    @Value("${checkout.fee-estimator.min-province-samples:3}")
+    private int minProvinceSamples;
+
+    // Estimates within this percentage of the GHN fee count as accurate
+    @Value("${checkout.fee-estimator.accuracy-percent:5}")
+    private int accuracyPercent;
+
+    private final Map<ZoneKey, Cell> districtCells = new ConcurrentHashMap<>();
+    private final Map<ZoneKey, Cell> provinceCells = new ConcurrentHashMap<>();
+
+    private final LongAdder estimatesServed = new LongAdder();
+    private final LongAdder estimateMisses = new LongAdder();
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder accurateComparisons = new LongAdder();
+    // Sum of absolute percentage errors in basis points
+    private final LongAdder absoluteErrorBasisPoints = new LongAdder();
+
+    /**
+     * Estimate the fee for a preview
+     *
+     * @return The estimated fee, or empty if the matrix has nothing for this destination yet
+     */
+    public Optional<BigDecimal> estimate(Integer serviceTypeId, Integer districtId, Integer weight) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<BigDecimal> estimate = lookup(serviceTypeId, districtId, weight);
+        if (estimate.isPresent()) {
+            estimatesServed.increment();
+        } else {
+            estimateMisses.increment();
+        }
+        return estimate;
+    }
+
+    /**
+     * Learn from an authoritative GHN fee, recording how far the current estimate was from it
+     */
+    public void learn(Integer serviceTypeId, Integer districtId, Integer weight, BigDecimal fee) {
+        if (!enabled || districtId == null || fee == null) {
+            return;
+        }
+
+        lookup(serviceTypeId, districtId, weight).ifPresent(estimate -> recordError(estimate, fee));
+
+        int tier = tier(weight);
+        double value = fee.doubleValue();
+        districtCells.computeIfAbsent(new ZoneKey(serviceTypeId, districtId, tier), key -> new Cell()).observe(value);
+        Integer provinceId = ghnMasterDataStore.findProvinceId(districtId);
+        if (provinceId != null) {
+            provinceCells.computeIfAbsent(new ZoneKey(serviceTypeId, provinceId, tier), key -> new Cell()).observe(value);
+        }
+    }
+
+    public long getEstimatesServed() {
+        return estimatesServed.sum();
+    }
+
+    public long getEstimateMisses() {
+        return estimateMisses.sum();
+    }
+
+    /**
+     * Get the mean absolute percentage error of estimates checked against GHN
+     */
+    public double getMeanAbsolutePercentError() {
+        long count = comparisons.sum();
+        return count > 0 ? absoluteErrorBasisPoints.sum() / 100.0 / count : 0.0;
+    }
+
+    /**
+     * Get the fraction of estimates checked against GHN that were within the accuracy threshold
+     */
+    public double getAccuracyRate() {
+        long count = comparisons.sum();
+        return count > 0 ? (double) accurateComparisons.sum() / count : 0.0;
+    }
+
+    public long getComparisonCount() {
+        return comparisons.sum();
+    }
+
+    /**
+     * Log estimator coverage and error rate
+     */
+    @Scheduled(fixedDelayString = "${checkout.fee-estimator.stats-interval-ms:300000}")
+    public void logStats() {
+        if (getEstimatesServed() + getEstimateMisses() == 0) {
+            return;
+        }
+        log.info("Delivery fee estimator - Served: {}, Misses: {}, Checked: {}, Mean abs error: {}%, Within {}%: {}%, Zones: {}",
+            getEstimatesServed(), getEstimateMisses(), getComparisonCount(),
+            String.format("%.2f", getMeanAbsolutePercentError()), accuracyPercent,
+            Math.round(getAccuracyRate() * 100), districtCells.size());
+    }
+
+    private Optional<BigDecimal> lookup(Integer serviceTypeId, Integer districtId, Integer weight) {
+        if (districtId == null) {
+            return Optional.empty();
+        }
+        int tier = tier(weight);
+        Cell cell = districtCells.get(new ZoneKey(serviceTypeId, districtId, tier));
+        if (cell == null) {
+            Integer provinceId = ghnMasterDataStore.findProvinceId(districtId);
+            Cell provinceCell = provinceId != null ? provinceCells.get(new ZoneKey(serviceTypeId, provinceId, tier)) : null;
+            if (provinceCell != null && provinceCell.samples() >= minProvinceSamples) {
+                cell = provinceCell;
+            }
+        }
+        return cell != null ? Optional.of(cell.estimate()) : Optional.empty();
+    }
+
+    private void recordError(BigDecimal estimate, BigDecimal actual) {
+        if (actual.signum() == 0) {
+            return;
+        }
+        long errorBasisPoints = estimate.subtract(actual).abs()
+            .multiply(BigDecimal.valueOf(10_000))
+            .divide(actual, 0, RoundingMode.HALF_UP)
+            .longValue();
+        comparisons.increment();
+        absoluteErrorBasisPoints.add(errorBasisPoints);
+        if (errorBasisPoints <= accuracyPercent * 100L) {
+            accurateComparisons.increment();
+        }
+    }
+
+    private int tier(Integer weight) {
+        if (weight == null || weight <= 0 || weightTierGrams <= 1) {
+            return 0;
+        }
+        return (weight + weightTierGrams - 1) / weightTierGrams;
+    }
+
+    private record ZoneKey(Integer serviceTypeId, Integer zoneId, int weightTier) {
+    }
+
+    /**
+     * Moving average of the fees observed for one zone and tier
+     */
+    private static final class Cell {
+        private double average;
+        private int samples;
+
+        synchronized void observe(double fee) {
+            average = samples == 0 ? fee : average + LEARNING_RATE * (fee - average);
+            samples++;
+        }
+
+        synchronized BigDecimal estimate() {
+            // GHN fees are whole VND
+            return BigDecimal.valueOf(average).setScale(0, RoundingMode.HALF_UP);
+        }
+
+        synchronized int samples() {
+            return samples;
+        }
+    }
+}
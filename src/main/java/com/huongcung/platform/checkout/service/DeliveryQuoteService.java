@@ -0,0 +1,211 @@
+package com.huongcung.platform.checkout.service;
+
+import com.huongcung.platform.checkout.dto.CheckoutRequest;
+import com.huongcung.platform.checkout.dto.ShippingAddressDTO;
+import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
+import com.huongcung.platform.checkout.external.ghn.GhnFeeCache;
+import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeRequest;
+import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Delivery fee quotes issued before checkout
+ * The GHN fee is calculated outside any database transaction and handed to the client as a short-lived
+ * token signed with HMAC-SHA256. Checkout only verifies the token, so the order transaction never waits
+ * on the GHN round trip.
+ *
+ * Quotes are always for the standard checkout parcel defined here, never for a weight sent by the
+ * client: the signed parcel is stored with the order and booked with GHN, so verify rejects any token
+ * whose service, weight or dimensions differ from it.
+ *
+ * Token format: base64url(payload) + "." + base64url(signature), where the payload is
+ * districtId|wardCode|serviceTypeId|serviceId|weight|length|width|height|fee|serviceFee|expiresAtMillis.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryQuoteService {
+
+    // Standard checkout parcel, quoted for every order with physical items
+    public static final int DEFAULT_SERVICE_TYPE_ID = 2;
+    public static final int SERVICE_ID = 53320; // Standard service
+    public static final int DEFAULT_WEIGHT = 1000; // in grams
+    public static final int PARCEL_LENGTH = 20; // in cm
+    public static final int PARCEL_WIDTH = 15; // in cm
+    public static final int PARCEL_HEIGHT = 5; // in cm
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String FIELD_SEPARATOR = "|";
+
+    private final GhnFeeCache ghnFeeCache;
+    private final DeliveryFeeEstimator deliveryFeeEstimator;
+
+    @Value("${checkout.quote.secret}")
+    private String secret;
+
+    @Value("${checkout.quote.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    /**
+     * Calculate the delivery fee of the standard parcel with GHN (through the fee cache) and issue a signed quote for it
+     * Must not be called inside a database transaction.
+     *
+     * @throws GhnApiClient.GhnApiException if GHN cannot calculate the fee
+     */
+    public DeliveryQuote quote(Integer districtId, String wardCode, Integer serviceTypeId) {
+        CalculateFeeRequest ghnRequest = CalculateFeeRequest.builder()
+            .serviceTypeId(serviceTypeId)
+            .serviceId(SERVICE_ID)
+            .toDistrictId(districtId)
+            .toWardCode(wardCode)
+            .weight(DEFAULT_WEIGHT)
+            .length(PARCEL_LENGTH)
+            .width(PARCEL_WIDTH)
+            .height(PARCEL_HEIGHT)
+            .build();
+
+        CalculateFeeResponse response = ghnFeeCache.calculateFee(ghnRequest);
+        deliveryFeeEstimator.learn(serviceTypeId, districtId, DEFAULT_WEIGHT, response.getTotal());
+        long expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+
+        DeliveryQuote quote = new DeliveryQuote(null, districtId, wardCode, serviceTypeId, SERVICE_ID, DEFAULT_WEIGHT,
+            response.getTotal(), response.getServiceFee(), toLocalDateTime(expiresAt));
+        return quote.withToken(sign(quote, expiresAt));
+    }
+
+    /**
+     * Attach a quote for the standard parcel when an order with physical items arrives without one
+     * Keeps older clients working; if GHN is unavailable the order proceeds without a delivery fee as before.
+     */
+    public void attachQuoteIfMissing(CheckoutRequest request) {
+        if (request.getQuoteToken() != null && !request.getQuoteToken().isBlank()) {
+            return;
+        }
+        if (request.getItems() == null || request.getShippingAddress() == null
+            || request.getItems().stream().noneMatch(item -> "PHYSICAL".equals(item.getItemType()))) {
+            return;
+        }
+
+        ShippingAddressDTO address = request.getShippingAddress();
+        try {
+            DeliveryQuote quote = quote(address.getDistrictId(), address.getWardCode(), DEFAULT_SERVICE_TYPE_ID);
+            request.setQuoteToken(quote.token());
+        } catch (GhnApiClient.GhnApiException e) {
+            log.warn("GHN API failed, proceeding without delivery fee: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Verify a quote token against the shipping address of the order
+     *
+     * @return The quote the token was issued for
+     * @throws IllegalArgumentException if the token is malformed, tampered with, expired, for another address
+     *         or for another parcel than the standard one
+     */
+    public DeliveryQuote verify(String token, ShippingAddressDTO address) {
+        int dot = token != null ? token.indexOf('.') : -1;
+        if (dot <= 0) {
+            throw new IllegalArgumentException("Invalid delivery quote");
+        }
+
+        String payload;
+        String[] fields;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, hmac(payload))) {
+                throw new IllegalArgumentException("Invalid delivery quote");
+            }
+            fields = payload.split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid delivery quote");
+        }
+        if (fields.length != 11) {
+            throw new IllegalArgumentException("Invalid delivery quote");
+        }
+
+        long expiresAt = Long.parseLong(fields[10]);
+        if (System.currentTimeMillis() > expiresAt) {
+            throw new IllegalArgumentException("Delivery quote has expired, please recalculate the delivery fee");
+        }
+
+        DeliveryQuote quote = new DeliveryQuote(token, Integer.valueOf(fields[0]), fields[1],
+            Integer.valueOf(fields[2]), Integer.valueOf(fields[3]), Integer.valueOf(fields[4]),
+            new BigDecimal(fields[8]), fields[9].isEmpty() ? null : new BigDecimal(fields[9]),
+            toLocalDateTime(expiresAt));
+
+        // The parcel is booked as signed, so it has to be the one the server quotes
+        if (quote.serviceId() != SERVICE_ID || quote.weight() != DEFAULT_WEIGHT
+            || Integer.parseInt(fields[5]) != PARCEL_LENGTH || Integer.parseInt(fields[6]) != PARCEL_WIDTH
+            || Integer.parseInt(fields[7]) != PARCEL_HEIGHT) {
+            throw new IllegalArgumentException("Delivery quote does not match the parcel, please recalculate the delivery fee");
+        }
+
+        if (address == null || !Objects.equals(quote.districtId(), address.getDistrictId())
+            || !Objects.equals(quote.wardCode(), address.getWardCode())) {
+            throw new IllegalArgumentException("Delivery quote does not match the shipping address");
+        }
+        return quote;
+    }
+
+    private String sign(DeliveryQuote quote, long expiresAt) {
+        String payload = String.join(FIELD_SEPARATOR,
+            String.valueOf(quote.districtId()),
+            quote.wardCode(),
+            String.valueOf(quote.serviceTypeId()),
+            String.valueOf(quote.serviceId()),
+            String.valueOf(quote.weight()),
+            String.valueOf(PARCEL_LENGTH),
+            String.valueOf(PARCEL_WIDTH),
+            String.valueOf(PARCEL_HEIGHT),
+            quote.fee().toPlainString(),
+            quote.serviceFee() != null ? quote.serviceFee().toPlainString() : "",
+            String.valueOf(expiresAt));
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+            + "." + encoder.encodeToString(hmac(payload));
+    }
+
+    private byte[] hmac(String payload) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign delivery quote", e);
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * A delivery fee quoted by GHN for one destination and parcel
+     */
+    public record DeliveryQuote(String token, Integer districtId, String wardCode, Integer serviceTypeId,
+                                Integer serviceId, Integer weight, BigDecimal fee, BigDecimal serviceFee,
+                                LocalDateTime expiresAt) {
+
+        DeliveryQuote withToken(String token) {
+            return new DeliveryQuote(token, districtId, wardCode, serviceTypeId, serviceId, weight, fee, serviceFee,
+                expiresAt);
+        }
+    }
+}
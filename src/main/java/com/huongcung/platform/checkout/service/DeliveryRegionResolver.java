@@ -0,0 +1,141 @@
+package com.huongcung.platform.checkout.service;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.platform.checkout.dto.ShippingAddressDTO;
+import com.huongcung.platform.checkout.external.ghn.GhnMasterDataStore;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnProvinceDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Maps a GHN delivery address to the warehouse city nearest to it
+ * Provinces are assigned to the city they are closest to by road: the north and the north
+ * central coast down to Ha Tinh go to Hanoi, the central coast and northern highlands down to
+ * Phu Yen go to Da Nang, and the rest of the south to Ho Chi Minh City.
+ *
+ * GHN province names are matched without diacritics or administrative prefixes, and the
+ * resulting province id map is rebuilt whenever the GHN master data version changes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DeliveryRegionResolver {
+
+    // Used when the province is unknown, matching the single-warehouse behavior before allocation
+    static final City DEFAULT_CITY = City.HANOI;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern PREFIX = Pattern.compile("^(tinh|thanh pho|tp\\.?)\\s+");
+    private static final Pattern NON_LETTERS = Pattern.compile("[^a-z]");
+
+    private static final Map<String, City> CITY_BY_PROVINCE = new HashMap<>();
+
+    static {
+        register(City.HANOI, "Hà Nội", "Hà Giang", "Cao Bằng", "Bắc Kạn", "Tuyên Quang", "Lào Cai", "Điện Biên",
+            "Lai Châu", "Sơn La", "Yên Bái", "Hòa Bình", "Thái Nguyên", "Lạng Sơn", "Quảng Ninh", "Bắc Giang",
+            "Phú Thọ", "Vĩnh Phúc", "Bắc Ninh", "Hải Dương", "Hải Phòng", "Hưng Yên", "Thái Bình", "Hà Nam",
+            "Nam Định", "Ninh Bình", "Thanh Hóa", "Nghệ An", "Hà Tĩnh");
+        register(City.DANANG, "Đà Nẵng", "Quảng Bình", "Quảng Trị", "Thừa Thiên Huế", "Huế", "Quảng Nam",
+            "Quảng Ngãi", "Bình Định", "Phú Yên", "Kon Tum", "Gia Lai");
+        register(City.HCMC, "Hồ Chí Minh", "Khánh Hòa", "Ninh Thuận", "Bình Thuận", "Đắk Lắk", "Đắk Nông",
+            "Lâm Đồng", "Bình Phước", "Tây Ninh", "Bình Dương", "Đồng Nai", "Bà Rịa - Vũng Tàu", "Long An",
+            "Tiền Giang", "Bến Tre", "Trà Vinh", "Vĩnh Long", "Đồng Tháp", "An Giang", "Kiên Giang", "Cần Thơ",
+            "Hậu Giang", "Sóc Trăng", "Bạc Liêu", "Cà Mau");
+    }
+
+    private final GhnMasterDataStore ghnMasterDataStore;
+
+    private volatile ProvinceIndex index;
+
+    /**
+     * Get the warehouse city nearest to a delivery address
+     *
+     * @return The nearest city, or {@link #DEFAULT_CITY} when the province cannot be determined
+     */
+    public City resolve(ShippingAddressDTO address) {
+        if (address == null) {
+            return DEFAULT_CITY;
+        }
+        Integer provinceId = address.getProvinceId();
+        if (provinceId == null && address.getDistrictId() != null) {
+            provinceId = ghnMasterDataStore.findProvinceId(address.getDistrictId());
+        }
+        if (provinceId == null) {
+            return DEFAULT_CITY;
+        }
+
+        City city;
+        try {
+            city = currentIndex().cities().get(provinceId);
+        } catch (Exception e) {
+            // Allocation still works from the default city; the reservation decides what ships
+            log.warn("Could not load GHN provinces for delivery region lookup: {}", e.getMessage());
+            return DEFAULT_CITY;
+        }
+        if (city == null) {
+            log.debug("No delivery region for GHN province {}, using {}", provinceId, DEFAULT_CITY);
+            return DEFAULT_CITY;
+        }
+        return city;
+    }
+
+    /**
+     * Get the city for a GHN province name, or null if the province is unknown
+     */
+    static City cityForProvinceName(String provinceName) {
+        return provinceName == null ? null : CITY_BY_PROVINCE.get(normalize(provinceName));
+    }
+
+    static String normalize(String provinceName) {
+        String plain = DIACRITICS.matcher(Normalizer.normalize(provinceName, Normalizer.Form.NFD)).replaceAll("")
+            .replace('đ', 'd')
+            .replace('Đ', 'D')
+            .toLowerCase(Locale.ROOT)
+            .trim();
+        return NON_LETTERS.matcher(PREFIX.matcher(plain).replaceFirst("")).replaceAll("");
+    }
+
+    private ProvinceIndex currentIndex() {
+        String version = ghnMasterDataStore.getVersion();
+        ProvinceIndex current = index;
+        if (current == null || !Objects.equals(current.version(), version)) {
+            current = new ProvinceIndex(version, buildIndex(ghnMasterDataStore.getProvinces()));
+            if (!current.cities().isEmpty()) {
+                index = current;
+            }
+        }
+        return current;
+    }
+
+    private Map<Integer, City> buildIndex(List<GhnProvinceDTO> provinces) {
+        Map<Integer, City> cities = new HashMap<>();
+        if (provinces == null) {
+            return cities;
+        }
+        for (GhnProvinceDTO province : provinces) {
+            City city = cityForProvinceName(province.getProvinceName());
+            if (city != null && province.getProvinceId() != null) {
+                cities.put(province.getProvinceId(), city);
+            }
+        }
+        return cities;
+    }
+
+    private static void register(City city, String... provinceNames) {
+        for (String provinceName : provinceNames) {
+            CITY_BY_PROVINCE.put(normalize(provinceName), city);
+        }
+    }
+
+    private record ProvinceIndex(String version, Map<Integer, City> cities) {
+    }
+}
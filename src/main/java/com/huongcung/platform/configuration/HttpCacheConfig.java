@@ -0,0 +1,42 @@
+package com.huongcung.platform.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP caching configuration for public catalog and address endpoints
+ * Loads from application.yml under 'http-cache' prefix
+ */
+@Configuration
+@ConfigurationProperties(prefix = "http-cache")
+@Getter
+@Setter
+public class HttpCacheConfig {
+
+    /**
+     * Enable validators (ETag/Last-Modified), Cache-Control and 304 responses
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cache-Control max-age for book details in seconds
+     */
+    private int bookDetailMaxAge = 300;
+
+    /**
+     * Cache-Control max-age for the book listing in seconds
+     */
+    private int bookListMaxAge = 60;
+
+    /**
+     * Cache-Control max-age for search results in seconds
+     */
+    private int searchMaxAge = 30;
+
+    /**
+     * Cache-Control max-age for GHN provinces, districts and wards in seconds
+     */
+    private int ghnMasterDataMaxAge = 86400;
+}
@@ -1,15 +1,28 @@
 package com.huongcung.platform.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.huongcung.core.common.model.response.BaseResponse;
+import com.huongcung.core.search.service.CatalogVersionTracker;
 import com.huongcung.platform.bookstore.model.BookData;
 import com.huongcung.platform.bookstore.service.BookService;
+import com.huongcung.platform.configuration.HttpCacheConfig;
+import com.huongcung.platform.helper.HttpCacheHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("api/books")
@@ -18,25 +31,91 @@ import java.util.Map;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class PlatformBookController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final BookService bookService;
+    private final CatalogVersionTracker catalogVersionTracker;
+    private final HttpCacheHelper httpCacheHelper;
+    private final HttpCacheConfig httpCacheConfig;
+    private final ObjectMapper objectMapper;
 
     /**
-     * Get all books
-     * @return list of books
+     * Get books, one keyset page at a time ordered by book code
+     * Validated against the catalog generation, returns 304 when the client copy is current
+     * @param cursor nextCursor from the previous page, omit for the first page
+     * @param size page size (default: 20, max: 100)
+     * @return books with nextCursor and hasNext
      */
     @GetMapping("")
-    public ResponseEntity<BaseResponse> getAllBooks() {
-        List<BookData> books = bookService.getAllBooks();
+    public ResponseEntity<BaseResponse> getBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") Integer size,
+            WebRequest webRequest) {
+        int pageSize = Math.max(1, Math.min(size != null ? size : 20, MAX_PAGE_SIZE));
+
+        String etag = httpCacheHelper.strongETag("books", catalogVersionTracker.getGeneration(), cursor, pageSize);
+        if (httpCacheHelper.checkNotModified(webRequest, etag, catalogVersionTracker.getLastModified(),
+                httpCacheConfig.getBookListMaxAge())) {
+            return null;
+        }
+
+        BookService.BookSlice books = bookService.getBooks(cursor, pageSize);
         return ResponseEntity.ok(BaseResponse.builder().data(books).build());
     }
 
+    /**
+     * Export the whole catalog as a stream
+     * Books are read in keyset batches and written as they are mapped, so memory use stays flat
+     * @param format ndjson (one book per line, default) or json (a single JSON array)
+     * @return streamed books
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(required = false, defaultValue = "ndjson") String format) {
+        boolean jsonArray = "json".equalsIgnoreCase(format);
+
+        StreamingResponseBody body = outputStream -> {
+            long started = System.currentTimeMillis();
+            long count;
+            if (jsonArray) {
+                try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.writeStartArray();
+                    count = bookService.streamAllBooks(book -> writeJson(generator, book));
+                    generator.writeEndArray();
+                }
+            } else {
+                count = bookService.streamAllBooks(book -> writeNdjsonLine(outputStream, book));
+                outputStream.flush();
+            }
+            log.info("Exported {} books as {} in {}ms", count, jsonArray ? "json" : "ndjson",
+                    System.currentTimeMillis() - started);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(jsonArray ? MediaType.APPLICATION_JSON : NDJSON)
+                .body(body);
+    }
+
     /**
      * Get book details
+     * Validated against the book's last modification time, returns 304 when the client copy is current
      * @return book
      */
     @GetMapping("/{code}")
-    public ResponseEntity<BaseResponse> getBookDetails(@PathVariable String code) {
-       BookData book = bookService.getBookDetails(code);
+    public ResponseEntity<BaseResponse> getBookDetails(@PathVariable String code, WebRequest webRequest) {
+        Optional<LocalDateTime> lastModified = bookService.getBookLastModified(code);
+        if (lastModified.isPresent()) {
+            long lastModifiedMillis = lastModified.get().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            String etag = httpCacheHelper.strongETag("book", code, lastModifiedMillis);
+            if (httpCacheHelper.checkNotModified(webRequest, etag, lastModifiedMillis,
+                    httpCacheConfig.getBookDetailMaxAge())) {
+                return null;
+            }
+        }
+
+        BookData book = bookService.getBookDetails(code);
         return ResponseEntity.ok(BaseResponse.builder().data(book).build());
     }
 
@@ -48,4 +127,21 @@ public class PlatformBookController {
     public ResponseEntity<Map<String, String>> health() {
         return ResponseEntity.ok(Map.of("status", "Platform Book service is running"));
     }
+
+    private void writeJson(JsonGenerator generator, BookData book) {
+        try {
+            generator.writeObject(book);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeNdjsonLine(OutputStream outputStream, BookData book) {
+        try {
+            outputStream.write(objectMapper.writeValueAsBytes(book));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
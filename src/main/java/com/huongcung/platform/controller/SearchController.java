@@ -3,11 +3,16 @@ package com.huongcung.platform.controller;
 import com.huongcung.core.common.model.response.BaseResponse;
 import com.huongcung.core.search.model.dto.SearchRequest;
 import com.huongcung.core.search.model.dto.SearchResponse;
+import com.huongcung.core.search.service.CatalogVersionTracker;
+import com.huongcung.core.search.service.SearchPrefetchService;
 import com.huongcung.core.search.service.SearchService;
+import com.huongcung.platform.configuration.HttpCacheConfig;
+import com.huongcung.platform.helper.HttpCacheHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +29,10 @@ import java.util.Map;
 public class SearchController {
 
     private final SearchService searchService;
+    private final SearchPrefetchService searchPrefetchService;
+    private final CatalogVersionTracker catalogVersionTracker;
+    private final HttpCacheHelper httpCacheHelper;
+    private final HttpCacheConfig httpCacheConfig;
 
     /**
      * Search books with filters, pagination, and faceting
@@ -38,7 +47,7 @@ public class SearchController {
      * @param page Page number (default: 1)
      * @param size Page size (default: 20)
      * @param sort Sort option: relevance, price_asc, price_desc, date_desc, rating_desc
-     * @return Search results with books, facets, and pagination
+     * @return Search results with books, facets, and pagination, or 304 when the client copy is current
      */
     @GetMapping("/search")
     public ResponseEntity<BaseResponse> searchBooks(
@@ -51,7 +60,8 @@ public class SearchController {
             @RequestParam(required = false) List<String> city,
             @RequestParam(required = false, defaultValue = "1") Integer page,
             @RequestParam(required = false, defaultValue = "20") Integer size,
-            @RequestParam(required = false) String sort) {
+            @RequestParam(required = false) String sort,
+            WebRequest webRequest) {
         
         log.debug("Search request - query: '{}', filters: genre={}, language={}, format={}, price=[{}, {}], city={}, page={}, size={}, sort={}",
                 q, genre, language, format, minPrice, maxPrice, city, page, size, sort);
@@ -70,13 +80,27 @@ public class SearchController {
                 .sort(sort)
                 .build();
         
+        // Results only change with the catalog generation, so answer revalidations without searching
+        String etag = httpCacheHelper.strongETag("search", catalogVersionTracker.getGeneration(), request.toString());
+        if (httpCacheHelper.checkNotModified(webRequest, etag, catalogVersionTracker.getLastModified(),
+                httpCacheConfig.getSearchMaxAge())) {
+            return null;
+        }
+        
         // Perform search
         SearchResponse response = searchService.searchBooks(request);
         
+        if (Boolean.TRUE.equals(response.getFallbackUsed())) {
+            httpCacheHelper.preventCaching(webRequest);
+        }
+        
         log.debug("Search completed - found {} results in {}ms", 
                 response.getBooks() != null ? response.getBooks().size() : 0,
                 response.getExecutionTimeMs());
         
+        // Speculatively warm the next page (no-op unless prefetching is enabled)
+        searchPrefetchService.onPageServed(request, response);
+        
         return ResponseEntity.ok(BaseResponse.builder()
                 .data(response)
                 .build());
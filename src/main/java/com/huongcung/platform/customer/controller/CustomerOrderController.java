@@ -3,17 +3,16 @@ package com.huongcung.platform.customer.controller;
 import com.huongcung.core.common.model.response.BaseResponse;
 import com.huongcung.platform.auth.dto.CustomUserDetails;
 import com.huongcung.platform.customer.dto.OrderDetailsDTO;
-import com.huongcung.platform.customer.dto.OrderHistoryDTO;
 import com.huongcung.platform.customer.service.OrderHistoryService;
+import com.huongcung.platform.customer.service.OrderReadCache;
+import com.huongcung.platform.helper.HttpCacheHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/customer/orders")
@@ -22,12 +21,24 @@ import org.springframework.web.bind.annotation.*;
 @CrossOrigin(origins = "*", maxAge = 3600)
 public class CustomerOrderController {
     
+    private static final int MAX_PAGE_SIZE = 100;
+    
     private final OrderHistoryService orderHistoryService;
+    private final OrderReadCache orderReadCache;
+    private final HttpCacheHelper httpCacheHelper;
     
+    /**
+     * Get the customer's orders, one keyset page at a time, newest first
+     * Validated against the customer's order version, returns 304 when the client copy is current
+     * @param cursor nextCursor from the previous page, omit for the first page
+     * @param size page size (default: 20, max: 100)
+     * @return orders with nextCursor and hasNext
+     */
     @GetMapping
     public ResponseEntity<BaseResponse> getOrderHistory(
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
         try {
             // Get customer ID from authentication
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -47,12 +58,28 @@ public class CustomerOrderController {
                     .build());
             }
             
-            Pageable pageable = PageRequest.of(page, size);
-            Page<OrderHistoryDTO> orders = orderHistoryService.getOrderHistory(customerId, pageable);
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            String etag = httpCacheHelper.strongETag("orders", customerId, orderReadCache.getVersion(customerId),
+                cursor, pageSize);
+            if (httpCacheHelper.checkNotModifiedPrivate(webRequest, etag)) {
+                return null;
+            }
+            
+            Long owner = customerId;
+            OrderHistoryService.OrderHistorySlice orders = cursor == null
+                ? orderReadCache.getFirstPage(customerId, pageSize,
+                    () -> orderHistoryService.getOrderHistory(owner, null, pageSize))
+                : orderHistoryService.getOrderHistory(customerId, cursor, pageSize);
             
             return ResponseEntity.ok(BaseResponse.builder()
                 .data(orders)
                 .build());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid order history request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(BaseResponse.builder()
+                .errorCode("VALIDATION_ERROR")
+                .message(e.getMessage())
+                .build());
         } catch (Exception e) {
             log.error("Error fetching order history: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError().body(BaseResponse.builder()
@@ -62,8 +89,12 @@ public class CustomerOrderController {
         }
     }
     
+    /**
+     * Get an order of the customer with its items and delivery info
+     * Validated against the customer's order version, returns 304 when the client copy is current
+     */
     @GetMapping("/{orderId}")
-    public ResponseEntity<BaseResponse> getOrderDetails(@PathVariable Long orderId) {
+    public ResponseEntity<BaseResponse> getOrderDetails(@PathVariable Long orderId, WebRequest webRequest) {
         try {
             // Get customer ID from authentication
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -83,19 +114,22 @@ public class CustomerOrderController {
                     .build());
             }
             
-            OrderDetailsDTO orderDetails = orderHistoryService.getOrderDetails(orderId, customerId);
+            String etag = httpCacheHelper.strongETag("order", customerId, orderReadCache.getVersion(customerId), orderId);
+            if (httpCacheHelper.checkNotModifiedPrivate(webRequest, etag)) {
+                return null;
+            }
+            
+            Long owner = customerId;
+            OrderDetailsDTO orderDetails = orderReadCache.getOrderDetails(customerId, orderId,
+                () -> orderHistoryService.getOrderDetails(orderId, owner));
             
             return ResponseEntity.ok(BaseResponse.builder()
                 .data(orderDetails)
                 .build());
-        } catch (SecurityException e) {
-            log.warn("Access denied for order {}: {}", orderId, e.getMessage());
-            return ResponseEntity.status(403).body(BaseResponse.builder()
-                .errorCode("FORBIDDEN")
-                .message("Access denied")
-                .build());
         } catch (IllegalArgumentException e) {
+            // Also the answer for orders of other customers, so their existence is not revealed
             log.error("Order not found: {}", orderId);
+            httpCacheHelper.preventCaching(webRequest);
             return ResponseEntity.status(404).body(BaseResponse.builder()
                 .errorCode("NOT_FOUND")
                 .message(e.getMessage())
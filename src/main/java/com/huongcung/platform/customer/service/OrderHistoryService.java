@@ -1,17 +1,22 @@
 package com.huongcung.platform.customer.service;
 
+import com.huongcung.core.order.model.dto.OrderLine;
+import com.huongcung.core.order.model.dto.OrderSummary;
 import com.huongcung.core.order.model.entity.OrderEntity;
-import com.huongcung.core.order.model.entity.OrderEntryEntity;
+import com.huongcung.core.order.repository.OrderEntryRepository;
 import com.huongcung.core.order.repository.OrderRepository;
 import com.huongcung.core.order.model.entity.DeliveryInfoEntity;
 import com.huongcung.platform.customer.dto.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,55 +26,74 @@ import java.util.stream.Collectors;
 public class OrderHistoryService {
     
     private final OrderRepository orderRepository;
+    private final OrderEntryRepository orderEntryRepository;
     
+    /**
+     * Get one keyset page of a customer's orders, newest first
+     * Item counts are aggregated in the same query and no total is counted.
+     *
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size page size
+     * @return orders plus the cursor for the next page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
     @Transactional(readOnly = true)
-    public Page<OrderHistoryDTO> getOrderHistory(Long customerId, Pageable pageable) {
-        log.debug("Fetching order history for customer: {}", customerId);
+    public OrderHistorySlice getOrderHistory(Long customerId, String cursor, int size) {
+        log.debug("Fetching order history for customer: {} after cursor: {}", customerId, cursor);
         
-        Page<OrderEntity> orders = orderRepository.findByCustomerIdOrderByCreatedAtDesc(customerId, pageable);
+        // One extra row tells whether there is a next page
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = orderRepository.findSummaries(customerId, limit);
+        } else {
+            OrderCursor position = OrderCursor.decode(cursor);
+            rows = orderRepository.findSummariesBefore(customerId, position.createdAt(), position.id(), limit);
+        }
         
-        return orders.map(this::toOrderHistoryDTO);
+        boolean hasNext = rows.size() > size;
+        List<OrderSummary> page = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            OrderSummary last = page.get(page.size() - 1);
+            nextCursor = new OrderCursor(last.createdAt(), last.id()).encode();
+        }
+        return new OrderHistorySlice(page.stream().map(this::toOrderHistoryDTO).toList(), nextCursor, hasNext);
     }
     
+    /**
+     * Get an order of the customer with its lines and delivery info in two queries
+     * Orders of other customers are not found, so their existence is not revealed.
+     *
+     * @throws IllegalArgumentException if the customer has no such order
+     */
     @Transactional(readOnly = true)
     public OrderDetailsDTO getOrderDetails(Long orderId, Long customerId) {
         log.debug("Fetching order details for order: {} by customer: {}", orderId, customerId);
         
-        OrderEntity order = orderRepository.findById(orderId)
+        OrderEntity order = orderRepository.findDetailsByIdAndCustomerId(orderId, customerId)
             .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+        List<OrderLine> lines = orderEntryRepository.findLinesByOrderId(orderId);
         
-        // Verify customer owns the order
-        if (!order.getCustomer().getId().equals(customerId)) {
-            throw new SecurityException("Access denied: Order does not belong to customer");
-        }
-        
-        return toOrderDetailsDTO(order);
+        return toOrderDetailsDTO(order, lines);
     }
     
-    private OrderHistoryDTO toOrderHistoryDTO(OrderEntity order) {
-        int itemCount = order.getEntries() != null 
-            ? order.getEntries().stream()
-                .mapToInt(OrderEntryEntity::getQuantity)
-                .sum()
-            : 0;
-        
+    private OrderHistoryDTO toOrderHistoryDTO(OrderSummary order) {
         return OrderHistoryDTO.builder()
-            .id(order.getId())
-            .orderNumber(order.getOrderNumber())
-            .createdAt(order.getCreatedAt())
-            .status(order.getStatus().name())
-            .paymentStatus(order.getPaymentStatus().name())
-            .totalAmount(order.getTotalAmount())
-            .itemCount(itemCount)
+            .id(order.id())
+            .orderNumber(order.orderNumber())
+            .createdAt(order.createdAt())
+            .status(order.status().name())
+            .paymentStatus(order.paymentStatus().name())
+            .totalAmount(order.totalAmount())
+            .itemCount(order.itemCount() != null ? order.itemCount().intValue() : 0)
             .build();
     }
     
-    private OrderDetailsDTO toOrderDetailsDTO(OrderEntity order) {
-        List<OrderItemDTO> items = order.getEntries() != null
-            ? order.getEntries().stream()
-                .map(this::toOrderItemDTO)
-                .collect(Collectors.toList())
-            : java.util.Collections.emptyList();
+    private OrderDetailsDTO toOrderDetailsDTO(OrderEntity order, List<OrderLine> lines) {
+        List<OrderItemDTO> items = lines.stream()
+            .map(this::toOrderItemDTO)
+            .collect(Collectors.toList());
         
         DeliveryInfoDTO deliveryInfo = null;
         if (order.getDeliveryInfo() != null) {
@@ -98,15 +122,15 @@ public class OrderHistoryService {
             .build();
     }
     
-    private OrderItemDTO toOrderItemDTO(OrderEntryEntity entry) {
+    private OrderItemDTO toOrderItemDTO(OrderLine line) {
         return OrderItemDTO.builder()
-            .id(entry.getId())
-            .bookCode(entry.getBook().getCode())
-            .bookTitle(entry.getBook().getTitle())
-            .itemType(entry.getItemType().name())
-            .quantity(entry.getQuantity())
-            .unitPrice(entry.getUnitPrice())
-            .totalPrice(entry.getTotalPrice())
+            .id(line.id())
+            .bookCode(line.bookCode())
+            .bookTitle(line.bookTitle())
+            .itemType(line.itemType().name())
+            .quantity(line.quantity())
+            .unitPrice(line.unitPrice())
+            .totalPrice(line.totalPrice())
             .build();
     }
     
@@ -125,5 +149,28 @@ public class OrderHistoryService {
             .height(deliveryInfo.getHeight())
             .build();
     }
+    
+    public record OrderHistorySlice(List<OrderHistoryDTO> orders, String nextCursor, boolean hasNext) {}
+    
+    /**
+     * Keyset position of the last order of a page, encoded as an opaque URL-safe token
+     */
+    record OrderCursor(LocalDateTime createdAt, Long id) {
+        
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static OrderCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid order history cursor: " + cursor);
+            }
+        }
+    }
 }
-
@@ -0,0 +1,206 @@
+package com.huongcung.platform.customer.service;
+
+import com.huongcung.core.order.event.CustomerOrdersChangedEvent;
+import com.huongcung.core.order.event.OrderPlacedEvent;
+import com.huongcung.platform.customer.dto.OrderDetailsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Per-customer cache of the first order history page and of order details
+ * Customers refresh these while waiting for delivery, and nothing in them changes until one of
+ * their orders is placed or changed. Every cached customer has a version; committed order events
+ * drop the customer's entry, so the next read gets a new, higher version and reloads.
+ *
+ * Versions come from one generation counter seeded from the startup time, so a version is never
+ * issued twice, not even for an evicted customer, validators issued before a restart are never
+ * mistaken for current ones, and controllers can use it as an ETag without querying the database. Later history pages are not cached but are validated by
+ * the same version.
+ *
+ * The cache is bounded by customers (least recently used are evicted) and by entries per customer.
+ */
+@Service
+@Slf4j
+public class OrderReadCache {
+
+    // Page sizes kept per customer; clients normally use one
+    private static final int MAX_PAGES_PER_CUSTOMER = 4;
+
+    @Value("${order.read-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.read-cache.max-customers:10000}")
+    private int maxCustomers;
+
+    @Value("${order.read-cache.max-details-per-customer:20}")
+    private int maxDetailsPerCustomer;
+
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+
+    // LRU by access order (guarded by itself)
+    private final Map<Long, CustomerEntry> entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CustomerEntry> eldest) {
+            return size() > maxCustomers;
+        }
+    });
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Get the version of the customer's orders, for use in validators
+     */
+    public long getVersion(Long customerId) {
+        synchronized (entries) {
+            return entry(customerId).version;
+        }
+    }
+
+    /**
+     * Get the first order history page of the given size, from the cache when possible
+     *
+     * @param loader Loads the page from the database on a miss
+     */
+    public OrderHistoryService.OrderHistorySlice getFirstPage(Long customerId, int size,
+                                                              Supplier<OrderHistoryService.OrderHistorySlice> loader) {
+        return get(customerId, size, CustomerEntry::firstPages, loader);
+    }
+
+    /**
+     * Get the details of an order of the customer, from the cache when possible
+     * Orders not found are not cached.
+     *
+     * @param loader Loads the details from the database on a miss
+     */
+    public OrderDetailsDTO getOrderDetails(Long customerId, Long orderId, Supplier<OrderDetailsDTO> loader) {
+        return get(customerId, orderId, CustomerEntry::details, loader);
+    }
+
+    /**
+     * Drop everything cached for the customer and advance its version
+     */
+    public void invalidate(Long customerId) {
+        if (customerId != null && entries.remove(customerId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        invalidate(event.getCustomerId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCustomerOrdersChanged(CustomerOrdersChangedEvent event) {
+        event.getCustomerIds().forEach(this::invalidate);
+    }
+
+    /**
+     * Log cache stats every 5 minutes
+     */
+    @Scheduled(fixedRate = 300000)
+    public void logStats() {
+        long requests = hits.sum() + misses.sum();
+        if (requests > 0) {
+            log.info("Order read cache stats - Requests: {}, Hits: {}, Hit rate: {}%, Invalidations: {}, Customers: {}",
+                requests, hits.sum(), Math.round(getHitRate() * 100), invalidations.sum(), size());
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    public double getHitRate() {
+        long requests = hits.sum() + misses.sum();
+        return requests > 0 ? (double) hits.sum() / requests : 0.0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private <K, V> V get(Long customerId, K key, Function<CustomerEntry, Map<K, V>> section,
+                         Supplier<V> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        CustomerEntry entry;
+        synchronized (entries) {
+            entry = entry(customerId);
+            V cached = section.apply(entry).get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        V loaded = loader.get();
+        synchronized (entries) {
+            // Keep it only if no change was committed for the customer while it was loading
+            if (loaded != null && entries.get(customerId) == entry) {
+                section.apply(entry).put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    // Must hold the entries lock
+    private CustomerEntry entry(Long customerId) {
+        return entries.computeIfAbsent(customerId,
+            id -> new CustomerEntry(generation.incrementAndGet(), maxDetailsPerCustomer));
+    }
+
+    private static final class CustomerEntry {
+
+        final long version;
+        final Map<Integer, OrderHistoryService.OrderHistorySlice> firstPages = lru(MAX_PAGES_PER_CUSTOMER);
+        final Map<Long, OrderDetailsDTO> details;
+
+        CustomerEntry(long version, int maxDetails) {
+            this.version = version;
+            this.details = lru(maxDetails);
+        }
+
+        Map<Integer, OrderHistoryService.OrderHistorySlice> firstPages() {
+            return firstPages;
+        }
+
+        Map<Long, OrderDetailsDTO> details() {
+            return details;
+        }
+
+        private static <K, V> Map<K, V> lru(int maxEntries) {
+            return new LinkedHashMap<>(8, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > maxEntries;
+                }
+            };
+        }
+    }
+}
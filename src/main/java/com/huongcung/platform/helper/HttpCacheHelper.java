@@ -0,0 +1,106 @@
+package com.huongcung.platform.helper;
+
+import com.huongcung.platform.configuration.HttpCacheConfig;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helper for conditional GETs on read endpoints
+ * Controllers compute a validator first and call {@link #checkNotModified} before doing any work,
+ * so a matching If-None-Match / If-Modified-Since is answered with 304 without querying or mapping.
+ */
+@Component
+@RequiredArgsConstructor
+public class HttpCacheHelper {
+
+    private final HttpCacheConfig httpCacheConfig;
+
+    /**
+     * Build a strong ETag from the given version components
+     *
+     * @param parts Values that together identify the representation version
+     * @return Quoted ETag value
+     */
+    public String strongETag(Object... parts) {
+        StringBuilder source = new StringBuilder();
+        for (Object part : parts) {
+            source.append(part).append('|');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(source.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Apply the Cache-Control policy and validators, and check the request preconditions
+     * When this returns true the response is already a 304 and the controller should return null.
+     *
+     * @param webRequest Current request
+     * @param etag Strong ETag of the current representation
+     * @param lastModified Last modification time in epoch milliseconds, or 0 if unknown
+     * @param maxAgeSeconds Cache-Control max-age for this endpoint
+     * @return true if the client copy is still current
+     */
+    public boolean checkNotModified(WebRequest webRequest, String etag, long lastModified, int maxAgeSeconds) {
+        if (!httpCacheConfig.isEnabled()) {
+            return false;
+        }
+
+        // Set before the precondition check so 304 responses carry the policy too
+        if (webRequest instanceof ServletWebRequest servletWebRequest) {
+            HttpServletResponse response = servletWebRequest.getResponse();
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS)
+                        .cachePublic()
+                        .getHeaderValue());
+            }
+        }
+
+        return lastModified > 0
+                ? webRequest.checkNotModified(etag, lastModified)
+                : webRequest.checkNotModified(etag);
+    }
+
+    /**
+     * Check the request preconditions for a per-user representation
+     * The response may only be stored by the user's own client, which must revalidate it on every use.
+     * When this returns true the response is already a 304 and the controller should return null.
+     *
+     * @param webRequest Current request
+     * @param etag Strong ETag of the current representation
+     * @return true if the client copy is still current
+     */
+    public boolean checkNotModifiedPrivate(WebRequest webRequest, String etag) {
+        if (!httpCacheConfig.isEnabled()) {
+            return false;
+        }
+
+        if (webRequest instanceof ServletWebRequest servletWebRequest) {
+            HttpServletResponse response = servletWebRequest.getResponse();
+            if (response != null) {
+                response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+            }
+        }
+
+        return webRequest.checkNotModified(etag);
+    }
+
+    /**
+     * Mark the response as not storable, e.g. when it was served from a degraded fallback path
+     * and must not be revalidated against the validators already set
+     *
+     * @param webRequest Current request
+     */
+    public void preventCaching(WebRequest webRequest) {
+        if (webRequest instanceof ServletWebRequest servletWebRequest && servletWebRequest.getResponse() != null) {
+            servletWebRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.huongcung.businessmanagement.admin.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.huongcung.core.product.model.dto.BookExportLine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookExportWriter
+ */
+@DisplayName("BookExportWriter Unit Tests")
+class BookExportWriterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 10, 19, 9, 30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    @DisplayName("Should write one CSV row per book with joined lists and escaped text")
+    void testCsv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BookExportWriter writer = BookExportWriter.csv(out);
+
+        writer.accept(book(1L, "Nhà giả kim, \"bản mới\"", List.of("Paulo Coelho", "Lê Chu Cầu")));
+        writer.accept(book(2L, "=cmd", List.of()));
+        writer.finish();
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, rows.length);
+        assertTrue(rows[0].startsWith("id,code,title,book_type,"));
+        assertEquals("1,B1,\"Nhà giả kim, \"\"bản mới\"\"\",PHYSICAL,VIETNAMESE,2020-01-01,200,1,true,NXB Trẻ,"
+                + "Paulo Coelho|Lê Chu Cầu,,Tiểu thuyết,89000.00,isbn-1,PAPERBACK,,7,2,2026-10-19T09:30,2026-10-19T09:30",
+                rows[1]);
+        assertTrue(rows[2].startsWith("2,B2,'=cmd,PHYSICAL,VIETNAMESE,2020-01-01,200,1,true,NXB Trẻ,,,"));
+        assertEquals(2, writer.getBookCount());
+    }
+
+    @Test
+    @DisplayName("Should write one JSON object per book and line")
+    void testJsonl() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BookExportWriter writer = BookExportWriter.jsonl(out, objectMapper);
+
+        writer.accept(book(1L, "A", List.of("Paulo Coelho")));
+        writer.accept(book(2L, "B", List.of()));
+        writer.finish();
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows.length);
+        JsonNode first = objectMapper.readTree(rows[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("Paulo Coelho", first.get("authors").get(0).asText());
+        assertEquals(0, new BigDecimal("89000.00").compareTo(first.get("currentPrice").decimalValue()));
+        assertEquals(7, first.get("stockQuantity").asLong());
+        assertEquals("2020-01-01", first.get("publicationDate").asText());
+        assertEquals(0, objectMapper.readTree(rows[1]).get("authors").size());
+        assertEquals(2, writer.getBookCount());
+    }
+
+    private static BookExportLine book(Long id, String title, List<String> authors) {
+        return new BookExportLine(id, "B" + id, title, "PHYSICAL", "VIETNAMESE", LocalDate.of(2020, 1, 1), 200, 1,
+                true, "NXB Trẻ", authors, List.of(), List.of("Tiểu thuyết"), new BigDecimal("89000.00"),
+                "isbn-" + id, "PAPERBACK", null, 7, 2, CREATED_AT, CREATED_AT);
+    }
+}
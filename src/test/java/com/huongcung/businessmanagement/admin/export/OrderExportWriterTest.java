@@ -0,0 +1,120 @@
+package com.huongcung.businessmanagement.admin.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.core.order.model.dto.OrderExportLine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OrderExportWriter
+ */
+@DisplayName("OrderExportWriter Unit Tests")
+class OrderExportWriterTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 10, 19, 9, 30);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Should write one CSV row per entry with escaped text")
+    void testCsv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderExportWriter writer = OrderExportWriter.csv(out);
+
+        writer.accept(line(1L, 10L, "Nhà giả kim, \"bản mới\""));
+        writer.accept(line(1L, 11L, "=HYPERLINK(\"x\")"));
+        writer.accept(line(2L, null, null));
+        writer.finish();
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, rows.length);
+        assertTrue(rows[0].startsWith("order_id,order_number,created_at,"));
+        assertEquals("1,HC-1,2026-10-19T09:30,PENDING,PENDING,COD,7,200000.00,0,30000.00,0,230000.00,"
+                + "10,B10,\"Nhà giả kim, \"\"bản mới\"\"\",PHYSICAL,2,100000.00,200000.00", rows[1]);
+        assertTrue(rows[2].contains(",B11,\"'=HYPERLINK(\"\"x\"\")\","));
+        assertTrue(rows[3].endsWith(",230000.00,,,,,,,"));
+        assertEquals(2, writer.getOrderCount());
+    }
+
+    @Test
+    @DisplayName("Should write one NDJSON object per order with its entries")
+    void testNdjson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OrderExportWriter writer = OrderExportWriter.ndjson(out, objectMapper);
+
+        writer.accept(line(1L, 10L, "A"));
+        writer.accept(line(1L, 11L, "B"));
+        writer.accept(line(2L, null, null));
+        writer.finish();
+
+        String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows.length);
+        JsonNode first = objectMapper.readTree(rows[0]);
+        assertEquals(1L, first.get("id").asLong());
+        assertEquals("HC-1", first.get("orderNumber").asText());
+        assertEquals(0, new BigDecimal("230000.00").compareTo(first.get("totalAmount").decimalValue()));
+        assertEquals(2, first.get("lines").size());
+        assertEquals("B", first.get("lines").get(1).get("bookTitle").asText());
+        assertEquals(0, objectMapper.readTree(rows[1]).get("lines").size());
+        assertEquals(2, writer.getOrderCount());
+    }
+
+    @Test
+    @DisplayName("Should stream a large export without holding it in memory")
+    void testLargeExport() throws IOException {
+        int orders = 10_000;
+        CountingOutputStream out = new CountingOutputStream();
+        OrderExportWriter writer = OrderExportWriter.ndjson(out, objectMapper);
+
+        for (long orderId = 1; orderId <= orders; orderId++) {
+            writer.accept(line(orderId, orderId * 2, "Title"));
+            writer.accept(line(orderId, orderId * 2 + 1, "Title"));
+            // Finished orders reach the stream as they are written; only the generator's buffer lags behind
+            assertTrue(orderId - 1 - out.lines < 100, "Orders held back: " + (orderId - 1 - out.lines));
+        }
+        writer.finish();
+
+        assertEquals(orders, writer.getOrderCount());
+        assertEquals(orders, out.lines);
+    }
+
+    private static OrderExportLine line(Long orderId, Long entryId, String title) {
+        return new OrderExportLine(orderId, "HC-" + orderId, CREATED_AT, "PENDING", "PENDING", "COD", 7L,
+                new BigDecimal("200000.00"), BigDecimal.ZERO, new BigDecimal("30000.00"), BigDecimal.ZERO,
+                new BigDecimal("230000.00"),
+                entryId, entryId != null ? "B" + entryId : null, title, entryId != null ? "PHYSICAL" : null,
+                entryId != null ? 2 : null,
+                entryId != null ? new BigDecimal("100000.00") : null,
+                entryId != null ? new BigDecimal("200000.00") : null);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long lines;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.huongcung.businessmanagement.admin.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.businessmanagement.admin.model.BookImportRow;
+import com.huongcung.core.common.enumeration.Language;
+import com.huongcung.core.product.enumeration.CoverType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BookImportReader
+ */
+@DisplayName("BookImportReader Unit Tests")
+class BookImportReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    @DisplayName("Should read CSV rows with quoted fields, list columns and snake_case headers")
+    void testCsv() throws IOException {
+        String csv = "\uFEFFtitle,language,book_type,authors,genres,publication_date,current_price,cover_type,images\r\n"
+                + "\"Nhà giả kim, \"\"bản mới\"\"\",VIETNAMESE,PHYSICAL,Paulo Coelho | Lê Chu Cầu,Tiểu thuyết,2020-05-01,89000,PAPERBACK,aGVsbG8=\r\n"
+                + "\r\n"
+                + "\"Dòng một\ndòng hai\",ENGLISH,EBOOK,Tác giả,,,,,\n";
+        BookImportReader reader = BookImportReader.csv(stream(csv), objectMapper);
+
+        BookImportReader.Row first = reader.next();
+        assertNull(first.error());
+        assertEquals(2, first.line());
+        BookImportRow book = first.book();
+        assertEquals("Nhà giả kim, \"bản mới\"", book.getTitle());
+        assertEquals(Language.VIETNAMESE, book.getLanguage());
+        assertEquals(List.of("Paulo Coelho", "Lê Chu Cầu"), book.getAuthors());
+        assertEquals(List.of("Tiểu thuyết"), book.getGenres());
+        assertEquals(LocalDate.of(2020, 5, 1), book.getPublicationDate());
+        assertEquals(new BigDecimal("89000"), book.getCurrentPrice());
+        assertEquals(CoverType.PAPERBACK, book.getCoverType());
+        assertEquals("aGVsbG8=", book.getImages().get(0).getBase64Data());
+
+        BookImportReader.Row second = reader.next();
+        assertEquals(4, second.line());
+        assertEquals("Dòng một\ndòng hai", second.book().getTitle());
+        assertNull(second.book().getGenres());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Should report unparseable CSV rows and keep reading")
+    void testCsvRowErrors() throws IOException {
+        String csv = "title,language,page_count\n"
+                + "A,XX,10\n"
+                + "B,ENGLISH,10,extra\n"
+                + "C,ENGLISH,ten\n"
+                + "D,ENGLISH,12\n"
+                + "\"E,ENGLISH,1\n";
+        BookImportReader reader = BookImportReader.csv(stream(csv), objectMapper);
+
+        BookImportReader.Row language = reader.next();
+        assertNull(language.book());
+        assertTrue(language.error().startsWith("Invalid language"), language.error());
+        assertEquals("Row has 4 columns, header has 3", reader.next().error());
+        BookImportReader.Row pageCount = reader.next();
+        assertEquals(4, pageCount.line());
+        assertTrue(pageCount.error().startsWith("Invalid pageCount"), pageCount.error());
+        assertEquals(12, reader.next().book().getPageCount());
+        assertEquals("Quoted field is not terminated", reader.next().error());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("Should reject a CSV file with an unknown column")
+    void testCsvUnknownColumn() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> BookImportReader.csv(stream("title,author_name\n"), objectMapper));
+        assertEquals("Unknown CSV column: author_name", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> BookImportReader.csv(stream(""), objectMapper));
+    }
+
+    @Test
+    @DisplayName("Should read one JSON object per line and report malformed lines")
+    void testJsonl() throws IOException {
+        String jsonl = "{\"title\":\"Số đỏ\",\"language\":\"VIETNAMESE\",\"bookType\":\"EBOOK\",\"authors\":[\"Vũ Trọng Phụng\"],"
+                + "\"images\":[{\"base64Data\":\"aGVsbG8=\",\"position\":2}]}\n"
+                + "\n"
+                + "{\"title\":\"Broken\"\n"
+                + "{\"title\":\"Dế Mèn\",\"edition\":3}\n";
+        BookImportReader reader = BookImportReader.jsonl(stream(jsonl), objectMapper);
+
+        BookImportRow first = reader.next().book();
+        assertEquals("Số đỏ", first.getTitle());
+        assertEquals(List.of("Vũ Trọng Phụng"), first.getAuthors());
+        assertEquals(2, first.getImages().get(0).getPosition());
+
+        BookImportReader.Row broken = reader.next();
+        assertEquals(3, broken.line());
+        assertNull(broken.book());
+        assertNotNull(broken.error());
+
+        BookImportReader.Row last = reader.next();
+        assertEquals(4, last.line());
+        assertEquals(3, last.book().getEdition());
+        assertNull(reader.next());
+    }
+
+    private static InputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
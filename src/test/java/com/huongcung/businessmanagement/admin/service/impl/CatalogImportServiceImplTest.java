@@ -0,0 +1,190 @@
+package com.huongcung.businessmanagement.admin.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.businessmanagement.admin.config.CatalogImportConfig;
+import com.huongcung.businessmanagement.admin.importer.BookImportReader;
+import com.huongcung.businessmanagement.admin.model.CatalogImportResult;
+import com.huongcung.core.common.model.entity.BaseEntity;
+import com.huongcung.core.contributor.model.entity.AuthorEntity;
+import com.huongcung.core.contributor.repository.AuthorRepository;
+import com.huongcung.core.contributor.repository.PublisherRepository;
+import com.huongcung.core.contributor.repository.TranslatorRepository;
+import com.huongcung.core.media.model.entity.BookImageEntity;
+import com.huongcung.core.media.service.ImageService;
+import com.huongcung.core.product.model.entity.AbstractBookEntity;
+import com.huongcung.core.product.model.entity.GenreEntity;
+import com.huongcung.core.product.repository.GenreRepository;
+import com.huongcung.core.search.service.SearchIndexService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CatalogImportServiceImpl
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CatalogImportServiceImpl Unit Tests")
+class CatalogImportServiceImplTest {
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private TranslatorRepository translatorRepository;
+
+    @Mock
+    private PublisherRepository publisherRepository;
+
+    @Mock
+    private GenreRepository genreRepository;
+
+    @Mock
+    private ImageService imageService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicLong ids = new AtomicLong(100);
+    private final List<Object> persisted = new ArrayList<>();
+    private CatalogImportServiceImpl catalogImportService;
+
+    @BeforeEach
+    void setUp() {
+        CatalogImportConfig config = new CatalogImportConfig();
+        config.setChunkSize(10);
+        catalogImportService = new CatalogImportServiceImpl(authorRepository, translatorRepository, publisherRepository,
+                genreRepository, imageService, transactionTemplate, config, Runnable::run);
+        ReflectionTestUtils.setField(catalogImportService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(catalogImportService, "searchIndexService", searchIndexService);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Ids are assigned on persist, as with the pooled table generator
+        lenient().doAnswer(invocation -> {
+            BaseEntity entity = invocation.getArgument(0);
+            if (entity instanceof AbstractBookEntity book && "Bad".equals(book.getTitle())) {
+                throw new PersistenceException("Duplicate entry 'Bad'");
+            }
+            entity.setId(ids.incrementAndGet());
+            persisted.add(entity);
+            return null;
+        }).when(entityManager).persist(any());
+        lenient().when(searchIndexService.indexBooks(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> bookIds = invocation.getArgument(0);
+            return new SearchIndexService.IndexingResult(bookIds.size(), bookIds.size(), 0, 1);
+        });
+    }
+
+    @Test
+    @DisplayName("Should resolve names once per import, create missing authors and index once")
+    void testImport() throws IOException {
+        AuthorEntity existing = new AuthorEntity();
+        existing.setId(1L);
+        existing.setName("Nguyễn Nhật Ánh");
+        GenreEntity genre = new GenreEntity();
+        genre.setId(2L);
+        genre.setName("Tiểu thuyết");
+        when(authorRepository.findByNameIn(anyCollection())).thenReturn(List.of(existing));
+        when(genreRepository.findByNameIn(anyCollection())).thenReturn(List.of(genre));
+
+        CatalogImportResult result = catalogImportService.importBooks(csv(
+                "title,language,bookType,authors,genres\n"
+                + "Mắt biếc,VIETNAMESE,PHYSICAL,nguyễn nhật ánh|Tác giả mới,Tiểu thuyết\n"
+                + "Cho tôi xin một vé đi tuổi thơ,VIETNAMESE,EBOOK,Nguyễn Nhật Ánh,tiểu thuyết\n"
+                + "Không tên,VIETNAMESE,PHYSICAL,Tác giả mới,Không có\n"
+                + ",VIETNAMESE,PHYSICAL,Tác giả mới,\n"));
+
+        assertEquals(4, result.getTotalRows());
+        assertEquals(2, result.getImportedRows());
+        assertEquals(2, result.getFailedRows());
+        assertEquals(1, result.getAuthorsCreated());
+        assertEquals(2, result.getBooksIndexed());
+        assertEquals(List.of(
+                new CatalogImportResult.RowError(5, null, "Title is required"),
+                new CatalogImportResult.RowError(4, "Không tên", "Genre not found: Không có")), result.getErrors());
+
+        verify(authorRepository, times(1)).findByNameIn(anyCollection());
+        verify(genreRepository, times(1)).findByNameIn(anyCollection());
+        verify(entityManager, times(1)).flush();
+        verify(entityManager, times(1)).clear();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> indexed = ArgumentCaptor.forClass(Collection.class);
+        verify(searchIndexService, times(1)).indexBooks(indexed.capture());
+        assertEquals(2, indexed.getValue().size());
+        assertEquals(3, persisted.size()); // the new author and two books
+    }
+
+    @Test
+    @DisplayName("Should retry a failed chunk row by row and only fail the bad row")
+    void testChunkFailure() throws IOException {
+        CatalogImportResult result = catalogImportService.importBooks(csv(
+                "title,language,bookType,authors\n"
+                + "Good,ENGLISH,PHYSICAL,New Author\n"
+                + "Bad,ENGLISH,PHYSICAL,New Author\n"));
+
+        assertEquals(1, result.getImportedRows());
+        assertEquals(1, result.getFailedRows());
+        assertEquals(new CatalogImportResult.RowError(3, "Bad", "Duplicate entry 'Bad'"), result.getErrors().get(0));
+        // The author created by the rolled back chunk is created again by the retry, and counted once
+        assertEquals(1, result.getAuthorsCreated());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    @DisplayName("Should upload images in parallel and fail rows whose upload fails")
+    void testImages() throws IOException {
+        when(imageService.saveImageFromBase64(eq("aGVsbG8="), anyString(), anyString())).thenReturn("images/a.jpg");
+        when(imageService.saveImageFromBase64(eq("YnJva2Vu"), anyString(), anyString()))
+                .thenThrow(new RuntimeException("Storage unavailable"));
+
+        CatalogImportResult result = catalogImportService.importBooks(csv(
+                "title,language,bookType,authors,images\n"
+                + "With image,ENGLISH,PHYSICAL,Author,aGVsbG8=\n"
+                + "Broken image,ENGLISH,PHYSICAL,Author,aGVsbG8=|YnJva2Vu\n"));
+
+        assertEquals(1, result.getImportedRows());
+        assertEquals(1, result.getImagesUploaded());
+        assertEquals("Image upload failed: Storage unavailable", result.getErrors().get(0).getMessage());
+        BookImageEntity image = persisted.stream()
+                .filter(BookImageEntity.class::isInstance)
+                .map(BookImageEntity.class::cast)
+                .findFirst()
+                .orElseThrow();
+        assertEquals("images/a.jpg", image.getUrl());
+        assertEquals(1, image.getPosition());
+        assertEquals("With image", image.getBook().getTitle());
+    }
+
+    private BookImportReader csv(String text) throws IOException {
+        return BookImportReader.csv(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), objectMapper);
+    }
+}
@@ -6,6 +6,7 @@ import com.huongcung.businessmanagement.admin.model.BookDetailDTO;
 import com.huongcung.businessmanagement.admin.model.BookImageData;
 import com.huongcung.businessmanagement.admin.model.BookListDTO;
 import com.huongcung.businessmanagement.admin.model.BookUpdateRequest;
+import com.huongcung.businessmanagement.admin.service.CatalogService;
 import com.huongcung.core.common.enumeration.Language;
 import com.huongcung.core.contributor.model.entity.AuthorEntity;
 import com.huongcung.core.contributor.model.entity.PublisherEntity;
@@ -23,11 +24,17 @@ import com.huongcung.core.product.model.entity.PhysicalBookEntity;
 import com.huongcung.core.product.repository.AbstractBookRepository;
 import com.huongcung.core.product.repository.GenreRepository;
 import com.huongcung.core.search.model.dto.PaginationInfo;
+import com.huongcung.core.search.repository.BookSearchRepository;
 import com.huongcung.core.search.service.SearchIndexService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -36,13 +43,17 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -87,6 +98,15 @@ class CatalogServiceImplTest {
     @Mock
     private SearchIndexService searchIndexService;
     
+    @Mock
+    private BookSearchRepository bookSearchRepository;
+    
+    @Mock
+    private Root<AbstractBookEntity> root;
+    
+    @Mock
+    private Path<Object> path;
+    
     @Mock
     private CriteriaBuilder criteriaBuilder;
     
@@ -324,7 +344,80 @@ class CatalogServiceImplTest {
         // Then
         assertNotNull(result);
         verify(imageService, times(1)).saveImageFromBase64(anyString(), anyString(), anyString());
-        verify(bookImageRepository, times(1)).save(any(BookImageEntity.class));
+        verify(bookImageRepository, times(1)).saveAll(argThat(images -> images.iterator().hasNext()));
+    }
+    
+    @Test
+    @DisplayName("Should list books from the search index and load only the page from the database")
+    void testGetAllBooks_FromSearchIndex() {
+        // Given
+        ReflectionTestUtils.setField(catalogService, "searchListingEnabled", true);
+        ReflectionTestUtils.setField(catalogService, "entityManager", entityManager);
+        SolrDocumentList documents = new SolrDocumentList();
+        documents.setNumFound(45);
+        for (String id : List.of("2", "1")) {
+            SolrDocument document = new SolrDocument();
+            document.setField("id", id);
+            documents.add(document);
+        }
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.getResults()).thenReturn(documents);
+        when(bookSearchRepository.searchCatalog(eq("test"), anyMap(), eq("titleSort"), eq("asc"), eq(20), eq(20)))
+                .thenReturn(response);
+        when(bookRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testPhysicalBook, testEbook));
+        when(bookMapper.toListDTO(any(AbstractBookEntity.class))).thenAnswer(invocation -> {
+            AbstractBookEntity book = invocation.getArgument(0);
+            return BookListDTO.builder().id(book.getId()).build();
+        });
+        
+        // When
+        CatalogService.PaginatedBookResponse result = catalogService.getAllBooks(
+                PageRequest.of(1, 20, Sort.by("title")), "test", Language.ENGLISH, "ebook", false);
+        
+        // Then
+        assertEquals(List.of(2L, 1L), result.books().stream().map(BookListDTO::getId).toList());
+        assertEquals(45L, result.pagination().getTotalResults());
+        assertEquals(3, result.pagination().getTotalPages());
+        verify(bookSearchRepository).searchCatalog(eq("test"),
+                eq(Map.of("language", "ENGLISH", "bookType", "EBOOK", "active", "false")),
+                eq("titleSort"), eq("asc"), eq(20), eq(20));
+        verifyNoInteractions(entityManager);
+    }
+    
+    @Test
+    @DisplayName("Should fall back to the database when the search index fails and count once per filter")
+    void testGetAllBooks_DatabaseFallback_CachesCount() {
+        // Given
+        ReflectionTestUtils.setField(catalogService, "searchListingEnabled", true);
+        ReflectionTestUtils.setField(catalogService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(catalogService, "countCacheTtlMs", 30_000L);
+        when(bookSearchRepository.searchCatalog(any(), anyMap(), anyString(), anyString(), anyInt(), anyInt()))
+                .thenThrow(new RuntimeException("Solr catalog search failed"));
+        when(entityManager.getCriteriaBuilder()).thenReturn(criteriaBuilder);
+        when(criteriaBuilder.createQuery(AbstractBookEntity.class)).thenReturn(criteriaQuery);
+        when(criteriaBuilder.createQuery(Long.class)).thenReturn(countQuery);
+        when(criteriaQuery.from(AbstractBookEntity.class)).thenReturn(root);
+        when(countQuery.from(AbstractBookEntity.class)).thenReturn(root);
+        when(root.get(anyString())).thenReturn(path);
+        when(entityManager.createQuery(countQuery)).thenReturn(countTypedQuery);
+        when(countTypedQuery.getSingleResult()).thenReturn(45L);
+        when(entityManager.createQuery(criteriaQuery)).thenReturn(typedQuery);
+        when(typedQuery.setFirstResult(anyInt())).thenReturn(typedQuery);
+        when(typedQuery.setMaxResults(anyInt())).thenReturn(typedQuery);
+        when(typedQuery.getResultList()).thenReturn(List.of(testPhysicalBook));
+        when(bookMapper.toListDTO(testPhysicalBook)).thenReturn(BookListDTO.builder().id(1L).build());
+        
+        // When
+        CatalogService.PaginatedBookResponse first = catalogService.getAllBooks(PageRequest.of(0, 20), null, null, null, null);
+        CatalogService.PaginatedBookResponse second = catalogService.getAllBooks(PageRequest.of(1, 20), null, null, null, null);
+        
+        // Then
+        assertEquals(1, first.books().size());
+        assertEquals(45L, first.pagination().getTotalResults());
+        assertEquals(45L, second.pagination().getTotalResults());
+        assertTrue(second.pagination().getHasPrevious());
+        verify(countTypedQuery, times(1)).getSingleResult();
+        verify(typedQuery).setFirstResult(20);
     }
     
     @Test
@@ -332,7 +425,7 @@ class CatalogServiceImplTest {
     void testGetBookById_Success() {
         // Given
         Long bookId = 1L;
-        when(bookRepository.findById(bookId)).thenReturn(Optional.of(testPhysicalBook));
+        when(bookRepository.findWithDetailsById(bookId)).thenReturn(Optional.of(testPhysicalBook));
         
         BookDetailDTO bookDTO = BookDetailDTO.builder()
                 .id(1L)
@@ -348,7 +441,7 @@ class CatalogServiceImplTest {
         assertNotNull(result);
         assertEquals("BK001", result.getCode());
         assertEquals("Test Physical Book", result.getTitle());
-        verify(bookRepository, times(1)).findById(bookId);
+        verify(bookRepository, times(1)).findWithDetailsById(bookId);
     }
     
     @Test
@@ -356,7 +449,7 @@ class CatalogServiceImplTest {
     void testGetBookById_NotFound_ThrowsException() {
         // Given
         Long bookId = 999L;
-        when(bookRepository.findById(bookId)).thenReturn(Optional.empty());
+        when(bookRepository.findWithDetailsById(bookId)).thenReturn(Optional.empty());
         
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
@@ -0,0 +1,111 @@
+package com.huongcung.core.configuration;
+
+import com.huongcung.core.common.model.entity.BaseEntity;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.id.enhanced.TableGenerator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for IdGeneratorSeeder and the pooled id mapping of BaseEntity
+ * Hibernate is bootstrapped against the real entity model without a database connection.
+ */
+@DisplayName("IdGeneratorSeeder Unit Tests")
+class IdGeneratorSeederTest {
+
+    private static StandardServiceRegistry registry;
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void bootstrapHibernate() throws Exception {
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", MySQLDialect.class.getName())
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .applySetting("hibernate.id.optimizer.pooled.preferred", "pooled-lo")
+                .build();
+
+        MetadataSources sources = new MetadataSources(registry);
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition definition : scanner.findCandidateComponents("com.huongcung.core")) {
+            sources.addAnnotatedClass(Class.forName(definition.getBeanClassName()));
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+    }
+
+    @AfterAll
+    static void close() {
+        if (sessionFactory != null) {
+            sessionFactory.close();
+        }
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Test
+    @DisplayName("Should allocate entity ids in pooled-lo blocks from the table generator")
+    void testEntityIdsUsePooledTableGenerator() {
+        EntityPersister persister = sessionFactory.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor("com.huongcung.core.order.model.entity.OrderEntryEntity");
+
+        TableGenerator generator = assertInstanceOf(TableGenerator.class, persister.getGenerator());
+        assertEquals(BaseEntity.ID_GENERATOR_TABLE, generator.getTableName());
+        assertEquals(BaseEntity.ID_GENERATOR_SEGMENT, generator.getSegmentValue());
+        assertEquals(BaseEntity.ID_ALLOCATION_SIZE, generator.getIncrementSize());
+        assertInstanceOf(PooledLoOptimizer.class, generator.getOptimizer());
+    }
+
+    @Test
+    @DisplayName("Should seed the segment above the highest id of every root entity table")
+    void testSeedAboveExistingIds() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(7L);
+        when(jdbcTemplate.queryForObject(eq("SELECT COALESCE(MAX(id), 0) FROM orders"), eq(Long.class))).thenReturn(1200L);
+
+        IdGeneratorSeeder seeder = new IdGeneratorSeeder(sessionFactory.unwrap(EntityManagerFactory.class), jdbcTemplate);
+        Set<String> tables = seeder.pooledIdTables();
+
+        // Joined subclasses share the root table's ids
+        assertTrue(tables.contains("orders"));
+        assertTrue(tables.contains("books"));
+        assertFalse(tables.contains("physical_books"));
+
+        seeder.seed();
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO id_generators"), eq("entity"), eq(1201L));
+    }
+
+    @Test
+    @DisplayName("Should fail startup when seeding fails")
+    void testSeedFailureFailsStartup() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenThrow(new IllegalStateException("down"));
+
+        IdGeneratorSeeder seeder = new IdGeneratorSeeder(sessionFactory.unwrap(EntityManagerFactory.class), jdbcTemplate);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, seeder::seed);
+        assertEquals("down", exception.getCause().getMessage());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+}
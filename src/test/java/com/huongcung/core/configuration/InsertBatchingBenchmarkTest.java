@@ -0,0 +1,132 @@
+package com.huongcung.core.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Insert throughput on MySQL: one round trip per row with IDENTITY ids versus
+ * JDBC batches with ids taken from a pre-allocated block, as Hibernate does with the
+ * pooled table generator and hibernate.jdbc.batch_size.
+ *
+ * Tagged "benchmark", so it is not part of the unit test run; it needs a real MySQL and
+ * runs with the benchmark profile when BENCHMARK_MYSQL_URL is set, e.g.
+ * BENCHMARK_MYSQL_URL="jdbc:mysql://localhost:3306/bench?user=root&password=secret" mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_MYSQL_URL", matches = ".+")
+@DisplayName("Insert batching benchmark (MySQL)")
+class InsertBatchingBenchmarkTest {
+
+    private static final int BATCH_SIZE = 50;
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String url = System.getenv("BENCHMARK_MYSQL_URL");
+        connection = DriverManager.getConnection(url + (url.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_identity_rows");
+            statement.execute("DROP TABLE IF EXISTS bench_pooled_rows");
+            statement.execute("CREATE TABLE bench_identity_rows (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "order_id BIGINT NOT NULL, book_id BIGINT NOT NULL, quantity INT NOT NULL, unit_price DECIMAL(10,2) NOT NULL)");
+            statement.execute("CREATE TABLE bench_pooled_rows (id BIGINT PRIMARY KEY, "
+                    + "order_id BIGINT NOT NULL, book_id BIGINT NOT NULL, quantity INT NOT NULL, unit_price DECIMAL(10,2) NOT NULL)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS bench_identity_rows");
+            statement.execute("DROP TABLE IF EXISTS bench_pooled_rows");
+        }
+        connection.close();
+    }
+
+    @Test
+    @DisplayName("Benchmark: 50-line orders, row-by-row IDENTITY vs batched pooled ids")
+    void benchmarkFiftyLineOrders() throws Exception {
+        int orders = 200;
+        int lines = 50;
+
+        double identityRate = run(orders, lines, false);
+        double batchedRate = run(orders, lines, true);
+
+        System.out.printf("50-line order entries/sec - IDENTITY row by row: %.0f, pooled ids batched: %.0f%n",
+                identityRate, batchedRate);
+        assertTrue(batchedRate > identityRate);
+    }
+
+    @Test
+    @DisplayName("Benchmark: bulk import of 20000 rows, row-by-row IDENTITY vs batched pooled ids")
+    void benchmarkBulkImport() throws Exception {
+        double identityRate = run(1, 20_000, false);
+        double batchedRate = run(1, 20_000, true);
+
+        System.out.printf("Bulk import rows/sec - IDENTITY row by row: %.0f, pooled ids batched: %.0f%n",
+                identityRate, batchedRate);
+        assertTrue(batchedRate > identityRate);
+    }
+
+    /**
+     * Insert the rows of each order in its own transaction and return rows per second
+     */
+    private double run(int orders, int linesPerOrder, boolean batched) throws Exception {
+        connection.setAutoCommit(false);
+        long nextId = 1;
+        long start = System.nanoTime();
+        for (int order = 1; order <= orders; order++) {
+            if (batched) {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO bench_pooled_rows (id, order_id, book_id, quantity, unit_price) VALUES (?, ?, ?, ?, ?)")) {
+                    for (int line = 0; line < linesPerOrder; line++) {
+                        insert.setLong(1, nextId++);
+                        bindLine(insert, 2, order, line);
+                        insert.addBatch();
+                        if ((line + 1) % BATCH_SIZE == 0) {
+                            insert.executeBatch();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+            } else {
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO bench_identity_rows (order_id, book_id, quantity, unit_price) VALUES (?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    for (int line = 0; line < linesPerOrder; line++) {
+                        bindLine(insert, 1, order, line);
+                        insert.executeUpdate();
+                        try (ResultSet keys = insert.getGeneratedKeys()) {
+                            assertTrue(keys.next());
+                        }
+                    }
+                }
+            }
+            connection.commit();
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        connection.setAutoCommit(true);
+        return orders * (double) linesPerOrder / seconds;
+    }
+
+    private void bindLine(PreparedStatement insert, int index, int order, int line) throws Exception {
+        insert.setLong(index, order);
+        insert.setLong(index + 1, line + 1L);
+        insert.setInt(index + 2, 1);
+        insert.setBigDecimal(index + 3, new BigDecimal("150000.00"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.huongcung.core.inventory.allocation;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.service.StockReservationService.StockRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Allocation latency of StockSnapshot over a 50,000-book catalog stocked in three warehouses
+ *
+ * Tagged "benchmark", so it is not part of the unit test run; run it with mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@DisplayName("StockSnapshot allocation benchmark")
+class StockSnapshotBenchmarkTest {
+
+    private static final long HANOI = 1L;
+    private static final long HCMC = 2L;
+    private static final long DANANG = 3L;
+
+    @Test
+    @DisplayName("Benchmark: allocation latency over a large catalog")
+    void benchmarkAllocation() {
+        int books = 50_000;
+        StockSnapshot.Builder builder = StockSnapshot.builder()
+                .warehouse(DANANG, City.DANANG)
+                .warehouse(HANOI, City.HANOI)
+                .warehouse(HCMC, City.HCMC);
+        for (long bookId = 1; bookId <= books; bookId++) {
+            builder.stock(bookId, HANOI, (int) (bookId % 3))
+                    .stock(bookId, HCMC, (int) (bookId % 5))
+                    .stock(bookId, DANANG, (int) (bookId % 7));
+        }
+        StockSnapshot snapshot = builder.build();
+        assertEquals(books, snapshot.bookCount());
+
+        List<List<StockRequest>> carts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            long first = 1 + (i * 37L) % (books - 10);
+            carts.add(List.of(new StockRequest(first, "Book " + first, 1),
+                    new StockRequest(first + 3, "Book " + (first + 3), 2),
+                    new StockRequest(first + 7, "Book " + (first + 7), 1)));
+        }
+
+        int iterations = 200_000;
+        int splits = 0;
+        for (int i = 0; i < iterations / 10; i++) {
+            snapshot.allocate(City.HCMC, carts.get(i % carts.size()));
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (snapshot.allocate(City.values()[i % 3], carts.get(i % carts.size())).size() > 1) {
+                splits++;
+            }
+        }
+        double micros = (System.nanoTime() - started) / 1000.0 / iterations;
+
+        System.out.printf("Allocation of 3-line carts over %d books x 3 warehouses: %.2fus per cart, %d of %d split%n",
+                books, micros, splits, iterations);
+        // Generous bound so slow machines pass; typical results are a few microseconds
+        assertTrue(micros < 100, "allocation took " + micros + "us");
+    }
+}
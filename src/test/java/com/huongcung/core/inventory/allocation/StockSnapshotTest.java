@@ -0,0 +1,119 @@
+package com.huongcung.core.inventory.allocation;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.service.StockAllocationService.ConsignmentPlan;
+import com.huongcung.core.inventory.service.StockReservationService.StockRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for StockSnapshot
+ */
+@DisplayName("StockSnapshot Unit Tests")
+class StockSnapshotTest {
+
+    private static final long HANOI = 1L;
+    private static final long HCMC = 2L;
+    private static final long DANANG = 3L;
+
+    @Test
+    @DisplayName("Should ship the whole cart from the nearest warehouse that has everything")
+    void testNearestWarehouseShipsEverything() {
+        StockSnapshot snapshot = warehouses()
+                .stock(10L, HANOI, 5).stock(11L, HANOI, 5)
+                .stock(10L, HCMC, 5).stock(11L, HCMC, 5)
+                .build();
+
+        List<ConsignmentPlan> plans = snapshot.allocate(City.HCMC, lines(10L, 2, 11L, 1));
+
+        assertEquals(1, plans.size());
+        assertEquals(HCMC, plans.get(0).warehouseId());
+        assertEquals(City.HCMC, plans.get(0).city());
+        assertEquals(2, plans.get(0).lines().size());
+    }
+
+    @Test
+    @DisplayName("Should prefer one farther consignment over splitting the cart")
+    void testSingleConsignmentBeforeSplit() {
+        StockSnapshot snapshot = warehouses()
+                .stock(10L, HCMC, 5)
+                .stock(10L, DANANG, 5).stock(11L, DANANG, 1)
+                .build();
+
+        List<ConsignmentPlan> plans = snapshot.allocate(City.HCMC, lines(10L, 2, 11L, 1));
+
+        assertEquals(1, plans.size());
+        assertEquals(DANANG, plans.get(0).warehouseId());
+    }
+
+    @Test
+    @DisplayName("Should split whole lines across warehouses when no warehouse has everything")
+    void testSplitAcrossWarehouses() {
+        StockSnapshot snapshot = warehouses()
+                .stock(10L, HANOI, 9).stock(11L, HANOI, 9)
+                .stock(10L, DANANG, 9).stock(12L, DANANG, 9)
+                .stock(12L, HCMC, 9)
+                .build();
+
+        List<ConsignmentPlan> plans = snapshot.allocate(City.HCMC, lines(10L, 1, 11L, 1, 12L, 1));
+
+        // Hanoi and Da Nang both cover two lines; Da Nang is nearer, Hanoi is the only source of book 11
+        assertEquals(2, plans.size());
+        assertEquals(HANOI, plans.get(0).warehouseId());
+        assertEquals(List.of(11L), plans.get(0).lines().stream().map(StockRequest::bookId).toList());
+        assertEquals(DANANG, plans.get(1).warehouseId());
+        assertEquals(List.of(10L, 12L), plans.get(1).lines().stream().map(StockRequest::bookId).toList());
+    }
+
+    @Test
+    @DisplayName("Should leave short lines where most stock is held and unknown books with the nearest warehouse")
+    void testShortLines() {
+        StockSnapshot snapshot = warehouses()
+                .stock(10L, HANOI, 3).stock(10L, HCMC, 1)
+                .build();
+
+        List<ConsignmentPlan> plans = snapshot.allocate(City.HCMC, lines(10L, 4, 99L, 1));
+
+        assertEquals(2, plans.size());
+        assertEquals(HANOI, plans.get(0).warehouseId());
+        assertEquals(10L, plans.get(0).lines().get(0).bookId());
+        assertEquals(HCMC, plans.get(1).warehouseId());
+        assertEquals(99L, plans.get(1).lines().get(0).bookId());
+    }
+
+    @Test
+    @DisplayName("Should apply committed changes in place and ignore unknown books")
+    void testAdjust() {
+        StockSnapshot snapshot = warehouses().stock(10L, HANOI, 3).stock(10L, HCMC, 2).build();
+
+        snapshot.adjust(HANOI, 10L, -2);
+        snapshot.adjust(HANOI, 42L, 5);
+        snapshot.adjust(7L, 10L, 5);
+
+        assertEquals(1, snapshot.available(10L, HANOI));
+        assertEquals(0, snapshot.available(42L, HANOI));
+        assertEquals(1, snapshot.bookCount());
+        // Hanoi no longer has two copies, so the cart now ships from Ho Chi Minh City
+        assertEquals(HCMC, snapshot.allocate(City.HANOI, lines(10L, 2)).get(0).warehouseId());
+    }
+
+    private static StockSnapshot.Builder warehouses() {
+        return StockSnapshot.builder()
+                .warehouse(DANANG, City.DANANG)
+                .warehouse(HANOI, City.HANOI)
+                .warehouse(HCMC, City.HCMC);
+    }
+
+    private static List<StockRequest> lines(long... bookIdAndQuantity) {
+        List<StockRequest> lines = new ArrayList<>();
+        for (int i = 0; i < bookIdAndQuantity.length; i += 2) {
+            lines.add(new StockRequest(bookIdAndQuantity[i], "Book " + bookIdAndQuantity[i], (int) bookIdAndQuantity[i + 1]));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,85 @@
+package com.huongcung.core.inventory.expiry;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HierarchicalTimingWheel
+ */
+@DisplayName("HierarchicalTimingWheel Unit Tests")
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000L;
+
+    @Test
+    @DisplayName("Should expire an item once the wheel passes its expiry time")
+    void testExpiresAfterDeadline() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 0L);
+        assertTrue(wheel.add("order-1", 2_500L));
+
+        assertTrue(wheel.advance(2_000L).isEmpty());
+        assertEquals(List.of("order-1"), wheel.advance(3_000L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should cascade far-off expiries through higher levels")
+    void testCascadesAcrossLevels() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 4, 0L);
+        // Level 0 spans 4s, level 1 16s, level 2 64s
+        assertTrue(wheel.add("level-0", 3_000L));
+        assertTrue(wheel.add("level-1", 9_000L));
+        assertTrue(wheel.add("level-2", 40_000L));
+        assertEquals(3, wheel.size());
+
+        assertEquals(List.of("level-0"), wheel.advance(4_000L));
+        assertTrue(wheel.advance(9_000L).isEmpty());
+        assertEquals(List.of("level-1"), wheel.advance(10_000L));
+        assertTrue(wheel.advance(40_000L).isEmpty());
+        assertEquals(List.of("level-2"), wheel.advance(41_000L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should reject items that have already expired")
+    void testRejectsExpiredItems() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 8, 10_000L);
+
+        assertFalse(wheel.add("late", 9_000L));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    @DisplayName("Should never expire early and at most one tick late")
+    void testExpiryPrecision() {
+        Random random = new Random(42);
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 16, 0L);
+        Map<Integer, Long> expiries = new HashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            long expiresAt = random.nextInt(2_000_000);
+            expiries.put(i, expiresAt);
+            assertTrue(wheel.add(i, expiresAt));
+        }
+
+        long now = 0;
+        int expired = 0;
+        while (now <= 2_001_000L) {
+            now += 250;
+            for (Integer item : wheel.advance(now)) {
+                long expiresAt = expiries.get(item);
+                assertTrue(expiresAt < now, "expired early: " + item);
+                assertTrue(now - expiresAt <= TICK + 250, "expired late: " + item);
+                expired++;
+            }
+        }
+        assertEquals(5_000, expired);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,111 @@
+package com.huongcung.core.inventory.ledger;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for InventoryLedger
+ */
+@DisplayName("InventoryLedger Unit Tests")
+class InventoryLedgerTest {
+
+    private static final long WAREHOUSE = 1L;
+
+    @Test
+    @DisplayName("Should reserve all lines or none and report every shortfall")
+    void testAllOrNothing() {
+        InventoryLedger ledger = new InventoryLedger();
+        ledger.load(1L, WAREHOUSE, 5);
+        ledger.load(2L, WAREHOUSE, 1);
+        ledger.load(3L, WAREHOUSE, 0);
+
+        Map<Long, Integer> shortfalls = ledger.tryReserve(WAREHOUSE, lines(1L, 2, 2L, 2, 3L, 1));
+
+        assertEquals(Map.of(2L, 1, 3L, 0), shortfalls);
+        assertEquals(5, ledger.available(1L, WAREHOUSE));
+        assertEquals(1, ledger.available(2L, WAREHOUSE));
+
+        assertTrue(ledger.tryReserve(WAREHOUSE, lines(1L, 2, 2L, 1)).isEmpty());
+        assertEquals(3, ledger.available(1L, WAREHOUSE));
+        assertEquals(0, ledger.available(2L, WAREHOUSE));
+    }
+
+    @Test
+    @DisplayName("Should journal committed reservations once and restore failed flushes")
+    void testJournal() {
+        InventoryLedger ledger = new InventoryLedger();
+        ledger.load(1L, WAREHOUSE, 10);
+        ledger.load(2L, WAREHOUSE, 10);
+
+        ledger.recordCommitted(WAREHOUSE, lines(2L, 1));
+        ledger.recordCommitted(WAREHOUSE, lines(1L, 3));
+        ledger.recordCommitted(WAREHOUSE, lines(1L, 2));
+
+        List<InventoryLedger.Delta> deltas = ledger.drainJournal();
+        assertEquals(List.of(new InventoryLedger.Delta(1L, WAREHOUSE, 5), new InventoryLedger.Delta(2L, WAREHOUSE, 1)), deltas);
+        assertTrue(ledger.drainJournal().isEmpty());
+
+        ledger.restore(deltas);
+        assertEquals(deltas, ledger.drainJournal());
+    }
+
+    @Test
+    @DisplayName("Should never oversell a hot SKU under concurrent reservations")
+    void testNoOversellUnderContention() throws Exception {
+        InventoryLedger ledger = new InventoryLedger();
+        ledger.load(1L, WAREHOUSE, 1000);
+        AtomicInteger succeeded = new AtomicInteger();
+
+        runConcurrently(8, 500, () -> {
+            if (ledger.tryReserve(WAREHOUSE, lines(1L, 1)).isEmpty()) {
+                succeeded.incrementAndGet();
+            }
+        });
+
+        assertEquals(1000, succeeded.get());
+        assertEquals(0, ledger.available(1L, WAREHOUSE));
+    }
+
+    private void runConcurrently(int threads, int perThread, Runnable operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        operation.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    private SortedMap<Long, Integer> lines(Object... bookIdAndQuantity) {
+        SortedMap<Long, Integer> lines = new TreeMap<>();
+        for (int i = 0; i < bookIdAndQuantity.length; i += 2) {
+            lines.put((Long) bookIdAndQuantity[i], (Integer) bookIdAndQuantity[i + 1]);
+        }
+        return lines;
+    }
+}
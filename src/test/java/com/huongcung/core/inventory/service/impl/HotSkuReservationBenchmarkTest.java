@@ -0,0 +1,159 @@
+package com.huongcung.core.inventory.service.impl;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.service.StockAllocationService.ConsignmentPlan;
+import com.huongcung.core.inventory.service.StockReservationService;
+import com.huongcung.core.inventory.service.StockReservationService.StockRequest;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checkout throughput on a single hot SKU on MySQL: StockReservationServiceImpl, which holds the
+ * stock_levels row lock until the order transaction commits, versus LedgerStockReservationServiceImpl,
+ * which reserves in memory and writes the committed reservations behind every 200ms.
+ *
+ * Each order is one transaction that reserves one copy and inserts an order row, like checkout does.
+ *
+ * Tagged "benchmark", so it is not part of the unit test run; it needs a real MySQL and runs with the
+ * benchmark profile when BENCHMARK_MYSQL_URL is set. Point it at a scratch schema: stock_levels is
+ * created there if missing, e.g.
+ * BENCHMARK_MYSQL_URL="jdbc:mysql://localhost:3306/bench?user=root&password=secret" mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+@EnabledIfEnvironmentVariable(named = "BENCHMARK_MYSQL_URL", matches = ".+")
+@DisplayName("Hot SKU reservation benchmark (MySQL)")
+class HotSkuReservationBenchmarkTest {
+
+    private static final long WAREHOUSE_ID = 900_001L;
+    private static final long BOOK_ID = 900_001L;
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 250;
+
+    private final ApplicationEventPublisher eventPublisher = event -> { };
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getenv("BENCHMARK_MYSQL_URL"));
+        dataSource.setMaximumPoolSize(THREADS + 1);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_levels (warehouse_id BIGINT NOT NULL, book_id BIGINT NOT NULL, "
+                + "quantity INT NOT NULL, reserved_quantity INT NOT NULL, updated_at DATETIME(6), "
+                + "PRIMARY KEY (warehouse_id, book_id))");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_orders");
+        jdbcTemplate.execute("CREATE TABLE bench_orders (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "book_id BIGINT NOT NULL, quantity INT NOT NULL, created_at DATETIME(6) NOT NULL)");
+        resetStock();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM stock_levels WHERE warehouse_id = ? AND book_id = ?", WAREHOUSE_ID, BOOK_ID);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS bench_orders");
+        dataSource.close();
+    }
+
+    @Test
+    @DisplayName("Benchmark: orders/sec on one hot SKU, row lock per order vs in-memory ledger")
+    void benchmarkHotSku() throws Exception {
+        int orders = THREADS * ORDERS_PER_THREAD;
+
+        StockReservationServiceImpl rowLocking = new StockReservationServiceImpl(null, jdbcTemplate, eventPublisher);
+        double rowLockingRate = run(rowLocking);
+        assertEquals(orders, reservedQuantity());
+
+        resetStock();
+        LedgerStockReservationServiceImpl ledger = new LedgerStockReservationServiceImpl(null, jdbcTemplate, eventPublisher);
+        ledger.rehydrate();
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+        flusher.scheduleWithFixedDelay(ledger::flush, 200, 200, TimeUnit.MILLISECONDS);
+        double ledgerRate;
+        try {
+            ledgerRate = run(ledger);
+        } finally {
+            flusher.shutdown();
+            assertTrue(flusher.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        ledger.flush();
+        assertEquals(orders, reservedQuantity());
+
+        System.out.printf("Orders/sec on one hot SKU from %d threads - row lock per order: %.0f, in-memory ledger: %.0f%n",
+                THREADS, rowLockingRate, ledgerRate);
+        assertTrue(ledgerRate > rowLockingRate);
+    }
+
+    /**
+     * Place every order from all threads at once and return orders per second
+     */
+    private double run(StockReservationService service) throws Exception {
+        List<ConsignmentPlan> plan = List.of(new ConsignmentPlan(WAREHOUSE_ID, City.HANOI,
+                List.of(new StockRequest(BOOK_ID, "Hot title", 1))));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] workers = new Future<?>[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                workers[t] = executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            service.reserve(plan);
+                            jdbcTemplate.update("INSERT INTO bench_orders (book_id, quantity, created_at) VALUES (?, ?, ?)",
+                                    BOOK_ID, 1, Timestamp.valueOf(LocalDateTime.now()));
+                        });
+                    }
+                    return null;
+                });
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            return THREADS * ORDERS_PER_THREAD / seconds;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void resetStock() {
+        jdbcTemplate.update("DELETE FROM stock_levels WHERE warehouse_id = ? AND book_id = ?", WAREHOUSE_ID, BOOK_ID);
+        jdbcTemplate.update("INSERT INTO stock_levels (warehouse_id, book_id, quantity, reserved_quantity, updated_at) "
+                + "VALUES (?, ?, ?, 0, ?)", WAREHOUSE_ID, BOOK_ID, 1_000_000, Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    private int reservedQuantity() {
+        Integer reserved = jdbcTemplate.queryForObject(
+                "SELECT reserved_quantity FROM stock_levels WHERE warehouse_id = ? AND book_id = ?",
+                Integer.class, WAREHOUSE_ID, BOOK_ID);
+        return reserved != null ? reserved : 0;
+    }
+}
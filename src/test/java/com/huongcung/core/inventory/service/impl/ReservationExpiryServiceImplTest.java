@@ -0,0 +1,162 @@
+package com.huongcung.core.inventory.service.impl;
+
+import com.huongcung.core.inventory.enumeration.ReservationStatus;
+import com.huongcung.core.inventory.model.dto.ReservationLine;
+import com.huongcung.core.inventory.model.entity.StockReservationEntity;
+import com.huongcung.core.inventory.repository.StockReservationRepository;
+import com.huongcung.core.inventory.service.StockReservationService;
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.enumeration.PaymentMethod;
+import com.huongcung.core.order.event.CustomerOrdersChangedEvent;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReservationExpiryServiceImpl
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReservationExpiryService Unit Tests")
+class ReservationExpiryServiceImplTest {
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ReservationExpiryServiceImpl reservationExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reservationExpiryService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(reservationExpiryService, "releaseBatchSize", 500);
+        lenient().doAnswer(invocation -> {
+            Consumer<TransactionStatus> action = invocation.getArgument(0);
+            action.accept(mock(TransactionStatus.class));
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("Should cancel pending orders and release their stock grouped per warehouse")
+    void testRecoverReleasesExpiredPendingOrders() {
+        LocalDateTime expired = LocalDateTime.now().minusMinutes(5);
+        when(stockReservationRepository.findExpiryByOrder(ReservationStatus.ACTIVE)).thenReturn(List.of(
+                new Object[]{1L, expired},
+                new Object[]{2L, expired},
+                new Object[]{3L, expired}));
+        // Order 3 was paid meanwhile
+        when(orderRepository.lockIdsByStatus(anyCollection(), eq("PENDING"))).thenReturn(List.of(1L, 2L));
+        when(stockReservationRepository.findLinesByOrderIds(anyCollection(), eq(ReservationStatus.ACTIVE))).thenReturn(List.of(
+                new ReservationLine(10L, 1L, 100L, 7L, 2),
+                new ReservationLine(11L, 2L, 100L, 7L, 1),
+                new ReservationLine(12L, 2L, 200L, 8L, 4),
+                new ReservationLine(13L, 3L, 100L, 7L, 5)));
+
+        reservationExpiryService.recover();
+
+        verify(stockReservationService).release(7L, Map.of(100L, 3));
+        verify(stockReservationService).release(8L, Map.of(200L, 4));
+        verify(stockReservationRepository).updateStatus(eq(List.of(10L, 11L, 12L)), eq(ReservationStatus.RELEASED), any());
+        verify(stockReservationRepository).updateStatus(eq(List.of(13L)), eq(ReservationStatus.CONFIRMED), any());
+        verify(orderRepository).updateStatus(eq(Set.of(1L, 2L)), eq(OrderStatus.CANCELLED), any());
+        verify(eventPublisher).publishEvent(any(CustomerOrdersChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should release the stock of a COD order never booked for shipment")
+    @SuppressWarnings("unchecked")
+    void testReleaseUnbookedCodOrder() {
+        ReflectionTestUtils.setField(reservationExpiryService, "ttlMinutes", -1L);
+        when(orderRepository.lockIdsByStatus(List.of(5L), "PENDING")).thenReturn(List.of(5L));
+        when(stockReservationRepository.findLinesByOrderIds(List.of(5L), ReservationStatus.ACTIVE)).thenReturn(List.of(
+                new ReservationLine(20L, 5L, 100L, 7L, 2)));
+
+        reservationExpiryService.trackOrder(order(PaymentMethod.COD), List.of(
+                new StockReservationService.Reservation(7L, new TreeMap<>(Map.of(100L, 2)))));
+
+        ArgumentCaptor<List<StockReservationEntity>> rows = ArgumentCaptor.forClass(List.class);
+        verify(stockReservationRepository).saveAll(rows.capture());
+        assertEquals(ReservationStatus.ACTIVE, rows.getValue().get(0).getStatus());
+
+        assertEquals(1, reservationExpiryService.releaseExpired());
+        verify(stockReservationService).release(7L, Map.of(100L, 2));
+        verify(stockReservationRepository).updateStatus(eq(List.of(20L)), eq(ReservationStatus.RELEASED), any());
+        verify(orderRepository).updateStatus(eq(Set.of(5L)), eq(OrderStatus.CANCELLED), any());
+    }
+
+    @Test
+    @DisplayName("Should keep the stock of an order booked for shipment before its reservation expired")
+    void testKeepBookedOrder() {
+        ReflectionTestUtils.setField(reservationExpiryService, "ttlMinutes", -1L);
+        // The shipment stage moved the order to PROCESSING
+        when(orderRepository.lockIdsByStatus(List.of(5L), "PENDING")).thenReturn(List.of());
+        when(stockReservationRepository.findLinesByOrderIds(List.of(5L), ReservationStatus.ACTIVE)).thenReturn(List.of(
+                new ReservationLine(20L, 5L, 100L, 7L, 2)));
+
+        reservationExpiryService.trackOrder(order(PaymentMethod.COD), List.of(
+                new StockReservationService.Reservation(7L, new TreeMap<>(Map.of(100L, 2)))));
+
+        assertEquals(1, reservationExpiryService.releaseExpired());
+        verifyNoInteractions(stockReservationService);
+        verify(stockReservationRepository).updateStatus(eq(List.of(20L)), eq(ReservationStatus.CONFIRMED), any());
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should keep future expiries scheduled")
+    void testRecoverKeepsFutureExpiries() {
+        when(stockReservationRepository.findExpiryByOrder(ReservationStatus.ACTIVE)).thenReturn(
+                Collections.singletonList(new Object[]{1L, LocalDateTime.now().plusHours(1)}));
+
+        reservationExpiryService.recover();
+
+        assertEquals(0, reservationExpiryService.releaseExpired());
+        verifyNoInteractions(orderRepository, stockReservationService, transactionTemplate);
+    }
+
+    private OrderEntity order(PaymentMethod paymentMethod) {
+        OrderEntity order = new OrderEntity();
+        order.setId(5L);
+        order.setPaymentMethod(paymentMethod);
+        return order;
+    }
+}
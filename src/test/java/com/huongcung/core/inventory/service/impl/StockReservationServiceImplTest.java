@@ -0,0 +1,177 @@
+package com.huongcung.core.inventory.service.impl;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.core.inventory.exception.InsufficientStockException;
+import com.huongcung.core.inventory.model.entity.WarehouseEntity;
+import com.huongcung.core.inventory.repository.WarehouseRepository;
+import com.huongcung.core.inventory.event.StockAvailabilityChangedEvent;
+import com.huongcung.core.inventory.service.StockAllocationService.ConsignmentPlan;
+import com.huongcung.core.inventory.service.StockReservationService.Reservation;
+import com.huongcung.core.inventory.service.StockReservationService.StockRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for StockReservationServiceImpl
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StockReservationService Unit Tests")
+class StockReservationServiceImplTest {
+
+    @Mock
+    private WarehouseRepository warehouseRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private StockReservationServiceImpl stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        WarehouseEntity warehouse = new WarehouseEntity();
+        warehouse.setId(7L);
+        warehouse.setCode("WH-HN-001");
+        warehouse.setCity(City.HANOI);
+        lenient().when(warehouseRepository.findByCity(City.HANOI)).thenReturn(Collections.singletonList(warehouse));
+    }
+
+    @Test
+    @DisplayName("Should combine lines per book and update rows in book id order in one batch")
+    void testReserveCombinesAndOrdersLines() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[]{1, 1});
+
+        Reservation reservation = stockReservationService.reserve(City.HANOI, List.of(
+                new StockRequest(9L, "B", 1),
+                new StockRequest(3L, "A", 2),
+                new StockRequest(9L, "B", 4)));
+
+        assertEquals(7L, reservation.warehouseId());
+        assertEquals(Map.of(3L, 2, 9L, 5), reservation.quantities());
+
+        ArgumentCaptor<BatchPreparedStatementSetter> setterCaptor = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), setterCaptor.capture());
+        BatchPreparedStatementSetter setter = setterCaptor.getValue();
+        assertEquals(2, setter.getBatchSize());
+
+        PreparedStatement first = mock(PreparedStatement.class);
+        setter.setValues(first, 0);
+        verify(first).setLong(4, 3L);
+        verify(first).setInt(1, 2);
+
+        PreparedStatement second = mock(PreparedStatement.class);
+        setter.setValues(second, 1);
+        verify(second).setLong(4, 9L);
+        verify(second).setInt(1, 5);
+    }
+
+    @Test
+    @DisplayName("Should reserve every consignment of an allocation in one batch, in warehouse then book id order")
+    void testReserveAllocationAcrossWarehouses() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[]{1, 1, 1});
+
+        List<Reservation> reservations = stockReservationService.reserve(List.of(
+                new ConsignmentPlan(9L, City.HCMC, List.of(new StockRequest(1L, "A", 1))),
+                new ConsignmentPlan(7L, City.HANOI, List.of(new StockRequest(5L, "C", 3), new StockRequest(2L, "B", 2)))));
+
+        assertEquals(2, reservations.size());
+        assertEquals(7L, reservations.get(0).warehouseId());
+        assertEquals(Map.of(2L, 2, 5L, 3), reservations.get(0).quantities());
+        assertEquals(9L, reservations.get(1).warehouseId());
+        assertEquals(Map.of(1L, 1), reservations.get(1).quantities());
+
+        ArgumentCaptor<BatchPreparedStatementSetter> setterCaptor = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), setterCaptor.capture());
+        assertEquals(3, setterCaptor.getValue().getBatchSize());
+        long[][] expected = {{7L, 2L}, {7L, 5L}, {9L, 1L}};
+        for (int i = 0; i < expected.length; i++) {
+            PreparedStatement ps = mock(PreparedStatement.class);
+            setterCaptor.getValue().setValues(ps, i);
+            verify(ps).setLong(3, expected[i][0]);
+            verify(ps).setLong(4, expected[i][1]);
+        }
+
+        ArgumentCaptor<StockAvailabilityChangedEvent> eventCaptor = ArgumentCaptor.forClass(StockAvailabilityChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(eventCaptor.capture());
+        assertEquals(7L, eventCaptor.getAllValues().get(0).getWarehouseId());
+        assertEquals(Map.of(2L, -2, 5L, -3), eventCaptor.getAllValues().get(0).getDeltas());
+    }
+
+    @Test
+    @DisplayName("Should report every short line at once")
+    void testReserveReportsAllShortages() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[]{0, 1, 0});
+        ResultSet row = mock(ResultSet.class);
+        when(row.getLong(1)).thenReturn(1L);
+        when(row.getInt(2)).thenReturn(2);
+        doAnswer(invocation -> {
+            ((RowCallbackHandler) invocation.getArgument(1)).processRow(row);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+
+        InsufficientStockException exception = assertThrows(InsufficientStockException.class, () ->
+                stockReservationService.reserve(City.HANOI, List.of(
+                        new StockRequest(1L, "Truyện Kiều", 5),
+                        new StockRequest(2L, "Số Đỏ", 1),
+                        new StockRequest(3L, "Tắt Đèn", 1))));
+
+        assertEquals(2, exception.getShortages().size());
+        assertEquals(1L, exception.getShortages().get(0).bookId());
+        assertEquals(2, exception.getShortages().get(0).available());
+        assertEquals(3L, exception.getShortages().get(1).bookId());
+        assertEquals(0, exception.getShortages().get(1).available());
+        assertTrue(exception.getMessage().contains("Truyện Kiều"));
+        assertTrue(exception.getMessage().contains("Tắt Đèn"));
+    }
+
+    @Test
+    @DisplayName("Should fail when the city has no warehouse")
+    void testReserveWithoutWarehouse() {
+        when(warehouseRepository.findByCity(City.DANANG)).thenReturn(Collections.emptyList());
+
+        assertThrows(IllegalStateException.class, () ->
+                stockReservationService.reserve(City.DANANG, List.of(new StockRequest(1L, "A", 1))));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should release stock per book in one batch")
+    void testReleaseBatchesLines() throws Exception {
+        stockReservationService.release(7L, Map.of(9L, 1, 3L, 2));
+
+        ArgumentCaptor<String> sqlCaptor = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<BatchPreparedStatementSetter> setterCaptor = ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(sqlCaptor.capture(), setterCaptor.capture());
+        assertTrue(sqlCaptor.getValue().contains("reserved_quantity - ?"));
+        assertEquals(2, setterCaptor.getValue().getBatchSize());
+
+        PreparedStatement first = mock(PreparedStatement.class);
+        setterCaptor.getValue().setValues(first, 0);
+        verify(first).setInt(1, 2);
+        verify(first).setLong(3, 7L);
+        verify(first).setLong(4, 3L);
+    }
+}
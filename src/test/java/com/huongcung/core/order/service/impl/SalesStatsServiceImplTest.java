@@ -0,0 +1,124 @@
+package com.huongcung.core.order.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SalesStatsServiceImpl
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SalesStatsServiceImpl Unit Tests")
+class SalesStatsServiceImplTest {
+
+    private static final String BUILT_SQL = "SELECT COUNT(*) FROM order_status_rollups";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement lock;
+
+    @Mock
+    private PreparedStatement unlock;
+
+    @Mock
+    private ResultSet lockResult;
+
+    private SalesStatsServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        service = new SalesStatsServiceImpl(jdbcTemplate, transactionTemplate);
+        ReflectionTestUtils.setField(service, "daysInMemory", 31);
+        ReflectionTestUtils.setField(service, "bookDaysInMemory", 7);
+        ReflectionTestUtils.setField(service, "rebuildLockTimeoutSeconds", 300);
+
+        lenient().doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation ->
+                ((ConnectionCallback<Object>) invocation.getArgument(0)).doInConnection(connection));
+        lenient().when(connection.prepareStatement("SELECT GET_LOCK(?, ?)")).thenReturn(lock);
+        lenient().when(connection.prepareStatement("SELECT RELEASE_LOCK(?)")).thenReturn(unlock);
+        lenient().when(lock.executeQuery()).thenReturn(lockResult);
+        lenient().when(unlock.executeQuery()).thenReturn(mock(ResultSet.class));
+        lenient().when(lockResult.next()).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Should rebuild empty rollups while holding the rebuild lock")
+    void testRebuildUnderLock() throws Exception {
+        when(jdbcTemplate.queryForObject(BUILT_SQL, Integer.class)).thenReturn(0);
+        when(lockResult.getInt(1)).thenReturn(1);
+
+        service.initialize();
+
+        InOrder inOrder = inOrder(lock, jdbcTemplate, unlock);
+        inOrder.verify(lock).executeQuery();
+        inOrder.verify(jdbcTemplate).update("DELETE FROM order_status_rollups");
+        inOrder.verify(unlock).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Should not rebuild rollups another instance built while it waited for the lock")
+    void testSkipRebuildByOtherInstance() throws Exception {
+        when(jdbcTemplate.queryForObject(BUILT_SQL, Integer.class)).thenReturn(0, 4);
+        when(lockResult.getInt(1)).thenReturn(1);
+
+        service.initialize();
+
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(unlock).executeQuery();
+        verify(jdbcTemplate).query(eq("SELECT status, order_count FROM order_status_rollups"),
+                any(RowCallbackHandler.class));
+    }
+
+    @Test
+    @DisplayName("Should not rebuild without the lock")
+    void testLockTimeout() throws Exception {
+        when(jdbcTemplate.queryForObject(BUILT_SQL, Integer.class)).thenReturn(0);
+        when(lockResult.getInt(1)).thenReturn(0);
+
+        service.initialize();
+
+        verify(jdbcTemplate, never()).update(anyString());
+        verify(unlock, never()).executeQuery();
+    }
+
+    @Test
+    @DisplayName("Should only reload when the rollups are built")
+    void testReloadBuiltRollups() {
+        when(jdbcTemplate.queryForObject(BUILT_SQL, Integer.class)).thenReturn(4);
+
+        service.initialize();
+
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+        verify(jdbcTemplate, never()).update(anyString());
+    }
+}
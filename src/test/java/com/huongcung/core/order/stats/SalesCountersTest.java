@@ -0,0 +1,147 @@
+package com.huongcung.core.order.stats;
+
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.model.dto.BookSales;
+import com.huongcung.core.order.model.dto.DailySales;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests and a contention check for SalesCounters
+ */
+@DisplayName("SalesCounters Unit Tests")
+class SalesCountersTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+    @Test
+    @DisplayName("Should count placed orders per day and book, and orders per status")
+    void testRecord() {
+        SalesCounters counters = loaded(new SalesCounters());
+
+        counters.recordPlaced(TODAY, 250_000, Map.of(10L, 2, 11L, 1));
+        counters.recordPlaced(TODAY, 100_000, Map.of(10L, 1));
+        counters.recordPlaced(TODAY.minusDays(1), 50_000, Map.of(12L, 5));
+        counters.recordStatusChange(OrderStatus.PENDING, OrderStatus.CANCELLED, 1);
+
+        assertEquals(new DailySales(TODAY, 2, 350_000), counters.getDailySales(TODAY));
+        assertEquals(new DailySales(TODAY.minusDays(2), 0, 0), counters.getDailySales(TODAY.minusDays(2)));
+        assertEquals(2L, counters.getStatusCounts().get(OrderStatus.PENDING));
+        assertEquals(1L, counters.getStatusCounts().get(OrderStatus.CANCELLED));
+        assertEquals(3, counters.getUnits(10L, TODAY.minusDays(6), TODAY));
+        assertEquals(List.of(new BookSales(12L, 5), new BookSales(10L, 3)),
+                counters.getTopBooks(TODAY.minusDays(6), TODAY, 2));
+        assertEquals(List.of(new BookSales(10L, 3), new BookSales(11L, 1)),
+                counters.getTopBooks(TODAY, TODAY, 10));
+    }
+
+    @Test
+    @DisplayName("Should keep the totals across a drain and a reload of the written rollups")
+    void testDrainAndLoad() {
+        SalesCounters counters = loaded(new SalesCounters());
+        counters.recordPlaced(TODAY, 250_000, Map.of(10L, 2));
+
+        SalesCounters.Delta delta = counters.drain();
+        assertFalse(delta.isEmpty());
+        assertEquals(1, delta.statuses()[OrderStatus.PENDING.ordinal()]);
+        assertArrayEquals(new long[]{1, 250_000}, delta.days().get(TODAY));
+        assertEquals(2L, delta.bookDays().get(new SalesCounters.BookDay(10L, TODAY)));
+        assertTrue(counters.drain().isEmpty());
+        assertEquals(new DailySales(TODAY, 1, 250_000), counters.getDailySales(TODAY));
+
+        // Rollups after this flush, including an order flushed by another instance
+        counters.recordPlaced(TODAY, 100_000, Map.of(10L, 1));
+        counters.load(Map.of(OrderStatus.PENDING, 2L),
+                Map.of(TODAY, new DailySales(TODAY, 2, 300_000)),
+                Map.of(new SalesCounters.BookDay(10L, TODAY), 3L),
+                TODAY.minusDays(30), TODAY.minusDays(6));
+
+        assertEquals(new DailySales(TODAY, 3, 400_000), counters.getDailySales(TODAY));
+        assertEquals(3L, counters.getStatusCounts().get(OrderStatus.PENDING));
+        assertEquals(4, counters.getUnits(10L, TODAY, TODAY));
+    }
+
+    @Test
+    @DisplayName("Should put back changes that could not be written")
+    void testRestore() {
+        SalesCounters counters = loaded(new SalesCounters());
+        counters.recordPlaced(TODAY, 250_000, Map.of(10L, 2));
+
+        SalesCounters.Delta delta = counters.drain();
+        counters.restore(delta);
+
+        assertEquals(new DailySales(TODAY, 1, 250_000), counters.getDailySales(TODAY));
+        SalesCounters.Delta retried = counters.drain();
+        assertArrayEquals(new long[]{1, 250_000}, retried.days().get(TODAY));
+        assertEquals(2L, retried.bookDays().get(new SalesCounters.BookDay(10L, TODAY)));
+    }
+
+    @Test
+    @DisplayName("Should drop days before the loaded windows")
+    void testWindows() {
+        SalesCounters counters = new SalesCounters();
+        assertFalse(counters.coversDay(TODAY));
+
+        counters.recordPlaced(TODAY.minusDays(40), 10_000, Map.of(10L, 1));
+        counters.recordPlaced(TODAY.minusDays(10), 20_000, Map.of(10L, 1));
+        loaded(counters);
+
+        assertTrue(counters.coversDay(TODAY.minusDays(30)));
+        assertFalse(counters.coversDay(TODAY.minusDays(31)));
+        assertTrue(counters.coversBookDay(TODAY.minusDays(6)));
+        assertFalse(counters.coversBookDay(TODAY.minusDays(7)));
+        assertEquals(0, counters.bookDayCount());
+        // Not flushed yet, so still counted on top of the empty rollups
+        assertEquals(1, counters.getDailySales(TODAY.minusDays(10)).orderCount());
+    }
+
+    @Test
+    @DisplayName("Should not lose increments from concurrent order events while draining")
+    void testConcurrentRecording() throws InterruptedException {
+        SalesCounters counters = loaded(new SalesCounters());
+        int threads = 8;
+        int ordersPerThread = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            long bookId = t % 4;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ordersPerThread; i++) {
+                    counters.recordPlaced(TODAY, 1_000, Map.of(bookId, 1));
+                }
+                return null;
+            });
+        }
+
+        start.countDown();
+        long flushedOrders = 0;
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.MILLISECONDS)) {
+            long[] day = counters.drain().days().get(TODAY);
+            flushedOrders += day != null ? day[0] : 0;
+        }
+        long[] day = counters.drain().days().get(TODAY);
+        flushedOrders += day != null ? day[0] : 0;
+
+        assertEquals(threads * ordersPerThread, flushedOrders);
+        assertEquals(threads * ordersPerThread, counters.getDailySales(TODAY).orderCount());
+        assertEquals(threads * ordersPerThread, counters.getUnits(0L, TODAY, TODAY) + counters.getUnits(1L, TODAY, TODAY)
+                + counters.getUnits(2L, TODAY, TODAY) + counters.getUnits(3L, TODAY, TODAY));
+    }
+
+    private static SalesCounters loaded(SalesCounters counters) {
+        counters.load(Map.of(), Map.of(), Map.of(), TODAY.minusDays(30), TODAY.minusDays(6));
+        return counters;
+    }
+}
@@ -0,0 +1,151 @@
+package com.huongcung.core.product.repository;
+
+import com.huongcung.businessmanagement.admin.model.BookDetailDTO;
+import com.huongcung.businessmanagement.admin.model.BookListDTO;
+import com.huongcung.core.product.model.entity.AbstractBookEntity;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.MappingMetamodel;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query budget checks for the admin book list and detail fetch plans
+ * Builds the Hibernate mapping without a database and derives the number of queries needed to
+ * load books and read the associations their DTOs map, from the entity graph and batch sizes.
+ * An association added to a DTO, or a lost graph node or batch size, fails here instead of
+ * showing up as one query per book.
+ */
+@DisplayName("Book fetch plan query budget")
+class BookFetchPlanTest {
+
+    private static SessionFactoryImplementor sessionFactory;
+
+    @BeforeAll
+    static void buildMapping() throws ClassNotFoundException {
+        MetadataSources sources = new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", MySQLDialect.class.getName())
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .build());
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition definition : scanner.findCandidateComponents("com.huongcung.core")) {
+            sources.addAnnotatedClass(Class.forName(definition.getBeanClassName()));
+        }
+        SessionFactory factory = sources.buildMetadata().buildSessionFactory();
+        sessionFactory = factory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    @AfterAll
+    static void close() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @DisplayName("Should map the admin list from basic attributes only, so a page is one query")
+    void testListPlan() {
+        List<Attribute<?, ?>> associations = mappedAssociations(BookListDTO.class);
+
+        assertTrue(associations.isEmpty(), "BookListDTO maps associations: " + names(associations));
+        assertEquals(1, queries(50, associations, Set.of()));
+    }
+
+    @Test
+    @DisplayName("Should load a book with its detail associations in a constant number of queries")
+    void testDetailPlan() {
+        List<Attribute<?, ?>> associations = mappedAssociations(BookDetailDTO.class);
+        Set<String> graph = detailGraph();
+
+        assertEquals(Set.of("authors", "translators", "publisher", "genres", "images"),
+                Set.copyOf(names(associations)));
+        assertTrue(graph.contains("publisher"));
+        // At most one collection in the graph, more would multiply the joined rows
+        assertEquals(1, associations.stream()
+                .filter(attribute -> attribute.isCollection() && graph.contains(attribute.getName()))
+                .count());
+        assertEquals(4, queries(1, associations, graph));
+    }
+
+    @Test
+    @DisplayName("Should read the associations of a page of 50 books in one batch each")
+    void testPagePlan() {
+        List<Attribute<?, ?>> associations = mappedAssociations(BookDetailDTO.class);
+
+        int page = queries(50, associations, Set.of());
+
+        assertEquals(1 + associations.size(), page);
+        assertEquals(queries(10, associations, Set.of()), page);
+    }
+
+    /**
+     * Entity attributes that are associations and have a property of the same name in the DTO
+     */
+    private static List<Attribute<?, ?>> mappedAssociations(Class<?> dtoClass) {
+        EntityType<AbstractBookEntity> book = sessionFactory.getJpaMetamodel().entity(AbstractBookEntity.class);
+        Set<String> properties = Set.of(dtoClass.getDeclaredFields()).stream()
+                .map(Field::getName)
+                .collect(Collectors.toSet());
+        List<Attribute<?, ?>> associations = new ArrayList<>();
+        for (Attribute<? super AbstractBookEntity, ?> attribute : book.getAttributes()) {
+            if (attribute.isAssociation() && properties.contains(attribute.getName())) {
+                associations.add(attribute);
+            }
+        }
+        return associations;
+    }
+
+    private static Set<String> detailGraph() {
+        try (EntityManager entityManager = sessionFactory.createEntityManager()) {
+            EntityGraph<?> graph = entityManager.getEntityGraph(AbstractBookEntity.DETAIL_GRAPH);
+            return graph.getAttributeNodes().stream()
+                    .map(node -> node.getAttributeName())
+                    .collect(Collectors.toSet());
+        }
+    }
+
+    /**
+     * Queries to load a number of books and initialize the given associations
+     * One for the books, plus one per batch for every association the graph does not fetch.
+     */
+    private static int queries(int books, List<Attribute<?, ?>> associations, Set<String> graph) {
+        MappingMetamodel mapping = sessionFactory.getMappingMetamodel();
+        int queries = 1;
+        for (Attribute<?, ?> attribute : associations) {
+            if (graph.contains(attribute.getName())) {
+                continue;
+            }
+            int batchSize = attribute.isCollection()
+                    ? mapping.getCollectionDescriptor(AbstractBookEntity.class.getName() + "." + attribute.getName())
+                        .getBatchSize()
+                    : mapping.getEntityDescriptor(attribute.getJavaType()).getBatchSize();
+            queries += (books + Math.max(batchSize, 1) - 1) / Math.max(batchSize, 1);
+        }
+        return queries;
+    }
+
+    private static List<String> names(List<Attribute<?, ?>> attributes) {
+        return attributes.stream().map(Attribute::getName).collect(Collectors.toList());
+    }
+}
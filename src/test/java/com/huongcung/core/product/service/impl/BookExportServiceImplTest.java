@@ -0,0 +1,153 @@
+package com.huongcung.core.product.service.impl;
+
+import com.huongcung.core.common.enumeration.Language;
+import com.huongcung.core.product.enumeration.CoverType;
+import com.huongcung.core.product.model.dto.BookExportLine;
+import com.huongcung.core.product.model.entity.EbookEntity;
+import com.huongcung.core.product.model.entity.PhysicalBookEntity;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BookExportServiceImpl
+ * Queries are mocked without recording invocations, so a catalog of any size can be scrolled.
+ */
+@DisplayName("BookExportServiceImpl Unit Tests")
+class BookExportServiceImplTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2026, 10, 19, 9, 30);
+
+    private final AtomicInteger windowQueries = new AtomicInteger();
+    private final AtomicInteger largestWindow = new AtomicInteger();
+    private StatelessSession session;
+    private Transaction transaction;
+    private BookExportServiceImpl bookExportService;
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class, withSettings().stubOnly());
+        SessionFactory sessionFactory = mock(SessionFactory.class, withSettings().stubOnly());
+        session = mock(StatelessSession.class);
+        transaction = mock(Transaction.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.openStatelessSession()).thenReturn(session);
+        when(session.beginTransaction()).thenReturn(transaction);
+
+        // Each book has one author named after it, ebooks a translator, and physical books stock
+        windowQuery(BookExportServiceImpl.AUTHORS_HQL, id -> new Object[]{id, "Author " + id});
+        windowQuery(BookExportServiceImpl.TRANSLATORS_HQL, id -> id % 2 == 0 ? new Object[]{id, "Translator"} : null);
+        windowQuery(BookExportServiceImpl.GENRES_HQL, id -> null);
+        windowQuery(BookExportServiceImpl.STOCK_HQL, id -> id % 2 == 1 ? new Object[]{id, 7L, 2L} : null);
+
+        bookExportService = new BookExportServiceImpl(entityManagerFactory);
+        ReflectionTestUtils.setField(bookExportService, "fetchSize", 1000);
+        ReflectionTestUtils.setField(bookExportService, "windowSize", 500);
+    }
+
+    @Test
+    @DisplayName("Should join each book with its contributors, price and stock")
+    void testStreamBooks() {
+        scroll(3);
+        List<BookExportLine> lines = new ArrayList<>();
+
+        assertEquals(3, bookExportService.streamBooks(lines::add));
+
+        BookExportLine physical = lines.get(0);
+        assertEquals(new BookExportLine(1L, "B1", "Book 1", "PHYSICAL", "VIETNAMESE", LocalDate.of(2020, 1, 1), 200,
+                1, true, "NXB Trẻ", List.of("Author 1"), List.of(), List.of(), new BigDecimal("89000.00"),
+                "isbn-1", "PAPERBACK", null, 7, 2, CREATED_AT, CREATED_AT), physical);
+        BookExportLine ebook = lines.get(1);
+        assertEquals("EBOOK", ebook.bookType());
+        assertEquals(new BigDecimal("49000.00"), ebook.currentPrice());
+        assertEquals("EPUB", ebook.fileFormat());
+        assertEquals(List.of("Translator"), ebook.translators());
+        assertEquals(0, ebook.stockQuantity());
+        assertEquals(4, windowQueries.get());
+        verify(transaction).rollback();
+        verify(session).close();
+    }
+
+    @Test
+    @DisplayName("Should stream a large catalog in bounded windows")
+    void testLargeExport() {
+        int books = 5_250;
+        scroll(books);
+        AtomicLong authors = new AtomicLong();
+
+        long count = bookExportService.streamBooks(line -> authors.addAndGet(line.authors().size()));
+
+        assertEquals(books, count);
+        assertEquals(books, authors.get());
+        // Ten full windows and a partial one, each joined by four queries
+        assertEquals(4 * 11, windowQueries.get());
+        assertEquals(500, largestWindow.get());
+        verify(transaction).rollback();
+        verify(session).close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void scroll(int books) {
+        SelectionQuery<Object[]> query = mock(SelectionQuery.class, withSettings().stubOnly().defaultAnswer(RETURNS_SELF));
+        ScrollableResults<Object[]> results = mock(ScrollableResults.class, withSettings().stubOnly());
+        AtomicLong position = new AtomicLong();
+        when(results.next()).thenAnswer(invocation -> position.incrementAndGet() <= books);
+        when(results.get()).thenAnswer(invocation -> book(position.get()));
+        doReturn(results).when(query).scroll(ScrollMode.FORWARD_ONLY);
+        when(session.createSelectionQuery(BookExportServiceImpl.BOOKS_HQL, Object[].class)).thenReturn(query);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void windowQuery(String hql, Function<Long, Object[]> rowOf) {
+        SelectionQuery<Object[]> query = mock(SelectionQuery.class, withSettings().stubOnly().defaultAnswer(RETURNS_SELF));
+        AtomicReference<List<Long>> ids = new AtomicReference<>();
+        when(query.setParameter(eq("ids"), any())).thenAnswer(invocation -> {
+            ids.set(invocation.getArgument(1));
+            return query;
+        });
+        when(query.getResultList()).thenAnswer(invocation -> {
+            windowQueries.incrementAndGet();
+            largestWindow.accumulateAndGet(ids.get().size(), Math::max);
+            List<Object[]> rows = new ArrayList<>();
+            for (Long id : ids.get()) {
+                Object[] row = rowOf.apply(id);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        });
+        when(session.createSelectionQuery(hql, Object[].class)).thenReturn(query);
+    }
+
+    private static Object[] book(long id) {
+        boolean ebook = id % 2 == 0;
+        return new Object[]{id, "B" + id, "Book " + id, ebook ? EbookEntity.class : PhysicalBookEntity.class,
+                Language.VIETNAMESE, LocalDate.of(2020, 1, 1), 200, 1, true, "NXB Trẻ",
+                ebook ? null : new BigDecimal("89000.00"), ebook ? new BigDecimal("49000.00") : null,
+                ebook ? null : "isbn-" + id, ebook ? null : CoverType.PAPERBACK, ebook ? "EPUB" : null,
+                CREATED_AT, CREATED_AT};
+    }
+}
@@ -150,7 +150,12 @@ class BookSearchDocumentTest {
             false,
             4.5,
             25,
-            now
+            now,
+            now,
+            "BK001",
+            "PHYSICAL",
+            true,
+            "test title"
         );
         
         assertEquals("1", doc.getId());
@@ -160,6 +165,8 @@ class BookSearchDocumentTest {
         assertEquals("PHYSICAL", doc.getFormat());
         assertTrue(doc.getAvailableInHanoi());
         assertFalse(doc.getAvailableInDanang());
+        assertEquals("BK001", doc.getCode());
+        assertTrue(doc.getActive());
     }
     
     @Test
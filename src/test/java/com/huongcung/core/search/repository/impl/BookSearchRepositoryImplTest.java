@@ -0,0 +1,88 @@
+package com.huongcung.core.search.repository.impl;
+
+import com.huongcung.core.search.config.SolrConfig;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.params.SolrParams;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BookSearchRepositoryImpl
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookSearchRepositoryImpl Unit Tests")
+class BookSearchRepositoryImplTest {
+
+    @Mock
+    private SolrConfig solrConfig;
+
+    @Mock
+    private SolrClient solrClient;
+
+    @InjectMocks
+    private BookSearchRepositoryImpl bookSearchRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookSearchRepository, "solrClient", solrClient);
+        lenient().when(solrConfig.getCore()).thenReturn("books");
+    }
+
+    @Test
+    @DisplayName("Should only ask for suggestions from active books")
+    void testSuggestionsExcludeInactiveBooks() throws Exception {
+        when(solrClient.query(eq("books"), any(SolrParams.class))).thenReturn(new QueryResponse());
+
+        bookSearchRepository.getSuggestions("nha gia", 10);
+
+        ArgumentCaptor<SolrParams> params = ArgumentCaptor.forClass(SolrParams.class);
+        verify(solrClient).query(eq("books"), params.capture());
+        assertEquals("/suggest", params.getValue().get("qt"));
+        assertEquals("nha gia", params.getValue().get("q"));
+        assertEquals("true", params.getValue().get("suggest.cfq"));
+    }
+
+    @Test
+    @DisplayName("Should build the suggester with the active flag as its context")
+    void testSuggesterFiltersOnActive() throws Exception {
+        Map<String, String> suggester = new HashMap<>();
+        try (InputStream config = new ClassPathResource("solr/books/solrconfig.xml").getInputStream()) {
+            NodeList components = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(config)
+                    .getElementsByTagName("searchComponent");
+            for (int i = 0; i < components.getLength(); i++) {
+                Element component = (Element) components.item(i);
+                if ("suggest".equals(component.getAttribute("name"))) {
+                    NodeList settings = component.getElementsByTagName("*");
+                    for (int j = 0; j < settings.getLength(); j++) {
+                        Element setting = (Element) settings.item(j);
+                        suggester.put(setting.getAttribute("name"), setting.getTextContent().trim());
+                    }
+                }
+            }
+        }
+
+        // Context filter queries are only supported by the infix lookups
+        assertTrue(suggester.get("lookupImpl").endsWith("InfixLookupFactory"));
+        assertEquals("active", suggester.get("contextField"));
+    }
+}
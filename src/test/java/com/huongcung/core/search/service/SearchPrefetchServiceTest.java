@@ -0,0 +1,120 @@
+package com.huongcung.core.search.service;
+
+import com.huongcung.core.search.model.dto.PaginationInfo;
+import com.huongcung.core.search.model.dto.SearchRequest;
+import com.huongcung.core.search.model.dto.SearchResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SearchPrefetchService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SearchPrefetchService Unit Tests")
+class SearchPrefetchServiceTest {
+
+    @Mock
+    private SearchService searchService;
+
+    private SearchPerformanceMonitor performanceMonitor;
+    private SearchPrefetchService prefetchService;
+
+    @BeforeEach
+    void setUp() {
+        performanceMonitor = new SearchPerformanceMonitor();
+        // Run prefetches inline so the test is deterministic
+        prefetchService = new SearchPrefetchService(searchService, new ConcurrentMapCacheManager("searchResults"),
+                performanceMonitor, Runnable::run);
+        ReflectionTestUtils.setField(prefetchService, "prefetchEnabled", true);
+        ReflectionTestUtils.setField(prefetchService, "minAdvanceRatio", 0.5);
+        ReflectionTestUtils.setField(prefetchService, "warmupRequests", 2);
+        ReflectionTestUtils.setField(prefetchService, "maxTrackedQueries", 100);
+    }
+
+    @Test
+    @DisplayName("Should prefetch the next page and count a hit when it is served")
+    void testPrefetchNextPageAndRecordHit() {
+        SearchResponse page2 = response(true);
+        when(searchService.searchBooks(argThat(r -> r != null && r.getPage() == 2))).thenReturn(page2);
+
+        prefetchService.onPageServed(request(1), response(true));
+
+        verify(searchService, times(1)).searchBooks(any(SearchRequest.class));
+        assertEquals(1, performanceMonitor.getPrefetchIssuedCount());
+
+        prefetchService.onPageServed(request(2), page2);
+
+        assertEquals(1, performanceMonitor.getPrefetchHitCount());
+        assertEquals(1.0, performanceMonitor.getPrefetchHitRate());
+    }
+
+    @Test
+    @DisplayName("Should not prefetch past the last page")
+    void testNoPrefetchOnLastPage() {
+        prefetchService.onPageServed(request(1), response(false));
+
+        verifyNoInteractions(searchService);
+        assertEquals(0, performanceMonitor.getPrefetchIssuedCount());
+    }
+
+    @Test
+    @DisplayName("Should stop prefetching when shoppers do not page forward")
+    void testAdaptivePolicySkipsWhenAdvanceRatioLow() {
+        when(searchService.searchBooks(any(SearchRequest.class))).thenReturn(response(true));
+
+        // Different queries, always page 1: advance ratio stays at zero
+        for (int i = 0; i < 5; i++) {
+            SearchRequest request = request(1);
+            request.setQ("query-" + i);
+            prefetchService.onPageServed(request, response(true));
+        }
+
+        assertEquals(0.0, prefetchService.getAdvanceRatio());
+        assertTrue(performanceMonitor.getPrefetchSkippedCount() > 0);
+    }
+
+    @Test
+    @DisplayName("Should do nothing when prefetching is disabled")
+    void testDisabled() {
+        ReflectionTestUtils.setField(prefetchService, "prefetchEnabled", false);
+
+        prefetchService.onPageServed(request(1), response(true));
+
+        verifyNoInteractions(searchService);
+    }
+
+    private SearchRequest request(int page) {
+        return SearchRequest.builder()
+                .q("truyện kiều")
+                .page(page)
+                .size(20)
+                .build();
+    }
+
+    private SearchResponse response(boolean hasNext) {
+        return SearchResponse.builder()
+                .books(Collections.emptyList())
+                .pagination(PaginationInfo.builder()
+                        .currentPage(1)
+                        .pageSize(20)
+                        .totalResults(100L)
+                        .hasNext(hasNext)
+                        .hasPrevious(false)
+                        .build())
+                .fallbackUsed(false)
+                .build();
+    }
+}
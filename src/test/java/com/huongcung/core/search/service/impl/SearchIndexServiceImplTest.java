@@ -10,6 +10,7 @@ import com.huongcung.core.product.model.entity.PhysicalBookEntity;
 import com.huongcung.core.product.repository.AbstractBookRepository;
 import com.huongcung.core.search.model.entity.BookSearchDocument;
 import com.huongcung.core.search.repository.BookSearchRepository;
+import com.huongcung.core.search.service.CatalogVersionTracker;
 import com.huongcung.core.search.service.SearchIndexService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -45,6 +46,9 @@ class SearchIndexServiceImplTest {
     @Mock
     private AbstractBookRepository abstractBookRepository;
 
+    @Mock
+    private CatalogVersionTracker catalogVersionTracker;
+
     @InjectMocks
     private SearchIndexServiceImpl searchIndexService;
 
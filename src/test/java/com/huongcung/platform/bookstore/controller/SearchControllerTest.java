@@ -4,10 +4,14 @@ import com.huongcung.core.search.model.dto.PaginationInfo;
 import com.huongcung.core.search.model.dto.SearchFacet;
 import com.huongcung.core.search.model.dto.SearchRequest;
 import com.huongcung.core.search.model.dto.SearchResponse;
+import com.huongcung.core.search.service.CatalogVersionTracker;
+import com.huongcung.core.search.service.SearchPrefetchService;
 import com.huongcung.core.search.service.SearchService;
 import com.huongcung.platform.bookstore.model.BookData;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.platform.configuration.HttpCacheConfig;
 import com.huongcung.platform.controller.SearchController;
+import com.huongcung.platform.helper.HttpCacheHelper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +44,18 @@ class SearchControllerTest {
     @MockBean
     private SearchService searchService;
 
+    @MockBean
+    private SearchPrefetchService searchPrefetchService;
+
+    @MockBean
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @MockBean
+    private HttpCacheHelper httpCacheHelper;
+
+    @MockBean
+    private HttpCacheConfig httpCacheConfig;
+
     @Autowired
     private ObjectMapper objectMapper;
 
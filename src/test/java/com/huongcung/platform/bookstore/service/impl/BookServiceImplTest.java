@@ -0,0 +1,98 @@
+package com.huongcung.platform.bookstore.service.impl;
+
+import com.huongcung.core.product.model.dto.AbstractBookDTO;
+import com.huongcung.core.product.service.AbstractBookService;
+import com.huongcung.platform.bookstore.mapper.BookViewMapper;
+import com.huongcung.platform.bookstore.model.BookData;
+import com.huongcung.platform.bookstore.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for BookServiceImpl keyset listing and streaming export
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BookService Unit Tests")
+class BookServiceImplTest {
+
+    @Mock
+    private AbstractBookService abstractBookService;
+
+    @Mock
+    private BookViewMapper bookViewMapper;
+
+    @InjectMocks
+    private BookServiceImpl bookService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookService, "exportBatchSize", 2);
+        lenient().when(bookViewMapper.toBookData(any(AbstractBookDTO.class))).thenAnswer(invocation -> {
+            BookData data = new BookData();
+            data.setCode(((AbstractBookDTO) invocation.getArgument(0)).getCode());
+            return data;
+        });
+    }
+
+    @Test
+    @DisplayName("Should return a page with the next cursor when more books exist")
+    void testGetBooksHasNext() {
+        when(abstractBookService.findPageAfterCode(isNull(), eq(3))).thenReturn(books("BK001", "BK002", "BK003"));
+
+        BookService.BookSlice slice = bookService.getBooks(null, 2);
+
+        assertEquals(2, slice.books().size());
+        assertTrue(slice.hasNext());
+        assertEquals("BK002", slice.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should return the last page without a cursor")
+    void testGetBooksLastPage() {
+        when(abstractBookService.findPageAfterCode("BK002", 3)).thenReturn(books("BK003"));
+
+        BookService.BookSlice slice = bookService.getBooks("BK002", 2);
+
+        assertEquals(1, slice.books().size());
+        assertFalse(slice.hasNext());
+        assertNull(slice.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should stream every book once in keyset batches")
+    void testStreamAllBooks() {
+        when(abstractBookService.findPageAfterCode(isNull(), eq(2))).thenReturn(books("BK001", "BK002"));
+        when(abstractBookService.findPageAfterCode("BK002", 2)).thenReturn(books("BK003", "BK004"));
+        when(abstractBookService.findPageAfterCode("BK004", 2)).thenReturn(books("BK005"));
+
+        List<String> streamed = new ArrayList<>();
+        long count = bookService.streamAllBooks(book -> streamed.add(book.getCode()));
+
+        assertEquals(5, count);
+        assertEquals(List.of("BK001", "BK002", "BK003", "BK004", "BK005"), streamed);
+        verify(abstractBookService, times(3)).findPageAfterCode(any(), eq(2));
+    }
+
+    private List<AbstractBookDTO> books(String... codes) {
+        return IntStream.range(0, codes.length).mapToObj(i -> {
+            AbstractBookDTO dto = new AbstractBookDTO();
+            dto.setCode(codes[i]);
+            return dto;
+        }).toList();
+    }
+}
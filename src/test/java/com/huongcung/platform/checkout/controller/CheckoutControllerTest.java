@@ -7,8 +7,13 @@ import com.huongcung.platform.auth.external.jwt.JwtTokenBlacklistService;
 import com.huongcung.platform.auth.external.jwt.JwtTokenProvider;
 import com.huongcung.platform.checkout.dto.*;
 import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
+import com.huongcung.platform.checkout.external.ghn.GhnMasterDataStore;
 import com.huongcung.platform.checkout.external.ghn.dto.*;
 import com.huongcung.platform.checkout.service.CheckoutService;
+import com.huongcung.platform.checkout.service.DeliveryFeeEstimator;
+import com.huongcung.platform.checkout.service.DeliveryQuoteService;
+import com.huongcung.platform.configuration.HttpCacheConfig;
+import com.huongcung.platform.helper.HttpCacheHelper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +25,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -44,12 +50,28 @@ class CheckoutControllerTest {
     
     @SuppressWarnings("removal")
     @MockBean
-    private GhnApiClient ghnApiClient;
+    private GhnMasterDataStore ghnMasterDataStore;
+    
+    @SuppressWarnings("removal")
+    @MockBean
+    private HttpCacheHelper httpCacheHelper;
+    
+    @SuppressWarnings("removal")
+    @MockBean
+    private HttpCacheConfig httpCacheConfig;
     
     @SuppressWarnings("removal")
     @MockBean
     private CheckoutService checkoutService;
     
+    @SuppressWarnings("removal")
+    @MockBean
+    private DeliveryQuoteService deliveryQuoteService;
+    
+    @SuppressWarnings("removal")
+    @MockBean
+    private DeliveryFeeEstimator deliveryFeeEstimator;
+    
     // Mock beans required by JwtAuthenticationFilter and WebSecurityConfiguration
     @SuppressWarnings("removal")
     @MockBean
@@ -80,7 +102,7 @@ class CheckoutControllerTest {
         province2.setProvinceName("Hồ Chí Minh");
         
         List<GhnProvinceDTO> provinces = Arrays.asList(province1, province2);
-        when(ghnApiClient.getProvinces()).thenReturn(provinces);
+        when(ghnMasterDataStore.getProvinces()).thenReturn(provinces);
         
         // When & Then
         mockMvc.perform(get("/api/checkout/ghn/provinces"))
@@ -93,7 +115,7 @@ class CheckoutControllerTest {
     @DisplayName("Should handle GHN API error for provinces")
     void getProvinces_GhnApiError_ReturnsErrorResponse() throws Exception {
         // Given
-        when(ghnApiClient.getProvinces())
+        when(ghnMasterDataStore.getProvinces())
             .thenThrow(new GhnApiClient.GhnApiException("GHN API unavailable"));
         
         // When & Then
@@ -112,7 +134,7 @@ class CheckoutControllerTest {
         district.setDistrictName("Quận Ba Đình");
         district.setProvinceId(201);
         
-        when(ghnApiClient.getDistricts(201)).thenReturn(Collections.singletonList(district));
+        when(ghnMasterDataStore.getDistricts(201)).thenReturn(Collections.singletonList(district));
         
         // When & Then
         mockMvc.perform(get("/api/checkout/ghn/districts")
@@ -131,7 +153,7 @@ class CheckoutControllerTest {
         ward.setWardName("Phường Cống Vị");
         ward.setDistrictId(1442);
         
-        when(ghnApiClient.getWards(1442)).thenReturn(Collections.singletonList(ward));
+        when(ghnMasterDataStore.getWards(1442)).thenReturn(Collections.singletonList(ward));
         
         // When & Then
         mockMvc.perform(get("/api/checkout/ghn/wards")
@@ -152,11 +174,11 @@ class CheckoutControllerTest {
             .serviceTypeId(2)
             .build();
         
-        CalculateFeeResponse feeResponse = new CalculateFeeResponse();
-        feeResponse.setTotal(new BigDecimal("30000"));
-        feeResponse.setServiceFee(new BigDecimal("25000"));
+        DeliveryQuoteService.DeliveryQuote quote = new DeliveryQuoteService.DeliveryQuote(
+            "quote-token", 1442, "1A0001", 2, 53320, 1000,
+            new BigDecimal("30000"), new BigDecimal("25000"), LocalDateTime.now().plusMinutes(10));
         
-        when(ghnApiClient.calculateFee(any())).thenReturn(feeResponse);
+        when(deliveryQuoteService.quote(1442, "1A0001", 2)).thenReturn(quote);
         
         // When & Then
         mockMvc.perform(post("/api/checkout/ghn/calculate-fee")
@@ -164,7 +186,8 @@ class CheckoutControllerTest {
                 .content(objectMapper.writeValueAsString(request)))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$.data.total").value(30000))
-            .andExpect(jsonPath("$.data.serviceFee").value(25000));
+            .andExpect(jsonPath("$.data.serviceFee").value(25000))
+            .andExpect(jsonPath("$.data.quoteToken").value("quote-token"));
     }
     
     @Test
@@ -22,6 +22,7 @@ import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -40,6 +41,9 @@ class GhnApiClientTest {
     @Mock
     private ObjectMapper objectMapper;
     
+    @Mock
+    private GhnResilience ghnResilience;
+    
     @InjectMocks
     private GhnApiClient ghnApiClient;
     
@@ -48,6 +52,9 @@ class GhnApiClientTest {
         when(ghnApiConfig.getBaseUrl()).thenReturn("https://dev-online-gateway.ghn.vn");
         when(ghnApiConfig.getApiToken()).thenReturn("test-token");
         when(ghnApiConfig.getShopId()).thenReturn(12345);
+        // Run calls straight through; the resilience policies have their own tests
+        lenient().when(ghnResilience.execute(anyString(), any())).thenAnswer(invocation ->
+            invocation.<Supplier<?>>getArgument(1).get());
     }
     
     @Test
@@ -0,0 +1,143 @@
+package com.huongcung.platform.checkout.external.ghn;
+
+import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeRequest;
+import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GhnFeeCache
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GhnFeeCache Unit Tests")
+class GhnFeeCacheTest {
+
+    @Mock
+    private GhnApiClient ghnApiClient;
+
+    @InjectMocks
+    private GhnFeeCache ghnFeeCache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(ghnFeeCache, "enabled", true);
+        ReflectionTestUtils.setField(ghnFeeCache, "ttlMinutes", 30L);
+        ReflectionTestUtils.setField(ghnFeeCache, "maxEntries", 100);
+        ReflectionTestUtils.setField(ghnFeeCache, "weightBucketGrams", 500);
+        ReflectionTestUtils.setField(ghnFeeCache, "dimensionBucketCm", 10);
+        ReflectionTestUtils.setField(ghnFeeCache, "prewarmDestinations", List.of());
+    }
+
+    @Test
+    @DisplayName("Should share one GHN call per destination and parcel bucket")
+    void testCachesPerBucket() {
+        when(ghnApiClient.calculateFee(any())).thenReturn(fee("30000"));
+
+        ghnFeeCache.calculateFee(request("1A0001", 620));
+        ghnFeeCache.calculateFee(request("1A0001", 980));
+        ghnFeeCache.calculateFee(request("1A0002", 980));
+
+        // 620g and 980g share the 1000g bucket; the other ward is its own key
+        ArgumentCaptor<CalculateFeeRequest> captor = ArgumentCaptor.forClass(CalculateFeeRequest.class);
+        verify(ghnApiClient, times(2)).calculateFee(captor.capture());
+        assertEquals(1000, captor.getAllValues().get(0).getWeight());
+        assertEquals(20, captor.getAllValues().get(0).getWidth());
+        assertEquals(1, ghnFeeCache.getHitCount());
+        assertEquals(2, ghnFeeCache.getGhnCallCount());
+    }
+
+    @Test
+    @DisplayName("Should not cache failures")
+    void testFailuresAreNotCached() {
+        when(ghnApiClient.calculateFee(any()))
+            .thenThrow(new GhnApiClient.GhnApiException("GHN API unavailable"))
+            .thenReturn(fee("30000"));
+
+        assertThrows(GhnApiClient.GhnApiException.class, () -> ghnFeeCache.calculateFee(request("1A0001", 1000)));
+        assertEquals(new BigDecimal("30000"), ghnFeeCache.calculateFee(request("1A0001", 1000)).getTotal());
+        assertEquals(1, ghnFeeCache.getGhnErrorCount());
+    }
+
+    @Test
+    @DisplayName("Should refetch entries after the TTL")
+    void testExpiresAfterTtl() {
+        ReflectionTestUtils.setField(ghnFeeCache, "ttlMinutes", 0L);
+        when(ghnApiClient.calculateFee(any())).thenReturn(fee("30000"));
+
+        ghnFeeCache.calculateFee(request("1A0001", 1000));
+        ghnFeeCache.calculateFee(request("1A0001", 1000));
+
+        verify(ghnApiClient, times(2)).calculateFee(any());
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent misses into a single GHN call")
+    void testSingleFlight() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(ghnApiClient.calculateFee(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return fee("30000");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<CalculateFeeResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> ghnFeeCache.calculateFee(request("1A0001", 1000))));
+            }
+            // Let every caller reach the cache before GHN answers
+            long deadline = System.currentTimeMillis() + 5000;
+            while (ghnFeeCache.getRequestCount() < 8 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<CalculateFeeResponse> result : results) {
+                assertEquals(new BigDecimal("30000"), result.get(5, TimeUnit.SECONDS).getTotal());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(ghnApiClient, times(1)).calculateFee(any());
+        assertEquals(7, ghnFeeCache.getCoalescedCount());
+    }
+
+    private CalculateFeeRequest request(String wardCode, int weight) {
+        return CalculateFeeRequest.builder()
+            .serviceTypeId(2)
+            .serviceId(53320)
+            .toDistrictId(1442)
+            .toWardCode(wardCode)
+            .weight(weight)
+            .length(20)
+            .width(15)
+            .height(5)
+            .build();
+    }
+
+    private CalculateFeeResponse fee(String total) {
+        CalculateFeeResponse response = new CalculateFeeResponse();
+        response.setTotal(new BigDecimal(total));
+        return response;
+    }
+}
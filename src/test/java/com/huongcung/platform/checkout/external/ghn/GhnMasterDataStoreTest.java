@@ -0,0 +1,111 @@
+package com.huongcung.platform.checkout.external.ghn;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnDistrictDTO;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnProvinceDTO;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnWardDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GhnMasterDataStore
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("GhnMasterDataStore Unit Tests")
+class GhnMasterDataStoreTest {
+
+    @Mock
+    private GhnApiClient ghnApiClient;
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotPath;
+
+    @BeforeEach
+    void setUp() {
+        snapshotPath = tempDir.resolve("ghn-master-data.json");
+    }
+
+    @Test
+    @DisplayName("Should serve the hierarchy from memory after a refresh")
+    void testRefreshServesFromMemory() {
+        stubHierarchy();
+        GhnMasterDataStore store = newStore();
+
+        assertTrue(store.refresh());
+        clearInvocations(ghnApiClient);
+
+        assertEquals(1, store.getProvinces().size());
+        assertEquals(List.of(1442), store.getDistricts(201).stream().map(GhnDistrictDTO::getDistrictId).toList());
+        assertEquals("1A0001", store.getWards(1442).get(0).getWardCode());
+        assertTrue(store.getWards(9999).isEmpty());
+        verifyNoInteractions(ghnApiClient);
+        assertNotNull(store.getVersion());
+        assertTrue(Files.exists(snapshotPath));
+    }
+
+    @Test
+    @DisplayName("Should reload the persisted snapshot with the same version")
+    void testLoadPersistedSnapshot() {
+        stubHierarchy();
+        GhnMasterDataStore first = newStore();
+        first.refresh();
+
+        GhnMasterDataStore restarted = newStore();
+        restarted.load();
+
+        assertEquals(first.getVersion(), restarted.getVersion());
+        assertEquals(first.getRefreshedAt(), restarted.getRefreshedAt());
+        assertEquals("Phường Cống Vị", restarted.getWards(1442).get(0).getWardName());
+    }
+
+    @Test
+    @DisplayName("Should keep the current snapshot when a refresh fails and call GHN live without one")
+    void testRefreshFailureAndLiveFallback() {
+        GhnMasterDataStore store = newStore();
+        store.load();
+        when(ghnApiClient.getProvinces()).thenReturn(List.of(province()));
+
+        assertNull(store.getVersion());
+        assertEquals(1, store.getProvinces().size());
+        verify(ghnApiClient).getProvinces();
+
+        when(ghnApiClient.getDistricts(anyInt())).thenThrow(new GhnApiClient.GhnApiException("GHN API unavailable"));
+        assertFalse(store.refresh());
+        assertNull(store.getVersion());
+    }
+
+    private GhnMasterDataStore newStore() {
+        GhnMasterDataStore store = new GhnMasterDataStore(ghnApiClient, new ObjectMapper());
+        ReflectionTestUtils.setField(store, "snapshotPath", snapshotPath.toString());
+        ReflectionTestUtils.setField(store, "refreshAfterHours", 24L);
+        return store;
+    }
+
+    private void stubHierarchy() {
+        when(ghnApiClient.getProvinces()).thenReturn(List.of(province()));
+        when(ghnApiClient.getDistricts(201)).thenReturn(List.of(GhnDistrictDTO.builder()
+            .districtId(1442).districtName("Ba Đình").build()));
+        when(ghnApiClient.getWards(1442)).thenReturn(List.of(GhnWardDTO.builder()
+            .wardCode("1A0001").wardName("Phường Cống Vị").build()));
+    }
+
+    private GhnProvinceDTO province() {
+        return GhnProvinceDTO.builder().provinceId(201).provinceName("Hà Nội").build();
+    }
+}
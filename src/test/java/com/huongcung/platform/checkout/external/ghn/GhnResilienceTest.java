@@ -0,0 +1,153 @@
+package com.huongcung.platform.checkout.external.ghn;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.platform.checkout.configuration.RestTemplateConfig;
+import com.huongcung.platform.checkout.external.ghn.config.GhnApiConfig;
+import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeRequest;
+import com.huongcung.platform.checkout.external.ghn.dto.CreateShippingOrderRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the GHN client stack (pooled RestTemplate, retries, bulkhead, circuit breaker) against GhnStubServer
+ */
+@DisplayName("GhnResilience Tests")
+class GhnResilienceTest {
+
+    private GhnStubServer stub;
+    private GhnApiConfig config;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new GhnStubServer(0);
+        config = new GhnApiConfig();
+        config.setBaseUrl(stub.getBaseUrl());
+        config.setApiToken("test-token");
+        config.setTimeout(2000);
+        config.setRetryMaxAttempts(3);
+        config.setRetryDelayMs(10);
+        config.setRetryMaxDelayMs(50);
+        config.setBulkheadMaxWaitMs(0);
+        config.setCircuitBreakerWindowSize(4);
+        config.setCircuitBreakerMinimumCalls(4);
+        config.setCircuitBreakerFailureRatePercent(50);
+        config.setCircuitBreakerOpenMs(60000);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    @DisplayName("Should retry transient failures and record latency per endpoint")
+    void testRetriesTransientFailures() {
+        GhnApiClient client = client();
+        stub.failNext(2);
+
+        assertEquals(new BigDecimal("30000"), client.calculateFee(feeRequest()).getTotal());
+
+        assertEquals(3, stub.getRequestCount());
+        assertEquals(2.0, meterRegistry.counter("ghn.client.retries", "endpoint", "fee").count());
+        assertEquals(1, meterRegistry.timer("ghn.client.requests", "endpoint", "fee", "outcome", "success").count());
+    }
+
+    @Test
+    @DisplayName("Should send a shipment booking once and look orders up with retries")
+    void testBookingIsNotRetried() {
+        GhnApiClient client = client();
+        stub.failNext(1);
+
+        assertThrows(GhnApiClient.GhnApiException.class, () -> client.createShippingOrder(
+            CreateShippingOrderRequest.builder().clientOrderCode("ORD-1-1").build()));
+        assertEquals(1, stub.getRequestCount());
+        assertEquals(0.0, meterRegistry.counter("ghn.client.retries", "endpoint", "create-order").count());
+
+        stub.failNext(1);
+        assertEquals("GHN1", client.findShippingOrder("ORD-1-1").orElseThrow().getOrderCode());
+        assertEquals(3, stub.getRequestCount());
+    }
+
+    @Test
+    @DisplayName("Should open the circuit after repeated failures and stop calling GHN")
+    void testCircuitBreakerOpens() {
+        config.setRetryMaxAttempts(1);
+        GhnApiClient client = client();
+        stub.failNext(100);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(GhnApiClient.GhnApiException.class, () -> client.calculateFee(feeRequest()));
+        }
+        int requestsWhenOpened = stub.getRequestCount();
+
+        GhnApiClient.GhnApiException rejected =
+            assertThrows(GhnApiClient.GhnApiException.class, () -> client.calculateFee(feeRequest()));
+        assertTrue(rejected.getMessage().contains("circuit breaker"));
+        assertEquals(requestsWhenOpened, stub.getRequestCount());
+        assertEquals(1.0, meterRegistry.get("ghn.client.circuit.open").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should cap concurrent GHN calls with the bulkhead")
+    void testBulkheadCapsConcurrency() throws Exception {
+        config.setMaxConcurrentRequests(2);
+        GhnApiClient client = client();
+        stub.setLatencyMs(200);
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        int rejected = 0;
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                calls.add(executor.submit(() -> client.calculateFee(feeRequest())));
+            }
+            for (Future<?> call : calls) {
+                try {
+                    call.get(5, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    assertInstanceOf(GhnApiClient.GhnApiException.class, e.getCause());
+                    rejected++;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(stub.getMaxInFlight() <= 2);
+        assertTrue(rejected > 0);
+    }
+
+    private GhnApiClient client() {
+        GhnResilience resilience = new GhnResilience(config, meterRegistry);
+        return new GhnApiClient(config, new RestTemplateConfig().restTemplate(config), new ObjectMapper(), resilience);
+    }
+
+    private CalculateFeeRequest feeRequest() {
+        return CalculateFeeRequest.builder()
+            .serviceTypeId(2)
+            .serviceId(53320)
+            .toDistrictId(1442)
+            .toWardCode("1A0001")
+            .weight(1000)
+            .length(20)
+            .width(15)
+            .height(5)
+            .build();
+    }
+}
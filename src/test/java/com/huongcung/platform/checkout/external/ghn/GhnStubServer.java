@@ -0,0 +1,118 @@
+package com.huongcung.platform.checkout.external.ghn;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the GHN API, for integration and load tests
+ * Serves the master-data, fee and shipping order endpoints with canned data, an adjustable latency, and injectable
+ * 5xx failures. Also runnable on its own for load tests against a real application:
+ *
+ *   java ... GhnStubServer [port] [latencyMs]
+ *
+ * then start the application with GHN_BASE_URL=http://localhost:port
+ */
+public class GhnStubServer implements AutoCloseable {
+
+    private static final String PROVINCES = "[{\"ProvinceID\":201,\"ProvinceName\":\"Hà Nội\"},"
+        + "{\"ProvinceID\":202,\"ProvinceName\":\"Hồ Chí Minh\"}]";
+    private static final String DISTRICTS = "[{\"DistrictID\":1442,\"DistrictName\":\"Ba Đình\",\"ProvinceID\":201}]";
+    private static final String WARDS = "[{\"WardCode\":\"1A0001\",\"WardName\":\"Phường Cống Vị\",\"DistrictID\":1442}]";
+    private static final String FEE = "{\"total\":30000,\"service_fee\":25000,\"insurance_fee\":0}";
+    private static final String ORDER = "{\"order_code\":\"GHN1\",\"total_fee\":30000,"
+        + "\"expected_delivery_time\":\"2026-10-22T16:59:59Z\"}";
+    private static final String ORDER_DETAIL = "{\"order_code\":\"GHN1\",\"client_order_code\":\"ORD-1-1\","
+        + "\"status\":\"ready_to_pick\",\"leadtime\":\"2026-10-22T16:59:59Z\"}";
+
+    private final HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger failuresToInject = new AtomicInteger();
+    private volatile long latencyMs;
+
+    public GhnStubServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/shiip/public-api/master-data/province", exchange -> handle(exchange, PROVINCES));
+        server.createContext("/shiip/public-api/master-data/district", exchange -> handle(exchange, DISTRICTS));
+        server.createContext("/shiip/public-api/master-data/ward", exchange -> handle(exchange, WARDS));
+        server.createContext("/shiip/public-api/v2/shipping-order/fee", exchange -> handle(exchange, FEE));
+        server.createContext("/shiip/public-api/v2/shipping-order/create", exchange -> handle(exchange, ORDER));
+        server.createContext("/shiip/public-api/v2/shipping-order/detail-by-client-code",
+            exchange -> handle(exchange, ORDER_DETAIL));
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * Answer the next {@code count} requests with 503
+     */
+    public void failNext(int count) {
+        failuresToInject.set(count);
+    }
+
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange, String data) throws IOException {
+        requests.incrementAndGet();
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            if (failuresToInject.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+                respond(exchange, 503, "{\"code\":503,\"message\":\"Service Unavailable\"}");
+                return;
+            }
+            respond(exchange, 200, "{\"code\":200,\"message\":\"Success\",\"data\":" + data + "}");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8099;
+        GhnStubServer stub = new GhnStubServer(port);
+        stub.setLatencyMs(args.length > 1 ? Long.parseLong(args[1]) : 50);
+        System.out.println("GHN stub listening on " + stub.getBaseUrl());
+        Thread.currentThread().join();
+    }
+}
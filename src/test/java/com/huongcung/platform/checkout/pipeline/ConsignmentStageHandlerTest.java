@@ -0,0 +1,121 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.huongcung.core.inventory.enumeration.ReservationStatus;
+import com.huongcung.core.inventory.model.dto.ReservationLine;
+import com.huongcung.core.inventory.model.entity.ConsignmentEntity;
+import com.huongcung.core.inventory.model.entity.WarehouseEntity;
+import com.huongcung.core.inventory.repository.ConsignmentRepository;
+import com.huongcung.core.inventory.repository.StockReservationRepository;
+import com.huongcung.core.inventory.repository.WarehouseRepository;
+import com.huongcung.core.order.enumeration.ItemType;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.model.entity.OrderEntryEntity;
+import com.huongcung.core.order.repository.OrderRepository;
+import com.huongcung.core.product.model.entity.AbstractBookEntity;
+import com.huongcung.core.product.model.entity.EbookEntity;
+import com.huongcung.core.product.model.entity.PhysicalBookEntity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ConsignmentStageHandler
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConsignmentStageHandler Unit Tests")
+class ConsignmentStageHandlerTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ConsignmentRepository consignmentRepository;
+
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private WarehouseRepository warehouseRepository;
+
+    @InjectMocks
+    private ConsignmentStageHandler handler;
+
+    @Test
+    @DisplayName("Should create one consignment per origin warehouse for physical lines only")
+    @SuppressWarnings("unchecked")
+    void testSplitByWarehouse() {
+        OrderEntity order = new OrderEntity();
+        order.setId(10L);
+        order.setOrderNumber("ORD-1");
+        order.setShippingAddress("{}");
+        order.setEntries(List.of(
+                entry(order, physical(1L), ItemType.PHYSICAL, 2),
+                entry(order, physical(2L), ItemType.PHYSICAL, 1),
+                entry(order, physical(3L), ItemType.PHYSICAL, 4),
+                entry(order, new EbookEntity(), ItemType.DIGITAL, 1)));
+
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(consignmentRepository.existsByOrderId(10L)).thenReturn(false);
+        when(stockReservationRepository.findLinesByOrderIds(List.of(10L), ReservationStatus.ACTIVE)).thenReturn(List.of(
+                new ReservationLine(100L, 10L, 1L, 7L, 2),
+                new ReservationLine(101L, 10L, 2L, 8L, 1),
+                new ReservationLine(102L, 10L, 3L, 7L, 4)));
+        when(warehouseRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            WarehouseEntity warehouse = new WarehouseEntity();
+            warehouse.setId(invocation.getArgument(0));
+            return warehouse;
+        });
+
+        handler.handle(10L);
+
+        ArgumentCaptor<List<ConsignmentEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(consignmentRepository).saveAll(captor.capture());
+        List<ConsignmentEntity> consignments = captor.getValue();
+        assertEquals(2, consignments.size());
+        assertEquals(7L, consignments.get(0).getOriginWarehouse().getId());
+        assertEquals(2, consignments.get(0).getEntries().size());
+        assertEquals(8L, consignments.get(1).getOriginWarehouse().getId());
+        assertEquals(1, consignments.get(1).getEntries().size());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when consignments already exist")
+    void testIdempotent() {
+        OrderEntity order = new OrderEntity();
+        order.setId(10L);
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(consignmentRepository.existsByOrderId(10L)).thenReturn(true);
+
+        handler.handle(10L);
+
+        verify(consignmentRepository, never()).saveAll(anyList());
+        verifyNoInteractions(stockReservationRepository);
+    }
+
+    private PhysicalBookEntity physical(Long id) {
+        PhysicalBookEntity book = new PhysicalBookEntity();
+        book.setId(id);
+        return book;
+    }
+
+    private OrderEntryEntity entry(OrderEntity order, AbstractBookEntity book,
+                                   ItemType itemType, int quantity) {
+        OrderEntryEntity entry = new OrderEntryEntity();
+        entry.setOrder(order);
+        entry.setBook(book);
+        entry.setItemType(itemType);
+        entry.setQuantity(quantity);
+        return entry;
+    }
+}
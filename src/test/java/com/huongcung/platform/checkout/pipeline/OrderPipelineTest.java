@@ -0,0 +1,203 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.huongcung.core.order.enumeration.OrderPipelineStage;
+import com.huongcung.core.order.enumeration.PipelineTaskStatus;
+import com.huongcung.core.order.event.OrderPlacedEvent;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.user.model.entity.CustomerEntity;
+import com.huongcung.core.order.model.entity.OrderPipelineTaskEntity;
+import com.huongcung.core.order.repository.OrderPipelineTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for OrderPipeline
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderPipeline Unit Tests")
+class OrderPipelineTest {
+
+    @Mock
+    private OrderPipelineTaskRepository taskRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OrderPipelineStageHandler consignmentHandler;
+
+    @Mock
+    private OrderPipelineStageHandler notificationHandler;
+
+    private OrderPipelineConfig config;
+    private List<Runnable> submitted;
+    private OrderPipeline pipeline;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        config = new OrderPipelineConfig();
+        config.setMaxAttempts(3);
+        config.getConcurrency().put(OrderPipelineStage.CONSIGNMENTS, 2);
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        lenient().when(consignmentHandler.getStage()).thenReturn(OrderPipelineStage.CONSIGNMENTS);
+        lenient().when(notificationHandler.getStage()).thenReturn(OrderPipelineStage.NOTIFICATION);
+
+        // Collect submitted work and run it on demand, like a worker pool that has not started yet
+        submitted = new ArrayList<>();
+        pipeline = new OrderPipeline(taskRepository, config, submitted::add, transactionTemplate, eventPublisher,
+                List.of(consignmentHandler, notificationHandler));
+    }
+
+    @Test
+    @DisplayName("Should persist the first stage and publish the order placed event")
+    void testEnqueue() {
+        CustomerEntity customer = new CustomerEntity();
+        customer.setId(5L);
+        OrderEntity order = new OrderEntity();
+        order.setId(10L);
+        order.setCustomer(customer);
+
+        pipeline.enqueue(order);
+
+        ArgumentCaptor<OrderPipelineTaskEntity> captor = ArgumentCaptor.forClass(OrderPipelineTaskEntity.class);
+        verify(taskRepository).save(captor.capture());
+        assertEquals(10L, captor.getValue().getOrderId());
+        assertEquals(OrderPipelineStage.CONSIGNMENTS, captor.getValue().getStage());
+        assertEquals(PipelineTaskStatus.PENDING, captor.getValue().getStatus());
+        ArgumentCaptor<OrderPlacedEvent> event = ArgumentCaptor.forClass(OrderPlacedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(5L, event.getValue().getCustomerId());
+        verify(consignmentHandler, never()).handle(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should not claim more tasks than the stage concurrency limit")
+    void testStageConcurrencyLimit() {
+        when(taskRepository.findDueIds(eq(OrderPipelineStage.CONSIGNMENTS), eq(PipelineTaskStatus.PENDING), any(), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L, 3L));
+        when(taskRepository.claim(anyLong(), any(), any())).thenReturn(1);
+
+        pipeline.pollStage(OrderPipelineStage.CONSIGNMENTS);
+        pipeline.pollStage(OrderPipelineStage.CONSIGNMENTS);
+
+        assertEquals(2, submitted.size());
+        verify(taskRepository, never()).claim(eq(3L), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should mark a stage done and queue the next stage")
+    void testRunTaskChainsNextStage() {
+        OrderPipelineTaskEntity task = task(1L, OrderPipelineStage.CONSIGNMENTS, 1);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        pipeline.runTask(1L);
+
+        verify(consignmentHandler).handle(10L);
+        assertEquals(PipelineTaskStatus.DONE, task.getStatus());
+        ArgumentCaptor<OrderPipelineTaskEntity> captor = ArgumentCaptor.forClass(OrderPipelineTaskEntity.class);
+        verify(taskRepository, times(2)).save(captor.capture());
+        OrderPipelineTaskEntity next = captor.getAllValues().get(1);
+        assertEquals(OrderPipelineStage.SHIPMENT, next.getStage());
+        assertEquals(PipelineTaskStatus.PENDING, next.getStatus());
+        assertEquals(1, pipeline.getCompletedCount());
+        // The next stage is woken up right away
+        assertEquals(1, submitted.size());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed stage later with backoff")
+    void testRunTaskRetriesOnFailure() {
+        OrderPipelineTaskEntity task = task(1L, OrderPipelineStage.CONSIGNMENTS, 1);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        doThrow(new IllegalStateException("carrier down")).when(consignmentHandler).handle(10L);
+
+        LocalDateTime before = LocalDateTime.now();
+        pipeline.runTask(1L);
+
+        assertEquals(PipelineTaskStatus.PENDING, task.getStatus());
+        assertTrue(task.getNextAttemptAt().isAfter(before));
+        assertTrue(task.getLastError().contains("carrier down"));
+        assertEquals(1, pipeline.getRetriedCount());
+        verify(taskRepository, never()).existsByOrderIdAndStage(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should give up after the maximum number of attempts")
+    void testRunTaskFailsPermanently() {
+        OrderPipelineTaskEntity task = task(1L, OrderPipelineStage.CONSIGNMENTS, 3);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        doThrow(new IllegalStateException("bad address")).when(consignmentHandler).handle(10L);
+
+        pipeline.runTask(1L);
+
+        assertEquals(PipelineTaskStatus.FAILED, task.getStatus());
+        assertEquals(1, pipeline.getFailedCount());
+    }
+
+    @Test
+    @DisplayName("Should not queue anything after the last stage")
+    void testLastStage() {
+        OrderPipelineTaskEntity task = task(1L, OrderPipelineStage.NOTIFICATION, 1);
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+
+        pipeline.runTask(1L);
+
+        verify(notificationHandler).handle(10L);
+        verify(taskRepository, times(1)).save(any());
+        assertTrue(submitted.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep retry delays within the configured bounds")
+    void testRetryDelay() {
+        config.setRetryBaseDelayMs(1000);
+        config.setRetryMaxDelayMs(8000);
+
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long delay = pipeline.retryDelayMs(attempt);
+            long ceiling = Math.min(8000, 1000L << (attempt - 1));
+            assertTrue(delay >= ceiling / 2 && delay <= ceiling, "attempt " + attempt + ": " + delay);
+        }
+    }
+
+    private OrderPipelineTaskEntity task(Long id, OrderPipelineStage stage, int attempts) {
+        OrderPipelineTaskEntity task = new OrderPipelineTaskEntity();
+        task.setId(id);
+        task.setOrderId(10L);
+        task.setStage(stage);
+        task.setStatus(PipelineTaskStatus.RUNNING);
+        task.setAttempts(attempts);
+        task.setNextAttemptAt(LocalDateTime.now());
+        return task;
+    }
+}
@@ -0,0 +1,220 @@
+package com.huongcung.platform.checkout.pipeline;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.core.inventory.model.entity.ConsignmentEntity;
+import com.huongcung.core.inventory.model.entity.ConsignmentEntryEntity;
+import com.huongcung.core.inventory.model.entity.WarehouseEntity;
+import com.huongcung.core.inventory.repository.ConsignmentRepository;
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.enumeration.PaymentMethod;
+import com.huongcung.core.order.event.CustomerOrdersChangedEvent;
+import com.huongcung.core.order.model.entity.DeliveryInfoEntity;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.model.entity.OrderEntryEntity;
+import com.huongcung.core.order.repository.DeliveryInfoRepository;
+import com.huongcung.core.order.repository.OrderRepository;
+import com.huongcung.core.product.model.entity.PhysicalBookEntity;
+import com.huongcung.core.user.model.entity.CustomerEntity;
+import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
+import com.huongcung.platform.checkout.external.ghn.dto.CreateShippingOrderRequest;
+import com.huongcung.platform.checkout.external.ghn.dto.CreateShippingOrderResponse;
+import com.huongcung.platform.checkout.external.ghn.dto.ShippingOrderDetailResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ShipmentStageHandler
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ShipmentStageHandler Unit Tests")
+class ShipmentStageHandlerTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ConsignmentRepository consignmentRepository;
+
+    @Mock
+    private DeliveryInfoRepository deliveryInfoRepository;
+
+    @Mock
+    private GhnApiClient ghnApiClient;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ShipmentStageHandler handler;
+    private OrderEntity order;
+    private DeliveryInfoEntity deliveryInfo;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                ((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            ((Consumer<Object>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        handler = new ShipmentStageHandler(orderRepository, consignmentRepository, deliveryInfoRepository,
+                ghnApiClient, transactionTemplate, new ObjectMapper(), eventPublisher);
+
+        CustomerEntity customer = new CustomerEntity();
+        customer.setId(5L);
+
+        order = new OrderEntity();
+        order.setId(10L);
+        order.setCustomer(customer);
+        order.setOrderNumber("ORD-20261019-0000000000001");
+        order.setStatus(OrderStatus.PENDING);
+        order.setPaymentMethod(PaymentMethod.COD);
+        order.setTotalAmount(new BigDecimal("330000"));
+        order.setShippingAddress("{\"fullName\":\"Nguyen Van A\",\"phone\":\"0123456789\",\"address\":\"1 Trang Tien\","
+                + "\"provinceId\":201,\"districtId\":1442,\"wardCode\":\"1A0001\"}");
+
+        deliveryInfo = DeliveryInfoEntity.builder()
+                .districtId(1442).wardCode("1A0001").serviceTypeId(2).serviceId(53320)
+                .weight(1000).length(20).width(15).height(5)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should book one shipment per consignment with cash on delivery on the first parcel")
+    void testBookShipments() {
+        ConsignmentEntity first = consignment(1L, 3);
+        ConsignmentEntity second = consignment(2L, 1);
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(consignmentRepository.findWithEntriesByOrderId(10L)).thenReturn(List.of(first, second));
+        when(deliveryInfoRepository.findByOrderId(10L)).thenReturn(Optional.of(deliveryInfo));
+        when(consignmentRepository.findById(1L)).thenReturn(Optional.of(first));
+        when(consignmentRepository.findById(2L)).thenReturn(Optional.of(second));
+        when(ghnApiClient.createShippingOrder(any())).thenReturn(
+                CreateShippingOrderResponse.builder().orderCode("GHN1").expectedDeliveryTime("2026-10-22T16:59:59Z").build(),
+                CreateShippingOrderResponse.builder().orderCode("GHN2").build());
+        when(orderRepository.lockIdsByStatus(List.of(10L), "PENDING")).thenReturn(List.of(10L), List.of());
+
+        handler.handle(10L);
+
+        ArgumentCaptor<CreateShippingOrderRequest> captor = ArgumentCaptor.forClass(CreateShippingOrderRequest.class);
+        verify(ghnApiClient, times(2)).createShippingOrder(captor.capture());
+        CreateShippingOrderRequest firstRequest = captor.getAllValues().get(0);
+        CreateShippingOrderRequest secondRequest = captor.getAllValues().get(1);
+        assertEquals("ORD-20261019-0000000000001-1", firstRequest.getClientOrderCode());
+        // The delivery fee is already in the order total, so the shop pays GHN and collects the total
+        assertEquals(1, firstRequest.getPaymentTypeId());
+        assertEquals(330000L, firstRequest.getCodAmount());
+        assertEquals(0L, secondRequest.getCodAmount());
+        assertEquals(750, firstRequest.getWeight());
+        assertEquals(250, secondRequest.getWeight());
+        assertEquals("Nguyen Van A", firstRequest.getToName());
+
+        assertEquals("GHN1", first.getTrackingNumber());
+        assertNotNull(first.getEstimatedDeliveryDate());
+        assertEquals("GHN2", second.getTrackingNumber());
+        assertEquals("GHN1", deliveryInfo.getGhnOrderCode());
+        verify(orderRepository, times(1)).updateStatus(eq(List.of(10L)), eq(OrderStatus.PROCESSING), any());
+        // Each recorded booking tells the customer's order views to refresh
+        verify(eventPublisher, times(2)).publishEvent(any(CustomerOrdersChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should record the existing GHN order when a booking fails after GHN created it")
+    void testRecoverExistingShipment() {
+        ConsignmentEntity consignment = consignment(1L, 1);
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(consignmentRepository.findWithEntriesByOrderId(10L)).thenReturn(List.of(consignment));
+        when(deliveryInfoRepository.findByOrderId(10L)).thenReturn(Optional.of(deliveryInfo));
+        when(consignmentRepository.findById(1L)).thenReturn(Optional.of(consignment));
+        when(ghnApiClient.createShippingOrder(any()))
+                .thenThrow(new GhnApiClient.GhnApiException("GHN API create order failed: duplicate client_order_code"));
+        when(ghnApiClient.findShippingOrder("ORD-20261019-0000000000001-1")).thenReturn(Optional.of(
+                ShippingOrderDetailResponse.builder().orderCode("GHN1").leadtime("2026-10-22T16:59:59Z").build()));
+        when(orderRepository.lockIdsByStatus(List.of(10L), "PENDING")).thenReturn(List.of(10L));
+
+        handler.handle(10L);
+
+        verify(ghnApiClient, times(1)).createShippingOrder(any());
+        assertEquals("GHN1", consignment.getTrackingNumber());
+        assertNotNull(consignment.getEstimatedDeliveryDate());
+        assertEquals("GHN1", deliveryInfo.getGhnOrderCode());
+        verify(orderRepository).updateStatus(eq(List.of(10L)), eq(OrderStatus.PROCESSING), any());
+    }
+
+    @Test
+    @DisplayName("Should fail the booking when GHN has no order for it")
+    void testBookingFailure() {
+        ConsignmentEntity consignment = consignment(1L, 1);
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(consignmentRepository.findWithEntriesByOrderId(10L)).thenReturn(List.of(consignment));
+        when(deliveryInfoRepository.findByOrderId(10L)).thenReturn(Optional.of(deliveryInfo));
+        GhnApiClient.GhnApiException failure = new GhnApiClient.GhnApiException("Failed to create shipping order in GHN API");
+        when(ghnApiClient.createShippingOrder(any())).thenThrow(failure);
+        when(ghnApiClient.findShippingOrder("ORD-20261019-0000000000001-1")).thenReturn(Optional.empty());
+
+        assertSame(failure, assertThrows(GhnApiClient.GhnApiException.class, () -> handler.handle(10L)));
+        assertNull(consignment.getTrackingNumber());
+        verify(orderRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should skip consignments that already have a tracking number")
+    void testSkipBookedConsignments() {
+        ConsignmentEntity booked = consignment(1L, 1);
+        booked.setTrackingNumber("GHN1");
+        when(orderRepository.findById(10L)).thenReturn(Optional.of(order));
+        when(consignmentRepository.findWithEntriesByOrderId(10L)).thenReturn(List.of(booked));
+        when(deliveryInfoRepository.findByOrderId(10L)).thenReturn(Optional.of(deliveryInfo));
+
+        handler.handle(10L);
+
+        verifyNoInteractions(ghnApiClient);
+    }
+
+    private ConsignmentEntity consignment(Long id, int quantity) {
+        WarehouseEntity warehouse = new WarehouseEntity();
+        warehouse.setCode("HN-01");
+        warehouse.setAddress("Hanoi");
+
+        PhysicalBookEntity book = new PhysicalBookEntity();
+        book.setCode("BOOK" + id);
+        book.setTitle("Book " + id);
+
+        OrderEntryEntity orderEntry = new OrderEntryEntity();
+        orderEntry.setBook(book);
+        orderEntry.setQuantity(quantity);
+        orderEntry.setUnitPrice(new BigDecimal("80000"));
+
+        ConsignmentEntity consignment = new ConsignmentEntity();
+        consignment.setId(id);
+        consignment.setOriginWarehouse(warehouse);
+
+        ConsignmentEntryEntity entry = new ConsignmentEntryEntity();
+        entry.setConsignment(consignment);
+        entry.setOrderEntry(orderEntry);
+        entry.setQuantity(quantity);
+        consignment.setEntries(List.of(entry));
+        return consignment;
+    }
+}
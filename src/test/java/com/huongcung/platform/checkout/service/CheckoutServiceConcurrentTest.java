@@ -1,11 +1,12 @@
 package com.huongcung.platform.checkout.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.core.common.id.SnowflakeIdGenerator;
 import com.huongcung.core.inventory.enumeration.City;
-import com.huongcung.core.inventory.model.entity.StockLevelEntity;
-import com.huongcung.core.inventory.model.entity.WarehouseEntity;
-import com.huongcung.core.inventory.repository.StockLevelRepository;
-import com.huongcung.core.inventory.repository.WarehouseRepository;
+import com.huongcung.core.inventory.exception.InsufficientStockException;
+import com.huongcung.core.inventory.service.ReservationExpiryService;
+import com.huongcung.core.inventory.service.StockAllocationService;
+import com.huongcung.core.inventory.service.StockReservationService;
 import com.huongcung.core.order.model.entity.OrderEntity;
 import com.huongcung.core.order.repository.DeliveryInfoRepository;
 import com.huongcung.core.order.repository.OrderEntryRepository;
@@ -17,17 +18,19 @@ import com.huongcung.core.user.repository.UserRepository;
 import com.huongcung.platform.checkout.dto.CheckoutItemDTO;
 import com.huongcung.platform.checkout.dto.CheckoutRequest;
 import com.huongcung.platform.checkout.dto.ShippingAddressDTO;
-import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
+import com.huongcung.platform.checkout.pipeline.OrderPipeline;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -55,27 +58,37 @@ class CheckoutServiceConcurrentTest {
     private AbstractBookRepository bookRepository;
     
     @Mock
-    private StockLevelRepository stockLevelRepository;
+    private StockAllocationService stockAllocationService;
     
     @Mock
-    private WarehouseRepository warehouseRepository;
+    private StockReservationService stockReservationService;
+    
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
     
     @Mock
     private UserRepository userRepository;
     
     @Mock
-    private GhnApiClient ghnApiClient;
+    private DeliveryQuoteService deliveryQuoteService;
+    
+    @Mock
+    private DeliveryRegionResolver deliveryRegionResolver;
     
     @Mock
     private ObjectMapper objectMapper;
     
+    @Mock
+    private OrderPipeline orderPipeline;
+    
+    @Spy
+    private SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+    
     @InjectMocks
     private CheckoutService checkoutService;
     
     private CustomerEntity testCustomer;
     private PhysicalBookEntity testPhysicalBook;
-    private WarehouseEntity testWarehouse;
-    private StockLevelEntity testStockLevel;
     
     @BeforeEach
     void setUp() {
@@ -91,19 +104,11 @@ class CheckoutServiceConcurrentTest {
         testPhysicalBook.setTitle("Test Physical Book");
         testPhysicalBook.setCurrentPrice(new BigDecimal("150000"));
         
-        // Setup test warehouse
-        testWarehouse = new WarehouseEntity();
-        testWarehouse.setId(1L);
-        testWarehouse.setCity(City.HANOI);
-        testWarehouse.setCode("WH-HN-001");
-        
-        // Setup test stock level with limited quantity
-        testStockLevel = new StockLevelEntity();
-        testStockLevel.setId(1L);
-        testStockLevel.setBook(testPhysicalBook);
-        testStockLevel.setWarehouse(testWarehouse);
-        testStockLevel.setQuantity(10); // Only 10 items available
-        testStockLevel.setReservedQuantity(0);
+        // Province 201 is Hanoi; everything is planned from the Hanoi warehouse unless a test says otherwise
+        lenient().when(deliveryRegionResolver.resolve(any())).thenReturn(City.HANOI);
+        lenient().when(stockAllocationService.allocate(any(), anyList())).thenAnswer(invocation -> List.of(
+            new StockAllocationService.ConsignmentPlan(7L, invocation.getArgument(0), invocation.getArgument(1))));
+
     }
     
     @Test
@@ -116,9 +121,6 @@ class CheckoutServiceConcurrentTest {
         int quantityPerRequest = 3;
         int availableStock = 10;
         
-        testStockLevel.setQuantity(availableStock);
-        testStockLevel.setReservedQuantity(0);
-        
         CheckoutItemDTO item = new CheckoutItemDTO();
         item.setBookId(1L);
         item.setQuantity(quantityPerRequest);
@@ -140,31 +142,23 @@ class CheckoutServiceConcurrentTest {
         // Setup mocks
         when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
         when(bookRepository.findByIdIn(anyList())).thenReturn(Collections.singletonList(testPhysicalBook));
-        when(warehouseRepository.findByCity(City.HANOI)).thenReturn(Collections.singletonList(testWarehouse));
-        when(stockLevelRepository.findByBookIdAndWarehouseCity(1L, City.HANOI))
-            .thenReturn(Optional.of(testStockLevel));
-        
-        // Mock the locked stock level - simulate pessimistic locking
-        StockLevelEntity lockedStock = new StockLevelEntity();
-        lockedStock.setId(1L);
-        lockedStock.setBook(testPhysicalBook);
-        lockedStock.setWarehouse(testWarehouse);
-        lockedStock.setQuantity(availableStock);
-        lockedStock.setReservedQuantity(0);
         
-        when(stockLevelRepository.findByBookAndCityWithLock(eq(testPhysicalBook), eq(City.HANOI)))
-            .thenAnswer(invocation -> {
-                // Simulate checking and updating stock
-                StockLevelEntity stock = lockedStock;
-                if (stock.getQuantity() - stock.getReservedQuantity() >= quantityPerRequest) {
-                    stock.setReservedQuantity(stock.getReservedQuantity() + quantityPerRequest);
-                    return Optional.of(stock);
-                } else {
-                    throw new IllegalArgumentException("Insufficient stock");
+        // Simulate the atomic conditional update: reserve only while enough stock is left
+        AtomicInteger reserved = new AtomicInteger(0);
+        doAnswer(invocation -> {
+            List<StockAllocationService.ConsignmentPlan> plans = invocation.getArgument(0);
+            int quantity = plans.get(0).lines().get(0).quantity();
+            int current;
+            do {
+                current = reserved.get();
+                if (availableStock - current < quantity) {
+                    throw new InsufficientStockException(List.of(new InsufficientStockException.Shortage(
+                        1L, testPhysicalBook.getTitle(), quantity, availableStock - current)));
                 }
-            });
+            } while (!reserved.compareAndSet(current, current + quantity));
+            return List.of();
+        }).when(stockReservationService).reserve(anyList());
         
-        when(ghnApiClient.calculateFee(any())).thenThrow(new GhnApiClient.GhnApiException("GHN API unavailable"));
         when(objectMapper.writeValueAsString(any())).thenReturn("{}");
         
         OrderEntity savedOrder = new OrderEntity();
@@ -205,6 +199,7 @@ class CheckoutServiceConcurrentTest {
             "At least one request should fail due to insufficient stock");
         assertTrue(successCount.get() + failureCount.get() == concurrentRequests,
             "All requests should complete (either success or failure)");
+        assertTrue(reserved.get() <= availableStock, "Reserved quantity must never exceed stock");
     }
 }
 
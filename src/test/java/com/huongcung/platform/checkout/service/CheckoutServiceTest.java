@@ -1,11 +1,12 @@
 package com.huongcung.platform.checkout.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.huongcung.core.common.id.SnowflakeIdGenerator;
 import com.huongcung.core.inventory.enumeration.City;
-import com.huongcung.core.inventory.model.entity.StockLevelEntity;
-import com.huongcung.core.inventory.model.entity.WarehouseEntity;
-import com.huongcung.core.inventory.repository.StockLevelRepository;
-import com.huongcung.core.inventory.repository.WarehouseRepository;
+import com.huongcung.core.inventory.exception.InsufficientStockException;
+import com.huongcung.core.inventory.service.ReservationExpiryService;
+import com.huongcung.core.inventory.service.StockAllocationService;
+import com.huongcung.core.inventory.service.StockReservationService;
 import com.huongcung.core.order.enumeration.OrderStatus;
 import com.huongcung.core.order.enumeration.OrderType;
 import com.huongcung.core.order.enumeration.PaymentMethod;
@@ -25,8 +26,7 @@ import com.huongcung.platform.checkout.dto.CheckoutItemDTO;
 import com.huongcung.platform.checkout.dto.CheckoutRequest;
 import com.huongcung.platform.checkout.dto.CheckoutResponse;
 import com.huongcung.platform.checkout.dto.ShippingAddressDTO;
-import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
-import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeResponse;
+import com.huongcung.platform.checkout.pipeline.OrderPipeline;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -34,13 +34,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -63,28 +67,38 @@ class CheckoutServiceTest {
     private AbstractBookRepository bookRepository;
     
     @Mock
-    private StockLevelRepository stockLevelRepository;
+    private StockAllocationService stockAllocationService;
     
     @Mock
-    private WarehouseRepository warehouseRepository;
+    private StockReservationService stockReservationService;
+    
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
     
     @Mock
     private UserRepository userRepository;
     
     @Mock
-    private GhnApiClient ghnApiClient;
+    private DeliveryQuoteService deliveryQuoteService;
+    
+    @Mock
+    private DeliveryRegionResolver deliveryRegionResolver;
     
     @Mock
     private ObjectMapper objectMapper;
     
+    @Mock
+    private OrderPipeline orderPipeline;
+    
+    @Spy
+    private SnowflakeIdGenerator idGenerator = new SnowflakeIdGenerator(1);
+    
     @InjectMocks
     private CheckoutService checkoutService;
     
     private CustomerEntity testCustomer;
     private PhysicalBookEntity testPhysicalBook;
     private EbookEntity testEbook;
-    private WarehouseEntity testWarehouse;
-    private StockLevelEntity testStockLevel;
     
     @BeforeEach
     void setUp() {
@@ -100,26 +114,18 @@ class CheckoutServiceTest {
         testPhysicalBook.setTitle("Test Physical Book");
         testPhysicalBook.setCurrentPrice(new BigDecimal("150000"));
         
+        // Province 201 is Hanoi; everything is planned from the Hanoi warehouse unless a test says otherwise
+        lenient().when(deliveryRegionResolver.resolve(any())).thenReturn(City.HANOI);
+        lenient().when(stockAllocationService.allocate(any(), anyList())).thenAnswer(invocation -> List.of(
+            new StockAllocationService.ConsignmentPlan(7L, invocation.getArgument(0), invocation.getArgument(1))));
+        
         // Setup test ebook
         testEbook = new EbookEntity();
         testEbook.setId(2L);
         testEbook.setCode("EBOOK001");
         testEbook.setTitle("Test Ebook");
         testEbook.setCurrentPrice(new BigDecimal("100000"));
-        
-        // Setup test warehouse
-        testWarehouse = new WarehouseEntity();
-        testWarehouse.setId(1L);
-        testWarehouse.setCity(City.HANOI);
-        testWarehouse.setCode("WH-HN-001");
-        
-        // Setup test stock level
-        testStockLevel = new StockLevelEntity();
-        testStockLevel.setId(1L);
-        testStockLevel.setBook(testPhysicalBook);
-        testStockLevel.setWarehouse(testWarehouse);
-        testStockLevel.setQuantity(100);
-        testStockLevel.setReservedQuantity(0);
+
     }
     
     @Test
@@ -146,15 +152,11 @@ class CheckoutServiceTest {
         
         when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
         when(bookRepository.findByIdIn(anyList())).thenReturn(Collections.singletonList(testPhysicalBook));
-        when(warehouseRepository.findByCity(City.HANOI)).thenReturn(Collections.singletonList(testWarehouse));
-        when(stockLevelRepository.findByBookIdAndWarehouseCity(1L, City.HANOI))
-            .thenReturn(Optional.of(testStockLevel));
-        when(stockLevelRepository.findByBookAndCityWithLock(eq(testPhysicalBook), eq(City.HANOI)))
-            .thenReturn(Optional.of(testStockLevel));
         
-        CalculateFeeResponse feeResponse = new CalculateFeeResponse();
-        feeResponse.setTotal(new BigDecimal("30000"));
-        when(ghnApiClient.calculateFee(any())).thenReturn(feeResponse);
+        // Delivery fee was quoted before checkout
+        request.setQuoteToken("quote-token");
+        when(deliveryQuoteService.verify("quote-token", address)).thenReturn(new DeliveryQuoteService.DeliveryQuote(
+            "quote-token", 1442, "1A0001", 2, 53320, 1000, new BigDecimal("30000"), null, LocalDateTime.now().plusMinutes(10)));
         
         when(objectMapper.writeValueAsString(any())).thenReturn("{}");
         
@@ -174,7 +176,10 @@ class CheckoutServiceTest {
         
         verify(orderRepository, times(1)).save(any(OrderEntity.class));
         verify(orderEntryRepository, times(1)).saveAll(anyList());
-        verify(stockLevelRepository, times(1)).save(any(StockLevelEntity.class));
+        verify(deliveryInfoRepository, times(1)).save(any());
+        verify(stockAllocationService, times(1)).allocate(eq(City.HANOI), anyList());
+        verify(stockReservationService, times(1)).reserve(anyList());
+        verify(orderPipeline, times(1)).enqueue(savedOrder);
     }
     
     @Test
@@ -234,9 +239,10 @@ class CheckoutServiceTest {
         
         when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
         when(bookRepository.findByIdIn(anyList())).thenReturn(Collections.singletonList(testPhysicalBook));
-        when(warehouseRepository.findByCity(City.HANOI)).thenReturn(Collections.singletonList(testWarehouse));
-        when(stockLevelRepository.findByBookIdAndWarehouseCity(1L, City.HANOI))
-            .thenReturn(Optional.of(testStockLevel));
+        when(orderRepository.save(any(OrderEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new InsufficientStockException(List.of(
+                new InsufficientStockException.Shortage(1L, "Test Physical Book", 150, 100))))
+            .when(stockReservationService).reserve(anyList());
         
         // When & Then
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -244,6 +250,7 @@ class CheckoutServiceTest {
         });
         
         assertTrue(exception.getMessage().contains("Insufficient stock"));
+        assertTrue(exception.getMessage().contains("Test Physical Book"));
     }
     
     @Test
@@ -282,8 +289,8 @@ class CheckoutServiceTest {
         
         // Then
         assertNotNull(response);
-        verify(stockLevelRepository, never()).findByBookIdAndWarehouseCity(any(), any());
-        verify(stockLevelRepository, never()).save(any(StockLevelEntity.class));
+        verify(stockAllocationService, never()).allocate(any(), anyList());
+        verify(stockReservationService, never()).reserve(anyList());
     }
     
     @Test
@@ -310,13 +317,7 @@ class CheckoutServiceTest {
         
         when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
         when(bookRepository.findByIdIn(anyList())).thenReturn(Collections.singletonList(testPhysicalBook));
-        when(warehouseRepository.findByCity(City.HANOI)).thenReturn(Collections.singletonList(testWarehouse));
-        when(stockLevelRepository.findByBookIdAndWarehouseCity(1L, City.HANOI))
-            .thenReturn(Optional.of(testStockLevel));
-        when(stockLevelRepository.findByBookAndCityWithLock(eq(testPhysicalBook), eq(City.HANOI)))
-            .thenReturn(Optional.of(testStockLevel));
         
-        when(ghnApiClient.calculateFee(any())).thenThrow(new GhnApiClient.GhnApiException("GHN API unavailable"));
         when(objectMapper.writeValueAsString(any())).thenReturn("{}");
         
         OrderEntity savedOrder = new OrderEntity();
@@ -358,13 +359,7 @@ class CheckoutServiceTest {
         
         when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
         when(bookRepository.findByIdIn(anyList())).thenReturn(Collections.singletonList(testPhysicalBook));
-        when(warehouseRepository.findByCity(City.HANOI)).thenReturn(Collections.singletonList(testWarehouse));
-        when(stockLevelRepository.findByBookIdAndWarehouseCity(1L, City.HANOI))
-            .thenReturn(Optional.of(testStockLevel));
-        when(stockLevelRepository.findByBookAndCityWithLock(eq(testPhysicalBook), eq(City.HANOI)))
-            .thenReturn(Optional.of(testStockLevel));
         
-        when(ghnApiClient.calculateFee(any())).thenThrow(new GhnApiClient.GhnApiException("GHN API unavailable"));
         when(objectMapper.writeValueAsString(any())).thenReturn("{}");
         
         OrderEntity savedOrder = new OrderEntity();
@@ -376,11 +371,69 @@ class CheckoutServiceTest {
         checkoutService.createOrder(request, 1L);
         
         // Then
-        ArgumentCaptor<StockLevelEntity> stockCaptor = ArgumentCaptor.forClass(StockLevelEntity.class);
-        verify(stockLevelRepository, times(1)).save(stockCaptor.capture());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockAllocationService.ConsignmentPlan>> planCaptor = ArgumentCaptor.forClass(List.class);
+        verify(stockReservationService, times(1)).reserve(planCaptor.capture());
+        
+        List<StockAllocationService.ConsignmentPlan> plans = planCaptor.getValue();
+        assertEquals(1, plans.size());
+        List<StockReservationService.StockRequest> reserved = plans.get(0).lines();
+        assertEquals(1, reserved.size());
+        assertEquals(1L, reserved.get(0).bookId());
+        assertEquals(5, reserved.get(0).quantity()); // Should be reserved
+    }
+    
+    @Test
+    @DisplayName("Should plan warehouses for the delivery region and track every warehouse reservation")
+    void createOrder_SplitAcrossWarehouses_TracksEveryReservation() throws Exception {
+        // Given
+        PhysicalBookEntity secondBook = new PhysicalBookEntity();
+        secondBook.setId(3L);
+        secondBook.setCode("BOOK003");
+        secondBook.setTitle("Second Physical Book");
+        secondBook.setCurrentPrice(new BigDecimal("50000"));
+        
+        CheckoutItemDTO first = new CheckoutItemDTO();
+        first.setBookId(1L);
+        first.setQuantity(1);
+        first.setItemType("PHYSICAL");
+        CheckoutItemDTO second = new CheckoutItemDTO();
+        second.setBookId(3L);
+        second.setQuantity(2);
+        second.setItemType("PHYSICAL");
+        
+        ShippingAddressDTO address = ShippingAddressDTO.builder()
+            .provinceId(202)
+            .districtId(1454)
+            .wardCode("21211")
+            .build();
+        
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(Arrays.asList(first, second));
+        request.setShippingAddress(address);
+        
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(bookRepository.findByIdIn(anyList())).thenReturn(Arrays.asList(testPhysicalBook, secondBook));
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        when(orderRepository.save(any(OrderEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(deliveryRegionResolver.resolve(address)).thenReturn(City.HCMC);
+        
+        List<StockAllocationService.ConsignmentPlan> plans = List.of(
+            new StockAllocationService.ConsignmentPlan(8L, City.HCMC,
+                List.of(new StockReservationService.StockRequest(1L, "Test Physical Book", 1))),
+            new StockAllocationService.ConsignmentPlan(9L, City.DANANG,
+                List.of(new StockReservationService.StockRequest(3L, "Second Physical Book", 2))));
+        when(stockAllocationService.allocate(eq(City.HCMC), anyList())).thenReturn(plans);
+        List<StockReservationService.Reservation> reservations = List.of(
+            new StockReservationService.Reservation(8L, new TreeMap<>(Map.of(1L, 1))),
+            new StockReservationService.Reservation(9L, new TreeMap<>(Map.of(3L, 2))));
+        when(stockReservationService.reserve(plans)).thenReturn(reservations);
+        
+        // When
+        checkoutService.createOrder(request, 1L);
         
-        StockLevelEntity savedStock = stockCaptor.getValue();
-        assertEquals(5, savedStock.getReservedQuantity()); // Should be reserved
+        // Then
+        verify(reservationExpiryService, times(1)).trackOrder(any(OrderEntity.class), eq(reservations));
     }
     
     @Test
@@ -412,13 +465,7 @@ class CheckoutServiceTest {
         
         when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
         when(bookRepository.findByIdIn(anyList())).thenReturn(Arrays.asList(testPhysicalBook, testEbook));
-        when(warehouseRepository.findByCity(City.HANOI)).thenReturn(Collections.singletonList(testWarehouse));
-        when(stockLevelRepository.findByBookIdAndWarehouseCity(1L, City.HANOI))
-            .thenReturn(Optional.of(testStockLevel));
-        when(stockLevelRepository.findByBookAndCityWithLock(eq(testPhysicalBook), eq(City.HANOI)))
-            .thenReturn(Optional.of(testStockLevel));
         
-        when(ghnApiClient.calculateFee(any())).thenThrow(new GhnApiClient.GhnApiException("GHN API unavailable"));
         when(objectMapper.writeValueAsString(any())).thenReturn("{}");
         
         OrderEntity savedOrder = new OrderEntity();
@@ -439,5 +486,75 @@ class CheckoutServiceTest {
         assertEquals(OrderStatus.PENDING, savedOrderEntity.getStatus());
         assertEquals(PaymentStatus.PENDING, savedOrderEntity.getPaymentStatus());
     }
+    
+    @Test
+    @DisplayName("Should resolve all cart books in one set-based query per key type")
+    void createOrder_ResolvesBooksInBatch() throws Exception {
+        // Given
+        CheckoutItemDTO ebookByCode = new CheckoutItemDTO();
+        ebookByCode.setBookCode("EBOOK001");
+        ebookByCode.setQuantity(2);
+        ebookByCode.setItemType("DIGITAL");
+        
+        CheckoutItemDTO sameEbookByCode = new CheckoutItemDTO();
+        sameEbookByCode.setBookCode("EBOOK001");
+        sameEbookByCode.setQuantity(1);
+        sameEbookByCode.setItemType("DIGITAL");
+        
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(Arrays.asList(ebookByCode, sameEbookByCode));
+        
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(bookRepository.findByCodeIn(anyList())).thenReturn(Collections.singletonList(testEbook));
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        
+        OrderEntity savedOrder = new OrderEntity();
+        savedOrder.setId(1L);
+        savedOrder.setOrderNumber("ORD-20241201120000-ABC123");
+        when(orderRepository.save(any(OrderEntity.class))).thenReturn(savedOrder);
+        
+        // When
+        checkoutService.createOrder(request, 1L);
+        
+        // Then
+        verify(bookRepository, times(1)).findByCodeIn(List.of("EBOOK001"));
+        verify(bookRepository, never()).findByIdIn(anyList());
+        verify(bookRepository, never()).findAbstractBookEntityByCode(anyString());
+        verify(bookRepository, never()).findById(anyLong());
+        
+        ArgumentCaptor<OrderEntity> orderCaptor = ArgumentCaptor.forClass(OrderEntity.class);
+        verify(orderRepository).save(orderCaptor.capture());
+        assertEquals(0, new BigDecimal("300000").compareTo(orderCaptor.getValue().getSubtotal()));
+    }
+    
+    @Test
+    @DisplayName("Should report every missing book at once")
+    void createOrder_MultipleBooksNotFound_ReportsAll() {
+        // Given
+        CheckoutItemDTO first = new CheckoutItemDTO();
+        first.setBookId(1L);
+        first.setQuantity(1);
+        
+        CheckoutItemDTO missing = new CheckoutItemDTO();
+        missing.setBookId(99L);
+        missing.setQuantity(1);
+        
+        CheckoutItemDTO missingByCode = new CheckoutItemDTO();
+        missingByCode.setBookCode("NOPE");
+        missingByCode.setQuantity(1);
+        
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(Arrays.asList(first, missing, missingByCode));
+        
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testCustomer));
+        when(bookRepository.findByIdIn(anyList())).thenReturn(Collections.singletonList(testPhysicalBook));
+        when(bookRepository.findByCodeIn(anyList())).thenReturn(Collections.emptyList());
+        
+        // When & Then
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+            () -> checkoutService.createOrder(request, 1L));
+        assertTrue(ex.getMessage().contains("ID: 99"));
+        assertTrue(ex.getMessage().contains("NOPE"));
+        verify(orderRepository, never()).save(any());
+    }
 }
-
@@ -0,0 +1,79 @@
+package com.huongcung.platform.checkout.service;
+
+import com.huongcung.platform.checkout.external.ghn.GhnMasterDataStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DeliveryFeeEstimator
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeliveryFeeEstimator Unit Tests")
+class DeliveryFeeEstimatorTest {
+
+    @Mock
+    private GhnMasterDataStore ghnMasterDataStore;
+
+    @InjectMocks
+    private DeliveryFeeEstimator estimator;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(estimator, "enabled", true);
+        ReflectionTestUtils.setField(estimator, "weightTierGrams", 500);
+        ReflectionTestUtils.setField(estimator, "minProvinceSamples", 2);
+        ReflectionTestUtils.setField(estimator, "accuracyPercent", 5);
+        lenient().when(ghnMasterDataStore.findProvinceId(anyInt())).thenReturn(201);
+    }
+
+    @Test
+    @DisplayName("Should estimate from learned fees in the same district and weight tier")
+    void testEstimateFromDistrict() {
+        assertTrue(estimator.estimate(2, 1442, 800).isEmpty());
+
+        estimator.learn(2, 1442, 1000, new BigDecimal("30000"));
+
+        assertEquals(Optional.of(new BigDecimal("30000")), estimator.estimate(2, 1442, 800));
+        assertTrue(estimator.estimate(2, 1442, 2000).isEmpty());
+        assertTrue(estimator.estimate(1, 1442, 800).isEmpty());
+        assertEquals(1, estimator.getEstimatesServed());
+        assertEquals(3, estimator.getEstimateMisses());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the province once it has enough samples")
+    void testProvinceFallback() {
+        estimator.learn(2, 1442, 1000, new BigDecimal("30000"));
+        assertTrue(estimator.estimate(2, 1443, 1000).isEmpty());
+
+        estimator.learn(2, 1444, 1000, new BigDecimal("30000"));
+        assertEquals(Optional.of(new BigDecimal("30000")), estimator.estimate(2, 1443, 1000));
+    }
+
+    @Test
+    @DisplayName("Should track the error of estimates against GHN fees")
+    void testTracksErrorRate() {
+        estimator.learn(2, 1442, 1000, new BigDecimal("30000"));
+        estimator.learn(2, 1442, 1000, new BigDecimal("30000")); // exact
+        estimator.learn(2, 1442, 1000, new BigDecimal("40000")); // 25% off
+
+        assertEquals(2, estimator.getComparisonCount());
+        assertEquals(12.5, estimator.getMeanAbsolutePercentError(), 0.001);
+        assertEquals(0.5, estimator.getAccuracyRate(), 0.001);
+        // Moving average moves toward the new fee
+        assertEquals(new BigDecimal("33000"), estimator.estimate(2, 1442, 1000).orElseThrow());
+    }
+}
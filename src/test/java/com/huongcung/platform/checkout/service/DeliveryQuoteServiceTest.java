@@ -0,0 +1,142 @@
+package com.huongcung.platform.checkout.service;
+
+import com.huongcung.platform.checkout.dto.CheckoutItemDTO;
+import com.huongcung.platform.checkout.dto.CheckoutRequest;
+import com.huongcung.platform.checkout.dto.ShippingAddressDTO;
+import com.huongcung.platform.checkout.external.ghn.GhnApiClient;
+import com.huongcung.platform.checkout.external.ghn.GhnFeeCache;
+import com.huongcung.platform.checkout.external.ghn.dto.CalculateFeeResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DeliveryQuoteService
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeliveryQuoteService Unit Tests")
+class DeliveryQuoteServiceTest {
+
+    @Mock
+    private GhnFeeCache ghnFeeCache;
+
+    @Mock
+    private DeliveryFeeEstimator deliveryFeeEstimator;
+
+    @InjectMocks
+    private DeliveryQuoteService deliveryQuoteService;
+
+    private ShippingAddressDTO address;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(deliveryQuoteService, "secret", "test-secret");
+        ReflectionTestUtils.setField(deliveryQuoteService, "ttlSeconds", 600L);
+
+        address = ShippingAddressDTO.builder()
+            .districtId(1442)
+            .wardCode("1A0001")
+            .build();
+
+        CalculateFeeResponse feeResponse = new CalculateFeeResponse();
+        feeResponse.setTotal(new BigDecimal("30000"));
+        feeResponse.setServiceFee(new BigDecimal("25000"));
+        lenient().when(ghnFeeCache.calculateFee(any())).thenReturn(feeResponse);
+    }
+
+    @Test
+    @DisplayName("Should verify a quote it issued for the same address")
+    void testQuoteRoundTrip() {
+        DeliveryQuoteService.DeliveryQuote issued = deliveryQuoteService.quote(1442, "1A0001", 2);
+
+        DeliveryQuoteService.DeliveryQuote verified = deliveryQuoteService.verify(issued.token(), address);
+
+        assertEquals(new BigDecimal("30000"), verified.fee());
+        assertEquals(new BigDecimal("25000"), verified.serviceFee());
+        assertEquals(53320, verified.serviceId());
+        assertEquals(1000, verified.weight());
+        verify(deliveryFeeEstimator).learn(2, 1442, 1000, new BigDecimal("30000"));
+    }
+
+    @Test
+    @DisplayName("Should reject a quote whose fee was tampered with")
+    void testRejectsTamperedQuote() {
+        String token = deliveryQuoteService.quote(1442, "1A0001", 2).token();
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))));
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(payload.replace("|30000|", "|1|").getBytes()) + token.substring(token.indexOf('.'));
+
+        assertThrows(IllegalArgumentException.class, () -> deliveryQuoteService.verify(tampered, address));
+        assertThrows(IllegalArgumentException.class, () -> deliveryQuoteService.verify("garbage", address));
+    }
+
+    @Test
+    @DisplayName("Should reject expired quotes and quotes for another address")
+    void testRejectsExpiredOrMismatchedQuote() {
+        ReflectionTestUtils.setField(deliveryQuoteService, "ttlSeconds", -1L);
+        String expired = deliveryQuoteService.quote(1442, "1A0001", 2).token();
+        assertThrows(IllegalArgumentException.class, () -> deliveryQuoteService.verify(expired, address));
+
+        ReflectionTestUtils.setField(deliveryQuoteService, "ttlSeconds", 600L);
+        String valid = deliveryQuoteService.quote(1442, "1A0001", 2).token();
+        ShippingAddressDTO otherWard = ShippingAddressDTO.builder().districtId(1442).wardCode("1A0002").build();
+        assertThrows(IllegalArgumentException.class, () -> deliveryQuoteService.verify(valid, otherWard));
+    }
+
+    @Test
+    @DisplayName("Should reject a signed quote for another parcel than the standard one")
+    void testRejectsOtherParcel() throws Exception {
+        long expiresAt = System.currentTimeMillis() + 60_000;
+        String lightParcel = sign("1442|1A0001|2|53320|1|20|15|5|1000||" + expiresAt);
+        String otherService = sign("1442|1A0001|2|53321|1000|20|15|5|1000||" + expiresAt);
+        String smallBox = sign("1442|1A0001|2|53320|1000|1|1|1|1000||" + expiresAt);
+
+        assertEquals(new BigDecimal("1000"),
+            deliveryQuoteService.verify(sign("1442|1A0001|2|53320|1000|20|15|5|1000||" + expiresAt), address).fee());
+        assertThrows(IllegalArgumentException.class, () -> deliveryQuoteService.verify(lightParcel, address));
+        assertThrows(IllegalArgumentException.class, () -> deliveryQuoteService.verify(otherService, address));
+        assertThrows(IllegalArgumentException.class, () -> deliveryQuoteService.verify(smallBox, address));
+    }
+
+    @Test
+    @DisplayName("Should quote physical orders that arrive without a token and tolerate GHN failures")
+    void testAttachQuoteIfMissing() {
+        CheckoutItemDTO item = new CheckoutItemDTO();
+        item.setItemType("PHYSICAL");
+        CheckoutRequest request = new CheckoutRequest();
+        request.setItems(Collections.singletonList(item));
+        request.setShippingAddress(address);
+
+        deliveryQuoteService.attachQuoteIfMissing(request);
+        assertNotNull(request.getQuoteToken());
+
+        request.setQuoteToken(null);
+        when(ghnFeeCache.calculateFee(any())).thenThrow(new GhnApiClient.GhnApiException("GHN API unavailable"));
+        deliveryQuoteService.attachQuoteIfMissing(request);
+        assertNull(request.getQuoteToken());
+    }
+
+    private static String sign(String payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("test-secret".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+            + "." + encoder.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,84 @@
+package com.huongcung.platform.checkout.service;
+
+import com.huongcung.core.inventory.enumeration.City;
+import com.huongcung.platform.checkout.dto.ShippingAddressDTO;
+import com.huongcung.platform.checkout.external.ghn.GhnMasterDataStore;
+import com.huongcung.platform.checkout.external.ghn.dto.GhnProvinceDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeliveryRegionResolver Unit Tests")
+class DeliveryRegionResolverTest {
+
+    @Mock
+    private GhnMasterDataStore ghnMasterDataStore;
+
+    @InjectMocks
+    private DeliveryRegionResolver deliveryRegionResolver;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(ghnMasterDataStore.getVersion()).thenReturn("v1");
+        lenient().when(ghnMasterDataStore.getProvinces()).thenReturn(List.of(
+            province(201, "Hà Nội"),
+            province(202, "Hồ Chí Minh"),
+            province(203, "Đà Nẵng"),
+            province(224, "Nghệ An"),
+            province(237, "Tỉnh Thừa Thiên Huế"),
+            province(206, "Bà Rịa - Vũng Tàu"),
+            province(250, "Hoà Bình"),
+            province(299, "Test Province")));
+    }
+
+    @Test
+    @DisplayName("Should map GHN provinces to the nearest warehouse city")
+    void testResolveByProvince() {
+        assertEquals(City.HANOI, deliveryRegionResolver.resolve(address(201, null)));
+        assertEquals(City.HCMC, deliveryRegionResolver.resolve(address(202, null)));
+        assertEquals(City.DANANG, deliveryRegionResolver.resolve(address(203, null)));
+        assertEquals(City.HANOI, deliveryRegionResolver.resolve(address(224, null)));
+        assertEquals(City.DANANG, deliveryRegionResolver.resolve(address(237, null)));
+        assertEquals(City.HCMC, deliveryRegionResolver.resolve(address(206, null)));
+        // Older spelling with the tone mark on the other vowel
+        assertEquals(City.HANOI, deliveryRegionResolver.resolve(address(250, null)));
+
+        // The province index is built once per master data version
+        verify(ghnMasterDataStore, times(1)).getProvinces();
+    }
+
+    @Test
+    @DisplayName("Should fall back to the district's province, then to the default city")
+    void testFallbacks() {
+        when(ghnMasterDataStore.findProvinceId(1454)).thenReturn(202);
+
+        assertEquals(City.HCMC, deliveryRegionResolver.resolve(address(null, 1454)));
+        assertEquals(DeliveryRegionResolver.DEFAULT_CITY, deliveryRegionResolver.resolve(address(null, 9999)));
+        assertEquals(DeliveryRegionResolver.DEFAULT_CITY, deliveryRegionResolver.resolve(address(299, null)));
+        assertEquals(DeliveryRegionResolver.DEFAULT_CITY, deliveryRegionResolver.resolve(null));
+    }
+
+    private static ShippingAddressDTO address(Integer provinceId, Integer districtId) {
+        return ShippingAddressDTO.builder()
+            .provinceId(provinceId)
+            .districtId(districtId)
+            .build();
+    }
+
+    private static GhnProvinceDTO province(int id, String name) {
+        GhnProvinceDTO province = new GhnProvinceDTO();
+        province.setProvinceId(id);
+        province.setProvinceName(name);
+        return province;
+    }
+}
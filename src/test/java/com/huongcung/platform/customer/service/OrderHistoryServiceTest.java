@@ -0,0 +1,127 @@
+package com.huongcung.platform.customer.service;
+
+import com.huongcung.core.order.enumeration.ItemType;
+import com.huongcung.core.order.enumeration.OrderStatus;
+import com.huongcung.core.order.enumeration.PaymentStatus;
+import com.huongcung.core.order.model.dto.OrderLine;
+import com.huongcung.core.order.model.dto.OrderSummary;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.order.repository.OrderEntryRepository;
+import com.huongcung.core.order.repository.OrderRepository;
+import com.huongcung.platform.customer.dto.OrderDetailsDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderHistoryService Unit Tests")
+class OrderHistoryServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 9, 30, 15, 123456000);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderEntryRepository orderEntryRepository;
+
+    @InjectMocks
+    private OrderHistoryService orderHistoryService;
+
+    @Test
+    @DisplayName("Should return the first page with a cursor at its last order, fetching one extra row instead of counting")
+    void testFirstPage() {
+        when(orderRepository.findSummaries(eq(1L), any(Pageable.class))).thenReturn(List.of(
+            summary(30L, NOW, 3L), summary(29L, NOW, 1L), summary(28L, NOW.minusDays(1), 2L)));
+
+        OrderHistoryService.OrderHistorySlice slice = orderHistoryService.getOrderHistory(1L, null, 2);
+
+        assertEquals(2, slice.orders().size());
+        assertTrue(slice.hasNext());
+        assertEquals(3, slice.orders().get(0).getItemCount());
+        assertEquals("DELIVERED", slice.orders().get(0).getStatus());
+
+        ArgumentCaptor<Pageable> limit = ArgumentCaptor.forClass(Pageable.class);
+        verify(orderRepository).findSummaries(eq(1L), limit.capture());
+        assertEquals(3, limit.getValue().getPageSize());
+        verifyNoMoreInteractions(orderRepository);
+
+        OrderHistoryService.OrderCursor cursor = OrderHistoryService.OrderCursor.decode(slice.nextCursor());
+        assertEquals(NOW, cursor.createdAt());
+        assertEquals(29L, cursor.id());
+    }
+
+    @Test
+    @DisplayName("Should continue after the cursor position and end without a cursor")
+    void testNextPage() {
+        String cursor = new OrderHistoryService.OrderCursor(NOW, 29L).encode();
+        when(orderRepository.findSummariesBefore(eq(1L), eq(NOW), eq(29L), any(Pageable.class)))
+            .thenReturn(List.of(summary(28L, NOW.minusDays(1), 2L)));
+
+        OrderHistoryService.OrderHistorySlice slice = orderHistoryService.getOrderHistory(1L, cursor, 2);
+
+        assertEquals(1, slice.orders().size());
+        assertEquals(28L, slice.orders().get(0).getId());
+        assertFalse(slice.hasNext());
+        assertNull(slice.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed cursor")
+    void testMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> orderHistoryService.getOrderHistory(1L, "not-a-cursor", 20));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("Should build order details from the owned order and its projected lines")
+    void testOrderDetails() {
+        OrderEntity order = new OrderEntity();
+        order.setId(30L);
+        order.setOrderNumber("ORD-30");
+        order.setStatus(OrderStatus.CONFIRMED);
+        order.setTotalAmount(new BigDecimal("250000"));
+        when(orderRepository.findDetailsByIdAndCustomerId(30L, 1L)).thenReturn(Optional.of(order));
+        when(orderEntryRepository.findLinesByOrderId(30L)).thenReturn(List.of(
+            new OrderLine(301L, "BK-1", "Book 1", ItemType.PHYSICAL, 2, new BigDecimal("50000"), new BigDecimal("100000")),
+            new OrderLine(302L, "BK-2", "Book 2", ItemType.DIGITAL, 1, new BigDecimal("150000"), new BigDecimal("150000"))));
+
+        OrderDetailsDTO details = orderHistoryService.getOrderDetails(30L, 1L);
+
+        assertEquals("ORD-30", details.getOrderNumber());
+        assertEquals("CONFIRMED", details.getStatus());
+        assertEquals(2, details.getItems().size());
+        assertEquals("BK-1", details.getItems().get(0).getBookCode());
+        assertEquals("DIGITAL", details.getItems().get(1).getItemType());
+        assertNull(details.getDeliveryInfo());
+        verify(orderRepository, never()).findById(any());
+    }
+
+    @Test
+    @DisplayName("Should not find another customer's order and not load its lines")
+    void testOrderDetailsOfOtherCustomer() {
+        when(orderRepository.findDetailsByIdAndCustomerId(30L, 2L)).thenReturn(Optional.empty());
+
+        assertThrows(IllegalArgumentException.class, () -> orderHistoryService.getOrderDetails(30L, 2L));
+        verifyNoInteractions(orderEntryRepository);
+    }
+
+    private static OrderSummary summary(Long id, LocalDateTime createdAt, Long itemCount) {
+        return new OrderSummary(id, "ORD-" + id, createdAt, OrderStatus.DELIVERED, PaymentStatus.PAID,
+            new BigDecimal("100000"), itemCount);
+    }
+}
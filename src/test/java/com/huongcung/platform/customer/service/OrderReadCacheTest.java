@@ -0,0 +1,125 @@
+package com.huongcung.platform.customer.service;
+
+import com.huongcung.core.order.event.CustomerOrdersChangedEvent;
+import com.huongcung.core.order.event.OrderPlacedEvent;
+import com.huongcung.core.order.model.entity.OrderEntity;
+import com.huongcung.core.user.model.entity.CustomerEntity;
+import com.huongcung.platform.customer.dto.OrderDetailsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for OrderReadCache
+ */
+@DisplayName("OrderReadCache Unit Tests")
+class OrderReadCacheTest {
+
+    private OrderReadCache orderReadCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        orderReadCache = new OrderReadCache();
+        ReflectionTestUtils.setField(orderReadCache, "enabled", true);
+        ReflectionTestUtils.setField(orderReadCache, "maxCustomers", 2);
+        ReflectionTestUtils.setField(orderReadCache, "maxDetailsPerCustomer", 20);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Should serve repeated reads from the cache under a stable version")
+    void testHit() {
+        long version = orderReadCache.getVersion(1L);
+
+        OrderDetailsDTO first = orderReadCache.getOrderDetails(1L, 30L, () -> details(30L));
+        OrderDetailsDTO second = orderReadCache.getOrderDetails(1L, 30L, () -> details(30L));
+        orderReadCache.getFirstPage(1L, 20, this::page);
+        orderReadCache.getFirstPage(1L, 20, this::page);
+
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+        assertEquals(2, orderReadCache.getHitCount());
+        assertEquals(version, orderReadCache.getVersion(1L));
+    }
+
+    @Test
+    @DisplayName("Should drop the customer's entries and advance the version on committed order events")
+    void testInvalidation() {
+        long version = orderReadCache.getVersion(1L);
+        orderReadCache.getOrderDetails(1L, 30L, () -> details(30L));
+        orderReadCache.getOrderDetails(2L, 40L, () -> details(40L));
+
+        orderReadCache.onCustomerOrdersChanged(new CustomerOrdersChangedEvent(this, List.of(1L)));
+
+        long changed = orderReadCache.getVersion(1L);
+        assertTrue(changed > version);
+        orderReadCache.getOrderDetails(1L, 30L, () -> details(30L));
+        orderReadCache.getOrderDetails(2L, 40L, () -> details(40L));
+        assertEquals(3, loads.get());
+
+        CustomerEntity customer = new CustomerEntity();
+        customer.setId(1L);
+        OrderEntity order = new OrderEntity();
+        order.setId(31L);
+        order.setCustomer(customer);
+        orderReadCache.onOrderPlaced(new OrderPlacedEvent(this, order));
+        assertTrue(orderReadCache.getVersion(1L) > changed);
+        assertEquals(2, orderReadCache.getInvalidationCount());
+    }
+
+    @Test
+    @DisplayName("Should not keep a result loaded while a change was committed")
+    void testChangeDuringLoad() {
+        orderReadCache.getOrderDetails(1L, 30L, () -> {
+            OrderDetailsDTO stale = details(30L);
+            orderReadCache.invalidate(1L);
+            return stale;
+        });
+
+        orderReadCache.getOrderDetails(1L, 30L, () -> details(30L));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used customer and never reuse its version")
+    void testBounded() {
+        long first = orderReadCache.getVersion(1L);
+        orderReadCache.getVersion(2L);
+        orderReadCache.getVersion(1L);
+        orderReadCache.getVersion(3L);
+
+        assertEquals(2, orderReadCache.size());
+        assertEquals(first, orderReadCache.getVersion(1L));
+        assertTrue(orderReadCache.getVersion(2L) > first);
+    }
+
+    @Test
+    @DisplayName("Should not cache orders that are not found")
+    void testNotFound() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalArgumentException.class, () -> orderReadCache.getOrderDetails(1L, 99L, () -> {
+                loads.incrementAndGet();
+                throw new IllegalArgumentException("Order not found: 99");
+            }));
+        }
+        assertEquals(2, loads.get());
+    }
+
+    private OrderDetailsDTO details(Long orderId) {
+        loads.incrementAndGet();
+        return OrderDetailsDTO.builder().id(orderId).build();
+    }
+
+    private OrderHistoryService.OrderHistorySlice page() {
+        loads.incrementAndGet();
+        return new OrderHistoryService.OrderHistorySlice(List.of(), null, false);
+    }
+}
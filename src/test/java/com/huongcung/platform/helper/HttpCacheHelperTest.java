@@ -0,0 +1,96 @@
+package com.huongcung.platform.helper;
+
+import com.huongcung.platform.configuration.HttpCacheConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HttpCacheHelper
+ */
+@DisplayName("HttpCacheHelper Unit Tests")
+class HttpCacheHelperTest {
+
+    private HttpCacheConfig httpCacheConfig;
+    private HttpCacheHelper httpCacheHelper;
+
+    @BeforeEach
+    void setUp() {
+        httpCacheConfig = new HttpCacheConfig();
+        httpCacheHelper = new HttpCacheHelper(httpCacheConfig);
+    }
+
+    @Test
+    @DisplayName("Should build stable strong ETags that change with the version")
+    void testStrongETag() {
+        String etag = httpCacheHelper.strongETag("search", 42L, "q=kieu");
+
+        assertTrue(etag.startsWith("\"") && etag.endsWith("\""));
+        assertFalse(etag.startsWith("W/"));
+        assertEquals(etag, httpCacheHelper.strongETag("search", 42L, "q=kieu"));
+        assertNotEquals(etag, httpCacheHelper.strongETag("search", 43L, "q=kieu"));
+    }
+
+    @Test
+    @DisplayName("Should answer a matching If-None-Match with 304 and keep the cache policy")
+    void testNotModified() {
+        String etag = httpCacheHelper.strongETag("book", "BK001", 1000L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books/BK001");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        boolean notModified = httpCacheHelper.checkNotModified(new ServletWebRequest(request, response), etag, 1000L, 300);
+
+        assertTrue(notModified);
+        assertEquals(304, response.getStatus());
+        assertEquals("max-age=300, public", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @DisplayName("Should set validators when the client copy is stale")
+    void testModified() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"stale\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        String etag = httpCacheHelper.strongETag("books", 7L);
+
+        boolean notModified = httpCacheHelper.checkNotModified(new ServletWebRequest(request, response), etag, 1000L, 60);
+
+        assertFalse(notModified);
+        assertEquals(200, response.getStatus());
+        assertEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    @DisplayName("Should answer per-user validators with 304 and keep the response private")
+    void testNotModifiedPrivate() {
+        String etag = httpCacheHelper.strongETag("orders", 1L, 42L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/customer/orders");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(httpCacheHelper.checkNotModifiedPrivate(new ServletWebRequest(request, response), etag));
+        assertEquals(304, response.getStatus());
+        assertEquals("no-cache, private", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    @DisplayName("Should do nothing when HTTP caching is disabled")
+    void testDisabled() {
+        httpCacheConfig.setEnabled(false);
+        String etag = httpCacheHelper.strongETag("books", 7L);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(httpCacheHelper.checkNotModified(new ServletWebRequest(request, response), etag, 1000L, 60));
+        assertNull(response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+}
@@ -0,0 +1,61 @@
+package scratch;
+
+import jakarta.persistence.Entity;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.MySQLDialect;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.lang.reflect.Field;
+
+class ScratchExportQueryTest {
+    static org.hibernate.engine.jdbc.connections.spi.ConnectionProvider provider() {
+        java.sql.Connection connection = (java.sql.Connection) java.lang.reflect.Proxy.newProxyInstance(
+                ScratchExportQueryTest.class.getClassLoader(), new Class<?>[]{java.sql.Connection.class}, (proxy, m, args) -> {
+                    if (m.getName().equals("prepareStatement")) { System.out.println("SQL " + args[0]); throw new java.sql.SQLException("stop"); }
+                    if (m.getName().equals("getAutoCommit")) return true;
+                    if (m.getReturnType() == boolean.class) return false;
+                    if (m.getReturnType() == int.class) return 0;
+                    return null;
+                });
+        return new org.hibernate.engine.jdbc.connections.spi.ConnectionProvider() {
+            public java.sql.Connection getConnection() { return connection; }
+            public void closeConnection(java.sql.Connection c) {}
+            public boolean supportsAggressiveRelease() { return false; }
+            public boolean isUnwrappableAs(Class<?> t) { return false; }
+            public <T> T unwrap(Class<T> t) { return null; }
+        };
+    }
+
+    @Test
+    void validate() throws Exception {
+        MetadataSources sources = new MetadataSources(new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", MySQLDialect.class.getName())
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .applySetting("hibernate.connection.provider_class", provider()).build());
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition d : scanner.findCandidateComponents("com.huongcung.core")) {
+            sources.addAnnotatedClass(Class.forName(d.getBeanClassName()));
+        }
+        SessionFactory sf = sources.buildMetadata().buildSessionFactory();
+        for (Field f : Class.forName("com.huongcung.core.product.service.impl.BookExportServiceImpl").getDeclaredFields()) {
+            if (f.getName().endsWith("_HQL")) {
+                f.setAccessible(true);
+                try (var s = sf.openStatelessSession()) {
+                    var q = s.createSelectionQuery((String) f.get(null), Object[].class);
+                    if (f.getName().startsWith("BOOKS")) { s.beginTransaction(); try { q.scroll(org.hibernate.ScrollMode.FORWARD_ONLY); } catch (Exception ignored) { System.out.println("X " + ignored); } }
+                    else { try { q.setParameter("ids", java.util.List.of(1L)).getResultList(); } catch (Exception ignored) {} }
+                    System.out.println("OK " + f.getName());
+                } catch (Exception e) {
+                    System.out.println("FAIL " + f.getName() + ": " + e);
+                }
+            }
+        }
+        sf.close();
+    }
+}
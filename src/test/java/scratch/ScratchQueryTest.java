@@ -0,0 +1,46 @@
+package scratch;
+
+import jakarta.persistence.Entity;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.dialect.MySQLDialect;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.jpa.repository.Query;
+
+import java.lang.reflect.Method;
+
+class ScratchQueryTest {
+    @Test
+    void validate() throws Exception {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting("hibernate.dialect", MySQLDialect.class.getName())
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        for (BeanDefinition d : scanner.findCandidateComponents("com.huongcung.core")) {
+            sources.addAnnotatedClass(Class.forName(d.getBeanClassName()));
+        }
+        SessionFactory sf = sources.buildMetadata().buildSessionFactory();
+        for (String repo : System.getProperty("repos").split(",")) {
+            for (Method m : Class.forName(repo).getDeclaredMethods()) {
+                Query q = m.getAnnotation(Query.class);
+                if (q != null && !q.nativeQuery()) {
+                    try (var s = sf.openSession()) {
+                        s.createQuery(q.value());
+                        System.out.println("OK " + m.getName());
+                    } catch (Exception e) {
+                        System.out.println("FAIL " + m.getName() + ": " + e.getMessage());
+                    }
+                }
+            }
+        }
+        sf.close();
+    }
+}